@@ -0,0 +1,152 @@
+package benchmarks;
+
+import formula.ltlf.LTLfLocalVar;
+import synthesis.symbols.PartitionedDomain;
+import synthesis.symbols.PropositionSet;
+
+/**
+ * FormulaFamily
+ * Families of scalable specifications used by the benchmarks, over environment propositions e0..e(n-1)
+ * and system propositions s0..s(m-1). All families are realizable, so that their strategies can be played.
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public enum FormulaFamily {
+
+	/**
+	 * Conjunction of responses G(ei -&gt; F sj)
+	 */
+	RESPONSE {
+		@Override
+		public String formula(int environment, int system){
+			StringBuilder sb = new StringBuilder();
+
+			for (int i = 0; i < Math.max(environment, system); i++){
+				conjoin(sb, "(G(" + env(i % environment) + " -> (F " + sys(i % system) + ")))");
+			}
+
+			return sb.toString();
+		}
+	},
+
+	/**
+	 * Conjunction of guarantees F(ei | sj)
+	 */
+	GUARANTEE {
+		@Override
+		public String formula(int environment, int system){
+			StringBuilder sb = new StringBuilder();
+
+			for (int i = 0; i < Math.max(environment, system); i++){
+				conjoin(sb, "(F(" + env(i % environment) + " | " + sys(i % system) + "))");
+			}
+
+			return sb.toString();
+		}
+	},
+
+	/**
+	 * Ordered sequence of system propositions F(s0 &amp; X(F(s1 &amp; ...))), in conjunction with a response for
+	 * every environment proposition
+	 */
+	SEQUENCE {
+		@Override
+		public String formula(int environment, int system){
+			String sequence = "(F " + sys(system - 1) + ")";
+
+			for (int j = system - 2; j >= 0; j--){
+				sequence = "(F(" + sys(j) + " & (X" + sequence + ")))";
+			}
+
+			StringBuilder sb = new StringBuilder(sequence);
+
+			for (int i = 0; i < environment; i++){
+				conjoin(sb, "(G(" + env(i) + " -> (F " + sys(i % system) + ")))");
+			}
+
+			return sb.toString();
+		}
+	},
+
+	/**
+	 * Responses and next obligations written with the redundancies of hand written or generated specifications:
+	 * nested G and F, constant guards, obligations on the same instant and absorbed disjuncts, see FormulaSimplifier
+	 */
+	REDUNDANT {
+		@Override
+		public String formula(int environment, int system){
+			StringBuilder sb = new StringBuilder();
+
+			for (int i = 0; i < Math.max(environment, system); i++){
+				String e = env(i % environment);
+				String s = sys(i % system);
+				String next = sys((i + 1) % system);
+
+				conjoin(sb, "(G(G((" + e + " | false) -> (F(F(true & " + s + "))))))");
+				conjoin(sb, "((X(X " + s + ")) & (X(X(" + next + " | (" + next + " & " + e + ")))))");
+			}
+
+			return sb.toString();
+		}
+	};
+
+	/**
+	 * Generates the specification of the family
+	 * @param environment the number of environment propositions, at least 1
+	 * @param system the number of system propositions, at least 1
+	 * @return the formula, in the syntax accepted by ParsingUtils.parseLTLfFormula()
+	 */
+	public abstract String formula(int environment, int system);
+
+	/**
+	 * Builds the domain of the specifications of every family
+	 * @param environment the number of environment propositions
+	 * @param system the number of system propositions
+	 * @return the domain {e0..e(n-1)}, {s0..s(m-1)}
+	 */
+	public static PartitionedDomain domain(int environment, int system){
+		PropositionSet environmentDomain = new PropositionSet();
+		PropositionSet systemDomain = new PropositionSet();
+
+		for (int i = 0; i < environment; i++){
+			environmentDomain.add(new LTLfLocalVar(env(i)));
+		}
+
+		for (int j = 0; j < system; j++){
+			systemDomain.add(new LTLfLocalVar(sys(j)));
+		}
+
+		return new PartitionedDomain(environmentDomain, systemDomain);
+	}
+
+	private static String env(int i){
+		return "e" + i;
+	}
+
+	private static String sys(int j){
+		return "s" + j;
+	}
+
+	private static void conjoin(StringBuilder sb, String conjunct){
+		if (sb.length() > 0){
+			sb.append(" & ");
+		}
+
+		sb.append(conjunct);
+	}
+}
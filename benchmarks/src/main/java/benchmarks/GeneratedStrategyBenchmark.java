@@ -0,0 +1,97 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import synthesis.Strategy;
+import synthesis.StrategyGenerator;
+import synthesis.StrategySession;
+import synthesis.SynthesisAutomaton;
+import synthesis.codegen.StrategyClassGenerator;
+import util.ParsingUtils;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GeneratedStrategyBenchmark
+ * Compares a step of the table form of a strategy (CompiledStrategy) with a step of the class generated for it by
+ * StrategyClassGenerator, on the same random environment moves.
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GeneratedStrategyBenchmark extends SpecificationState {
+
+	//Power of two, so that the next input is picked with a mask
+	private static final int INPUTS = 1024;
+
+	private StrategySession tableSession;
+	private StrategySession generatedSession;
+	private long[] masks;
+	private int next;
+
+	@Setup
+	public void setup(){
+		SynthesisAutomaton sa = new SynthesisAutomaton(this.domain(), ParsingUtils.parseLTLfFormula(this.specification()));
+
+		StrategyGenerator generator = sa.getStrategyGenerator();
+		if (generator == null){
+			throw new RuntimeException("Specification " + this.specification() + " is not realizable");
+		}
+
+		Strategy strategy = generator.getStrategy();
+		if (strategy == null || !StrategyClassGenerator.isGeneratable(strategy)){
+			throw new RuntimeException("Strategy of " + this.specification() + " cannot be generated");
+		}
+
+		this.tableSession = strategy.newSession();
+		this.generatedSession = StrategyClassGenerator.generate(strategy).newSession();
+
+		Random random = new Random(42);
+		this.masks = new long[INPUTS];
+
+		for (int i = 0; i < INPUTS; i++){
+			this.masks[i] = random.nextLong() & ((1L << this.environment) - 1);
+		}
+
+		this.tableSession.getFirstMove();
+		this.generatedSession.getFirstMove();
+	}
+
+	@Benchmark
+	public long table(){
+		return step(this.tableSession, this.masks[this.next++ & (INPUTS - 1)]);
+	}
+
+	@Benchmark
+	public long generated(){
+		return step(this.generatedSession, this.masks[this.next++ & (INPUTS - 1)]);
+	}
+
+	private static long step(StrategySession session, long environmentMask){
+		long res = session.step(environmentMask);
+
+		if (res == Strategy.SUCCESS){
+			session.reset();
+			session.getFirstMove();
+		}
+
+		return res;
+	}
+}
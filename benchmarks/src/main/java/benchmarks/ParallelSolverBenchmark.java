@@ -0,0 +1,136 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import rationals.Automaton;
+import rationals.NoSuchStateException;
+import rationals.Transition;
+import synthesis.SolverMode;
+import synthesis.SynthesisAutomaton;
+import synthesis.SynthesisOptions;
+import synthesis.maps.OutputFunction;
+import synthesis.symbols.PartitionedDomain;
+import synthesis.symbols.SymbolTable;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ParallelSolverBenchmark
+ * Measures how SolverMode.PARALLEL scales with the number of threads on a large random game, against SolverMode.ARENA;
+ * the setup checks that both find the same solution
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ParallelSolverBenchmark {
+
+	//Good system moves go forward by at most states / WINDOWS states, so that the winning region grows over a few
+	//hundred rounds with wide frontiers; bad ones jump anywhere, so that the system has to choose
+	private static final int WINDOWS = 64;
+
+	@Param({"100000"})
+	public int states;
+
+	@Param({"2"})
+	public int environment;
+
+	@Param({"2"})
+	public int system;
+
+	//Parallelism of the pool used by SolverMode.PARALLEL; the ARENA baseline does not depend on it
+	@Param({"1", "2", "4", "8"})
+	public int threads;
+
+	private PartitionedDomain domain;
+	private Automaton game;
+	private ForkJoinPool pool;
+	private SynthesisOptions arenaOptions;
+	private SynthesisOptions parallelOptions;
+
+	@Setup
+	public void setup(){
+		this.domain = FormulaFamily.domain(this.environment, this.system);
+		this.game = randomGame(this.domain, this.states, new Random(42));
+		this.pool = new ForkJoinPool(this.threads);
+		this.arenaOptions = new SynthesisOptions().setSolverMode(SolverMode.ARENA);
+		this.parallelOptions = new SynthesisOptions().setSolverMode(SolverMode.PARALLEL).setPool(this.pool);
+
+		SynthesisAutomaton reference = new SynthesisAutomaton(this.domain, this.game, this.arenaOptions);
+		SynthesisAutomaton sa = new SynthesisAutomaton(this.domain, this.game, this.parallelOptions);
+
+		if (!sa.getOutputFunction().equals(reference.getOutputFunction())
+				|| !sa.getWinningStates().equals(reference.getWinningStates())){
+			throw new RuntimeException("PARALLEL and ARENA solutions differ with " + this.threads + " threads");
+		}
+	}
+
+	@TearDown
+	public void tearDown(){
+		this.pool.shutdown();
+	}
+
+	//ARENA builds the output function lazily, so both solvers are charged for it
+	@Benchmark
+	public OutputFunction arena(){
+		return new SynthesisAutomaton(this.domain, this.game, this.arenaOptions).getOutputFunction();
+	}
+
+	@Benchmark
+	public OutputFunction parallel(){
+		return new SynthesisAutomaton(this.domain, this.game, this.parallelOptions).getOutputFunction();
+	}
+
+	private static Automaton randomGame(PartitionedDomain domain, int stateCount, Random random){
+		Automaton res = new Automaton();
+		rationals.State[] states = new rationals.State[stateCount];
+
+		for (int i = 0; i < stateCount; i++){
+			states[i] = res.addState(i == 0, i >= stateCount - Math.max(1, stateCount / 50));
+		}
+
+		int environmentMoves = 1 << domain.getEnvironmentIndex().size();
+		int systemMoves = 1 << domain.getSystemIndex().size();
+		SymbolTable symbols = domain.getSymbols();
+		int window = Math.max(1, stateCount / WINDOWS);
+
+		for (int i = 0; i < stateCount; i++){
+			for (int y = 0; y < systemMoves; y++){
+				boolean bad = random.nextInt(8) == 0;
+
+				for (int x = 0; x < environmentMoves; x++){
+					int target = bad ? random.nextInt(stateCount) : Math.min(stateCount - 1, i + 1 + random.nextInt(window));
+
+					try {
+						res.addTransition(new Transition<>(states[i],
+								symbols.label(symbols.environmentMask(x), symbols.systemMask(y)), states[target]));
+					} catch (NoSuchStateException e){
+						throw new RuntimeException(e);
+					}
+				}
+			}
+		}
+
+		return res;
+	}
+}
@@ -0,0 +1,81 @@
+package benchmarks;
+
+import formula.ltlf.LTLfFormula;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Setup;
+import util.FormulaInterner;
+import util.ParsingUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ParsingBenchmark
+ * Measures ParsingUtils.parseLTLfFormula(), alone and on a batch of formulas of every family, one at a time or with
+ * ParsingUtils.parseLTLfFormulas(), in parallel and optionally hash-consed; batch results are per formula.
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public class ParsingBenchmark extends SpecificationState {
+
+	private static final int BATCH = 1024;
+
+	private String input;
+	private List<String> batch;
+
+	@Setup
+	public void setup(){
+		this.input = this.specification();
+		this.batch = new ArrayList<>();
+
+		for (int i = 0; i < BATCH; i++){
+			FormulaFamily f = FormulaFamily.values()[i % FormulaFamily.values().length];
+			this.batch.add(f.formula(1 + (i / 3) % this.environment, 1 + (i / 7) % this.system));
+		}
+	}
+
+	@Benchmark
+	public LTLfFormula parse(){
+		return ParsingUtils.parseLTLfFormula(this.input);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public List<LTLfFormula> parseSequential(){
+		List<LTLfFormula> res = new ArrayList<>(BATCH);
+
+		for (String s : this.batch){
+			res.add(ParsingUtils.parseLTLfFormula(s));
+		}
+
+		return res;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public List<LTLfFormula> parseBatch(){
+		return ParsingUtils.parseLTLfFormulas(this.batch, null);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public List<LTLfFormula> parseBatchInterned(){
+		return ParsingUtils.parseLTLfFormulas(this.batch, new FormulaInterner());
+	}
+}
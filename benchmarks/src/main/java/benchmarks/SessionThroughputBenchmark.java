@@ -0,0 +1,147 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import synthesis.Strategy;
+import synthesis.StrategyGenerator;
+import synthesis.StrategySession;
+import synthesis.SynthesisAutomaton;
+import synthesis.SynthesisOptions;
+import synthesis.symbols.Interpretation;
+import synthesis.symbols.PartitionedDomain;
+import synthesis.symbols.StrategySuccessOutput;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SessionThroughputBenchmark
+ * Compares many concurrent games played with one StrategyGenerator per game, stepping the strategy automaton,
+ * against the same games played with StrategySessions over a single shared compiled Strategy; run it with -t to
+ * play them from several threads
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SessionThroughputBenchmark extends SpecificationState {
+
+	//Power of two, so that the next input is picked with a mask
+	private static final int INPUTS = 1024;
+
+	//Games played by every thread
+	@Param({"1000", "100000"})
+	public int games;
+
+	private SynthesisAutomaton synthesisAutomaton;
+	private Strategy strategy;
+	private long[] masks;
+	private Interpretation[] interpretations;
+
+	@Setup
+	public void setup(){
+		PartitionedDomain domain = this.domain();
+		this.synthesisAutomaton = new SynthesisAutomaton(domain, this.specification(),
+				new SynthesisOptions().setCompileStrategy(false));
+
+		StrategyGenerator generator = this.synthesisAutomaton.getStrategyGenerator();
+		if (generator == null){
+			throw new RuntimeException("Specification " + this.specification() + " is not realizable");
+		}
+
+		this.strategy = generator.compile();
+
+		Random random = new Random(42);
+		this.masks = new long[INPUTS];
+		this.interpretations = new Interpretation[INPUTS];
+
+		for (int i = 0; i < INPUTS; i++){
+			this.masks[i] = random.nextLong() & ((1L << this.environment) - 1);
+			this.interpretations[i] = domain.getEnvironmentIndex().decode(this.masks[i]);
+		}
+	}
+
+	//Thread states are set up concurrently, while the SynthesisAutomaton extracts its strategy lazily
+	private synchronized StrategyGenerator newGenerator(){
+		StrategyGenerator res = this.synthesisAutomaton.getStrategyGenerator();
+		res.getFirstMove();
+		return res;
+	}
+
+	@Benchmark
+	public Object generators(Games games){
+		StrategyGenerator generator = games.generators[games.nextGame()];
+		Object res = generator.step(this.interpretations[games.nextInput()]);
+
+		if (res instanceof StrategySuccessOutput){
+			generator.resetExecution();
+			generator.getFirstMove();
+		}
+
+		return res;
+	}
+
+	@Benchmark
+	public long sessions(Games games){
+		StrategySession session = games.sessions[games.nextGame()];
+		long res = session.step(this.masks[games.nextInput()]);
+
+		if (res == Strategy.SUCCESS){
+			session.reset();
+			session.getFirstMove();
+		}
+
+		return res;
+	}
+
+	/**
+	 * The games played by one thread, that steps them round robin
+	 */
+	@State(Scope.Thread)
+	public static class Games {
+
+		private StrategyGenerator[] generators;
+		private StrategySession[] sessions;
+		private int game;
+		private int input;
+
+		@Setup
+		public void setup(SessionThroughputBenchmark benchmark){
+			this.generators = new StrategyGenerator[benchmark.games];
+			this.sessions = new StrategySession[benchmark.games];
+
+			for (int i = 0; i < benchmark.games; i++){
+				this.generators[i] = benchmark.newGenerator();
+				this.sessions[i] = benchmark.strategy.newSession();
+				this.sessions[i].getFirstMove();
+			}
+
+			//Threads start from different inputs
+			this.input = (int) Thread.currentThread().getId() * 31;
+		}
+
+		private int nextGame(){
+			int res = this.game;
+			this.game = (res + 1 == this.generators.length) ? 0 : res + 1;
+			return res;
+		}
+
+		private int nextInput(){
+			return this.input++ & (INPUTS - 1);
+		}
+	}
+}
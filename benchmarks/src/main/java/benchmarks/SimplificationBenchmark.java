@@ -0,0 +1,58 @@
+package benchmarks;
+
+import formula.ltlf.LTLfFormula;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import rationals.Automaton;
+import util.AutomatonUtils;
+import util.FormulaSimplification;
+import util.FormulaSimplifier;
+import util.ParsingUtils;
+
+/**
+ * SimplificationBenchmark
+ * Measures FormulaSimplifier.simplify(), and AutomatonUtils.buildLTLfAutomaton() on the formula of every family,
+ * as it is parsed or once simplified; see SimplificationReport for the sizes of the formulas and of the automata.
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public class SimplificationBenchmark extends SpecificationState {
+
+	@Param({"false", "true"})
+	public boolean simplify;
+
+	private LTLfFormula parsed;
+	private LTLfFormula formula;
+
+	@Setup
+	public void setup(){
+		this.parsed = ParsingUtils.parseLTLfFormula(this.specification());
+		this.formula = this.simplify ? new FormulaSimplifier().simplify(this.parsed).getFormula() : this.parsed;
+	}
+
+	@Benchmark
+	public FormulaSimplification simplifyFormula(){
+		return new FormulaSimplifier().simplify(this.parsed);
+	}
+
+	@Benchmark
+	public Automaton buildLTLfAutomaton(){
+		return AutomatonUtils.buildLTLfAutomaton(this.formula);
+	}
+}
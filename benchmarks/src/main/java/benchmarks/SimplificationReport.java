@@ -0,0 +1,72 @@
+package benchmarks;
+
+import formula.ltlf.LTLfFormula;
+import rationals.Automaton;
+import util.AutomatonUtils;
+import util.FormulaSimplification;
+import util.FormulaSimplifier;
+import util.ParsingUtils;
+
+/**
+ * SimplificationReport
+ * Prints, for the formula of every family and size, the size of the formula and the number of states of its
+ * automaton and the time spent building it, before and after FormulaSimplifier; times are the best of a few runs.
+ * Run it with java -cp target/benchmarks.jar benchmarks.SimplificationReport
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public class SimplificationReport {
+
+	private static final int[] SIZES = {1, 2, 4};
+	private static final int RUNS = 5;
+
+	public static void main(String[] args){
+		System.out.println(String.format("%-10s %3s %3s %14s %14s %16s", "family", "env", "sys", "formula size",
+				"states", "build time (ms)"));
+
+		for (FormulaFamily family : FormulaFamily.values()){
+			for (int environment : SIZES){
+				for (int system : SIZES){
+					LTLfFormula formula = ParsingUtils.parseLTLfFormula(family.formula(environment, system));
+					FormulaSimplification simplification = new FormulaSimplifier().simplify(formula);
+
+					Automaton original = AutomatonUtils.buildLTLfAutomaton(formula);
+					Automaton simplified = AutomatonUtils.buildLTLfAutomaton(simplification.getFormula());
+
+					System.out.println(String.format("%-10s %3d %3d %6d -> %-5d %6d -> %-5d %7.1f -> %-7.1f",
+							family, environment, system,
+							simplification.getOriginalSize(), simplification.getSize(),
+							original.states().size(), simplified.states().size(),
+							bestMillis(formula), bestMillis(simplification.getFormula())));
+				}
+			}
+		}
+	}
+
+	private static double bestMillis(LTLfFormula formula){
+		long best = Long.MAX_VALUE;
+
+		for (int i = 0; i < RUNS; i++){
+			long start = System.nanoTime();
+			AutomatonUtils.buildLTLfAutomaton(formula);
+			best = Math.min(best, System.nanoTime() - start);
+		}
+
+		return best / 1e6;
+	}
+}
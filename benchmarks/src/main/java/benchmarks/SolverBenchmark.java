@@ -0,0 +1,57 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import rationals.Automaton;
+import synthesis.SolverMode;
+import synthesis.SynthesisAutomaton;
+import synthesis.SynthesisOptions;
+import synthesis.symbols.PartitionedDomain;
+import util.AutomatonUtils;
+import util.ParsingUtils;
+
+/**
+ * SolverBenchmark
+ * Measures the computation of the winning region and of the output function on an already translated game,
+ * for every SolverMode
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public class SolverBenchmark extends SpecificationState {
+
+	@Param({"FIXPOINT", "WORKLIST", "ARENA", "SYMBOLIC", "ON_THE_FLY", "GUARDED", "PARALLEL"})
+	public SolverMode solverMode;
+
+	private PartitionedDomain domain;
+	private Automaton gameAutomaton;
+	private SynthesisOptions options;
+
+	@Setup
+	public void setup(){
+		this.domain = this.domain();
+		Automaton automaton = AutomatonUtils.buildLTLfAutomaton(ParsingUtils.parseLTLfFormula(this.specification()));
+		this.gameAutomaton = AutomatonUtils.transalteToGameAutomaton(automaton, this.domain);
+		this.options = new SynthesisOptions().setSolverMode(this.solverMode);
+	}
+
+	@Benchmark
+	public SynthesisAutomaton computeRealizability(){
+		return new SynthesisAutomaton(this.domain, this.gameAutomaton, this.options);
+	}
+}
@@ -0,0 +1,53 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import synthesis.symbols.PartitionedDomain;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SpecificationState
+ * Benchmark parameters shared by all the stages: the formula family and the size of the domain
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public abstract class SpecificationState {
+
+	@Param({"RESPONSE", "GUARANTEE", "SEQUENCE", "REDUNDANT"})
+	public FormulaFamily family;
+
+	@Param({"1", "2", "4"})
+	public int environment;
+
+	@Param({"1", "2", "4"})
+	public int system;
+
+	protected String specification(){
+		return this.family.formula(this.environment, this.system);
+	}
+
+	protected PartitionedDomain domain(){
+		return FormulaFamily.domain(this.environment, this.system);
+	}
+}
@@ -0,0 +1,95 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import synthesis.Strategy;
+import synthesis.StrategyGenerator;
+import synthesis.SynthesisAutomaton;
+import synthesis.symbols.Interpretation;
+import synthesis.symbols.PartitionedDomain;
+import synthesis.symbols.StrategyOutput;
+import synthesis.symbols.StrategySuccessOutput;
+import util.ParsingUtils;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * StepBenchmark
+ * Measures StrategyGenerator.step() on random environment moves, starting a new game whenever one is won
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StepBenchmark extends SpecificationState {
+
+	//Power of two, so that the next input is picked with a mask
+	private static final int INPUTS = 1024;
+
+	private StrategyGenerator generator;
+	private long[] masks;
+	private Interpretation[] interpretations;
+	private int next;
+
+	@Setup
+	public void setup(){
+		PartitionedDomain domain = this.domain();
+		SynthesisAutomaton sa = new SynthesisAutomaton(domain, ParsingUtils.parseLTLfFormula(this.specification()));
+
+		this.generator = sa.getStrategyGenerator();
+		if (this.generator == null){
+			throw new RuntimeException("Specification " + this.specification() + " is not realizable");
+		}
+
+		Random random = new Random(42);
+		this.masks = new long[INPUTS];
+		this.interpretations = new Interpretation[INPUTS];
+
+		for (int i = 0; i < INPUTS; i++){
+			this.masks[i] = random.nextLong() & ((1L << this.environment) - 1);
+			this.interpretations[i] = domain.getEnvironmentIndex().decode(this.masks[i]);
+		}
+
+		this.generator.getFirstMove();
+	}
+
+	@Benchmark
+	public StrategyOutput step(){
+		StrategyOutput res = this.generator.step(this.interpretations[this.next++ & (INPUTS - 1)]);
+
+		if (res instanceof StrategySuccessOutput){
+			this.generator.resetExecution();
+			this.generator.getFirstMove();
+		}
+
+		return res;
+	}
+
+	@Benchmark
+	public long stepMask(){
+		long res = this.generator.step(this.masks[this.next++ & (INPUTS - 1)]);
+
+		if (res == Strategy.SUCCESS){
+			this.generator.resetExecution();
+			this.generator.getFirstMoveMask();
+		}
+
+		return res;
+	}
+}
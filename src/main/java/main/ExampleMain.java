@@ -60,6 +60,9 @@ public class ExampleMain {
 		//And will output its solution (if it exists).
 		//BEWARE: if the specification is big, this operations may require some time,
 		// as all the most intensive operations are performed here
+		//To see which phase takes the time, set a listener in the options, e.g.
+		//new SynthesisAutomaton(partitionedDomain, specification, new SynthesisOptions().setListener(new SynthesisMetrics()))
+		//and print the SynthesisMetrics afterwards; JfrSynthesisListener reports the same phases to Flight Recorder.
 		SynthesisAutomaton sa = new SynthesisAutomaton(partitionedDomain, specification);
 
 		//To know if the problem has a solution, you can call this method.
@@ -0,0 +1,491 @@
+package synthesis;
+
+import rationals.Automaton;
+import rationals.State;
+import rationals.Transition;
+import synthesis.maps.IntList;
+import synthesis.maps.LongList;
+import synthesis.maps.OutputFunction;
+import synthesis.symbols.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * CompiledStrategy
+ * Flat, table based form of a strategy, that can be executed without the rationals.Automaton.
+ * States are numbered from 0, the initial state being state 0. The next state table is indexed by
+ * (state &lt;&lt; environment bits) | environment mask, and every state has a single precomputed output move, encoded
+ * as a mask over the system index of the domain, or SUCCESS for terminal states.
+ * A step is therefore two array lookups, and does not allocate.
+ * Compiled strategies are immutable, and can be shared by any number of StrategySessions.
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public final class CompiledStrategy implements Strategy {
+
+	/**
+	 * Maximum number of entries of the next state table
+	 */
+	public static final int MAX_TABLE_SIZE = 1 << 27;
+
+	/**
+	 * Maximum number of entries of the next state table of the strategies that StrategyGenerator compiles on its
+	 * own, i.e. 4 MB; larger strategies are only compiled by StrategyGenerator.compile()
+	 */
+	public static final int DEFAULT_TABLE_SIZE = 1 << 20;
+
+	private final PartitionedDomain domain;
+	private final int environmentBits;
+	private final int[] nextStates;
+	private final long[] outputs;
+
+	/**
+	 * Compiles the given strategy automaton
+	 * @param automaton the strategy automaton, labelled with BitsetPartitionedInterpretations
+	 * @param domain the partitioned domain of the problem
+	 * @param outputFunction the output function of the strategy; the move returned first by the iterator of every
+	 *                       state is the one that gets compiled, as StrategyGenerator would play it
+	 */
+	public CompiledStrategy(Automaton automaton, PartitionedDomain domain, OutputFunction outputFunction){
+		Set<State> states = automaton.states();
+
+		if (!isCompilable(domain, states.size())){
+			throw new RuntimeException("Strategy is too large to be compiled");
+		}
+
+		this.domain = domain;
+		this.environmentBits = domain.getEnvironmentIndex().size();
+
+		//Number the states, starting from the initial one
+		HashMap<State, Integer> ids = new HashMap<>();
+		State initial = (State) automaton.initials().iterator().next();
+		ids.put(initial, 0);
+		for (State s : states){
+			ids.putIfAbsent(s, ids.size());
+		}
+
+		this.nextStates = new int[states.size() << this.environmentBits];
+		Arrays.fill(this.nextStates, NO_STATE);
+		this.outputs = new long[states.size()];
+
+		for (State s : states){
+			int id = ids.get(s);
+
+			if (s.isTerminal()){
+				this.outputs[id] = SUCCESS;
+				continue;
+			}
+
+			BitsetInterpretation move = outputFunction.get(s).iterator().next();
+			this.outputs[id] = move.toLong();
+
+			Set<Transition<SynthTransitionLabel>> transitions = automaton.delta(s);
+
+			for (Transition<SynthTransitionLabel> t : transitions){
+				if (t.label() instanceof BitsetPartitionedInterpretation){
+					BitsetPartitionedInterpretation label = (BitsetPartitionedInterpretation) t.label();
+
+					if (label.getSystemMask().equals(move)){
+						int index = (id << this.environmentBits) | (int) label.getEnvironmentMask().toLong();
+						int target = ids.get(t.end());
+
+						if (this.nextStates[index] != NO_STATE && this.nextStates[index] != target){
+							throw new RuntimeException("Error! Automaton is not deterministic");
+						}
+
+						this.nextStates[index] = target;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Extracts the minimal strategy played from the initial state of a solved game: a single winning move is fixed
+	 * for every state, choosing the one that reaches the fewest states not seen yet, only the states reachable under
+	 * the chosen moves are kept, and the resulting Mealy machine is minimized by partition refinement.
+	 * @param automaton the game automaton, labelled with BitsetPartitionedInterpretations
+	 * @param domain the partitioned domain of the problem
+	 * @param winningStates the winning states of the game, only used to report the reduction
+	 * @param outputFunction the winning moves of the non terminal winning states
+	 * @return the minimal CompiledStrategy, with the reduction statistics
+	 */
+	public static StrategyMinimization minimize(Automaton automaton, PartitionedDomain domain, Set<State> winningStates,
+												OutputFunction outputFunction){
+		long start = System.nanoTime();
+		int environmentBits = domain.getEnvironmentIndex().size();
+		int inputs = 1 << environmentBits;
+
+		if (!isCompilable(domain, 1)){
+			throw new RuntimeException("Strategy is too large to be compiled");
+		}
+
+		int winningMoves = 0;
+		for (HashSet<BitsetInterpretation> moves : outputFunction.values()){
+			winningMoves += moves.size();
+		}
+
+		//Explore the states reachable under the chosen moves; states are numbered in order of discovery
+		HashMap<State, Integer> ids = new HashMap<>();
+		ArrayList<State> order = new ArrayList<>();
+		IntList next = new IntList();
+		LongList outputs = new LongList();
+		State initial = (State) automaton.initials().iterator().next();
+		ids.put(initial, 0);
+		order.add(initial);
+
+		HashMap<BitsetInterpretation, State[]> successors = new HashMap<>();
+
+		for (int i = 0; i < order.size(); i++){
+			State s = order.get(i);
+
+			if (!isCompilable(domain, order.size())){
+				throw new RuntimeException("Strategy is too large to be compiled");
+			}
+
+			if (s.isTerminal()){
+				outputs.add(SUCCESS);
+				for (int x = 0; x < inputs; x++){
+					next.add(NO_STATE);
+				}
+				continue;
+			}
+
+			HashSet<BitsetInterpretation> moves = outputFunction.get(s);
+			if (moves == null || moves.isEmpty()){
+				throw new RuntimeException("State " + s + " has no winning move");
+			}
+
+			successors.clear();
+			Set<Transition<SynthTransitionLabel>> transitions = automaton.delta(s);
+
+			for (Transition<SynthTransitionLabel> t : transitions){
+				if (t.label() instanceof BitsetPartitionedInterpretation){
+					BitsetPartitionedInterpretation label = (BitsetPartitionedInterpretation) t.label();
+
+					if (moves.contains(label.getSystemMask())){
+						State[] row = successors.computeIfAbsent(label.getSystemMask(), k -> new State[inputs]);
+						int x = (int) label.getEnvironmentMask().toLong();
+
+						if (row[x] != null && row[x] != t.end()){
+							throw new RuntimeException("Error! Automaton is not deterministic");
+						}
+
+						row[x] = t.end();
+					}
+				}
+			}
+
+			//Prefer the move that leads to the fewest new states, so that fewer states are reachable
+			BitsetInterpretation move = null;
+			int best = Integer.MAX_VALUE;
+
+			for (BitsetInterpretation y : moves){
+				State[] row = successors.get(y);
+				int newStates = 0;
+
+				if (row != null){
+					HashSet<State> seen = new HashSet<>();
+					for (State t : row){
+						if (t != null && !ids.containsKey(t) && seen.add(t)){
+							newStates++;
+						}
+					}
+				}
+
+				if (newStates < best){
+					best = newStates;
+					move = y;
+				}
+			}
+
+			outputs.add(move.toLong());
+			State[] row = successors.get(move);
+
+			for (int x = 0; x < inputs; x++){
+				State t = (row == null) ? null : row[x];
+
+				if (t == null){
+					next.add(NO_STATE);
+				} else {
+					Integer id = ids.get(t);
+
+					if (id == null){
+						id = order.size();
+						ids.put(t, id);
+						order.add(t);
+					}
+
+					next.add(id);
+				}
+			}
+		}
+
+		int reachable = order.size();
+		int[] nextStates = next.toArray();
+		long[] stateOutputs = outputs.toArray();
+
+		//Moore's partition refinement, starting from the partition by output
+		int[] blocks = new int[reachable];
+		int blockCount = 0;
+		HashMap<Long, Integer> outputBlocks = new HashMap<>();
+
+		for (int s = 0; s < reachable; s++){
+			Integer b = outputBlocks.get(stateOutputs[s]);
+
+			if (b == null){
+				b = blockCount++;
+				outputBlocks.put(stateOutputs[s], b);
+			}
+
+			blocks[s] = b;
+		}
+
+		int rounds = 0;
+		int[] table = new int[Integer.highestOneBit(Math.max(reachable, 1) * 2) * 2];
+
+		while (true){
+			int[] newBlocks = new int[reachable];
+			int newBlockCount = 0;
+			Arrays.fill(table, -1);
+			int mask = table.length - 1;
+
+			for (int s = 0; s < reachable; s++){
+				int slot = blockHash(s, blocks, nextStates, environmentBits) & mask;
+
+				while (table[slot] >= 0 && !sameBlock(s, table[slot], blocks, nextStates, environmentBits)){
+					slot = (slot + 1) & mask;
+				}
+
+				if (table[slot] < 0){
+					table[slot] = s;
+					newBlocks[s] = newBlockCount++;
+				} else {
+					newBlocks[s] = newBlocks[table[slot]];
+				}
+			}
+
+			rounds++;
+			blocks = newBlocks;
+
+			//Refinement only splits blocks, so the partition is stable once their number stops growing
+			if (newBlockCount == blockCount){
+				break;
+			}
+
+			blockCount = newBlockCount;
+		}
+
+		//Blocks are numbered in order of their first state, so the initial state is in block 0
+		int[] minimalNext = new int[blockCount << environmentBits];
+		long[] minimalOutputs = new long[blockCount];
+		boolean[] done = new boolean[blockCount];
+
+		for (int s = 0; s < reachable; s++){
+			int b = blocks[s];
+
+			if (!done[b]){
+				done[b] = true;
+				minimalOutputs[b] = stateOutputs[s];
+
+				for (int x = 0; x < inputs; x++){
+					int t = nextStates[(s << environmentBits) | x];
+					minimalNext[(b << environmentBits) | x] = (t == NO_STATE) ? NO_STATE : blocks[t];
+				}
+			}
+		}
+
+		CompiledStrategy strategy = new CompiledStrategy(domain, minimalNext, minimalOutputs);
+
+		return new StrategyMinimization(strategy, winningStates.size(), winningMoves, reachable, blockCount, rounds,
+				System.nanoTime() - start);
+	}
+
+	private static int blockHash(int state, int[] blocks, int[] nextStates, int environmentBits){
+		int res = blocks[state];
+		int base = state << environmentBits;
+
+		for (int x = 0; x < (1 << environmentBits); x++){
+			int t = nextStates[base | x];
+			res = 31 * res + ((t == NO_STATE) ? -1 : blocks[t]);
+		}
+
+		return res ^ (res >>> 16);
+	}
+
+	private static boolean sameBlock(int s1, int s2, int[] blocks, int[] nextStates, int environmentBits){
+		if (blocks[s1] != blocks[s2]){
+			return false;
+		}
+
+		int base1 = s1 << environmentBits;
+		int base2 = s2 << environmentBits;
+
+		for (int x = 0; x < (1 << environmentBits); x++){
+			int t1 = nextStates[base1 | x];
+			int t2 = nextStates[base2 | x];
+
+			if (((t1 == NO_STATE) ? -1 : blocks[t1]) != ((t2 == NO_STATE) ? -1 : blocks[t2])){
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private CompiledStrategy(PartitionedDomain domain, int[] nextStates, long[] outputs){
+		this.domain = domain;
+		this.environmentBits = domain.getEnvironmentIndex().size();
+		this.nextStates = nextStates;
+		this.outputs = outputs;
+	}
+
+	/**
+	 * Translates this strategy to another domain with the same number of environment and system propositions,
+	 * e.g. the domain of a specification that only differs in the names of the propositions.
+	 * @param target the domain of the new strategy
+	 * @param environmentMap for every environment index of this strategy, the environment index in the target domain
+	 * @param systemMap for every system index of this strategy, the system index in the target domain
+	 * @return an equivalent CompiledStrategy over the target domain; this strategy itself if both maps are identities
+	 */
+	public CompiledStrategy remap(PartitionedDomain target, int[] environmentMap, int[] systemMap){
+		if (environmentMap.length != this.environmentBits
+				|| target.getEnvironmentIndex().size() != this.environmentBits
+				|| systemMap.length != this.domain.getSystemIndex().size()
+				|| target.getSystemIndex().size() != systemMap.length){
+			throw new RuntimeException("Domains " + this.domain + " and " + target + " have different sizes");
+		}
+
+		if (isIdentity(environmentMap) && isIdentity(systemMap)){
+			return this.domain.equals(target) ? this : new CompiledStrategy(target, this.nextStates, this.outputs);
+		}
+
+		int inputs = 1 << this.environmentBits;
+		int[] nextStates = new int[this.nextStates.length];
+		long[] outputs = new long[this.outputs.length];
+
+		for (int s = 0; s < outputs.length; s++){
+			outputs[s] = (this.outputs[s] == SUCCESS) ? SUCCESS : remapMask(this.outputs[s], systemMap);
+
+			for (int x = 0; x < inputs; x++){
+				int newX = (int) remapMask(x, environmentMap);
+				nextStates[(s << this.environmentBits) | newX] = this.nextStates[(s << this.environmentBits) | x];
+			}
+		}
+
+		return new CompiledStrategy(target, nextStates, outputs);
+	}
+
+	private static long remapMask(long mask, int[] map){
+		long res = 0L;
+
+		for (int i = 0; i < map.length; i++){
+			if ((mask & (1L << i)) != 0L){
+				res |= 1L << map[i];
+			}
+		}
+
+		return res;
+	}
+
+	private static boolean isIdentity(int[] map){
+		for (int i = 0; i < map.length; i++){
+			if (map[i] != i){
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Checks whether a strategy can be compiled: the system moves must fit in a long, leaving the sign bit to SUCCESS,
+	 * and the next state table must not exceed MAX_TABLE_SIZE entries.
+	 * @param domain the partitioned domain of the problem
+	 * @param stateCount the number of states of the strategy
+	 * @return true if a strategy with the given size can be compiled
+	 */
+	public static boolean isCompilable(PartitionedDomain domain, int stateCount){
+		return isCompilable(domain, stateCount, MAX_TABLE_SIZE);
+	}
+
+	/**
+	 * Checks whether a strategy can be compiled within a smaller budget than MAX_TABLE_SIZE
+	 * @param domain the partitioned domain of the problem
+	 * @param stateCount the number of states of the strategy
+	 * @param maxTableSize the maximum number of entries of the next state table
+	 * @return true if a strategy with the given size can be compiled within the budget
+	 */
+	public static boolean isCompilable(PartitionedDomain domain, int stateCount, int maxTableSize){
+		int environmentBits = domain.getEnvironmentIndex().size();
+
+		return domain.getSystemIndex().size() < 64
+				&& environmentBits < 31
+				&& ((long) stateCount << environmentBits) <= Math.min(maxTableSize, MAX_TABLE_SIZE);
+	}
+
+	@Override
+	public int next(int state, long environmentMask){
+		if ((environmentMask >>> this.environmentBits) != 0L){
+			throw new RuntimeException("Input " + environmentMask + " is not defined over the environment domain");
+		}
+
+		return this.nextStates[(state << this.environmentBits) | (int) environmentMask];
+	}
+
+	@Override
+	public long output(int state){
+		return this.outputs[state];
+	}
+
+	@Override
+	public boolean isTerminal(int state){
+		return this.outputs[state] == SUCCESS;
+	}
+
+	@Override
+	public int getInitialState(){
+		return 0;
+	}
+
+	@Override
+	public int getStateCount(){
+		return this.outputs.length;
+	}
+
+	public int getEnvironmentBits(){
+		return environmentBits;
+	}
+
+	@Override
+	public PartitionedDomain getDomain(){
+		return domain;
+	}
+
+	/**
+	 * Estimates the heap used by the tables
+	 * @return the approximate number of bytes used by the strategy
+	 */
+	public long getEstimatedBytes(){
+		return 32 + 4L * this.nextStates.length + 8L * this.outputs.length;
+	}
+}
@@ -0,0 +1,122 @@
+package synthesis;
+
+import synthesis.maps.GuardedArena;
+import synthesis.symbols.PartitionedDomain;
+
+import java.util.Arrays;
+
+/**
+ * GuardedStrategy
+ * Strategy played directly on the guards of a solved GuardedArena: a step evaluates the cubes of the outgoing edges of
+ * the current state against the environment move and the precomputed system move, instead of looking up a table, so
+ * its size does not depend on the number of environment propositions.
+ * Only the winning states of the arena are kept, renumbered from the initial one; every state plays one of the moves
+ * found in the round in which it won, so every game reaches a terminal state.
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public final class GuardedStrategy implements Strategy {
+
+	private final GuardedArena arena;
+	private final int environmentBits;
+
+	//Arena state of every strategy state, and strategy state of every arena state (NO_STATE if not winning)
+	private final int[] arenaStates;
+	private final int[] strategyStates;
+
+	//Output of every strategy state, and the same move shifted above the environment propositions
+	private final long[] outputs;
+	private final long[] systemWorlds;
+
+	/**
+	 * Instantiates a new GuardedStrategy
+	 * @param arena the solved arena; its initial state must be winning
+	 */
+	public GuardedStrategy(GuardedArena arena){
+		if (arena.getRank(0) < 0){
+			throw new RuntimeException("The initial state is not winning");
+		}
+
+		this.arena = arena;
+		this.environmentBits = arena.getEnvironmentBits();
+
+		int stateCount = arena.getStateCount();
+		this.strategyStates = new int[stateCount];
+		Arrays.fill(this.strategyStates, NO_STATE);
+
+		int count = 0;
+		for (int s = 0; s < stateCount; s++){
+			if (arena.getRank(s) >= 0){
+				this.strategyStates[s] = count++;
+			}
+		}
+
+		this.arenaStates = new int[count];
+		this.outputs = new long[count];
+		this.systemWorlds = new long[count];
+
+		for (int s = 0; s < stateCount; s++){
+			int id = this.strategyStates[s];
+
+			if (id != NO_STATE){
+				this.arenaStates[id] = s;
+
+				if (arena.isTerminal(s)){
+					this.outputs[id] = SUCCESS;
+				} else {
+					this.outputs[id] = arena.getWinningMove(s);
+					this.systemWorlds[id] = this.outputs[id] << this.environmentBits;
+				}
+			}
+		}
+	}
+
+	@Override
+	public int next(int state, long environmentMask){
+		if ((environmentMask >>> this.environmentBits) != 0L){
+			throw new RuntimeException("Input " + environmentMask + " is not defined over the environment domain");
+		}
+
+		int target = this.arena.step(this.arenaStates[state], this.systemWorlds[state] | environmentMask);
+		return (target < 0) ? NO_STATE : this.strategyStates[target];
+	}
+
+	@Override
+	public long output(int state){
+		return this.outputs[state];
+	}
+
+	@Override
+	public int getInitialState(){
+		return 0;
+	}
+
+	@Override
+	public int getStateCount(){
+		return this.outputs.length;
+	}
+
+	@Override
+	public PartitionedDomain getDomain(){
+		return this.arena.getDomain();
+	}
+
+	public GuardedArena getArena(){
+		return arena;
+	}
+}
@@ -0,0 +1,304 @@
+package synthesis;
+
+import formula.ltlf.LTLfLocalVar;
+import synthesis.symbols.PartitionedDomain;
+import synthesis.symbols.PropositionSet;
+import synthesis.symbols.VariableIndex;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * MappedStrategy
+ * Strategy backed by a memory mapped, versioned binary file.
+ * The tables are read in place from the mapping, so opening a strategy costs a few system calls regardless of its size,
+ * and processes on the same host that open the same file share its pages through the page cache.
+ * <br>
+ * File layout, little endian:
+ * <pre>
+ *  0  int   magic, "LTLS"
+ *  4  int   format version
+ *  8  int   number of environment propositions (E)
+ * 12  int   number of system propositions
+ * 16  int   number of states (N)
+ * 20  int   initial state
+ * 24  int   offset of the tables, a multiple of 8
+ * 28  int   reserved
+ * 32        names of the environment propositions, then of the system ones, in index order;
+ *           each one a short length followed by the UTF-8 bytes
+ * ..        padding
+ * T         long[N] output of every state, SUCCESS for terminal states
+ * T + 8N    int[N &lt;&lt; E] next state table, indexed by (state &lt;&lt; E) | environment mask
+ * </pre>
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public final class MappedStrategy implements Strategy {
+
+	public static final int MAGIC = 0x534C544C;
+	public static final int VERSION = 1;
+
+	private static final int HEADER_BYTES = 32;
+	private static final int CHUNK_BYTES = 1 << 16;
+
+	private final Path path;
+	private final PartitionedDomain domain;
+	private final int environmentBits;
+	private final int initialState;
+	private final int stateCount;
+
+	//Views over the mapping
+	private final LongBuffer outputs;
+	private final IntBuffer nextStates;
+
+	private MappedStrategy(Path path, PartitionedDomain domain, int initialState, int stateCount,
+						   LongBuffer outputs, IntBuffer nextStates){
+		this.path = path;
+		this.domain = domain;
+		this.environmentBits = domain.getEnvironmentIndex().size();
+		this.initialState = initialState;
+		this.stateCount = stateCount;
+		this.outputs = outputs;
+		this.nextStates = nextStates;
+	}
+
+	/**
+	 * Writes a strategy to a file. The file is first written next to the destination and then moved in place,
+	 * so that processes opening the destination never see a partial file.
+	 * @param strategy the strategy; its domain must satisfy CompiledStrategy.isCompilable
+	 * @param path the destination file, replaced if it exists
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void write(Strategy strategy, Path path) throws IOException {
+		PartitionedDomain domain = strategy.getDomain();
+		int stateCount = strategy.getStateCount();
+
+		if (!CompiledStrategy.isCompilable(domain, stateCount)){
+			throw new RuntimeException("Strategy is too large to be written");
+		}
+
+		int environmentBits = domain.getEnvironmentIndex().size();
+		int inputs = 1 << environmentBits;
+
+		ByteBuffer names = encodeNames(domain);
+		int tablesOffset = (HEADER_BYTES + names.remaining() + 7) & ~7;
+
+		ByteBuffer header = ByteBuffer.allocate(tablesOffset).order(ByteOrder.LITTLE_ENDIAN);
+		header.putInt(MAGIC).putInt(VERSION);
+		header.putInt(environmentBits).putInt(domain.getSystemIndex().size());
+		header.putInt(stateCount).putInt(strategy.getInitialState());
+		header.putInt(tablesOffset).putInt(0);
+		header.put(names);
+		header.position(0);
+
+		Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+
+		try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)){
+
+			writeFully(channel, header);
+
+			ByteBuffer chunk = ByteBuffer.allocate(CHUNK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+			for (int s = 0; s < stateCount; s++){
+				if (chunk.remaining() < 8){
+					flush(channel, chunk);
+				}
+
+				chunk.putLong(strategy.output(s));
+			}
+
+			for (int s = 0; s < stateCount; s++){
+				for (int x = 0; x < inputs; x++){
+					if (chunk.remaining() < 4){
+						flush(channel, chunk);
+					}
+
+					chunk.putInt(strategy.next(s, x));
+				}
+			}
+
+			flush(channel, chunk);
+			channel.force(false);
+		}
+
+		Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Maps a strategy file. The file must not be modified while it is mapped; write replaces it atomically instead.
+	 * @param path the strategy file
+	 * @return the MappedStrategy, ready to be played
+	 * @throws IOException if the file cannot be read
+	 */
+	public static MappedStrategy open(Path path) throws IOException {
+		MappedByteBuffer buffer;
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)){
+			if (channel.size() > Integer.MAX_VALUE){
+				throw new RuntimeException("Strategy file " + path + " is too large");
+			}
+
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+		if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC){
+			throw new RuntimeException(path + " is not a strategy file");
+		}
+
+		if (buffer.getInt(4) != VERSION){
+			throw new RuntimeException("Unsupported strategy file version " + buffer.getInt(4) + " in " + path);
+		}
+
+		int environmentBits = buffer.getInt(8);
+		int systemCount = buffer.getInt(12);
+		int stateCount = buffer.getInt(16);
+		int initialState = buffer.getInt(20);
+		int tablesOffset = buffer.getInt(24);
+
+		if (environmentBits < 0 || environmentBits >= 31 || systemCount < 0 || systemCount >= 64 || stateCount < 0
+				|| ((long) stateCount << environmentBits) > CompiledStrategy.MAX_TABLE_SIZE
+				|| (long) tablesOffset + 8L * stateCount + (4L * stateCount << environmentBits) != buffer.limit()){
+			throw new RuntimeException("Corrupted strategy file " + path);
+		}
+
+		buffer.position(HEADER_BYTES);
+		PartitionedDomain domain = decodeNames(buffer, environmentBits, systemCount);
+
+		buffer.position(tablesOffset);
+		LongBuffer outputs = buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+		outputs.limit(stateCount);
+
+		buffer.position(tablesOffset + 8 * stateCount);
+		IntBuffer nextStates = buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+
+		return new MappedStrategy(path, domain, initialState, stateCount, outputs, nextStates);
+	}
+
+	private static ByteBuffer encodeNames(PartitionedDomain domain){
+		VariableIndex[] indices = {domain.getEnvironmentIndex(), domain.getSystemIndex()};
+		int size = 0;
+
+		for (VariableIndex index : indices){
+			for (int i = 0; i < index.size(); i++){
+				size += 2 + index.getVariable(i).toString().getBytes(StandardCharsets.UTF_8).length;
+			}
+		}
+
+		ByteBuffer res = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+
+		for (VariableIndex index : indices){
+			for (int i = 0; i < index.size(); i++){
+				byte[] name = index.getVariable(i).toString().getBytes(StandardCharsets.UTF_8);
+				res.putShort((short) name.length).put(name);
+			}
+		}
+
+		res.flip();
+		return res;
+	}
+
+	private static PartitionedDomain decodeNames(ByteBuffer buffer, int environmentCount, int systemCount){
+		PropositionSet environment = new PropositionSet();
+		PropositionSet system = new PropositionSet();
+		String[] names = new String[environmentCount + systemCount];
+
+		for (int i = 0; i < names.length; i++){
+			byte[] name = new byte[buffer.getShort() & 0xFFFF];
+			buffer.get(name);
+			names[i] = new String(name, StandardCharsets.UTF_8);
+
+			((i < environmentCount) ? environment : system).add(new LTLfLocalVar(names[i]));
+		}
+
+		PartitionedDomain domain = new PartitionedDomain(environment, system);
+
+		//The masks in the tables are only meaningful if the indices are rebuilt in the same order
+		for (int i = 0; i < names.length; i++){
+			LTLfLocalVar v = (i < environmentCount) ? domain.getEnvironmentIndex().getVariable(i)
+					: domain.getSystemIndex().getVariable(i - environmentCount);
+
+			if (!v.toString().equals(names[i])){
+				throw new RuntimeException("Proposition " + names[i] + " is out of order in the strategy file");
+			}
+		}
+
+		return domain;
+	}
+
+	private static void flush(FileChannel channel, ByteBuffer chunk) throws IOException {
+		chunk.flip();
+		writeFully(channel, chunk);
+		chunk.clear();
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()){
+			channel.write(buffer);
+		}
+	}
+
+	@Override
+	public int next(int state, long environmentMask){
+		if ((environmentMask >>> this.environmentBits) != 0L){
+			throw new RuntimeException("Input " + environmentMask + " is not defined over the environment domain");
+		}
+
+		return this.nextStates.get((state << this.environmentBits) | (int) environmentMask);
+	}
+
+	@Override
+	public long output(int state){
+		return this.outputs.get(state);
+	}
+
+	@Override
+	public int getInitialState(){
+		return initialState;
+	}
+
+	@Override
+	public int getStateCount(){
+		return stateCount;
+	}
+
+	@Override
+	public PartitionedDomain getDomain(){
+		return domain;
+	}
+
+	public Path getPath(){
+		return path;
+	}
+
+	public int getEnvironmentBits(){
+		return environmentBits;
+	}
+}
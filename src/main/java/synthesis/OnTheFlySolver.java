@@ -0,0 +1,337 @@
+package synthesis;
+
+import rationals.Automaton;
+import rationals.State;
+import rationals.Transition;
+import synthesis.maps.OutputFunction;
+import synthesis.symbols.BitsetInterpretation;
+import synthesis.symbols.BitsetPartitionedInterpretation;
+import synthesis.symbols.PartitionedDomain;
+import synthesis.symbols.SynthEmptyTrace;
+import synthesis.symbols.SynthTransitionLabel;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static util.AutomatonUtils.gameLabel;
+
+/**
+ * OnTheFlySolver
+ * On-the-fly solver, in the style of OTFUR: states are expanded lazily, depth first from the initial state, and the
+ * status of every expanded state is propagated backwards as soon as it is known. A state wins when all the successors
+ * of one of its system moves win, and loses when every system move has a losing successor. The search stops as soon as
+ * the initial state is decided; if the exploration runs out of states first, the states left undecided cannot reach a
+ * terminal state, so they lose.
+ * Only the winning states that have been decided are reported, each with the move that decided it: its successors had
+ * all won before, so playing these moves always makes progress towards a terminal state.
+ * The solver can read the automaton of the formula directly: the labels of a state are only translated to the game
+ * when the state is expanded, so the states that are never expanded are never translated. The automaton itself is
+ * still built in full by FLLOAT.
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public class OnTheFlySolver {
+
+	private static final int UNKNOWN = 0;
+	private static final int WIN = 1;
+	private static final int LOSE = 2;
+
+	private final Automaton automaton;
+	private final PartitionedDomain domain;
+	private final HashMap<State, Node> nodes;
+
+	private int expandedStates;
+	private long examinedTransitions;
+	private boolean solved;
+
+	/**
+	 * Instantiates a new OnTheFlySolver
+	 * @param automaton the automaton of the formula, without empty trace transitions, or the game automaton
+	 * @param domain the partitioned domain of the problem
+	 */
+	public OnTheFlySolver(Automaton automaton, PartitionedDomain domain){
+		this.automaton = automaton;
+		this.domain = domain;
+		this.nodes = new HashMap<>();
+	}
+
+	/**
+	 * Explores the game until the initial state is decided
+	 * @return true if the initial state is winning
+	 */
+	public boolean solve(){
+		Node initial = this.node((State) this.automaton.initials().iterator().next());
+		ArrayDeque<Node> stack = new ArrayDeque<>();
+		stack.push(initial);
+
+		while (initial.status == UNKNOWN && !stack.isEmpty()){
+			Node n = stack.pop();
+
+			if (n.status != UNKNOWN || n.groups != null){
+				continue;
+			}
+
+			this.expand(n);
+
+			if (n.status == UNKNOWN){
+				for (Group g : n.groups){
+					if (!g.dead){
+						for (Node t : g.successors){
+							if (t.status == UNKNOWN && t.groups == null){
+								stack.push(t);
+							}
+						}
+					}
+				}
+			}
+		}
+
+		//Exhausted: the undecided states cannot reach a terminal state
+		if (initial.status == UNKNOWN){
+			initial.status = LOSE;
+		}
+
+		this.solved = true;
+		return initial.status == WIN;
+	}
+
+	private Node node(State s){
+		Node res = this.nodes.get(s);
+
+		if (res == null){
+			res = new Node(s);
+			this.nodes.put(s, res);
+		}
+
+		return res;
+	}
+
+	private void expand(Node n){
+		this.expandedStates++;
+
+		HashMap<BitsetInterpretation, LinkedHashSet<Node>> moves = new HashMap<>();
+		Set<Transition<Object>> transitions = this.automaton.delta(n.state);
+
+		for (Transition<Object> t : transitions){
+			this.examinedTransitions++;
+			SynthTransitionLabel label = gameLabel(t.label(), this.domain);
+
+			if (label instanceof BitsetPartitionedInterpretation){
+				BitsetInterpretation y = ((BitsetPartitionedInterpretation) label).getSystemMask();
+				moves.computeIfAbsent(y, k -> new LinkedHashSet<>()).add(this.node(t.end()));
+			} else if (!(label instanceof SynthEmptyTrace)){
+				throw new RuntimeException("Unknown label type");
+			}
+		}
+
+		n.groups = new ArrayList<>(moves.size());
+		Group winning = null;
+
+		for (BitsetInterpretation y : moves.keySet()){
+			Group g = new Group(n, y, moves.get(y).toArray(new Node[0]));
+			n.groups.add(g);
+
+			for (Node t : g.successors){
+				t.predecessors.add(g);
+
+				if (t.status == LOSE){
+					g.dead = true;
+				} else if (t.status == UNKNOWN){
+					g.pending++;
+				}
+			}
+
+			if (!g.dead){
+				n.liveGroups++;
+
+				if (g.pending == 0 && winning == null){
+					winning = g;
+				}
+			}
+		}
+
+		if (winning != null){
+			this.win(winning);
+		} else if (n.liveGroups == 0){
+			this.lose(n);
+		}
+	}
+
+	private void win(Group group){
+		ArrayDeque<Group> queue = new ArrayDeque<>();
+		queue.add(group);
+
+		while (!queue.isEmpty()){
+			Group g = queue.poll();
+			Node n = g.source;
+
+			if (n.status != UNKNOWN){
+				continue;
+			}
+
+			n.status = WIN;
+			n.winningGroup = g;
+
+			for (Group p : n.predecessors){
+				if (!p.dead && --p.pending == 0 && p.source.status == UNKNOWN){
+					queue.add(p);
+				}
+			}
+		}
+	}
+
+	private void lose(Node node){
+		ArrayDeque<Node> queue = new ArrayDeque<>();
+		node.status = LOSE;
+		queue.add(node);
+
+		while (!queue.isEmpty()){
+			Node n = queue.poll();
+
+			for (Group p : n.predecessors){
+				if (!p.dead){
+					p.dead = true;
+					Node s = p.source;
+
+					if (--s.liveGroups == 0 && s.status == UNKNOWN){
+						s.status = LOSE;
+						queue.add(s);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the states known to be winning: the terminal states that have been reached, and the expanded states
+	 * that have been decided as winning
+	 * @return the set of winning states
+	 */
+	public HashSet<State> getWinningStates(){
+		this.checkSolved();
+		HashSet<State> res = new HashSet<>();
+
+		for (Node n : this.nodes.values()){
+			if (n.status == WIN){
+				res.add(n.state);
+			}
+		}
+
+		return res;
+	}
+
+	/**
+	 * Returns, for every non terminal winning state, the system move that decided it
+	 * @return the output function
+	 */
+	public OutputFunction getOutputFunction(){
+		this.checkSolved();
+		OutputFunction res = new OutputFunction();
+
+		for (Node n : this.nodes.values()){
+			if (n.status == WIN && n.winningGroup != null){
+				HashSet<BitsetInterpretation> moves = new HashSet<>();
+				moves.add(n.winningGroup.move);
+				res.put(n.state, moves);
+			}
+		}
+
+		return res;
+	}
+
+	private void checkSolved(){
+		if (!this.solved){
+			throw new RuntimeException("Method solve() must be called first");
+		}
+	}
+
+	@Override
+	public String toString(){
+		int total = this.getTotalStates();
+		return "On-the-fly solver: expanded " + this.expandedStates + " of " + total + " states ("
+				+ this.getAvoidedStates() + " avoided), discovered " + this.nodes.size() + ", examined "
+				+ this.examinedTransitions + " transitions";
+	}
+
+	//<editor-fold desc="Statistics" defaultState="collapsed">
+	public int getExpandedStates(){
+		return expandedStates;
+	}
+
+	public int getDiscoveredStates(){
+		return this.nodes.size();
+	}
+
+	public int getTotalStates(){
+		return this.automaton.states().size();
+	}
+
+	/**
+	 * Returns the number of states whose transitions have never been examined, nor translated to the game
+	 * @return the number of states of the automaton minus the expanded ones
+	 */
+	public int getAvoidedStates(){
+		return this.getTotalStates() - this.expandedStates;
+	}
+
+	public long getExaminedTransitions(){
+		return examinedTransitions;
+	}
+	//</editor-fold>
+
+	private static class Node {
+
+		private final State state;
+		private int status;
+
+		//Null until the state is expanded
+		private ArrayList<Group> groups;
+		private int liveGroups;
+		private Group winningGroup;
+
+		private final ArrayList<Group> predecessors;
+
+		private Node(State state){
+			this.state = state;
+			this.status = state.isTerminal() ? WIN : UNKNOWN;
+			this.predecessors = new ArrayList<>(2);
+		}
+	}
+
+	//A system move of a state, with its successors
+	private static class Group {
+
+		private final Node source;
+		private final BitsetInterpretation move;
+		private final Node[] successors;
+
+		//Successors that are not decided yet; the group is dead once one of them loses
+		private int pending;
+		private boolean dead;
+
+		private Group(Node source, BitsetInterpretation move, Node[] successors){
+			this.source = source;
+			this.move = move;
+			this.successors = successors;
+		}
+	}
+}
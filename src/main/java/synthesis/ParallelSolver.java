@@ -0,0 +1,347 @@
+package synthesis;
+
+import rationals.State;
+import synthesis.maps.GameArena;
+import synthesis.maps.IntList;
+import synthesis.maps.OutputFunction;
+import synthesis.metrics.PhaseTracker;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * ParallelSolver
+ * Parallel version of the backward worklist of SolverMode.ARENA, run on a ForkJoinPool.
+ * Rounds are separated by barriers: in every round, the frontier (the states that became winning in the previous
+ * round) is split in chunks, and every chunk decrements the atomic counters of the move groups leading to its states.
+ * A group whose counter drops to zero makes its source winning in this round; sources are claimed in a lock-free
+ * atomic bitset, and the winning moves are collected per chunk, as OutputFunction fragments. Fragments are merged
+ * once the fixpoint is reached, so the result is the same of the sequential solvers.
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public class ParallelSolver {
+
+	/**
+	 * Smallest number of frontier states handled by a task; smaller frontiers run on the calling thread
+	 */
+	public static final int MIN_CHUNK = 256;
+
+	//Chunks per worker thread, so that uneven chunks are balanced by work stealing
+	private static final int CHUNKS_PER_WORKER = 4;
+
+	private final GameArena arena;
+	private final ForkJoinPool pool;
+
+	private AtomicIntegerArray pending;
+	//States that won in a previous round; only written between rounds
+	private long[] winning;
+	//States that won in a previous round or in the current one
+	private AtomicLongArray claimed;
+
+	private HashSet<State> winningStates;
+	private OutputFunction outputFunction;
+	private int roundCount;
+	private int taskCount;
+
+	/**
+	 * The states and the moves found by a chunk of a round; the winning move groups are turned into an OutputFunction
+	 * fragment once the fixpoint is reached, so that the rounds do not pay for hashing
+	 */
+	private static class Fragment {
+		private final IntList newStates = new IntList();
+		private final IntList winningGroups = new IntList();
+		private OutputFunction moves;
+		private boolean initialWon;
+	}
+
+	/**
+	 * Instantiates a new ParallelSolver
+	 * @param arena the arena of the game
+	 * @param pool the pool running the rounds
+	 */
+	public ParallelSolver(GameArena arena, ForkJoinPool pool){
+		this.arena = arena;
+		this.pool = pool;
+	}
+
+	/**
+	 * Computes the winning region
+	 * @param realizabilityOnly if true, stops as soon as the initial state wins, and skips the output function
+	 * @param tracker receives the growth of the winning region at every round
+	 * @return true if the initial state is winning
+	 */
+	public boolean solve(boolean realizabilityOnly, PhaseTracker tracker){
+		GameArena arena = this.arena;
+		int stateCount = arena.getStateCount();
+		int groupCount = arena.getGroupCount();
+
+		this.winningStates = null;
+		this.outputFunction = null;
+		this.roundCount = 0;
+		this.taskCount = 0;
+
+		if (realizabilityOnly && arena.isTerminal(arena.getInitialState())){
+			return true;
+		}
+
+		this.pending = new AtomicIntegerArray(groupCount);
+		for (int g = 0; g < groupCount; g++){
+			this.pending.set(g, arena.getEdgeEnd(g) - arena.getEdgeStart(g));
+		}
+
+		this.winning = new long[(stateCount + 63) >>> 6];
+		this.claimed = new AtomicLongArray(this.winning.length);
+
+		IntList terminals = new IntList();
+		for (int s = 0; s < stateCount; s++){
+			if (arena.isTerminal(s)){
+				terminals.add(s);
+				this.winning[s >>> 6] |= 1L << s;
+				this.claimed.set(s >>> 6, this.winning[s >>> 6]);
+			}
+		}
+
+		int[] frontier = terminals.toArray();
+		int winningCount = frontier.length;
+		tracker.round(0, frontier.length, winningCount);
+
+		List<Fragment> fragments = new ArrayList<>();
+
+		while (frontier.length > 0){
+			this.roundCount++;
+			List<Fragment> round = this.runRound(frontier, realizabilityOnly);
+			IntList newFrontier = new IntList();
+
+			for (Fragment f : round){
+				if (f.initialWon){
+					return true;
+				}
+
+				for (int i = 0; i < f.newStates.size(); i++){
+					int s = f.newStates.get(i);
+					this.winning[s >>> 6] |= 1L << s;
+					newFrontier.add(s);
+				}
+
+				if (f.winningGroups.size() > 0){
+					fragments.add(f);
+				}
+			}
+
+			frontier = newFrontier.toArray();
+
+			if (frontier.length > 0){
+				winningCount += frontier.length;
+				tracker.round(this.roundCount, frontier.length, winningCount);
+			}
+		}
+
+		boolean res = this.isWinning(arena.getInitialState());
+
+		if (!realizabilityOnly){
+			this.winningStates = new HashSet<>();
+			for (int s = 0; s < stateCount; s++){
+				if (this.isWinning(s)){
+					this.winningStates.add(arena.getState(s));
+				}
+			}
+
+			this.buildFragments(fragments);
+
+			//The sets of the fragments are reused; only states won by several chunks need a union
+			this.outputFunction = new OutputFunction(winningCount);
+			for (Fragment f : fragments){
+				f.moves.forEach((state, moves) -> this.outputFunction.merge(state, moves, (x, y) -> {
+					x.addAll(y);
+					return x;
+				}));
+			}
+		}
+
+		//Only the results are kept
+		this.pending = null;
+		this.claimed = null;
+
+		return res;
+	}
+
+	private void buildFragments(List<Fragment> fragments){
+		List<Callable<OutputFunction>> tasks = new ArrayList<>();
+
+		for (Fragment f : fragments){
+			tasks.add(() -> {
+				OutputFunction moves = new OutputFunction(f.newStates.size());
+
+				for (int i = 0; i < f.winningGroups.size(); i++){
+					int g = f.winningGroups.get(i);
+					moves.computeIfAbsent(this.arena.getState(this.arena.getGroupSource(g)), k -> new HashSet<>())
+							.add(this.arena.getSystemMove(this.arena.getGroupMove(g)));
+				}
+
+				f.moves = moves;
+				return moves;
+			});
+		}
+
+		this.invokeAll(tasks);
+	}
+
+	private <T> List<T> invokeAll(List<Callable<T>> tasks){
+		List<T> res = new ArrayList<>(tasks.size());
+
+		try {
+			for (Future<T> f : this.pool.invokeAll(tasks)){
+				res.add(f.get());
+			}
+		} catch (InterruptedException e){
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e){
+			throw new RuntimeException(e.getCause());
+		}
+
+		return res;
+	}
+
+	private List<Fragment> runRound(int[] frontier, boolean realizabilityOnly){
+		int chunk = Math.max(MIN_CHUNK,
+				(frontier.length + this.pool.getParallelism() * CHUNKS_PER_WORKER - 1) / (this.pool.getParallelism() * CHUNKS_PER_WORKER));
+
+		if (frontier.length <= chunk){
+			this.taskCount++;
+			List<Fragment> res = new ArrayList<>(1);
+			res.add(this.processChunk(frontier, 0, frontier.length, realizabilityOnly));
+			return res;
+		}
+
+		List<Callable<Fragment>> tasks = new ArrayList<>();
+		for (int first = 0; first < frontier.length; first += chunk){
+			int from = first;
+			int to = Math.min(frontier.length, first + chunk);
+			tasks.add(() -> this.processChunk(frontier, from, to, realizabilityOnly));
+		}
+
+		this.taskCount += tasks.size();
+		return this.invokeAll(tasks);
+	}
+
+	private Fragment processChunk(int[] frontier, int from, int to, boolean realizabilityOnly){
+		GameArena arena = this.arena;
+		Fragment res = new Fragment();
+
+		for (int i = from; i < to; i++){
+			int t = frontier[i];
+
+			for (int p = arena.getPredecessorStart(t); p < arena.getPredecessorEnd(t); p++){
+				int g = arena.getPredecessorGroup(p);
+
+				if (this.pending.decrementAndGet(g) == 0){
+					int s = arena.getGroupSource(g);
+
+					//States that won in a previous round keep the moves found back then
+					if (this.isWinning(s)){
+						continue;
+					} else if (realizabilityOnly && s == arena.getInitialState()){
+						res.initialWon = true;
+						return res;
+					}
+
+					if (this.claim(s)){
+						res.newStates.add(s);
+					}
+
+					if (!realizabilityOnly){
+						res.winningGroups.add(g);
+					}
+				}
+			}
+		}
+
+		return res;
+	}
+
+	private boolean isWinning(int s){
+		return (this.winning[s >>> 6] & (1L << s)) != 0L;
+	}
+
+	/**
+	 * Atomically marks a state as winning in the current round
+	 * @param s the state
+	 * @return true if the state has been claimed by this call, false if another chunk claimed it first
+	 */
+	private boolean claim(int s){
+		int word = s >>> 6;
+		long bit = 1L << s;
+
+		while (true){
+			long current = this.claimed.get(word);
+
+			if ((current & bit) != 0L){
+				return false;
+			} else if (this.claimed.compareAndSet(word, current, current | bit)){
+				return true;
+			}
+		}
+	}
+
+	//<editor-fold desc="Getter Methods" defaultState="collapsed">
+	/**
+	 * Returns the winning states; solve() must have been called without realizabilityOnly
+	 * @return the set of winning states
+	 */
+	public HashSet<State> getWinningStates(){
+		return winningStates;
+	}
+
+	public OutputFunction getOutputFunction(){
+		return outputFunction;
+	}
+
+	/**
+	 * Returns the number of rounds of the last solution, excluding the round of the terminal states
+	 * @return the number of rounds run on the pool
+	 */
+	public int getRoundCount(){
+		return roundCount;
+	}
+
+	/**
+	 * Returns the number of chunks processed during the last solution
+	 * @return the number of tasks
+	 */
+	public int getTaskCount(){
+		return taskCount;
+	}
+
+	public GameArena getArena(){
+		return arena;
+	}
+
+	public ForkJoinPool getPool(){
+		return pool;
+	}
+	//</editor-fold>
+}
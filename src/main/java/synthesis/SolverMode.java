@@ -0,0 +1,73 @@
+package synthesis;
+
+/**
+ * SolverMode
+ * Algorithms available to compute the winning region of the synthesis game
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public enum SolverMode {
+
+	/**
+	 * Round based fixpoint: every round rescans all the states that are not winning yet.
+	 */
+	FIXPOINT,
+
+	/**
+	 * Backward worklist: every (state, system move) pair keeps a counter of its successors that are not winning yet,
+	 * and only the predecessors of the newly winning states are updated. Each transition is visited a constant
+	 * number of times.
+	 */
+	WORKLIST,
+
+	/**
+	 * Backward worklist over a GameArena: the transition map is replaced by int indexed compressed-sparse-row arrays,
+	 * and the winning region and the winning moves are kept in primitive arrays as well.
+	 * The OutputFunction is only built when it is explicitly requested.
+	 */
+	ARENA,
+
+	/**
+	 * Symbolic solver: states and propositions are encoded as BDDs, and the winning region is computed with
+	 * symbolic pre-images, see SymbolicGame. The variable ordering is set with SynthesisOptions. The transition
+	 * relation is encoded from the labels of the automaton of the formula, that is only translated to the game
+	 * automaton if the game is requested, unless SynthesisOptions.setMinimizeGame is set.
+	 */
+	SYMBOLIC,
+
+	/**
+	 * Forward on-the-fly solver: states are expanded lazily from the initial state, and the search stops as soon as
+	 * the initial state is decided, see OnTheFlySolver. No transition map is built, and only the labels of the expanded
+	 * states are translated, unless SynthesisOptions.setMinimizeGame is set. Only the decided part of the game is
+	 * returned: the output function generally differs from the one of the backward solvers.
+	 */
+	ON_THE_FLY,
+
+	/**
+	 * Backward solver over a GuardedArena, whose edges are labelled with cube covers, one per distinct target;
+	 * the winning system moves are computed as unions of cubes. The strategy is played on the guards, see
+	 * GuardedStrategy, and the OutputFunction is only enumerated when it is explicitly requested.
+	 */
+	GUARDED,
+
+	/**
+	 * Parallel backward worklist over a GameArena, run on the ForkJoinPool of the SynthesisOptions, see
+	 * ParallelSolver. Gives the same winning region and output function of the sequential solvers.
+	 */
+	PARALLEL
+}
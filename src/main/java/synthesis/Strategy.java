@@ -0,0 +1,82 @@
+package synthesis;
+
+import synthesis.symbols.PartitionedDomain;
+
+/**
+ * Strategy
+ * Immutable, table like view of a synthesized strategy. States are numbered from 0; moves are encoded as masks over
+ * the indices of the partitioned domain.
+ * Implementations must be immutable and safe to share between threads; the state of a single game is kept by a
+ * StrategySession, so any number of concurrent games can be played against one Strategy without locking.
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public interface Strategy {
+
+	/**
+	 * Output of terminal states: the game is won
+	 */
+	long SUCCESS = -1L;
+
+	/**
+	 * Next state of the environment moves that have no transition
+	 */
+	int NO_STATE = -1;
+
+	/**
+	 * Retrieves the state reached from the given state with the given environment move
+	 * @param state the current state
+	 * @param environmentMask the environment move, encoded over the environment index of the domain
+	 * @return the next state, or NO_STATE if the environment move has no transition
+	 */
+	int next(int state, long environmentMask);
+
+	/**
+	 * Retrieves the move the system should perform in the given state
+	 * @param state the state
+	 * @return the system move, encoded over the system index of the domain, or SUCCESS if the state is terminal
+	 */
+	long output(int state);
+
+	int getInitialState();
+
+	int getStateCount();
+
+	PartitionedDomain getDomain();
+
+	default boolean isTerminal(int state){
+		return this.output(state) == SUCCESS;
+	}
+
+	/**
+	 * Starts a new game against this strategy
+	 * @return a new StrategySession positioned on the initial state
+	 */
+	default StrategySession newSession(){
+		return new StrategySession(this);
+	}
+
+	/**
+	 * Creates a table of sessions against this strategy, that can be advanced in batches
+	 * @param capacity the expected number of concurrent sessions
+	 * @return a new, empty StrategySessionTable
+	 */
+	default StrategySessionTable newSessionTable(int capacity){
+		return new StrategySessionTable(this, capacity);
+	}
+}
@@ -1,11 +1,15 @@
 package synthesis;
 
-import formula.ltlf.LTLfLocalVar;
 import rationals.Automaton;
 import rationals.State;
+import synthesis.codegen.GeneratedStrategy;
+import synthesis.codegen.StrategyClassGenerator;
+import synthesis.codegen.StrategySourceWriter;
 import synthesis.maps.OutputFunction;
 import synthesis.symbols.*;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Set;
 
@@ -40,9 +44,15 @@ public class StrategyGenerator {
 
 	private State currentState;
 	private StrategyOutput lastStrategyOutput;
+	private BitsetInterpretation lastSystemMove;
 
 	private OutputFunction outputFunction;
 
+	//Table form of the strategy, used whenever the strategy is small enough to be compiled, see compile()
+	private Strategy strategy;
+	private StrategySession session;
+	private StrategyOutput[] strategyOutputs;
+
 	/**
 	 * Instatiates a new StrategyGenerator
 	 * @param automaton the automaton containing the strategies
@@ -50,11 +60,61 @@ public class StrategyGenerator {
 	 * @param outputFunction the output function for the automaton
 	 */
 	public StrategyGenerator(Automaton automaton, PartitionedDomain domain, OutputFunction outputFunction){
+		this(automaton, domain, outputFunction, true);
+	}
+
+	/**
+	 * Instatiates a new StrategyGenerator, that steps the strategy automaton unless it is compiled
+	 * @param automaton the automaton containing the strategies
+	 * @param domain the partitioned domain of the problem
+	 * @param outputFunction the output function for the automaton
+	 * @param compile true to compile the strategy to tables if it fits CompiledStrategy.DEFAULT_TABLE_SIZE
+	 */
+	public StrategyGenerator(Automaton automaton, PartitionedDomain domain, OutputFunction outputFunction,
+							 boolean compile){
 		this.automaton = automaton;
 		this.domain = domain;
 		this.outputFunction = outputFunction;
 		this.currentState = (State) this.automaton.initials().iterator().next();
 		this.lastStrategyOutput = null;
+
+		if (compile && CompiledStrategy.isCompilable(domain, automaton.states().size(),
+				CompiledStrategy.DEFAULT_TABLE_SIZE)){
+			this.useStrategy(new CompiledStrategy(automaton, domain, outputFunction));
+		}
+	}
+
+	/**
+	 * Instatiates a new StrategyGenerator that plays a single game against a (possibly shared) Strategy;
+	 * getAutomaton() returns null for such generators.
+	 * @param strategy the strategy
+	 */
+	public StrategyGenerator(Strategy strategy){
+		this.domain = strategy.getDomain();
+		this.useStrategy(strategy);
+	}
+
+	private void useStrategy(Strategy strategy){
+		this.strategy = strategy;
+		this.session = strategy.newSession();
+		this.strategyOutputs = new StrategyOutput[strategy.getStateCount()];
+	}
+
+	//Outputs are decoded once, on first use, so that stepping does not allocate and opening large strategies is cheap
+	private StrategyOutput strategyOutput(int state){
+		StrategyOutput res = this.strategyOutputs[state];
+
+		if (res == null){
+			if (this.strategy.isTerminal(state)){
+				res = new StrategySuccessOutput();
+			} else {
+				res = this.domain.getSymbols().systemInterpretation(this.strategy.output(state));
+			}
+
+			this.strategyOutputs[state] = res;
+		}
+
+		return res;
 	}
 
 	/**
@@ -65,6 +125,11 @@ public class StrategyGenerator {
 	 * @return A StrategyOutput containing tha first move the system should perform, or SUCCESS if the game is won.
 	 */
 	public StrategyOutput getFirstMove(){
+		if (this.strategy != null){
+			this.session.getFirstMove();
+			return this.strategyOutput(this.session.getCurrentState());
+		}
+
 		StrategyOutput res;
 
 		if (this.currentState.isInitial()){
@@ -72,7 +137,8 @@ public class StrategyGenerator {
 				res = new StrategySuccessOutput();
 			} else {
 				//Get first winning move from initial state
-				res = this.outputFunction.get(this.currentState).iterator().next();
+				this.lastSystemMove = this.outputFunction.get(this.currentState).iterator().next();
+				res = this.domain.getSymbols().systemInterpretation(this.lastSystemMove);
 				this.lastStrategyOutput = res;
 			}
 		} else {
@@ -89,11 +155,16 @@ public class StrategyGenerator {
 	 * this method takes X_i as input and returns Y_(i+1) as output.
 	 * <b>NOTE:</b> when starting a new game, method getFirstMove() <strong>MUST</strong>
 	 * be called <strong>EXACTLY ONCE</strong> before calling this method.
-	 * @param environmentInput the action performed by the environment during the current turn.
+	 * @param environmentInput the action performed by the environment during the current turn, either as an
+	 * Interpretation or as a BitsetInterpretation over the environment index of the domain.
 	 * @return a StrategyOutput representing the action the system should perform the next turn,
 	 * or SUCCESS if the game is won.
 	 */
 	public StrategyOutput step(SynthTraceInput environmentInput){
+		if (this.strategy != null){
+			return this.strategyStep(environmentInput);
+		}
+
 		StrategyOutput res;
 
 		if (this.lastStrategyOutput == null){
@@ -108,66 +179,199 @@ public class StrategyGenerator {
 			res = new StrategySuccessOutput();
 		} else {
 
-			if (environmentInput instanceof Interpretation){
-				Interpretation environmentMove = (Interpretation) environmentInput;
-
-				//Input sanity checks
-				for (LTLfLocalVar v : environmentMove){
-					if (this.domain.getSystemDomain().contains(v)){
-						throw new RuntimeException("Proposition " + v + " is part of the system domain!");
-					} else if (!this.domain.getEnvironmentDomain().contains(v)){
-						throw new RuntimeException("Proposition " + v + " is not part of the environment domain");
-					}
-				}
+			BitsetInterpretation environmentMove;
 
-				Interpretation lastSystemInterpretation;
+			if (environmentInput instanceof BitsetInterpretation){
+				environmentMove = (BitsetInterpretation) environmentInput;
 
-				if (this.lastStrategyOutput instanceof Interpretation){
-					lastSystemInterpretation = (Interpretation) this.lastStrategyOutput;
-				} else {
-					throw new RuntimeException("An unpredicted error occurred");
+				//Input sanity checks
+				if (environmentMove.highestIndex() >= this.domain.getEnvironmentIndex().size()){
+					throw new RuntimeException("Input " + environmentMove + " is not defined over the environment domain");
 				}
+			} else if (environmentInput instanceof Interpretation){
+				//Input sanity checks are performed while encoding
+				environmentMove = this.domain.encodeEnvironment((Interpretation) environmentInput);
+			} else {
+				throw new RuntimeException("Invalid environment input");
+			}
 
-				//Use previous selected move + environment move to move to next state
-				PartitionedInterpretation label = new PartitionedInterpretation(environmentMove, lastSystemInterpretation);
-				Set<State> currentStateSet = this.automaton.getStateFactory().stateSet();
-				currentStateSet.add(this.currentState);
-				Set<State> arrivalStates = this.automaton.step(currentStateSet, label);
-
-				//Update current state
-				if (arrivalStates.size() != 1){
-					throw new RuntimeException("Error! Automaton is not deterministic");
-				} else {
-					this.currentState = arrivalStates.iterator().next();
-				}
+			//Use previous selected move + environment move to move to next state
+			//Looked up without interning, so that arbitrary inputs do not grow the symbol table
+			BitsetPartitionedInterpretation label = this.domain.getSymbols().findLabel(environmentMove,
+					this.lastSystemMove);
+			Set<State> currentStateSet = this.automaton.getStateFactory().stateSet();
+			currentStateSet.add(this.currentState);
+			Set<State> arrivalStates = this.automaton.step(currentStateSet, label);
 
-				if (this.currentState.isTerminal()){
-					res = new StrategySuccessOutput();
-				} else {
-					//Select and return next strategy move from the new current state
-					this.lastStrategyOutput = this.outputFunction.get(this.currentState).iterator().next();
-					res = this.lastStrategyOutput;
-				}
+			//Update current state
+			if (arrivalStates.size() != 1){
+				throw new RuntimeException("Error! Automaton is not deterministic");
+			} else {
+				this.currentState = arrivalStates.iterator().next();
+			}
 
+			if (this.currentState.isTerminal()){
+				res = new StrategySuccessOutput();
 			} else {
-				throw new RuntimeException("Invalid environment input");
+				//Select and return next strategy move from the new current state
+				this.lastSystemMove = this.outputFunction.get(this.currentState).iterator().next();
+				this.lastStrategyOutput = this.domain.getSymbols().systemInterpretation(this.lastSystemMove);
+				res = this.lastStrategyOutput;
 			}
 		}
 
 		return res;
 	}
 
+	private StrategyOutput strategyStep(SynthTraceInput environmentInput){
+		if (!this.session.isStarted()){
+			throw new RuntimeException("Method getFirstMove() must be called first");
+		} else if (this.session.isWon()){
+			return this.strategyOutput(this.session.getCurrentState());
+		}
+
+		long environmentMask;
+
+		if (environmentInput instanceof BitsetInterpretation){
+			environmentMask = ((BitsetInterpretation) environmentInput).toLong();
+		} else if (environmentInput instanceof Interpretation){
+			//Input sanity checks are performed while encoding
+			environmentMask = this.domain.encodeEnvironment((Interpretation) environmentInput).toLong();
+		} else {
+			throw new RuntimeException("Invalid environment input");
+		}
+
+		this.session.step(environmentMask);
+		return this.strategyOutput(this.session.getCurrentState());
+	}
+
+	/**
+	 * Allocation free version of getFirstMove(), only available if the strategy has been compiled, see compile().
+	 * <b>NOTE:</b> this method <strong>MUST</strong> be called <strong>EXACTLY ONCE</strong>
+	 * at the beginning of every new game, and only at the beginning.
+	 * @return the first move of the system, encoded over the system index of the domain,
+	 * or Strategy.SUCCESS if the game is won.
+	 */
+	public long getFirstMoveMask(){
+		this.checkCompiled();
+		return this.session.getFirstMove();
+	}
+
+	/**
+	 * Allocation free version of step(), only available if the strategy has been compiled, see compile().
+	 * <b>NOTE:</b> when starting a new game, method getFirstMoveMask() or getFirstMove()
+	 * <strong>MUST</strong> be called <strong>EXACTLY ONCE</strong> before calling this method.
+	 * @param environmentMask the action performed by the environment during the current turn,
+	 * encoded over the environment index of the domain.
+	 * @return the move the system should perform the next turn, encoded over the system index of the domain,
+	 * or Strategy.SUCCESS if the game is won.
+	 */
+	public long step(long environmentMask){
+		this.checkCompiled();
+		return this.session.step(environmentMask);
+	}
+
+	private void checkCompiled(){
+		if (this.strategy == null){
+			throw new RuntimeException("Strategy has not been compiled, see compile()");
+		}
+	}
+
+	/**
+	 * Compiles the strategy to tables, see CompiledStrategy, and resets the execution of the game. Strategies are
+	 * compiled when the generator is created only if their next state table has at most
+	 * CompiledStrategy.DEFAULT_TABLE_SIZE entries; this method compiles them up to CompiledStrategy.MAX_TABLE_SIZE.
+	 * @return the compiled Strategy played by this generator
+	 */
+	public Strategy compile(){
+		if (this.strategy == null){
+			if (!CompiledStrategy.isCompilable(this.domain, this.automaton.states().size())){
+				throw new RuntimeException("Strategy is too large to be compiled");
+			}
+
+			this.useStrategy(new CompiledStrategy(this.automaton, this.domain, this.outputFunction));
+			this.resetExecution();
+		}
+
+		return this.strategy;
+	}
+
+	//The compiled strategy, or a compiled copy that this generator does not play, so that the game is not reset
+	private Strategy tableStrategy(){
+		if (this.strategy != null){
+			return this.strategy;
+		} else if (!CompiledStrategy.isCompilable(this.domain, this.automaton.states().size())){
+			throw new RuntimeException("Strategy is too large to be compiled");
+		}
+
+		return new CompiledStrategy(this.automaton, this.domain, this.outputFunction);
+	}
+
 	/**
 	 * Resets the execution of the game to the initial state.
 	 */
 	public void resetExecution(){
-		this.currentState = (State) this.automaton.initials().iterator().next();
-		this.lastStrategyOutput = null;
+		if (this.strategy != null){
+			this.session.reset();
+		}
+
+		if (this.automaton != null){
+			this.currentState = (State) this.automaton.initials().iterator().next();
+			this.lastStrategyOutput = null;
+			this.lastSystemMove = null;
+		}
+	}
+
+	/**
+	 * Returns the immutable table form of the strategy, that can be shared between threads:
+	 * use Strategy.newSession() to play concurrent games against it.
+	 * @return the Strategy played by this generator, or null if the strategy has not been compiled, see compile()
+	 */
+	public Strategy getStrategy(){
+		return strategy;
+	}
+
+	/**
+	 * Writes the strategy to a file, that can be loaded with MappedStrategy.open() and played with
+	 * new StrategyGenerator(strategy) without synthesizing again; the strategy is compiled if needed.
+	 * @param path the destination file
+	 * @throws IOException if the file cannot be written
+	 */
+	public void save(Path path) throws IOException {
+		MappedStrategy.write(this.tableStrategy(), path);
+	}
+
+	/**
+	 * Replaces the table form of the strategy with a class generated at runtime, see StrategyClassGenerator,
+	 * and resets the execution of the game. Only available if the strategy is small enough, see
+	 * StrategyClassGenerator.isGeneratable().
+	 * @return the GeneratedStrategy now played by this generator
+	 */
+	public Strategy generateClass(){
+		this.compile();
+
+		if (!(this.strategy instanceof GeneratedStrategy)){
+			this.useStrategy(StrategyClassGenerator.generate(this.strategy));
+			this.resetExecution();
+		}
+
+		return this.strategy;
+	}
+
+	/**
+	 * Writes the strategy as a self contained Java class, see StrategySourceWriter
+	 * @param path the destination file
+	 * @param className the fully qualified name of the class
+	 * @throws IOException if the file cannot be written
+	 */
+	public void writeJavaSource(Path path, String className) throws IOException {
+		StrategySourceWriter.write(this.tableStrategy(), className, path);
 	}
 
 	/**
 	 * Returns the strategy automaton, that represents all the possible strategies for the current problem.
-	 * @return an Automaton representing all the possible strategies for the problem at hand.
+	 * @return an Automaton representing all the possible strategies for the problem at hand,
+	 * or null if the generator has been built from a CompiledStrategy only.
 	 */
 	public Automaton getAutomaton(){
 		return automaton;
@@ -0,0 +1,97 @@
+package synthesis;
+
+/**
+ * StrategyMinimization
+ * Result of CompiledStrategy.minimize: the minimal strategy, with the size of the winning region it has been
+ * extracted from.
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public class StrategyMinimization {
+
+	private final CompiledStrategy strategy;
+
+	private final int winningStates;
+	private final int winningMoves;
+	private final int reachableStates;
+	private final int states;
+	private final int rounds;
+	private final long nanos;
+
+	StrategyMinimization(CompiledStrategy strategy, int winningStates, int winningMoves, int reachableStates,
+						 int states, int rounds, long nanos){
+		this.strategy = strategy;
+		this.winningStates = winningStates;
+		this.winningMoves = winningMoves;
+		this.reachableStates = reachableStates;
+		this.states = states;
+		this.rounds = rounds;
+		this.nanos = nanos;
+	}
+
+	@Override
+	public String toString(){
+		return "Strategy minimization: " + this.winningStates + " winning states with " + this.winningMoves
+				+ " winning moves -> " + this.reachableStates + " reachable states -> " + this.states + " states, "
+				+ this.strategy.getEstimatedBytes() + " bytes; " + this.rounds + " refinement rounds, "
+				+ (this.nanos / 1000000) + " ms";
+	}
+
+	//<editor-fold desc="Getter Methods" defaultState="collapsed">
+	public CompiledStrategy getStrategy(){
+		return strategy;
+	}
+
+	/**
+	 * Returns the number of states of the winning region, i.e. of the automaton returned by the StrategyGenerator
+	 * when the strategy is not minimized
+	 * @return the number of winning states
+	 */
+	public int getWinningStates(){
+		return winningStates;
+	}
+
+	/**
+	 * Returns the number of (state, system move) pairs of the output function
+	 * @return the number of winning moves
+	 */
+	public int getWinningMoves(){
+		return winningMoves;
+	}
+
+	/**
+	 * Returns the number of states reachable from the initial state, once a single move is fixed for every state
+	 * @return the number of reachable states
+	 */
+	public int getReachableStates(){
+		return reachableStates;
+	}
+
+	public int getStates(){
+		return states;
+	}
+
+	public int getRounds(){
+		return rounds;
+	}
+
+	public long getNanos(){
+		return nanos;
+	}
+	//</editor-fold>
+}
@@ -0,0 +1,126 @@
+package synthesis;
+
+/**
+ * StrategySession
+ * Cursor over a Strategy, that keeps the state of a single game: the current state and the last move.
+ * Sessions are cheap, and can be created by the thousands against a shared Strategy; a single session must not be
+ * used by more than one thread at a time.
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public final class StrategySession {
+
+	//Value of lastMove before the first move of the game
+	private static final long NO_MOVE = -2L;
+
+	private final Strategy strategy;
+	private int currentState;
+	private long lastMove;
+
+	/**
+	 * Instantiates a new StrategySession, positioned on the initial state of the strategy
+	 * @param strategy the strategy to play
+	 */
+	public StrategySession(Strategy strategy){
+		this.strategy = strategy;
+		this.reset();
+	}
+
+	/**
+	 * Returns the first move of the system.
+	 * <b>NOTE:</b> this method <strong>MUST</strong> be called <strong>EXACTLY ONCE</strong>
+	 * at the beginning of every new game, and only at the beginning.
+	 * @return the first move of the system, encoded over the system index of the domain,
+	 * or Strategy.SUCCESS if the game is won.
+	 */
+	public long getFirstMove(){
+		if (this.currentState != this.strategy.getInitialState()){
+			throw new RuntimeException("Cannot perform this action in the current state");
+		}
+
+		this.lastMove = this.strategy.output(this.currentState);
+		return this.lastMove;
+	}
+
+	/**
+	 * Proceeds to the next state of the game, and returns the move the system should perform at the next turn.
+	 * <b>NOTE:</b> when starting a new game, method getFirstMove() <strong>MUST</strong>
+	 * be called <strong>EXACTLY ONCE</strong> before calling this method.
+	 * @param environmentMask the action performed by the environment during the current turn,
+	 * encoded over the environment index of the domain.
+	 * @return the move the system should perform the next turn, encoded over the system index of the domain,
+	 * or Strategy.SUCCESS if the game is won.
+	 */
+	public long step(long environmentMask){
+		if (this.lastMove == NO_MOVE){
+			throw new RuntimeException("Method getFirstMove() must be called first");
+		} else if (this.lastMove == Strategy.SUCCESS){
+			return Strategy.SUCCESS;
+		}
+
+		int next = this.strategy.next(this.currentState, environmentMask);
+
+		if (next == Strategy.NO_STATE){
+			throw new RuntimeException("No transition for environment input " + environmentMask);
+		}
+
+		this.currentState = next;
+		this.lastMove = this.strategy.output(next);
+		return this.lastMove;
+	}
+
+	/**
+	 * Resets the session to the initial state, to start a new game.
+	 */
+	public void reset(){
+		this.currentState = this.strategy.getInitialState();
+		this.lastMove = NO_MOVE;
+	}
+
+	/**
+	 * Checks whether the game has been won
+	 * @return true if the last move returned was Strategy.SUCCESS
+	 */
+	public boolean isWon(){
+		return this.lastMove == Strategy.SUCCESS;
+	}
+
+	/**
+	 * Checks whether the game has started
+	 * @return true if getFirstMove() has been called since the last reset
+	 */
+	public boolean isStarted(){
+		return this.lastMove != NO_MOVE;
+	}
+
+	public int getCurrentState(){
+		return currentState;
+	}
+
+	/**
+	 * Returns the last move returned by the session
+	 * @return the last move, Strategy.SUCCESS if the game is won; undefined if the game has not started
+	 */
+	public long getLastMove(){
+		return lastMove;
+	}
+
+	public Strategy getStrategy(){
+		return strategy;
+	}
+}
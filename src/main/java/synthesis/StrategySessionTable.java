@@ -0,0 +1,319 @@
+package synthesis;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * StrategySessionTable
+ * Table of many concurrent games played against the same Strategy, that can be advanced in batches.
+ * Sessions are identified by int ids, and their state is kept in parallel arrays (current state and last move), so
+ * that a batch is a single tight loop over primitive arrays. Results are written in caller provided arrays.
+ * Opening and closing sessions is not thread safe; batches may be split across cores with stepBatchParallel().
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public class StrategySessionTable {
+
+	/**
+	 * Result of the batch entries that cannot be played: the session was never opened, has not started,
+	 * or is closed, or the environment move has no transition. The session is left unchanged.
+	 */
+	public static final long INVALID_INPUT = -3L;
+
+	/**
+	 * Batches with fewer entries than this are never split across cores
+	 */
+	public static final int PARALLEL_THRESHOLD = 1 << 12;
+
+	//Last move of the sessions that are open but not started yet, and of the closed ones
+	private static final long NO_MOVE = -2L;
+	private static final long CLOSED = -4L;
+
+	private final Strategy strategy;
+	private final int environmentBits;
+
+	private int[] states;
+	private long[] lastMoves;
+	private int size;
+
+	private int[] freeIds;
+	private int freeCount;
+
+	/**
+	 * Instantiates a new, empty StrategySessionTable
+	 * @param strategy the strategy played by all the sessions
+	 * @param capacity the expected number of concurrent sessions
+	 */
+	public StrategySessionTable(Strategy strategy, int capacity){
+		this.strategy = strategy;
+		this.environmentBits = strategy.getDomain().getEnvironmentIndex().size();
+
+		capacity = Math.max(capacity, 16);
+		this.states = new int[capacity];
+		this.lastMoves = new long[capacity];
+		this.size = 0;
+
+		this.freeIds = new int[16];
+		this.freeCount = 0;
+	}
+
+	/**
+	 * Opens a new session, positioned on the initial state of the strategy. Ids of closed sessions are reused.
+	 * @return the id of the new session
+	 */
+	public int openSession(){
+		int id;
+
+		if (this.freeCount > 0){
+			id = this.freeIds[--this.freeCount];
+		} else {
+			if (this.size == this.states.length){
+				this.states = Arrays.copyOf(this.states, this.size * 2);
+				this.lastMoves = Arrays.copyOf(this.lastMoves, this.size * 2);
+			}
+
+			id = this.size++;
+		}
+
+		this.reset(id);
+		return id;
+	}
+
+	/**
+	 * Closes a session; its id may be returned again by openSession()
+	 * @param id the id of the session
+	 */
+	public void closeSession(int id){
+		this.checkOpen(id);
+		this.lastMoves[id] = CLOSED;
+
+		if (this.freeCount == this.freeIds.length){
+			this.freeIds = Arrays.copyOf(this.freeIds, this.freeCount * 2);
+		}
+
+		this.freeIds[this.freeCount++] = id;
+	}
+
+	/**
+	 * Resets a session to the initial state, to start a new game
+	 * @param id the id of the session
+	 */
+	public void reset(int id){
+		this.states[id] = this.strategy.getInitialState();
+		this.lastMoves[id] = NO_MOVE;
+	}
+
+	/**
+	 * Returns the first move of the system in the given session, as StrategySession.getFirstMove()
+	 * @param id the id of the session
+	 * @return the first move of the system, or Strategy.SUCCESS if the game is won
+	 */
+	public long getFirstMove(int id){
+		this.checkOpen(id);
+
+		if (this.states[id] != this.strategy.getInitialState()){
+			throw new RuntimeException("Cannot perform this action in the current state");
+		}
+
+		this.lastMoves[id] = this.strategy.output(this.states[id]);
+		return this.lastMoves[id];
+	}
+
+	/**
+	 * Advances a single session, as StrategySession.step()
+	 * @param id the id of the session
+	 * @param environmentMask the action performed by the environment during the current turn
+	 * @return the move the system should perform the next turn, or Strategy.SUCCESS if the game is won
+	 */
+	public long step(int id, long environmentMask){
+		this.checkOpen(id);
+
+		if (this.lastMoves[id] == NO_MOVE){
+			throw new RuntimeException("Method getFirstMove() must be called first");
+		}
+
+		long res = this.stepEntry(id, environmentMask);
+
+		if (res == INVALID_INPUT){
+			throw new RuntimeException("No transition for environment input " + environmentMask);
+		}
+
+		return res;
+	}
+
+	/**
+	 * Returns the first move of the system in every given session
+	 * @param sessionIds the ids of the sessions
+	 * @param moves receives, at the same positions, the first moves or Strategy.SUCCESS
+	 * @param count the number of entries to play
+	 */
+	public void getFirstMoves(int[] sessionIds, long[] moves, int count){
+		for (int i = 0; i < count; i++){
+			moves[i] = this.getFirstMove(sessionIds[i]);
+		}
+	}
+
+	/**
+	 * Advances all the given sessions by one turn. Entry i advances session sessionIds[i] with the environment move
+	 * environmentMasks[i], and writes in moves[i] the move the system should perform next, Strategy.SUCCESS
+	 * if the game is won, or INVALID_INPUT if the entry cannot be played.
+	 * A session may appear more than once in a batch; its entries are played in order.
+	 * @param sessionIds the ids of the sessions
+	 * @param environmentMasks the environment moves, encoded over the environment index of the domain
+	 * @param moves receives the results
+	 * @param count the number of entries to play
+	 */
+	public void stepBatch(int[] sessionIds, long[] environmentMasks, long[] moves, int count){
+		this.stepRange(sessionIds, environmentMasks, moves, 0, count);
+	}
+
+	/**
+	 * Same as stepBatch(), on the entries in [from, to) of the arrays only
+	 * @param sessionIds the ids of the sessions
+	 * @param environmentMasks the environment moves, encoded over the environment index of the domain
+	 * @param moves receives the results
+	 * @param from the first entry to play
+	 * @param to the entry after the last one to play
+	 */
+	public void stepBatch(int[] sessionIds, long[] environmentMasks, long[] moves, int from, int to){
+		this.stepRange(sessionIds, environmentMasks, moves, from, to);
+	}
+
+	/**
+	 * Same as stepBatch(), but splits large batches across the common fork-join pool.
+	 * <b>NOTE:</b> a session must not appear more than once in a parallel batch.
+	 * @param sessionIds the ids of the sessions
+	 * @param environmentMasks the environment moves, encoded over the environment index of the domain
+	 * @param moves receives the results
+	 * @param count the number of entries to play
+	 */
+	public void stepBatchParallel(int[] sessionIds, long[] environmentMasks, long[] moves, int count){
+		this.stepBatchParallel(sessionIds, environmentMasks, moves, count, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Same as stepBatch(), but splits large batches across the given fork-join pool.
+	 * <b>NOTE:</b> a session must not appear more than once in a parallel batch.
+	 * @param sessionIds the ids of the sessions
+	 * @param environmentMasks the environment moves, encoded over the environment index of the domain
+	 * @param moves receives the results
+	 * @param count the number of entries to play
+	 * @param pool the pool that runs the chunks of the batch
+	 */
+	public void stepBatchParallel(int[] sessionIds, long[] environmentMasks, long[] moves, int count,
+			ForkJoinPool pool){
+		if (count <= PARALLEL_THRESHOLD){
+			this.stepRange(sessionIds, environmentMasks, moves, 0, count);
+		} else {
+			pool.invoke(new BatchTask(sessionIds, environmentMasks, moves, 0, count));
+		}
+	}
+
+	private void stepRange(int[] sessionIds, long[] environmentMasks, long[] moves, int from, int to){
+		for (int i = from; i < to; i++){
+			moves[i] = this.stepEntry(sessionIds[i], environmentMasks[i]);
+		}
+	}
+
+	private long stepEntry(int id, long environmentMask){
+		if (id < 0 || id >= this.size){
+			return INVALID_INPUT;
+		}
+
+		long lastMove = this.lastMoves[id];
+
+		if (lastMove == Strategy.SUCCESS){
+			return Strategy.SUCCESS;
+		} else if (lastMove < 0L || (environmentMask >>> this.environmentBits) != 0L){
+			//Not started, closed, or input outside of the environment domain
+			return INVALID_INPUT;
+		}
+
+		int next = this.strategy.next(this.states[id], environmentMask);
+
+		if (next == Strategy.NO_STATE){
+			return INVALID_INPUT;
+		}
+
+		long move = this.strategy.output(next);
+		this.states[id] = next;
+		this.lastMoves[id] = move;
+
+		return move;
+	}
+
+	private void checkOpen(int id){
+		if (id < 0 || id >= this.size || this.lastMoves[id] == CLOSED){
+			throw new RuntimeException("Session " + id + " is not open");
+		}
+	}
+
+	/**
+	 * Checks whether the game of a session has been won
+	 * @param id the id of the session
+	 * @return true if the last move returned for the session was Strategy.SUCCESS
+	 */
+	public boolean isWon(int id){
+		return this.lastMoves[id] == Strategy.SUCCESS;
+	}
+
+	public int getCurrentState(int id){
+		return this.states[id];
+	}
+
+	/**
+	 * Returns the number of open sessions
+	 * @return the number of sessions opened and not closed yet
+	 */
+	public int getOpenSessionCount(){
+		return this.size - this.freeCount;
+	}
+
+	public Strategy getStrategy(){
+		return strategy;
+	}
+
+	private class BatchTask extends RecursiveAction {
+
+		private final int[] sessionIds;
+		private final long[] environmentMasks;
+		private final long[] moves;
+		private final int from;
+		private final int to;
+
+		private BatchTask(int[] sessionIds, long[] environmentMasks, long[] moves, int from, int to){
+			this.sessionIds = sessionIds;
+			this.environmentMasks = environmentMasks;
+			this.moves = moves;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute(){
+			if (this.to - this.from <= PARALLEL_THRESHOLD){
+				stepRange(this.sessionIds, this.environmentMasks, this.moves, this.from, this.to);
+			} else {
+				int middle = (this.from + this.to) >>> 1;
+				invokeAll(new BatchTask(this.sessionIds, this.environmentMasks, this.moves, this.from, middle),
+						new BatchTask(this.sessionIds, this.environmentMasks, this.moves, middle, this.to));
+			}
+		}
+	}
+}
@@ -0,0 +1,296 @@
+package synthesis;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * StrategyStreamExecutor
+ * Plays a strategy against a stream of binary frames, read from a channel or from a memory mapped log, and writes the
+ * system moves back to a channel. Frames are decoded straight into the arrays of a StrategySessionTable, and runs of
+ * consecutive steps are played with StrategySessionTable.stepBatch, so nothing is allocated per frame.
+ * <br>
+ * All the values are little endian. An input frame is
+ * <pre>
+ *  int32         header: session id in the low 30 bits, opcode in the high 2 bits
+ *  E bytes       environment move, encoded over the environment index of the domain; E = max(1, ceil(env bits / 8))
+ * </pre>
+ * with opcode STEP (0), that advances the session with the environment move, or START (1), that resets the session
+ * to the initial state (the move is ignored). For every input frame an output frame is written:
+ * <pre>
+ *  int32         the header of the input frame
+ *  S bytes       two's complement result, S = floor(system bits / 8) + 1: the system move, Strategy.SUCCESS if the
+ *                game is won, or StrategySessionTable.INVALID_INPUT if the frame cannot be played
+ * </pre>
+ * Session ids go from 0 to the number of sessions given to the constructor; all the sessions are open from the start,
+ * and must receive a START frame before their first STEP.
+ * Executors are not thread safe, and expect blocking channels.
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public class StrategyStreamExecutor {
+
+	public static final int STEP = 0;
+	public static final int START = 1;
+
+	private static final int SESSION_MASK = (1 << 30) - 1;
+
+	//Size of the windows used to map large logs, rounded down to whole frames
+	private static final long MAP_WINDOW_BYTES = 1L << 30;
+
+	private final StrategySessionTable table;
+	private final int sessions;
+	private final int batchSize;
+
+	private final int environmentBytes;
+	private final int moveBytes;
+	private final int inputFrameBytes;
+	private final int outputFrameBytes;
+
+	//Decoded batch
+	private final int[] headers;
+	private final int[] ids;
+	private final long[] environmentMasks;
+	private final long[] moves;
+
+	private final ByteBuffer input;
+	private final ByteBuffer output;
+
+	private long frames;
+
+	/**
+	 * Instantiates a new StrategyStreamExecutor
+	 * @param strategy the strategy played by all the sessions
+	 * @param sessions the number of sessions; frames address them with ids from 0 to sessions - 1
+	 * @param batchSize the maximum number of frames decoded and played at once
+	 */
+	public StrategyStreamExecutor(Strategy strategy, int sessions, int batchSize){
+		if (sessions <= 0 || sessions > SESSION_MASK + 1 || batchSize <= 0){
+			throw new RuntimeException("Invalid executor size: " + sessions + " sessions, batches of " + batchSize);
+		}
+
+		this.sessions = sessions;
+		this.batchSize = batchSize;
+
+		this.table = strategy.newSessionTable(sessions);
+		for (int i = 0; i < sessions; i++){
+			this.table.openSession();
+		}
+
+		this.environmentBytes = Math.max(1, (strategy.getDomain().getEnvironmentIndex().size() + 7) / 8);
+		this.moveBytes = strategy.getDomain().getSystemIndex().size() / 8 + 1;
+		this.inputFrameBytes = 4 + this.environmentBytes;
+		this.outputFrameBytes = 4 + this.moveBytes;
+
+		this.headers = new int[batchSize];
+		this.ids = new int[batchSize];
+		this.environmentMasks = new long[batchSize];
+		this.moves = new long[batchSize];
+
+		this.input = ByteBuffer.allocateDirect(batchSize * this.inputFrameBytes).order(ByteOrder.LITTLE_ENDIAN);
+		this.output = ByteBuffer.allocateDirect(batchSize * this.outputFrameBytes).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/**
+	 * Plays all the frames read from a channel, until the end of the stream. A trailing partial frame is ignored.
+	 * @param in the channel of input frames
+	 * @param out the channel that receives the output frames
+	 * @return the number of frames played
+	 * @throws IOException if a channel fails
+	 */
+	public long run(ReadableByteChannel in, WritableByteChannel out) throws IOException {
+		long start = this.frames;
+		this.input.clear();
+
+		while (in.read(this.input) >= 0){
+			this.input.flip();
+
+			if (this.input.remaining() >= this.inputFrameBytes){
+				this.process(this.input, out);
+			}
+
+			this.input.compact();
+		}
+
+		this.input.flip();
+		this.process(this.input, out);
+		this.input.clear();
+
+		return this.frames - start;
+	}
+
+	/**
+	 * Plays all the frames of a log file, mapping it in memory
+	 * @param log the file of input frames
+	 * @param out the channel that receives the output frames
+	 * @return the number of frames played
+	 * @throws IOException if the file cannot be mapped or the channel fails
+	 */
+	public long run(Path log, WritableByteChannel out) throws IOException {
+		long start = this.frames;
+
+		try (FileChannel channel = FileChannel.open(log, StandardOpenOption.READ)){
+			long size = channel.size() - channel.size() % this.inputFrameBytes;
+			long window = MAP_WINDOW_BYTES - MAP_WINDOW_BYTES % this.inputFrameBytes;
+
+			for (long position = 0; position < size; position += window){
+				MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position,
+						Math.min(window, size - position));
+				buffer.order(ByteOrder.LITTLE_ENDIAN);
+				this.process(buffer, out);
+			}
+		}
+
+		return this.frames - start;
+	}
+
+	/**
+	 * Plays the whole frames of a buffer, in batches, leaving its position after the last one
+	 */
+	private void process(ByteBuffer buffer, WritableByteChannel out) throws IOException {
+		while (buffer.remaining() >= this.inputFrameBytes){
+			int count = Math.min(this.batchSize, buffer.remaining() / this.inputFrameBytes);
+
+			for (int i = 0; i < count; i++){
+				this.headers[i] = buffer.getInt();
+				this.ids[i] = this.headers[i] & SESSION_MASK;
+
+				long mask = 0L;
+				for (int b = 0; b < this.environmentBytes; b++){
+					mask |= (buffer.get() & 0xFFL) << (8 * b);
+				}
+
+				this.environmentMasks[i] = mask;
+			}
+
+			this.play(count);
+			this.write(count, out);
+			this.frames += count;
+		}
+	}
+
+	/**
+	 * Plays a decoded batch: runs of valid STEP frames are played with a single stepBatch call
+	 */
+	private void play(int count){
+		int runStart = 0;
+
+		for (int i = 0; i < count; i++){
+			int opcode = this.headers[i] >>> 30;
+
+			if (opcode == STEP && this.ids[i] < this.sessions){
+				continue;
+			}
+
+			this.table.stepBatch(this.ids, this.environmentMasks, this.moves, runStart, i);
+			runStart = i + 1;
+
+			if (opcode == START && this.ids[i] < this.sessions){
+				this.table.reset(this.ids[i]);
+				this.moves[i] = this.table.getFirstMove(this.ids[i]);
+			} else {
+				this.moves[i] = StrategySessionTable.INVALID_INPUT;
+			}
+		}
+
+		this.table.stepBatch(this.ids, this.environmentMasks, this.moves, runStart, count);
+	}
+
+	private void write(int count, WritableByteChannel out) throws IOException {
+		this.output.clear();
+
+		for (int i = 0; i < count; i++){
+			this.output.putInt(this.headers[i]);
+
+			long move = this.moves[i];
+			for (int b = 0; b < this.moveBytes; b++){
+				this.output.put((byte) (move >>> (8 * b)));
+			}
+		}
+
+		this.output.flip();
+
+		while (this.output.hasRemaining()){
+			out.write(this.output);
+		}
+	}
+
+	/**
+	 * Encodes an input frame for this executor
+	 * @param buffer the little endian buffer that receives the frame
+	 * @param opcode STEP or START
+	 * @param session the id of the session
+	 * @param environmentMask the environment move, ignored by START frames
+	 */
+	public void putInputFrame(ByteBuffer buffer, int opcode, int session, long environmentMask){
+		buffer.putInt((opcode << 30) | (session & SESSION_MASK));
+
+		for (int b = 0; b < this.environmentBytes; b++){
+			buffer.put((byte) (environmentMask >>> (8 * b)));
+		}
+	}
+
+	/**
+	 * Decodes the result of an output frame of this executor
+	 * @param buffer the little endian buffer positioned after the header of the frame
+	 * @return the system move, Strategy.SUCCESS or StrategySessionTable.INVALID_INPUT
+	 */
+	public long getOutputMove(ByteBuffer buffer){
+		long res = 0L;
+
+		for (int b = 0; b < this.moveBytes; b++){
+			res |= (buffer.get() & 0xFFL) << (8 * b);
+		}
+
+		//Sign extension
+		int shift = 64 - 8 * this.moveBytes;
+		return (res << shift) >> shift;
+	}
+
+	//<editor-fold desc="Getter Methods" defaultState="collapsed">
+	public StrategySessionTable getTable(){
+		return table;
+	}
+
+	public int getInputFrameBytes(){
+		return inputFrameBytes;
+	}
+
+	public int getOutputFrameBytes(){
+		return outputFrameBytes;
+	}
+
+	public int getBatchSize(){
+		return batchSize;
+	}
+
+	/**
+	 * Returns the number of frames played since the executor has been created
+	 * @return the number of frames
+	 */
+	public long getFrames(){
+		return frames;
+	}
+	//</editor-fold>
+}
@@ -1,16 +1,25 @@
 package synthesis;
 
 import formula.ltlf.LTLfFormula;
-import formula.ltlf.LTLfLocalVar;
 import net.sf.tweety.logics.pl.syntax.Proposition;
 import net.sf.tweety.logics.pl.syntax.PropositionalSignature;
 import rationals.Automaton;
 import rationals.NoSuchStateException;
 import rationals.State;
 import rationals.Transition;
+import synthesis.bdd.SymbolicGame;
+import synthesis.maps.GameArena;
+import synthesis.maps.GuardedArena;
 import synthesis.maps.OutputFunction;
 import synthesis.maps.TransitionMap;
+import synthesis.metrics.PhaseTracker;
+import synthesis.metrics.SynthesisPhase;
 import synthesis.symbols.*;
+import util.CompositionalConstruction;
+import util.FormulaSimplification;
+import util.FormulaSimplifier;
+import util.GameReduction;
+import util.ParsingUtils;
 
 import java.util.*;
 
@@ -54,28 +63,239 @@ public class SynthesisAutomaton {
 	private HashSet<State> winningStates;
 	private boolean realizable;
 
+	private SynthesisOptions options;
+	private SolverMode solverMode;
+
+	//False while only the realizability of the specification is known, see SynthesisOptions.setRealizabilityOnly
+	private boolean solved;
+
+	//Used by SolverMode.ARENA instead of the transition map, the winning states and the output function
+	private GameArena gameArena;
+	private int[] stateRanks;
+	private boolean[] winningGroups;
+
+	//Automaton of the formula, without empty trace transitions, when the solver reads its labels itself; the game
+	//automaton is then only translated if it is requested, see getAutomaton()
+	private Automaton formulaAutomaton;
+
+	//Used by SolverMode.SYMBOLIC
+	private SymbolicGame symbolicGame;
+
+	//Used by SolverMode.GUARDED
+	private GuardedArena guardedArena;
+
+	//Used by SolverMode.ON_THE_FLY
+	private OnTheFlySolver onTheFlySolver;
+
+	//Used by SolverMode.PARALLEL
+	private ParallelSolver parallelSolver;
+
+	//Only set when the game automaton has been reduced
+	private GameReduction gameReduction;
+
+	//Only set once the minimal strategy has been extracted
+	private StrategyMinimization strategyMinimization;
+
+	//Only set when the formula has been simplified
+	private FormulaSimplification formulaSimplification;
+
+	//Only set when the automaton has been built compositionally
+	private CompositionalConstruction compositionalConstruction;
+
+	//Reports the phases to the listener of the options, if any
+	private PhaseTracker tracker;
+
 	/**
 	 * Instantiates a new SynthesisAutomaton.
 	 * @param domain the domain of the problem, partitioned in propositions controlled by the environment and by the system
 	 * @param formula the LTL formula that serves as specification for the synthesis problem
 	 */
 	public SynthesisAutomaton(PartitionedDomain domain, LTLfFormula formula){
+		this(domain, formula, new SynthesisOptions());
+	}
+
+	/**
+	 * Instantiates a new SynthesisAutomaton, solving the game with the given solver.
+	 * @param domain the domain of the problem, partitioned in propositions controlled by the environment and by the system
+	 * @param formula the LTL formula that serves as specification for the synthesis problem
+	 * @param solverMode the algorithm used to compute the winning region
+	 */
+	public SynthesisAutomaton(PartitionedDomain domain, LTLfFormula formula, SolverMode solverMode){
+		this(domain, formula, new SynthesisOptions().setSolverMode(solverMode));
+	}
+
+	/**
+	 * Instantiates a new SynthesisAutomaton, building and solving the game with the given options.
+	 * @param domain the domain of the problem, partitioned in propositions controlled by the environment and by the system
+	 * @param formula the LTL formula that serves as specification for the synthesis problem
+	 * @param options the settings used to build and solve the game
+	 */
+	public SynthesisAutomaton(PartitionedDomain domain, LTLfFormula formula, SynthesisOptions options){
+		this.init(domain, options);
+		this.buildGame(formula);
+	}
+
+	/**
+	 * Instantiates a new SynthesisAutomaton, parsing the specification first, so that parsing is measured as well
+	 * @param domain the domain of the problem, partitioned in propositions controlled by the environment and by the system
+	 * @param specification the LTL formula that serves as specification for the synthesis problem
+	 * @param options the settings used to build and solve the game
+	 */
+	public SynthesisAutomaton(PartitionedDomain domain, String specification, SynthesisOptions options){
+		this.init(domain, options);
+
+		this.tracker.start(SynthesisPhase.PARSE);
+		LTLfFormula formula = ParsingUtils.parseLTLfFormula(specification);
+		this.tracker.end(null);
+
+		this.buildGame(formula);
+	}
+
+	/**
+	 * Instantiates a new SynthesisAutomaton from an already translated game automaton
+	 * @param domain the domain of the problem, partitioned in propositions controlled by the environment and by the system
+	 * @param gameAutomaton the game automaton, labelled with BitsetPartitionedInterpretations
+	 * @param options the settings used to solve the game
+	 */
+	public SynthesisAutomaton(PartitionedDomain domain, Automaton gameAutomaton, SynthesisOptions options){
+		this.init(domain, options);
+		this.automaton = gameAutomaton;
+		this.prepareGame();
+	}
+
+	private void init(PartitionedDomain domain, SynthesisOptions options){
 		this.domain = domain;
+		this.options = options;
+		this.solverMode = options.getSolverMode();
+		this.tracker = new PhaseTracker(options.getListener());
+	}
 
+	private void buildGame(LTLfFormula formula){
 		PropositionalSignature ps = formula.getSignature();
 		for (Proposition p : ps){
-			LTLfLocalVar lv = new LTLfLocalVar(p);
-			if (!this.domain.getCompleteDomain().contains(lv)){
-				throw new RuntimeException("Unkown proposition " + lv);
+			if (this.domain.getSymbols().variable(p) == null){
+				throw new RuntimeException("Unkown proposition " + p);
 			}
 		}
 
-		Automaton tmp = buildLTLfAutomaton(formula);
-		this.automaton = transalteToGameAutomaton(tmp, domain);
+		if (this.options.isSimplify()){
+			this.tracker.start(SynthesisPhase.SIMPLIFICATION);
+			this.formulaSimplification = new FormulaSimplifier().simplify(formula);
+			formula = this.formulaSimplification.getFormula();
+			this.tracker.end((int) Math.min(this.formulaSimplification.getSize(), Integer.MAX_VALUE), -1L);
+		}
+
+		Automaton tmp;
+
+		if (this.options.isCompositional()){
+			this.tracker.start(SynthesisPhase.COMPOSITION);
+			this.compositionalConstruction = new CompositionalConstruction(this.options.getPool());
+			tmp = this.compositionalConstruction.build(formula);
+			this.tracker.end(tmp);
+		} else {
+			tmp = buildLTLfAutomaton(formula, this.tracker);
+		}
+
+		if (this.isTranslatedLazily()){
+			this.formulaAutomaton = prepareFormulaAutomaton(tmp, this.tracker);
+			this.solveGame();
+		} else {
+			this.automaton = transalteToGameAutomaton(tmp, this.domain, this.tracker);
+			this.prepareGame();
+		}
+	}
+
+	//Solvers that read the labels of the automaton of the formula, unless the game has to be reduced first
+	private boolean isTranslatedLazily(){
+		return (this.solverMode == SolverMode.SYMBOLIC || this.solverMode == SolverMode.ON_THE_FLY)
+				&& !this.options.isMinimizeGame();
+	}
+
+	//The automaton read by the solver: the game automaton, or the automaton of the formula if it is not translated
+	private Automaton solverAutomaton(){
+		return (this.automaton != null) ? this.automaton : this.formulaAutomaton;
+	}
+
+	private void prepareGame(){
+		if (this.options.isMinimizeGame()){
+			this.tracker.start(SynthesisPhase.GAME_MINIMIZATION);
+			this.gameReduction = minimizeGameAutomaton(this.automaton);
+			this.automaton = this.gameReduction.getAutomaton();
+			this.tracker.end(this.automaton);
+		}
+
+		this.solveGame();
+	}
+
+	private void solveGame(){
+		this.tracker.start(SynthesisPhase.TRANSITION_MAP);
+
+		switch (this.solverMode){
+			case ARENA:
+				this.gameArena = new GameArena(this.automaton);
+				break;
+			case SYMBOLIC:
+				this.symbolicGame = new SymbolicGame(this.solverAutomaton(), this.domain,
+						this.options.getVariableOrdering());
+				break;
+			case ON_THE_FLY:
+				this.onTheFlySolver = new OnTheFlySolver(this.solverAutomaton(), this.domain);
+				break;
+			case GUARDED:
+				this.guardedArena = new GuardedArena(this.automaton, this.domain);
+				break;
+			case PARALLEL:
+				this.parallelSolver = new ParallelSolver(new GameArena(this.automaton), this.options.getPool());
+				break;
+			default:
+				this.computeTransitionMaps();
+		}
 
-		this.computeTransitionMaps();
+		this.tracker.end(this.solverAutomaton());
+		this.tracker.start(SynthesisPhase.FIXPOINT);
 
-		this.realizable = this.computeRealizability();
+		if (this.options.isRealizabilityOnly()){
+			this.realizable = this.checkRealizability();
+		} else {
+			this.realizable = this.computeRealizability();
+			this.solved = true;
+		}
+
+		this.tracker.end(this.solved ? this.winningStateCount() : -1, -1L);
+	}
+
+	/**
+	 * Computes the winning region and the output function, if the game has only been checked for realizability
+	 */
+	private void ensureSolved(){
+		if (!this.solved){
+			this.tracker.start(SynthesisPhase.FIXPOINT);
+			this.computeRealizability();
+			this.solved = true;
+			this.tracker.end(this.winningStateCount(), -1L);
+		}
+	}
+
+	/**
+	 * Counts the winning states without materializing them
+	 * @return the number of winning states, or -1 if the solver does not expose them cheaply
+	 */
+	private int winningStateCount(){
+		if (this.winningStates != null){
+			return this.winningStates.size();
+		} else if (this.stateRanks != null){
+			int res = 0;
+
+			for (int rank : this.stateRanks){
+				if (rank >= 0){
+					res++;
+				}
+			}
+
+			return res;
+		}
+
+		return -1;
 	}
 
 	/**
@@ -83,7 +303,37 @@ public class SynthesisAutomaton {
 	 * @return a StrategyGenerator that carries the solutions to the current problem (if they exist); null otherwise
 	 */
 	public StrategyGenerator getStrategyGenerator(){
-		if (this.isRealizable()){
+		this.ensureSolved();
+
+		this.tracker.start(SynthesisPhase.STRATEGY_EXTRACTION);
+		StrategyGenerator res = this.extractStrategyGenerator();
+
+		if (res != null && res.getAutomaton() != null){
+			this.tracker.end(res.getAutomaton());
+		} else if (res != null && res.getStrategy() != null){
+			this.tracker.end(res.getStrategy().getStateCount(), -1L);
+		} else {
+			this.tracker.end(null);
+		}
+
+		return res;
+	}
+
+	private StrategyGenerator extractStrategyGenerator(){
+		if (this.isRealizable() && this.options.isMinimizeStrategy()){
+			if (this.strategyMinimization == null){
+				this.strategyMinimization = CompiledStrategy.minimize(this.getAutomaton(), this.domain,
+						this.getWinningStates(), this.getOutputFunction());
+			}
+
+			return new StrategyGenerator(this.strategyMinimization.getStrategy());
+		} else if (this.isRealizable() && this.gameArena != null){
+			return this.getArenaStrategyGenerator();
+		} else if (this.isRealizable() && this.guardedArena != null){
+			return new StrategyGenerator(new GuardedStrategy(this.guardedArena));
+		} else if (this.isRealizable()){
+			//Only the transitions of the winning states are translated, if the game has not been translated yet
+			Automaton game = this.solverAutomaton();
 			Automaton strategyAutomaton = new Automaton();
 			OutputFunction strategyMap = new OutputFunction();
 
@@ -97,19 +347,19 @@ public class SynthesisAutomaton {
 			}
 
 			for (State oldStart : this.winningStates){
-				Set<Transition<SynthTransitionLabel>> oldTransitions = this.automaton.delta(oldStart);
+				Set<Transition<Object>> oldTransitions = game.delta(oldStart);
 				State newStart = oldToNewStates.get(oldStart);
 
 				strategyMap.putIfAbsent(newStart, new HashSet<>());
 
-				if (!this.automaton.terminals().contains(oldStart)){
+				if (!game.terminals().contains(oldStart)){
 					//No point in adding outgoing transitions from terminal states
 
 					//Update strategy map
 					strategyMap.get(newStart).addAll(this.outputFunction.get(oldStart));
 
-					for (Transition<SynthTransitionLabel> oldTransition: oldTransitions){
-						SynthTransitionLabel oldLabel = oldTransition.label();
+					for (Transition<Object> oldTransition: oldTransitions){
+						SynthTransitionLabel oldLabel = gameLabel(oldTransition.label(), this.domain);
 						State oldEnd = oldTransition.end();
 
 						//If it's a winning transition, add it to the strategy generator
@@ -122,10 +372,10 @@ public class SynthesisAutomaton {
 									newLabel = new SynthEmptyTrace();
 								}*/
 							} else {
-								PartitionedInterpretation oldPwl = (PartitionedInterpretation) oldLabel;
-								if (this.outputFunction.get(oldStart).contains(oldPwl.getSystemInterpretation())){
-									newLabel = new PartitionedInterpretation(oldPwl.getEnvironmentInterpretation(),
-											oldPwl.getSystemInterpretation());
+								//Labels are immutable, so they can be shared with the strategy automaton
+								BitsetPartitionedInterpretation oldPwl = (BitsetPartitionedInterpretation) oldLabel;
+								if (this.outputFunction.get(oldStart).contains(oldPwl.getSystemMask())){
+									newLabel = oldPwl;
 								}
 							}
 
@@ -145,19 +395,75 @@ public class SynthesisAutomaton {
 				}
 			}
 
-			return new StrategyGenerator(strategyAutomaton, this.domain, strategyMap);
+			return new StrategyGenerator(strategyAutomaton, this.domain, strategyMap,
+					this.options.isCompileStrategy());
 		} else {
 			return null;
 		}
 	}
 
 	private boolean computeRealizability(){
+		switch (this.solverMode){
+			case FIXPOINT:
+				return this.computeRealizabilityFixpoint(false);
+			case WORKLIST:
+				return this.computeRealizabilityWorklist(false);
+			case ARENA:
+				return this.computeRealizabilityArena(false);
+			case SYMBOLIC:
+				return this.computeRealizabilitySymbolic();
+			case ON_THE_FLY:
+				return this.computeRealizabilityOnTheFly();
+			case GUARDED:
+				return this.guardedArena.solve();
+			case PARALLEL:
+				return this.computeRealizabilityParallel(false);
+			default:
+				throw new RuntimeException("Unknown solver mode " + this.solverMode);
+		}
+	}
+
+	/**
+	 * Only decides whether the initial state is winning: the explicit solvers stop as soon as it wins, and do not
+	 * compute the output function. The symbolic and on-the-fly solvers are always run to completion.
+	 * @return true if the initial state is winning
+	 */
+	private boolean checkRealizability(){
+		switch (this.solverMode){
+			case FIXPOINT:
+				return this.computeRealizabilityFixpoint(true);
+			case WORKLIST:
+				return this.computeRealizabilityWorklist(true);
+			case ARENA:
+				return this.computeRealizabilityArena(true);
+			case PARALLEL:
+				return this.computeRealizabilityParallel(true);
+			default:
+				this.solved = true;
+				return this.computeRealizability();
+		}
+	}
+
+	/**
+	 * Round based fixpoint computation of the winning region
+	 * @param realizabilityOnly if true, stops as soon as the initial state wins, and skips the output function
+	 * @return true if the initial state is winning
+	 */
+	private boolean computeRealizabilityFixpoint(boolean realizabilityOnly){
 		HashSet<State> winningStates = new HashSet<>();
 		HashSet<State> terminals = new HashSet<>();
 		terminals.addAll(this.automaton.terminals());
 		HashSet<State> newWinningStates = terminals;
+		State initial = (State) this.automaton.initials().iterator().next();
 
-		this.outputFunction = new OutputFunction();
+		this.outputFunction = realizabilityOnly ? null : new OutputFunction();
+
+		if (realizabilityOnly && initial.isTerminal()){
+			return true;
+		}
+
+		int round = 0;
+		this.tracker.round(round, terminals.size(), terminals.size());
 
 		while (!winningStates.equals(newWinningStates)){
 			winningStates.addAll(newWinningStates);
@@ -168,8 +474,17 @@ public class SynthesisAutomaton {
 			nonWinningStates.removeAll(winningStates);
 
 			for (State s : nonWinningStates){
-				for (Interpretation y : transitionMap.get(s).keySet()){
+				for (BitsetInterpretation y : transitionMap.get(s).keySet()){
 					if (winningStates.containsAll(this.transitionMap.get(s).get(y))){
+						if (realizabilityOnly){
+							if (s.equals(initial)){
+								return true;
+							}
+
+							newWinningStates.add(s);
+							break;
+						}
+
 						newWinningStates.add(s);
 						this.outputFunction.putIfAbsent(s, new HashSet<>());
 						this.outputFunction.get(s).add(y);
@@ -177,11 +492,309 @@ public class SynthesisAutomaton {
 				}
 			}
 
+			if (!newWinningStates.isEmpty()){
+				this.tracker.round(++round, newWinningStates.size(), winningStates.size() + newWinningStates.size());
+			}
+
 			newWinningStates.addAll(winningStates);
 		}
 
 		this.winningStates = winningStates;
-		return winningStates.contains(this.automaton.initials().iterator().next());
+		return winningStates.contains(initial);
+	}
+
+	/**
+	 * Computes the same winning region and output function of computeRealizabilityFixpoint(), without rescanning
+	 * the whole automaton at every round.
+	 * Every (state, system move) pair keeps a counter of the successors that are not winning yet; when a state
+	 * becomes winning, the counters of its predecessors are decremented, and a pair whose counter drops to zero
+	 * makes its state winning in the next layer. Layers are processed one at a time, so that the output function
+	 * only contains the moves found in the round in which each state became winning, as in the fixpoint loop.
+	 * @param realizabilityOnly if true, stops as soon as the initial state wins, and skips the output function
+	 * @return true if the initial state is winning
+	 */
+	private boolean computeRealizabilityWorklist(boolean realizabilityOnly){
+		State initial = (State) this.automaton.initials().iterator().next();
+		this.outputFunction = realizabilityOnly ? null : new OutputFunction();
+
+		if (realizabilityOnly && initial.isTerminal()){
+			return true;
+		}
+
+		//Index every (state, system move) pair and build the predecessor lists
+		ArrayList<State> moveStates = new ArrayList<>();
+		ArrayList<BitsetInterpretation> moveLabels = new ArrayList<>();
+		ArrayList<Integer> successorCounts = new ArrayList<>();
+		HashMap<State, ArrayList<Integer>> predecessors = new HashMap<>();
+
+		for (State s : this.transitionMap.keySet()){
+			for (Map.Entry<BitsetInterpretation, HashSet<State>> move : this.transitionMap.get(s).entrySet()){
+				int id = moveStates.size();
+				moveStates.add(s);
+				moveLabels.add(move.getKey());
+				successorCounts.add(move.getValue().size());
+
+				for (State t : move.getValue()){
+					predecessors.putIfAbsent(t, new ArrayList<>());
+					predecessors.get(t).add(id);
+				}
+			}
+		}
+
+		int[] pending = new int[successorCounts.size()];
+		for (int i = 0; i < pending.length; i++){
+			pending[i] = successorCounts.get(i);
+		}
+
+		HashSet<State> winningStates = new HashSet<>();
+		winningStates.addAll(this.automaton.terminals());
+		ArrayList<State> frontier = new ArrayList<>(winningStates);
+		int round = 0;
+		this.tracker.round(round, winningStates.size(), winningStates.size());
+
+		while (!frontier.isEmpty()){
+			LinkedHashSet<State> newWinningStates = new LinkedHashSet<>();
+
+			for (State t : frontier){
+				ArrayList<Integer> incoming = predecessors.get(t);
+
+				if (incoming != null){
+					for (int id : incoming){
+						pending[id]--;
+
+						if (pending[id] == 0){
+							State s = moveStates.get(id);
+
+							//States that won in a previous layer keep the moves found back then
+							if (realizabilityOnly && s.equals(initial)){
+								return true;
+							} else if (!winningStates.contains(s)){
+								newWinningStates.add(s);
+
+								if (realizabilityOnly){
+									continue;
+								}
+
+								this.outputFunction.putIfAbsent(s, new HashSet<>());
+								this.outputFunction.get(s).add(moveLabels.get(id));
+							}
+						}
+					}
+				}
+			}
+
+			winningStates.addAll(newWinningStates);
+			frontier = new ArrayList<>(newWinningStates);
+
+			if (!newWinningStates.isEmpty()){
+				this.tracker.round(++round, newWinningStates.size(), winningStates.size());
+			}
+		}
+
+		this.winningStates = winningStates;
+		return winningStates.contains(initial);
+	}
+
+	/**
+	 * Solves the game symbolically, then translates the winning region and the strategy back to explicit states,
+	 * so that the strategy extraction is shared with the explicit solvers.
+	 * @return true if the initial state is winning
+	 */
+	private boolean computeRealizabilitySymbolic(){
+		boolean res = this.symbolicGame.solve();
+
+		this.winningStates = this.symbolicGame.getWinningStates();
+		this.outputFunction = this.symbolicGame.getOutputFunction();
+
+		return res;
+	}
+
+	/**
+	 * Explores the game forward from the initial state, see OnTheFlySolver; only the states decided as winning
+	 * before the search stopped are kept.
+	 * @return true if the initial state is winning
+	 */
+	private boolean computeRealizabilityOnTheFly(){
+		boolean res = this.onTheFlySolver.solve();
+
+		this.winningStates = this.onTheFlySolver.getWinningStates();
+		this.outputFunction = this.onTheFlySolver.getOutputFunction();
+
+		return res;
+	}
+
+	/**
+	 * Solves the game with the ParallelSolver, then keeps its winning states and output function, so that the
+	 * strategy extraction is shared with the explicit solvers.
+	 * @param realizabilityOnly if true, stops as soon as the initial state wins, and skips the output function
+	 * @return true if the initial state is winning
+	 */
+	private boolean computeRealizabilityParallel(boolean realizabilityOnly){
+		boolean res = this.parallelSolver.solve(realizabilityOnly, this.tracker);
+
+		this.winningStates = this.parallelSolver.getWinningStates();
+		this.outputFunction = this.parallelSolver.getOutputFunction();
+
+		return res;
+	}
+
+	/**
+	 * Same algorithm of computeRealizabilityWorklist(), run over the arrays of the GameArena.
+	 * Every move group keeps a counter of its edges whose target is not winning yet; the reverse arrays list
+	 * an incoming group once per edge, so the counters reach zero exactly when all the successors are winning.
+	 * The rank of every state (the round in which it became winning, -1 if it is not winning) and the winning
+	 * move groups are stored in place of the winning states and of the output function.
+	 * @param realizabilityOnly if true, stops as soon as the initial state wins, and does not store the solution
+	 * @return true if the initial state is winning
+	 */
+	private boolean computeRealizabilityArena(boolean realizabilityOnly){
+		GameArena arena = this.gameArena;
+
+		if (realizabilityOnly && arena.isTerminal(arena.getInitialState())){
+			return true;
+		}
+
+		int stateCount = arena.getStateCount();
+		int groupCount = arena.getGroupCount();
+
+		int[] pending = new int[groupCount];
+		for (int g = 0; g < groupCount; g++){
+			pending[g] = arena.getEdgeEnd(g) - arena.getEdgeStart(g);
+		}
+
+		int[] ranks = new int[stateCount];
+		boolean[] winningGroups = new boolean[groupCount];
+		int[] frontier = new int[stateCount];
+		int[] newFrontier = new int[stateCount];
+		int frontierSize = 0;
+
+		for (int s = 0; s < stateCount; s++){
+			if (arena.isTerminal(s)){
+				ranks[s] = 0;
+				frontier[frontierSize++] = s;
+			} else {
+				ranks[s] = -1;
+			}
+		}
+
+		int round = 0;
+		int winningCount = frontierSize;
+		this.tracker.round(round, frontierSize, winningCount);
+
+		while (frontierSize > 0){
+			round++;
+			int newFrontierSize = 0;
+
+			for (int i = 0; i < frontierSize; i++){
+				int t = frontier[i];
+
+				for (int p = arena.getPredecessorStart(t); p < arena.getPredecessorEnd(t); p++){
+					int g = arena.getPredecessorGroup(p);
+
+					if (--pending[g] == 0){
+						int s = arena.getGroupSource(g);
+
+						if (realizabilityOnly && s == arena.getInitialState()){
+							return true;
+						} else if (ranks[s] < 0){
+							ranks[s] = round;
+							newFrontier[newFrontierSize++] = s;
+							winningGroups[g] = true;
+						} else if (ranks[s] == round){
+							winningGroups[g] = true;
+						}
+					}
+				}
+			}
+
+			int[] tmp = frontier;
+			frontier = newFrontier;
+			newFrontier = tmp;
+			frontierSize = newFrontierSize;
+
+			if (newFrontierSize > 0){
+				winningCount += newFrontierSize;
+				this.tracker.round(round, newFrontierSize, winningCount);
+			}
+		}
+
+		if (!realizabilityOnly){
+			this.stateRanks = ranks;
+			this.winningGroups = winningGroups;
+		}
+
+		return ranks[arena.getInitialState()] >= 0;
+	}
+
+	/**
+	 * Builds the StrategyGenerator from the arrays computed by computeRealizabilityArena()
+	 * @return a StrategyGenerator equivalent to the one built from the winning states and the output function
+	 */
+	private StrategyGenerator getArenaStrategyGenerator(){
+		GameArena arena = this.gameArena;
+		Automaton strategyAutomaton = new Automaton();
+		OutputFunction strategyMap = new OutputFunction();
+
+		State[] newStates = new State[arena.getStateCount()];
+
+		for (int s = 0; s < arena.getStateCount(); s++){
+			if (this.stateRanks[s] >= 0){
+				State oldState = arena.getState(s);
+				newStates[s] = strategyAutomaton.addState(oldState.isInitial(), oldState.isTerminal());
+				strategyMap.put(newStates[s], new HashSet<>());
+			}
+		}
+
+		for (int s = 0; s < arena.getStateCount(); s++){
+			//No point in adding outgoing transitions from terminal states
+			if (this.stateRanks[s] < 0 || arena.isTerminal(s)){
+				continue;
+			}
+
+			for (int g = arena.getGroupStart(s); g < arena.getGroupEnd(s); g++){
+				if (this.winningGroups[g]){
+					BitsetInterpretation y = arena.getSystemMove(arena.getGroupMove(g));
+					strategyMap.get(newStates[s]).add(y);
+
+					for (int e = arena.getEdgeStart(g); e < arena.getEdgeEnd(g); e++){
+						BitsetInterpretation x = arena.getEnvironmentMove(arena.getEdgeEnvironment(e));
+						SynthTransitionLabel label = this.domain.getSymbols().label(x, y);
+						Transition<SynthTransitionLabel> newTransition = new Transition<>(newStates[s], label,
+								newStates[arena.getEdgeTarget(e)]);
+
+						try {
+							strategyAutomaton.addTransition(newTransition);
+						} catch (NoSuchStateException e1){
+							throw new RuntimeException(e1);
+						}
+					}
+				}
+			}
+		}
+
+		return new StrategyGenerator(strategyAutomaton, this.domain, strategyMap, this.options.isCompileStrategy());
+	}
+
+	/**
+	 * Fills the winning states and the output function from the arrays computed by computeRealizabilityArena()
+	 */
+	private void materializeArenaSolution(){
+		GameArena arena = this.gameArena;
+		this.winningStates = new HashSet<>();
+		this.outputFunction = new OutputFunction();
+
+		for (int s = 0; s < arena.getStateCount(); s++){
+			if (this.stateRanks[s] >= 0){
+				this.winningStates.add(arena.getState(s));
+			}
+
+			for (int g = arena.getGroupStart(s); g < arena.getGroupEnd(s); g++){
+				if (this.winningGroups[g]){
+					this.outputFunction.putIfAbsent(arena.getState(s), new HashSet<>());
+					this.outputFunction.get(arena.getState(s)).add(arena.getSystemMove(arena.getGroupMove(g)));
+				}
+			}
+		}
 	}
 
 	private void computeTransitionMaps(){
@@ -197,9 +810,8 @@ public class SynthesisAutomaton {
 				SynthTransitionLabel label = t.label();
 				State endState = t.end();
 
-				if (label instanceof PartitionedInterpretation){
-					Interpretation system = ((PartitionedInterpretation) label).getSystemInterpretation();
-					Interpretation environment = ((PartitionedInterpretation) label).getEnvironmentInterpretation();
+				if (label instanceof BitsetPartitionedInterpretation){
+					BitsetInterpretation system = ((BitsetPartitionedInterpretation) label).getSystemMask();
 
 					transitionMap.get(s).putIfAbsent(system, new HashSet<>());
 					transitionMap.get(s).get(system).add(endState);
@@ -217,7 +829,7 @@ public class SynthesisAutomaton {
 		OutputFunction res = new OutputFunction();
 
 		for (State s : states){
-			for (Interpretation y : transitionMap.get(s).keySet()){
+			for (BitsetInterpretation y : transitionMap.get(s).keySet()){
 				if (states.containsAll(this.transitionMap.get(s).get(y))){
 					res.putIfAbsent(s, new HashSet<>());
 					res.get(s).add(y);
@@ -235,11 +847,135 @@ public class SynthesisAutomaton {
 	}
 
 	public OutputFunction getOutputFunction() {
+		this.ensureSolved();
+		//The solution refers to the states of the game automaton
+		this.getAutomaton();
+
+		if (this.outputFunction == null && this.gameArena != null){
+			this.materializeArenaSolution();
+		} else if (this.outputFunction == null && this.guardedArena != null){
+			this.winningStates = this.guardedArena.getWinningStates();
+			this.outputFunction = this.guardedArena.getOutputFunction();
+		}
+
 		return outputFunction;
 	}
 
+	/**
+	 * Returns the winning states of the game automaton. With SolverMode.ON_THE_FLY, only the states decided as
+	 * winning before the search stopped are returned.
+	 * @return the set of winning states
+	 */
+	public Set<State> getWinningStates() {
+		this.getOutputFunction();
+		return winningStates;
+	}
+
+	/**
+	 * Returns the game automaton. If the solver has read the automaton of the formula instead, the game is
+	 * translated the first time it is requested, here or by getWinningStates() and getOutputFunction().
+	 * @return the game automaton, labelled with BitsetPartitionedInterpretations
+	 */
+	public Automaton getAutomaton() {
+		if (this.automaton == null && this.formulaAutomaton != null){
+			this.translateGame();
+		}
+
+		return automaton;
+	}
+
+	//Translates the automaton of the formula, moving the solution found on it to the states of the game
+	private void translateGame(){
+		HashMap<State, State> gameStates = new HashMap<>();
+		this.automaton = translateLabels(this.formulaAutomaton, this.domain, gameStates, this.tracker);
+
+		if (this.winningStates != null){
+			HashSet<State> winningStates = new HashSet<>();
+			for (State s : this.winningStates){
+				winningStates.add(gameStates.get(s));
+			}
+			this.winningStates = winningStates;
+		}
+
+		if (this.outputFunction != null){
+			OutputFunction outputFunction = new OutputFunction(this.outputFunction.size());
+			for (Map.Entry<State, HashSet<BitsetInterpretation>> e : this.outputFunction.entrySet()){
+				outputFunction.put(gameStates.get(e.getKey()), e.getValue());
+			}
+			this.outputFunction = outputFunction;
+		}
+	}
+
 	public PartitionedDomain getDomain() {
 		return domain;
 	}
+
+	public SolverMode getSolverMode() {
+		return solverMode;
+	}
+
+	/**
+	 * Returns the compact arena used by SolverMode.ARENA; see GameArena.getBytesPerEdge() to size the JVM
+	 * @return the GameArena of the game, or null if another solver mode is used
+	 */
+	public GameArena getGameArena() {
+		return gameArena;
+	}
+
+	/**
+	 * Returns the symbolic encoding used by SolverMode.SYMBOLIC; its BDDManager exposes the node table statistics
+	 * @return the SymbolicGame of the game, or null if another solver mode is used
+	 */
+	public SymbolicGame getSymbolicGame() {
+		return symbolicGame;
+	}
+
+	public GuardedArena getGuardedArena() {
+		return guardedArena;
+	}
+
+	public OnTheFlySolver getOnTheFlySolver() {
+		return onTheFlySolver;
+	}
+
+	public ParallelSolver getParallelSolver() {
+		return parallelSolver;
+	}
+
+	/**
+	 * Returns the statistics of the reduction of the game automaton
+	 * @return the GameReduction, or null if the game has not been reduced
+	 */
+	public GameReduction getGameReduction() {
+		return gameReduction;
+	}
+
+	/**
+	 * Returns the statistics of the extraction of the minimal strategy, see SynthesisOptions.setMinimizeStrategy
+	 * @return the StrategyMinimization, or null if the minimal strategy has not been extracted yet
+	 */
+	public StrategyMinimization getStrategyMinimization() {
+		return strategyMinimization;
+	}
+
+	/**
+	 * Returns the sizes of the formula before and after its simplification, see SynthesisOptions.setSimplify
+	 * @return the FormulaSimplification, or null if the formula has not been simplified
+	 */
+	public FormulaSimplification getFormulaSimplification() {
+		return formulaSimplification;
+	}
+
+	/**
+	 * Returns the report of the compositional construction, with the time spent on every conjunct
+	 * @return the CompositionalConstruction, or null if the automaton has been built in one shot
+	 */
+	public CompositionalConstruction getCompositionalConstruction() {
+		return compositionalConstruction;
+	}
+
+	public SynthesisOptions getOptions() {
+		return options;
+	}
 	//</editor-fold>
 }
\ No newline at end of file
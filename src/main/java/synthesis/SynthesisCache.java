@@ -0,0 +1,379 @@
+package synthesis;
+
+import formula.ltlf.LTLfBinaryFormula;
+import formula.ltlf.LTLfFormula;
+import formula.ltlf.LTLfLocalVar;
+import formula.ltlf.LTLfUnaryFormula;
+import synthesis.symbols.PartitionedDomain;
+import synthesis.symbols.VariableIndex;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * SynthesisCache
+ * Cache of synthesis results, keyed by a canonical form of the specification.
+ * Two specifications share an entry if their formulas are equal up to a renaming of the propositions, and every
+ * renamed proposition is controlled by the same player; the propositions of the domains that do not appear in the
+ * formula only count by number. Entries hold the realizability verdict and, when it can be compiled, the strategy,
+ * that is translated to the domain of the caller on every hit.
+ * Entries are evicted in least recently used order, when either the number of entries or their estimated size
+ * exceeds the bounds. All the methods are thread safe; concurrent misses on the same key synthesize only once.
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public class SynthesisCache {
+
+	//Rough size of an entry without its strategy
+	private static final long ENTRY_BYTES = 256;
+
+	private final int maxEntries;
+	private final long maxBytes;
+	private final SynthesisOptions options;
+
+	private final LinkedHashMap<String, Entry> entries;
+	private final ConcurrentHashMap<String, FutureTask<Entry>> pending;
+	private long bytes;
+
+	private long hits;
+	private long misses;
+	private long evictions;
+
+	/**
+	 * Instantiates a new SynthesisCache, that synthesizes with the default options
+	 * @param maxEntries the maximum number of cached specifications
+	 * @param maxBytes the maximum estimated size of the cached strategies
+	 */
+	public SynthesisCache(int maxEntries, long maxBytes){
+		this(maxEntries, maxBytes, new SynthesisOptions());
+	}
+
+	/**
+	 * Instantiates a new SynthesisCache
+	 * @param maxEntries the maximum number of cached specifications
+	 * @param maxBytes the maximum estimated size of the cached strategies
+	 * @param options the options used to synthesize on a miss
+	 */
+	public SynthesisCache(int maxEntries, long maxBytes, SynthesisOptions options){
+		this.maxEntries = maxEntries;
+		this.maxBytes = maxBytes;
+		this.options = options;
+
+		this.entries = new LinkedHashMap<>(16, 0.75f, true);
+		this.pending = new ConcurrentHashMap<>();
+		this.bytes = 0;
+	}
+
+	/**
+	 * Solves the realizability problem, synthesizing only if no equivalent specification is cached
+	 * @param domain the domain of the problem, partitioned in propositions controlled by the environment and by the system
+	 * @param formula the LTL formula that serves as specification for the synthesis problem
+	 * @return true if the specification is realizable
+	 */
+	public boolean isRealizable(PartitionedDomain domain, LTLfFormula formula){
+		return this.lookup(new Specification(domain, formula)).realizable;
+	}
+
+	/**
+	 * Returns a strategy for the given specification, synthesizing only if no equivalent specification is cached.
+	 * Strategies that are too large to be compiled are never cached, and are synthesized again on every call.
+	 * @param domain the domain of the problem, partitioned in propositions controlled by the environment and by the system
+	 * @param formula the LTL formula that serves as specification for the synthesis problem
+	 * @return a StrategyGenerator ready to play a new game, or null if the specification is not realizable
+	 */
+	public StrategyGenerator getStrategyGenerator(PartitionedDomain domain, LTLfFormula formula){
+		Specification specification = new Specification(domain, formula);
+		Entry entry = this.lookup(specification);
+
+		if (!entry.realizable){
+			return null;
+		} else if (entry.strategy == null){
+			return new SynthesisAutomaton(domain, formula, this.options).getStrategyGenerator();
+		} else {
+			return new StrategyGenerator(this.translate(entry, specification));
+		}
+	}
+
+	/**
+	 * Returns the shared, immutable strategy for the given specification
+	 * @param domain the domain of the problem, partitioned in propositions controlled by the environment and by the system
+	 * @param formula the LTL formula that serves as specification for the synthesis problem
+	 * @return the Strategy, or null if the specification is not realizable or its strategy cannot be compiled
+	 */
+	public Strategy getStrategy(PartitionedDomain domain, LTLfFormula formula){
+		Specification specification = new Specification(domain, formula);
+		Entry entry = this.lookup(specification);
+
+		return (entry.strategy == null) ? null : this.translate(entry, specification);
+	}
+
+	private CompiledStrategy translate(Entry entry, Specification specification){
+		//Compose: entry index -> canonical index -> caller index
+		int[] environmentMap = compose(entry.environmentMap, invert(specification.environmentMap));
+		int[] systemMap = compose(entry.systemMap, invert(specification.systemMap));
+
+		return entry.strategy.remap(specification.domain, environmentMap, systemMap);
+	}
+
+	private Entry lookup(Specification specification){
+		synchronized (this){
+			Entry entry = this.entries.get(specification.key);
+
+			if (entry != null){
+				this.hits++;
+				return entry;
+			}
+
+			this.misses++;
+		}
+
+		FutureTask<Entry> task = new FutureTask<>(() -> this.synthesize(specification));
+		FutureTask<Entry> running = this.pending.putIfAbsent(specification.key, task);
+
+		if (running == null){
+			running = task;
+			task.run();
+		}
+
+		try {
+			return running.get();
+		} catch (InterruptedException e){
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e){
+			throw new RuntimeException(e.getCause());
+		} finally {
+			this.pending.remove(specification.key, running);
+		}
+	}
+
+	private Entry synthesize(Specification specification){
+		SynthesisAutomaton sa = new SynthesisAutomaton(specification.domain, specification.formula, this.options);
+		Entry entry = new Entry(sa.isRealizable(), specification.environmentMap, specification.systemMap);
+
+		if (entry.realizable){
+			Strategy strategy = sa.getStrategyGenerator().getStrategy();
+
+			if (strategy instanceof CompiledStrategy){
+				entry.strategy = (CompiledStrategy) strategy;
+			}
+		}
+
+		entry.bytes = ENTRY_BYTES + 2L * specification.key.length()
+				+ ((entry.strategy == null) ? 0 : entry.strategy.getEstimatedBytes());
+
+		synchronized (this){
+			Entry previous = this.entries.put(specification.key, entry);
+
+			if (previous != null){
+				this.bytes -= previous.bytes;
+			}
+
+			this.bytes += entry.bytes;
+			this.evict();
+		}
+
+		return entry;
+	}
+
+	private void evict(){
+		Iterator<Map.Entry<String, Entry>> iterator = this.entries.entrySet().iterator();
+
+		while (iterator.hasNext() && (this.entries.size() > this.maxEntries || this.bytes > this.maxBytes)){
+			this.bytes -= iterator.next().getValue().bytes;
+			iterator.remove();
+			this.evictions++;
+		}
+	}
+
+	private static int[] invert(int[] map){
+		int[] res = new int[map.length];
+
+		for (int i = 0; i < map.length; i++){
+			res[map[i]] = i;
+		}
+
+		return res;
+	}
+
+	private static int[] compose(int[] first, int[] second){
+		int[] res = new int[first.length];
+
+		for (int i = 0; i < first.length; i++){
+			res[i] = second[first[i]];
+		}
+
+		return res;
+	}
+
+	/**
+	 * Empties the cache, keeping the statistics
+	 */
+	public synchronized void clear(){
+		this.entries.clear();
+		this.bytes = 0;
+	}
+
+	//<editor-fold desc="Statistics" defaultState="collapsed">
+	public synchronized int size(){
+		return this.entries.size();
+	}
+
+	public synchronized long getEstimatedBytes(){
+		return bytes;
+	}
+
+	public synchronized long getHits(){
+		return hits;
+	}
+
+	public synchronized long getMisses(){
+		return misses;
+	}
+
+	public synchronized long getEvictions(){
+		return evictions;
+	}
+
+	@Override
+	public synchronized String toString(){
+		long lookups = this.hits + this.misses;
+		return "SynthesisCache: " + this.entries.size() + " entries, " + this.bytes + " bytes, "
+				+ this.hits + " hits, " + this.misses + " misses, " + this.evictions + " evictions, hit rate "
+				+ ((lookups == 0) ? "n/a" : String.format("%.1f%%", 100.0 * this.hits / lookups));
+	}
+	//</editor-fold>
+
+	/**
+	 * Canonical form of a specification, written from the tree of the formula rather than its printed form, so that
+	 * propositions named like operators cannot be mistaken for them. Propositions are renamed in order of first
+	 * appearance in the formula; the canonical index of a proposition of the domain is its position among the
+	 * propositions of the same player, taking first those that appear in the formula (in order of appearance), then
+	 * the others (in order of name).
+	 */
+	private static class Specification {
+
+		private final PartitionedDomain domain;
+		private final LTLfFormula formula;
+		private final String key;
+
+		//For every index of the domain, the canonical index
+		private final int[] environmentMap;
+		private final int[] systemMap;
+
+		private Specification(PartitionedDomain domain, LTLfFormula formula){
+			this.domain = domain;
+			this.formula = formula;
+
+			//Rename the propositions of the formula in order of appearance, writing every other node as its operator.
+			//Operators have a fixed arity, so the prefix form needs no parentheses
+			LinkedHashMap<LTLfLocalVar, String> renaming = new LinkedHashMap<>();
+			StringBuilder canonical = new StringBuilder();
+			ArrayDeque<LTLfFormula> stack = new ArrayDeque<>();
+			stack.push(formula);
+
+			while (!stack.isEmpty()){
+				LTLfFormula f = stack.pop();
+
+				if (f instanceof LTLfLocalVar){
+					canonical.append(renaming.computeIfAbsent((LTLfLocalVar) f, v -> "p" + renaming.size()));
+				} else {
+					canonical.append(f.getClass().getSimpleName());
+				}
+
+				canonical.append(' ');
+
+				if (f instanceof LTLfBinaryFormula){
+					stack.push(((LTLfBinaryFormula) f).getRightFormula());
+					stack.push(((LTLfBinaryFormula) f).getLeftFormula());
+				} else if (f instanceof LTLfUnaryFormula){
+					stack.push(((LTLfUnaryFormula) f).getNestedFormula());
+				}
+			}
+
+			//Roles of the renamed propositions
+			ArrayList<LTLfLocalVar> environmentOrder = new ArrayList<>();
+			ArrayList<LTLfLocalVar> systemOrder = new ArrayList<>();
+			StringBuilder roles = new StringBuilder();
+
+			for (LTLfLocalVar v : renaming.keySet()){
+				if (domain.getEnvironmentIndex().contains(v)){
+					environmentOrder.add(v);
+					roles.append('E');
+				} else if (domain.getSystemIndex().contains(v)){
+					systemOrder.add(v);
+					roles.append('S');
+				} else {
+					throw new RuntimeException("Unkown proposition " + v);
+				}
+			}
+
+			this.environmentMap = canonicalMap(domain.getEnvironmentIndex(), environmentOrder);
+			this.systemMap = canonicalMap(domain.getSystemIndex(), systemOrder);
+
+			this.key = canonical + "|" + roles + "|" + domain.getEnvironmentIndex().size()
+					+ "|" + domain.getSystemIndex().size();
+		}
+
+		private static int[] canonicalMap(VariableIndex index, ArrayList<LTLfLocalVar> order){
+			ArrayList<Integer> others = new ArrayList<>();
+			int[] res = new int[index.size()];
+
+			for (int i = 0; i < index.size(); i++){
+				if (!order.contains(index.getVariable(i))){
+					others.add(i);
+				}
+			}
+
+			//The index is sorted by name, so the other propositions keep their relative order
+			Collections.sort(others);
+
+			for (int c = 0; c < order.size(); c++){
+				res[index.indexOf(order.get(c))] = c;
+			}
+
+			for (int c = 0; c < others.size(); c++){
+				res[others.get(c)] = order.size() + c;
+			}
+
+			return res;
+		}
+	}
+
+	private static class Entry {
+
+		private final boolean realizable;
+		private final int[] environmentMap;
+		private final int[] systemMap;
+		private CompiledStrategy strategy;
+		private long bytes;
+
+		private Entry(boolean realizable, int[] environmentMap, int[] systemMap){
+			this.realizable = realizable;
+			this.environmentMap = environmentMap;
+			this.systemMap = systemMap;
+		}
+	}
+}
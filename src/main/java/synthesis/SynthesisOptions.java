@@ -0,0 +1,216 @@
+package synthesis;
+
+import synthesis.bdd.VariableOrdering;
+import synthesis.metrics.SynthesisListener;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * SynthesisOptions
+ * Settings used by SynthesisAutomaton to build and solve the synthesis game.
+ * Setters return the options themselves, so that they can be chained.
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public class SynthesisOptions {
+
+	private SolverMode solverMode;
+	private VariableOrdering variableOrdering;
+	private boolean simplify;
+	private boolean compositional;
+	private boolean realizabilityOnly;
+	private boolean minimizeGame;
+	private boolean minimizeStrategy;
+	private boolean compileStrategy;
+	private SynthesisListener listener;
+	private ForkJoinPool pool;
+
+	/**
+	 * Instantiates a new SynthesisOptions with the default settings
+	 */
+	public SynthesisOptions(){
+		this.solverMode = SolverMode.FIXPOINT;
+		this.variableOrdering = VariableOrdering.INTERLEAVED;
+		this.simplify = false;
+		this.compositional = false;
+		this.realizabilityOnly = false;
+		this.minimizeGame = false;
+		this.minimizeStrategy = false;
+		this.compileStrategy = true;
+		this.listener = null;
+		this.pool = ForkJoinPool.commonPool();
+	}
+
+	@Override
+	public String toString(){
+		return "Solver: " + this.solverMode + "; Variable ordering: " + this.variableOrdering
+				+ "; Simplify: " + this.simplify + "; Compositional: " + this.compositional + "; Realizability only: " + this.realizabilityOnly
+				+ "; Minimize game: " + this.minimizeGame + "; Minimize strategy: " + this.minimizeStrategy
+				+ "; Compile strategy: " + this.compileStrategy
+				+ "; Parallelism: " + this.pool.getParallelism();
+	}
+
+	//<editor-fold desc="Getter and Setter Methods" defaultState="collapsed">
+	public SolverMode getSolverMode(){
+		return solverMode;
+	}
+
+	/**
+	 * Sets the algorithm used to compute the winning region
+	 * @param solverMode the solver
+	 * @return these options
+	 */
+	public SynthesisOptions setSolverMode(SolverMode solverMode){
+		this.solverMode = solverMode;
+		return this;
+	}
+
+	public VariableOrdering getVariableOrdering(){
+		return variableOrdering;
+	}
+
+	/**
+	 * Sets the variable ordering of the BDDs; only used by SolverMode.SYMBOLIC
+	 * @param variableOrdering the ordering heuristic
+	 * @return these options
+	 */
+	public SynthesisOptions setVariableOrdering(VariableOrdering variableOrdering){
+		this.variableOrdering = variableOrdering;
+		return this;
+	}
+
+	public boolean isSimplify(){
+		return simplify;
+	}
+
+	/**
+	 * Sets whether the formula is simplified before its automaton is built, see FormulaSimplifier. Conjunctions of
+	 * G formulas are merged, leaving fewer conjuncts to the compositional construction
+	 * @param simplify true to simplify the formula
+	 * @return these options
+	 */
+	public SynthesisOptions setSimplify(boolean simplify){
+		this.simplify = simplify;
+		return this;
+	}
+
+	public boolean isCompositional(){
+		return compositional;
+	}
+
+	/**
+	 * Sets whether the automaton of the formula is built by composing the automata of its top level conjuncts,
+	 * that are built in parallel
+	 * @param compositional true to use the compositional construction
+	 * @return these options
+	 */
+	public SynthesisOptions setCompositional(boolean compositional){
+		this.compositional = compositional;
+		return this;
+	}
+
+	public boolean isRealizabilityOnly(){
+		return realizabilityOnly;
+	}
+
+	/**
+	 * Sets whether the game is only solved as far as needed to decide realizability. The explicit solvers then stop
+	 * as soon as the initial state wins and skip the output function; the complete solution is computed the first
+	 * time the strategy or the output function are requested.
+	 * @param realizabilityOnly true to only decide realizability up front
+	 * @return these options
+	 */
+	public SynthesisOptions setRealizabilityOnly(boolean realizabilityOnly){
+		this.realizabilityOnly = realizabilityOnly;
+		return this;
+	}
+
+	public boolean isMinimizeGame(){
+		return minimizeGame;
+	}
+
+	/**
+	 * Sets whether the game automaton is reduced before being solved, see AutomatonUtils.minimizeGameAutomaton
+	 * @param minimizeGame true to reduce the game automaton
+	 * @return these options
+	 */
+	public SynthesisOptions setMinimizeGame(boolean minimizeGame){
+		this.minimizeGame = minimizeGame;
+		return this;
+	}
+
+	public boolean isMinimizeStrategy(){
+		return minimizeStrategy;
+	}
+
+	/**
+	 * Sets whether the StrategyGenerator plays the minimal strategy, see CompiledStrategy.minimize, instead of keeping
+	 * every winning state and move; its getAutomaton() then returns null
+	 * @param minimizeStrategy true to extract the minimal strategy
+	 * @return these options
+	 */
+	public SynthesisOptions setMinimizeStrategy(boolean minimizeStrategy){
+		this.minimizeStrategy = minimizeStrategy;
+		return this;
+	}
+
+	public boolean isCompileStrategy(){
+		return compileStrategy;
+	}
+
+	/**
+	 * Sets whether the StrategyGenerator compiles strategies that fit CompiledStrategy.DEFAULT_TABLE_SIZE to tables,
+	 * or steps the strategy automaton until StrategyGenerator.compile() is called
+	 * @param compileStrategy false to step the strategy automaton
+	 * @return these options
+	 */
+	public SynthesisOptions setCompileStrategy(boolean compileStrategy){
+		this.compileStrategy = compileStrategy;
+		return this;
+	}
+
+	public SynthesisListener getListener(){
+		return listener;
+	}
+
+	/**
+	 * Sets the listener that receives the measurements of every phase of the synthesis, e.g. a SynthesisMetrics
+	 * or a JfrSynthesisListener; use SynthesisListener.of() to set more than one
+	 * @param listener the listener, or null to disable the measurements
+	 * @return these options
+	 */
+	public SynthesisOptions setListener(SynthesisListener listener){
+		this.listener = listener;
+		return this;
+	}
+
+	public ForkJoinPool getPool(){
+		return pool;
+	}
+
+	/**
+	 * Sets the pool used by SolverMode.PARALLEL and by the compositional construction; the common pool by default
+	 * @param pool the pool, whose parallelism bounds the number of threads used by the synthesis
+	 * @return these options
+	 */
+	public SynthesisOptions setPool(ForkJoinPool pool){
+		this.pool = pool;
+		return this;
+	}
+	//</editor-fold>
+}
@@ -0,0 +1,403 @@
+package synthesis;
+
+import automaton.PossibleWorldWrap;
+import formula.ltlf.LTLfFormula;
+import net.sf.tweety.logics.pl.syntax.Proposition;
+import rationals.Automaton;
+import rationals.NoSuchStateException;
+import rationals.State;
+import rationals.Transition;
+import rationals.transformations.Reducer;
+import synthesis.symbols.PartitionedDomain;
+import util.CompositionalConstruction;
+import util.FormulaSimplifier;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import static util.AutomatonUtils.*;
+
+/**
+ * SynthesisSession
+ * Synthesis session over a specification that changes one conjunct at a time.
+ * The session keeps the minimal automaton of every conjunct, and the reduced products of every prefix of the list of
+ * conjuncts. Adding a conjunct only computes the product of the last prefix with the new automaton; removing one
+ * reuses the products of the conjuncts that precede it, and recomputes the ones that follow.
+ * When a conjunct is added, the game is warm started from the previous winning region: a state of the new product
+ * whose first component was losing before is losing now, so its outgoing transitions are dropped before solving.
+ * This holds when the automaton of the new conjunct is complete, and the conjunct does not mention system propositions
+ * that the previous conjuncts do not mention (otherwise the system gains moves it did not have); in every other case,
+ * and when the options do not produce the complete winning region (ON_THE_FLY solver, realizability only, minimized
+ * game), the game is solved from scratch.
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public class SynthesisSession {
+
+	private final PartitionedDomain domain;
+	private final SynthesisOptions options;
+
+	private final ArrayList<Entry> conjuncts;
+	//Shared by all the conjuncts, only used with SynthesisOptions.setSimplify
+	private final FormulaSimplifier simplifier;
+	private int nextId;
+
+	//prefixes.get(i) is the reduced product of the first i + 1 conjuncts, over prefixSignatures.get(i)
+	private final ArrayList<Automaton> prefixes;
+	private final ArrayList<Set<Proposition>> prefixSignatures;
+
+	//Winning states of the last prefix, or null if they are not known
+	private Set<State> prefixWinningStates;
+	private SynthesisAutomaton synthesisAutomaton;
+
+	//Statistics of the last update
+	private long lastUpdateNanos;
+	private boolean lastWarmStarted;
+	private int lastPrunedStates;
+	private int lastReusedProducts;
+	private int lastComputedProducts;
+
+	/**
+	 * Instantiates a new SynthesisSession, with no conjuncts
+	 * @param domain the domain of the problem, partitioned in propositions controlled by the environment and by the system
+	 * @param options the settings used to solve the games; the compositional flag is ignored
+	 */
+	public SynthesisSession(PartitionedDomain domain, SynthesisOptions options){
+		this.domain = domain;
+		this.options = options;
+
+		this.conjuncts = new ArrayList<>();
+		this.simplifier = new FormulaSimplifier();
+		this.prefixes = new ArrayList<>();
+		this.prefixSignatures = new ArrayList<>();
+	}
+
+	/**
+	 * Adds a conjunct to the specification, and solves the new game
+	 * @param formula the new conjunct
+	 * @return the id of the conjunct, used to remove it
+	 */
+	public int addConjunct(LTLfFormula formula){
+		long start = System.nanoTime();
+
+		for (Proposition p : formula.getSignature()){
+			if (this.domain.getSymbols().variable(p) == null){
+				throw new RuntimeException("Unkown proposition " + p);
+			}
+		}
+
+		CompositionalConstruction.Conjunct conjunct = CompositionalConstruction.buildConjunct(
+				this.options.isSimplify() ? this.simplifier.simplify(formula).getFormula() : formula);
+		Entry entry = new Entry(this.nextId++, formula, conjunct.getAutomaton(),
+				new HashSet<>(conjunct.getSignature()));
+		this.conjuncts.add(entry);
+
+		this.lastReusedProducts = this.prefixes.size();
+		this.lastComputedProducts = 0;
+		this.lastPrunedStates = 0;
+
+		Set<State> losingStates = Collections.emptySet();
+		boolean warmStart = false;
+
+		if (this.prefixes.isEmpty()){
+			this.prefixes.add(entry.automaton);
+			this.prefixSignatures.add(entry.signature);
+		} else {
+			Automaton previous = this.prefixes.get(this.prefixes.size() - 1);
+			Set<Proposition> previousSignature = this.prefixSignatures.get(this.prefixSignatures.size() - 1);
+			warmStart = this.canWarmStart(entry, previousSignature);
+
+			HashMap<State, State> leftStates = warmStart ? new HashMap<>() : null;
+			Automaton product = CompositionalConstruction.product(previous, previousSignature,
+					entry.automaton, entry.signature, leftStates);
+			Automaton reduced = new Reducer<>().transform(product);
+			this.lastComputedProducts++;
+
+			if (warmStart){
+				losingStates = new HashSet<>();
+
+				for (Map.Entry<State, State> match : matchStates(product, reduced, Function.identity()).entrySet()){
+					if (!this.prefixWinningStates.contains(leftStates.get(match.getKey()))){
+						losingStates.add(match.getValue());
+					}
+				}
+			}
+
+			HashSet<Proposition> signature = new HashSet<>(previousSignature);
+			signature.addAll(entry.signature);
+
+			this.prefixes.add(reduced);
+			this.prefixSignatures.add(signature);
+		}
+
+		this.lastWarmStarted = warmStart;
+		this.solve(losingStates);
+		this.lastUpdateNanos = System.nanoTime() - start;
+
+		return entry.id;
+	}
+
+	/**
+	 * Removes a conjunct from the specification, and solves the new game
+	 * @param id the id returned when the conjunct has been added
+	 */
+	public void removeConjunct(int id){
+		long start = System.nanoTime();
+		int index = -1;
+
+		for (int i = 0; i < this.conjuncts.size(); i++){
+			if (this.conjuncts.get(i).id == id){
+				index = i;
+			}
+		}
+
+		if (index < 0){
+			throw new RuntimeException("Unknown conjunct " + id);
+		}
+
+		this.conjuncts.remove(index);
+
+		//The products of the conjuncts before the removed one are still valid
+		while (this.prefixes.size() > index){
+			this.prefixes.remove(this.prefixes.size() - 1);
+			this.prefixSignatures.remove(this.prefixSignatures.size() - 1);
+		}
+
+		this.lastReusedProducts = this.prefixes.size();
+		this.lastComputedProducts = 0;
+		this.lastPrunedStates = 0;
+		this.lastWarmStarted = false;
+
+		for (int i = index; i < this.conjuncts.size(); i++){
+			Entry entry = this.conjuncts.get(i);
+
+			if (this.prefixes.isEmpty()){
+				this.prefixes.add(entry.automaton);
+				this.prefixSignatures.add(entry.signature);
+			} else {
+				Automaton previous = this.prefixes.get(this.prefixes.size() - 1);
+				Set<Proposition> previousSignature = this.prefixSignatures.get(this.prefixSignatures.size() - 1);
+
+				this.prefixes.add(new Reducer<>().transform(CompositionalConstruction.product(previous,
+						previousSignature, entry.automaton, entry.signature, null)));
+				this.lastComputedProducts++;
+
+				HashSet<Proposition> signature = new HashSet<>(previousSignature);
+				signature.addAll(entry.signature);
+				this.prefixSignatures.add(signature);
+			}
+		}
+
+		if (this.conjuncts.isEmpty()){
+			this.synthesisAutomaton = null;
+			this.prefixWinningStates = null;
+		} else {
+			this.solve(Collections.emptySet());
+		}
+
+		this.lastUpdateNanos = System.nanoTime() - start;
+	}
+
+	private boolean canWarmStart(Entry entry, Set<Proposition> previousSignature){
+		if (this.prefixWinningStates == null || !isComplete(entry.automaton, entry.signature.size())){
+			return false;
+		}
+
+		for (Proposition p : entry.signature){
+			if (this.domain.getSymbols().isSystem(p) && !previousSignature.contains(p)){
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private static boolean isComplete(Automaton automaton, int signatureSize){
+		if (signatureSize >= 31){
+			return false;
+		}
+
+		for (Object s : automaton.states()){
+			if (automaton.delta((State) s).size() != 1 << signatureSize){
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Solves the game of the last prefix
+	 * @param losingStates states of the last prefix that are known to be losing
+	 */
+	private void solve(Set<State> losingStates){
+		Automaton prefix = this.prefixes.get(this.prefixes.size() - 1);
+		Automaton game = transalteToGameAutomaton(prefix, this.domain);
+		HashMap<State, State> gameStates = matchStates(prefix, game,
+				label -> partitionPossibleWorld((PossibleWorldWrap) label, this.domain));
+
+		if (!losingStates.isEmpty()){
+			HashSet<State> losingGameStates = new HashSet<>();
+			for (State s : losingStates){
+				losingGameStates.add(gameStates.get(s));
+			}
+
+			HashMap<State, State> copies = new HashMap<>();
+			game = removeOutgoingTransitions(game, losingGameStates, copies);
+
+			for (Map.Entry<State, State> e : gameStates.entrySet()){
+				e.setValue(copies.get(e.getValue()));
+			}
+
+			this.lastPrunedStates = losingGameStates.size();
+		}
+
+		this.synthesisAutomaton = new SynthesisAutomaton(this.domain, game, this.options);
+
+		if (this.options.getSolverMode() != SolverMode.ON_THE_FLY && !this.options.isRealizabilityOnly()
+				&& !this.options.isMinimizeGame()){
+			Set<State> winning = this.synthesisAutomaton.getWinningStates();
+			this.prefixWinningStates = new HashSet<>();
+
+			for (Map.Entry<State, State> e : gameStates.entrySet()){
+				if (winning.contains(e.getValue())){
+					this.prefixWinningStates.add(e.getKey());
+				}
+			}
+		} else {
+			this.prefixWinningStates = null;
+		}
+	}
+
+	private static Automaton removeOutgoingTransitions(Automaton game, Set<State> states, Map<State, State> copies){
+		Automaton res = new Automaton();
+
+		for (Object o : game.states()){
+			State s = (State) o;
+			copies.put(s, res.addState(s.isInitial(), s.isTerminal()));
+		}
+
+		for (Object o : game.states()){
+			State s = (State) o;
+
+			if (states.contains(s)){
+				continue;
+			}
+
+			Set<Transition> transitions = game.delta(s);
+			for (Transition t : transitions){
+				try {
+					res.addTransition(new Transition<>(copies.get(s), t.label(), copies.get(t.end())));
+				} catch (NoSuchStateException e){
+					throw new RuntimeException(e);
+				}
+			}
+		}
+
+		return res;
+	}
+
+	/**
+	 * Solves the realizability problem for the current specification
+	 * @return true if the conjunction of the current conjuncts is realizable
+	 */
+	public boolean isRealizable(){
+		return this.getSynthesisAutomaton().isRealizable();
+	}
+
+	/**
+	 * Returns the solutions (if they exist) for the current specification
+	 * @return a StrategyGenerator for the current specification, or null if it is not realizable
+	 */
+	public StrategyGenerator getStrategyGenerator(){
+		return this.getSynthesisAutomaton().getStrategyGenerator();
+	}
+
+	public SynthesisAutomaton getSynthesisAutomaton(){
+		if (this.synthesisAutomaton == null){
+			throw new RuntimeException("The specification has no conjuncts");
+		}
+
+		return synthesisAutomaton;
+	}
+
+	/**
+	 * Returns the current conjuncts, in order of insertion
+	 * @return the formulas of the conjuncts
+	 */
+	public List<LTLfFormula> getConjuncts(){
+		ArrayList<LTLfFormula> res = new ArrayList<>();
+
+		for (Entry e : this.conjuncts){
+			res.add(e.formula);
+		}
+
+		return res;
+	}
+
+	@Override
+	public String toString(){
+		return "SynthesisSession: " + this.conjuncts.size() + " conjuncts; last update "
+				+ (this.lastUpdateNanos / 1000000) + " ms, " + this.lastReusedProducts + " products reused, "
+				+ this.lastComputedProducts + " computed, "
+				+ (this.lastWarmStarted ? this.lastPrunedStates + " states pruned by warm start" : "cold start");
+	}
+
+	//<editor-fold desc="Statistics" defaultState="collapsed">
+	public long getLastUpdateNanos(){
+		return lastUpdateNanos;
+	}
+
+	public boolean isLastWarmStarted(){
+		return lastWarmStarted;
+	}
+
+	public int getLastPrunedStates(){
+		return lastPrunedStates;
+	}
+
+	public int getLastReusedProducts(){
+		return lastReusedProducts;
+	}
+
+	public int getLastComputedProducts(){
+		return lastComputedProducts;
+	}
+	//</editor-fold>
+
+	private static class Entry {
+
+		private final int id;
+		private final LTLfFormula formula;
+		private final Automaton automaton;
+		private final Set<Proposition> signature;
+
+		private Entry(int id, LTLfFormula formula, Automaton automaton, Set<Proposition> signature){
+			this.id = id;
+			this.formula = formula;
+			this.automaton = automaton;
+			this.signature = signature;
+		}
+	}
+}
@@ -0,0 +1,569 @@
+package synthesis.bdd;
+
+import java.util.Arrays;
+
+/**
+ * BDDManager
+ * Minimal pure Java implementation of reduced ordered binary decision diagrams.
+ * Nodes are identified by int ids and stored in parallel arrays; ids 0 and 1 are the FALSE and TRUE terminals.
+ * Variables are identified by their level in the order, 0 being the topmost. Nodes are never freed, so a manager
+ * should be dropped as soon as the computation that uses it is over.
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public class BDDManager {
+
+	public static final int FALSE = 0;
+	public static final int TRUE = 1;
+
+	private static final int INITIAL_NODES = 1 << 14;
+	private static final int CACHE_SIZE = 1 << 18;
+
+	private static final int OP_ITE = 0;
+	private static final int OP_EXISTS = 1;
+	private static final int OP_AND_EXISTS = 2;
+	private static final int OP_REPLACE = 3;
+
+	private int variableCount;
+
+	//Node table
+	private int[] levels;
+	private int[] lows;
+	private int[] highs;
+	private int[] next;
+	private int nodeCount;
+
+	//Unique table, with chaining through next[]
+	private int[] buckets;
+	private int bucketMask;
+
+	//Direct mapped operation cache
+	private int[] cacheOps;
+	private int[] cacheA;
+	private int[] cacheB;
+	private int[] cacheC;
+	private int[] cacheResults;
+	private long cacheHits;
+	private long cacheMisses;
+
+	//Level permutations used by replace()
+	private int[][] permutations;
+	private int permutationCount;
+
+	/**
+	 * Instantiates a new BDDManager
+	 * @param variableCount the number of variables (levels) of the diagrams
+	 */
+	public BDDManager(int variableCount){
+		this.variableCount = variableCount;
+
+		this.levels = new int[INITIAL_NODES];
+		this.lows = new int[INITIAL_NODES];
+		this.highs = new int[INITIAL_NODES];
+		this.next = new int[INITIAL_NODES];
+
+		//Terminals sit below every variable
+		this.levels[FALSE] = variableCount;
+		this.levels[TRUE] = variableCount;
+		this.nodeCount = 2;
+
+		this.buckets = new int[INITIAL_NODES];
+		Arrays.fill(this.buckets, -1);
+		this.bucketMask = INITIAL_NODES - 1;
+
+		this.cacheOps = new int[CACHE_SIZE];
+		Arrays.fill(this.cacheOps, -1);
+		this.cacheA = new int[CACHE_SIZE];
+		this.cacheB = new int[CACHE_SIZE];
+		this.cacheC = new int[CACHE_SIZE];
+		this.cacheResults = new int[CACHE_SIZE];
+
+		this.permutations = new int[4][];
+		this.permutationCount = 0;
+	}
+
+	//<editor-fold desc="Node table" defaultState="collapsed">
+	private int mk(int level, int low, int high){
+		if (low == high){
+			return low;
+		}
+
+		int bucket = hash(level, low, high) & this.bucketMask;
+
+		for (int n = this.buckets[bucket]; n >= 0; n = this.next[n]){
+			if (this.levels[n] == level && this.lows[n] == low && this.highs[n] == high){
+				return n;
+			}
+		}
+
+		if (this.nodeCount == this.levels.length){
+			this.grow();
+			bucket = hash(level, low, high) & this.bucketMask;
+		}
+
+		int n = this.nodeCount++;
+		this.levels[n] = level;
+		this.lows[n] = low;
+		this.highs[n] = high;
+		this.next[n] = this.buckets[bucket];
+		this.buckets[bucket] = n;
+
+		return n;
+	}
+
+	private void grow(){
+		int capacity = this.levels.length * 2;
+
+		this.levels = Arrays.copyOf(this.levels, capacity);
+		this.lows = Arrays.copyOf(this.lows, capacity);
+		this.highs = Arrays.copyOf(this.highs, capacity);
+		this.next = Arrays.copyOf(this.next, capacity);
+
+		this.buckets = new int[capacity];
+		Arrays.fill(this.buckets, -1);
+		this.bucketMask = capacity - 1;
+
+		for (int n = 2; n < this.nodeCount; n++){
+			int bucket = hash(this.levels[n], this.lows[n], this.highs[n]) & this.bucketMask;
+			this.next[n] = this.buckets[bucket];
+			this.buckets[bucket] = n;
+		}
+	}
+
+	private static int hash(int a, int b, int c){
+		int h = a * 0x9E3779B1 + b * 0x85EBCA77 + c * 0xC2B2AE3D;
+		return h ^ (h >>> 15);
+	}
+	//</editor-fold>
+
+	//<editor-fold desc="Operation cache" defaultState="collapsed">
+	private int cacheSlot(int op, int a, int b, int c){
+		return (hash(a, b, c) + op * 0x27D4EB2F) & (CACHE_SIZE - 1);
+	}
+
+	private int cacheLookup(int slot, int op, int a, int b, int c){
+		if (this.cacheOps[slot] == op && this.cacheA[slot] == a && this.cacheB[slot] == b && this.cacheC[slot] == c){
+			this.cacheHits++;
+			return this.cacheResults[slot];
+		}
+
+		this.cacheMisses++;
+		return -1;
+	}
+
+	private void cacheStore(int slot, int op, int a, int b, int c, int result){
+		this.cacheOps[slot] = op;
+		this.cacheA[slot] = a;
+		this.cacheB[slot] = b;
+		this.cacheC[slot] = c;
+		this.cacheResults[slot] = result;
+	}
+
+	/**
+	 * Empties the operation cache
+	 */
+	public void clearCache(){
+		Arrays.fill(this.cacheOps, -1);
+	}
+	//</editor-fold>
+
+	/**
+	 * Returns the diagram of a single positive variable
+	 * @param level the level of the variable
+	 * @return the BDD that is true iff the variable is true
+	 */
+	public int ithVar(int level){
+		this.checkLevel(level);
+		return this.mk(level, FALSE, TRUE);
+	}
+
+	/**
+	 * Returns the diagram of a single negative variable
+	 * @param level the level of the variable
+	 * @return the BDD that is true iff the variable is false
+	 */
+	public int nithVar(int level){
+		this.checkLevel(level);
+		return this.mk(level, TRUE, FALSE);
+	}
+
+	/**
+	 * Builds the conjunction of the given literals
+	 * @param levels the levels of the variables
+	 * @param values the value of each variable
+	 * @return the BDD that is true iff every variable has the given value
+	 */
+	public int cube(int[] levels, boolean[] values){
+		Integer[] order = new Integer[levels.length];
+		for (int i = 0; i < order.length; i++){
+			order[i] = i;
+		}
+
+		//Build bottom up, from the deepest variable
+		Arrays.sort(order, (i, j) -> Integer.compare(levels[j], levels[i]));
+
+		int res = TRUE;
+		for (int i : order){
+			this.checkLevel(levels[i]);
+			res = values[i] ? this.mk(levels[i], FALSE, res) : this.mk(levels[i], res, FALSE);
+		}
+
+		return res;
+	}
+
+	/**
+	 * Builds the conjunction of the given positive variables, to be used as quantification set
+	 * @param levels the levels of the variables
+	 * @return the positive cube of the variables
+	 */
+	public int variableSet(int[] levels){
+		boolean[] values = new boolean[levels.length];
+		Arrays.fill(values, true);
+		return this.cube(levels, values);
+	}
+
+	public int not(int f){
+		return this.ite(f, FALSE, TRUE);
+	}
+
+	public int and(int f, int g){
+		return this.ite(f, g, FALSE);
+	}
+
+	public int or(int f, int g){
+		return this.ite(f, TRUE, g);
+	}
+
+	/**
+	 * If-then-else, the basic operation of the package
+	 * @param f the condition
+	 * @param g the then branch
+	 * @param h the else branch
+	 * @return the BDD of (f AND g) OR (NOT f AND h)
+	 */
+	public int ite(int f, int g, int h){
+		if (f == TRUE){
+			return g;
+		} else if (f == FALSE){
+			return h;
+		} else if (g == h){
+			return g;
+		} else if (g == TRUE && h == FALSE){
+			return f;
+		}
+
+		int slot = this.cacheSlot(OP_ITE, f, g, h);
+		int res = this.cacheLookup(slot, OP_ITE, f, g, h);
+
+		if (res < 0){
+			int top = Math.min(this.levels[f], Math.min(this.levels[g], this.levels[h]));
+
+			int low = this.ite(this.cofactor(f, top, false), this.cofactor(g, top, false), this.cofactor(h, top, false));
+			int high = this.ite(this.cofactor(f, top, true), this.cofactor(g, top, true), this.cofactor(h, top, true));
+
+			res = this.mk(top, low, high);
+			this.cacheStore(slot, OP_ITE, f, g, h, res);
+		}
+
+		return res;
+	}
+
+	/**
+	 * Existential quantification
+	 * @param f the BDD to quantify
+	 * @param variables the positive cube of the variables to quantify, see variableSet()
+	 * @return the BDD of (exists variables . f)
+	 */
+	public int exists(int f, int variables){
+		if (f == TRUE || f == FALSE){
+			return f;
+		}
+
+		while (variables != TRUE && this.levels[variables] < this.levels[f]){
+			variables = this.highs[variables];
+		}
+
+		if (variables == TRUE){
+			return f;
+		}
+
+		int slot = this.cacheSlot(OP_EXISTS, f, variables, 0);
+		int res = this.cacheLookup(slot, OP_EXISTS, f, variables, 0);
+
+		if (res < 0){
+			int level = this.levels[f];
+
+			if (this.levels[variables] == level){
+				int low = this.exists(this.lows[f], this.highs[variables]);
+				res = (low == TRUE) ? TRUE : this.or(low, this.exists(this.highs[f], this.highs[variables]));
+			} else {
+				res = this.mk(level, this.exists(this.lows[f], variables), this.exists(this.highs[f], variables));
+			}
+
+			this.cacheStore(slot, OP_EXISTS, f, variables, 0, res);
+		}
+
+		return res;
+	}
+
+	/**
+	 * Universal quantification
+	 * @param f the BDD to quantify
+	 * @param variables the positive cube of the variables to quantify, see variableSet()
+	 * @return the BDD of (forall variables . f)
+	 */
+	public int forall(int f, int variables){
+		return this.not(this.exists(this.not(f), variables));
+	}
+
+	/**
+	 * Relational product, computed without building the conjunction first
+	 * @param f the first conjunct
+	 * @param g the second conjunct
+	 * @param variables the positive cube of the variables to quantify, see variableSet()
+	 * @return the BDD of (exists variables . f AND g)
+	 */
+	public int andExists(int f, int g, int variables){
+		if (f == FALSE || g == FALSE){
+			return FALSE;
+		} else if (f == TRUE && g == TRUE){
+			return TRUE;
+		} else if (f == TRUE || f == g){
+			return this.exists(g, variables);
+		} else if (g == TRUE){
+			return this.exists(f, variables);
+		}
+
+		int top = Math.min(this.levels[f], this.levels[g]);
+
+		while (variables != TRUE && this.levels[variables] < top){
+			variables = this.highs[variables];
+		}
+
+		if (variables == TRUE){
+			return this.and(f, g);
+		}
+
+		//The conjunction is commutative
+		if (f > g){
+			int tmp = f;
+			f = g;
+			g = tmp;
+		}
+
+		int slot = this.cacheSlot(OP_AND_EXISTS, f, g, variables);
+		int res = this.cacheLookup(slot, OP_AND_EXISTS, f, g, variables);
+
+		if (res < 0){
+			int f0 = this.cofactor(f, top, false);
+			int f1 = this.cofactor(f, top, true);
+			int g0 = this.cofactor(g, top, false);
+			int g1 = this.cofactor(g, top, true);
+
+			if (this.levels[variables] == top){
+				int low = this.andExists(f0, g0, this.highs[variables]);
+				res = (low == TRUE) ? TRUE : this.or(low, this.andExists(f1, g1, this.highs[variables]));
+			} else {
+				res = this.mk(top, this.andExists(f0, g0, variables), this.andExists(f1, g1, variables));
+			}
+
+			this.cacheStore(slot, OP_AND_EXISTS, f, g, variables, res);
+		}
+
+		return res;
+	}
+
+	/**
+	 * Registers a renaming of the variables, to be used with replace()
+	 * @param permutation for every level, the level it must be renamed to
+	 * @return the id of the renaming
+	 */
+	public int registerPermutation(int[] permutation){
+		if (permutation.length != this.variableCount){
+			throw new RuntimeException("Permutation must have exactly one entry per variable");
+		}
+
+		if (this.permutationCount == this.permutations.length){
+			this.permutations = Arrays.copyOf(this.permutations, this.permutationCount * 2);
+		}
+
+		this.permutations[this.permutationCount] = Arrays.copyOf(permutation, permutation.length);
+		return this.permutationCount++;
+	}
+
+	/**
+	 * Renames the variables of a BDD
+	 * @param f the BDD
+	 * @param permutation the id of a renaming returned by registerPermutation()
+	 * @return the BDD obtained by replacing every variable with the one it is mapped to
+	 */
+	public int replace(int f, int permutation){
+		if (f == TRUE || f == FALSE){
+			return f;
+		}
+
+		int slot = this.cacheSlot(OP_REPLACE, f, permutation, 0);
+		int res = this.cacheLookup(slot, OP_REPLACE, f, permutation, 0);
+
+		if (res < 0){
+			int low = this.replace(this.lows[f], permutation);
+			int high = this.replace(this.highs[f], permutation);
+
+			//The renamed variable may end up anywhere in the order, so the node is rebuilt with ite
+			res = this.ite(this.ithVar(this.permutations[permutation][this.levels[f]]), high, low);
+			this.cacheStore(slot, OP_REPLACE, f, permutation, 0, res);
+		}
+
+		return res;
+	}
+
+	/**
+	 * Evaluates a BDD on a complete assignment
+	 * @param f the BDD
+	 * @param assignment the value of every variable, indexed by level
+	 * @return the truth value of f under the assignment
+	 */
+	public boolean evaluate(int f, boolean[] assignment){
+		while (f != TRUE && f != FALSE){
+			f = assignment[this.levels[f]] ? this.highs[f] : this.lows[f];
+		}
+
+		return f == TRUE;
+	}
+
+	/**
+	 * Enumerates the satisfying assignments of a BDD over the given variables.
+	 * The support of f must be contained in the given variables.
+	 * @param f the BDD
+	 * @param levels the levels of the variables, in increasing order
+	 * @param consumer receives every satisfying assignment, as values aligned with levels; the array is reused
+	 */
+	public void forEachSatisfying(int f, int[] levels, AssignmentConsumer consumer){
+		this.forEachSatisfying(f, levels, 0, new boolean[levels.length], consumer);
+	}
+
+	private void forEachSatisfying(int f, int[] levels, int index, boolean[] values, AssignmentConsumer consumer){
+		if (f == FALSE){
+			return;
+		}
+
+		if (index == levels.length){
+			if (f != TRUE){
+				throw new RuntimeException("BDD depends on variables outside of the enumerated ones");
+			}
+
+			consumer.accept(values);
+			return;
+		}
+
+		boolean dependent = this.levels[f] == levels[index];
+
+		values[index] = false;
+		this.forEachSatisfying(dependent ? this.lows[f] : f, levels, index + 1, values, consumer);
+		values[index] = true;
+		this.forEachSatisfying(dependent ? this.highs[f] : f, levels, index + 1, values, consumer);
+	}
+
+	/**
+	 * Counts the nodes reachable from a BDD, terminals included
+	 * @param f the BDD
+	 * @return the size of the diagram
+	 */
+	public int size(int f){
+		boolean[] visited = new boolean[this.nodeCount];
+		return this.size(f, visited);
+	}
+
+	private int size(int f, boolean[] visited){
+		if (visited[f]){
+			return 0;
+		}
+
+		visited[f] = true;
+
+		if (f == TRUE || f == FALSE){
+			return 1;
+		}
+
+		return 1 + this.size(this.lows[f], visited) + this.size(this.highs[f], visited);
+	}
+
+	private int cofactor(int f, int level, boolean value){
+		if (this.levels[f] != level){
+			return f;
+		}
+
+		return value ? this.highs[f] : this.lows[f];
+	}
+
+	private void checkLevel(int level){
+		if (level < 0 || level >= this.variableCount){
+			throw new RuntimeException("Unknown variable " + level);
+		}
+	}
+
+	//<editor-fold desc="Statistics" defaultState="collapsed">
+	public int getVariableCount(){
+		return variableCount;
+	}
+
+	/**
+	 * Returns the number of nodes in the node table, terminals included. Since nodes are never freed,
+	 * this is also the peak size of the table.
+	 * @return the number of allocated nodes
+	 */
+	public int getNodeCount(){
+		return nodeCount;
+	}
+
+	public int getNodeTableCapacity(){
+		return this.levels.length;
+	}
+
+	public long getCacheHits(){
+		return cacheHits;
+	}
+
+	public long getCacheMisses(){
+		return cacheMisses;
+	}
+
+	/**
+	 * Estimates the heap used by the node table and by the operation cache
+	 * @return the approximate number of bytes used by the manager
+	 */
+	public long getEstimatedBytes(){
+		return 4L * 5 * this.levels.length + 4L * 5 * CACHE_SIZE;
+	}
+
+	@Override
+	public String toString(){
+		long lookups = this.cacheHits + this.cacheMisses;
+		return "BDDManager: " + this.variableCount + " variables, " + this.nodeCount + " nodes (capacity "
+				+ this.levels.length + "), cache hit rate "
+				+ ((lookups == 0) ? "n/a" : String.format("%.1f%%", 100.0 * this.cacheHits / lookups));
+	}
+	//</editor-fold>
+
+	/**
+	 * Callback of forEachSatisfying()
+	 */
+	public interface AssignmentConsumer {
+		void accept(boolean[] values);
+	}
+}
@@ -0,0 +1,428 @@
+package synthesis.bdd;
+
+import automaton.EmptyTrace;
+import automaton.PossibleWorldWrap;
+import formula.ltlf.LTLfLocalVar;
+import net.sf.tweety.logics.pl.syntax.Proposition;
+import rationals.Automaton;
+import rationals.State;
+import rationals.Transition;
+import synthesis.maps.OutputFunction;
+import synthesis.symbols.BitsetInterpretation;
+import synthesis.symbols.BitsetPartitionedInterpretation;
+import synthesis.symbols.PartitionedDomain;
+import synthesis.symbols.SymbolTable;
+import synthesis.symbols.SynthEmptyTrace;
+import synthesis.symbols.SynthTransitionLabel;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * SymbolicGame
+ * Symbolic counterpart of the explicit game solved by SynthesisAutomaton.
+ * States are encoded in binary over a set of state variables, and the transition relation T(S, X, Y, S') is a single
+ * BDD over current state, environment, system and next state variables. The winning region is computed with the
+ * pre-image W_(k+1) = W_k OR (exists Y . forall X, S' . T -> W_k(S')), restricted to the system moves that have at
+ * least one transition, which is exactly the rule applied by the explicit solvers. The moves found in the round in
+ * which each state becomes winning form the strategy, that is translated back to an explicit OutputFunction.
+ * The game can be encoded straight from the automaton of the formula, whose possible worlds become cubes over the
+ * proposition variables, so that its labels never need to be translated to BitsetPartitionedInterpretations.
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public class SymbolicGame {
+
+	private BDDManager manager;
+	private PartitionedDomain domain;
+	private VariableOrdering ordering;
+
+	private State[] states;
+	private HashMap<State, Integer> ids;
+
+	private int[] currentLevels;
+	private int[] nextLevels;
+	private int[] systemLevels;
+	private int[] environmentLevels;
+
+	private int currentVariables;
+	private int systemVariables;
+	private int environmentAndNextVariables;
+	private int currentToNext;
+
+	private int transitionRelation;
+	private int terminalStates;
+
+	private int winningRegion;
+	private int strategy;
+	private int rounds;
+	private boolean solved;
+
+	/**
+	 * Instantiates a new SymbolicGame, encoding the given game automaton
+	 * @param automaton the game automaton, labelled with BitsetPartitionedInterpretations, or the automaton of the
+	 * formula, labelled with PossibleWorldWraps, without empty trace transitions
+	 * @param domain the partitioned domain used to encode the labels
+	 * @param ordering the variable ordering heuristic
+	 */
+	public SymbolicGame(Automaton automaton, PartitionedDomain domain, VariableOrdering ordering){
+		this.domain = domain;
+		this.ordering = ordering;
+
+		this.numberStates(automaton);
+
+		int stateBits = Math.max(1, 32 - Integer.numberOfLeadingZeros(this.states.length - 1));
+		int systemCount = domain.getSystemIndex().size();
+		int environmentCount = domain.getEnvironmentIndex().size();
+
+		this.manager = new BDDManager(2 * stateBits + systemCount + environmentCount);
+		this.assignLevels(stateBits, systemCount, environmentCount);
+
+		this.currentVariables = this.manager.variableSet(this.currentLevels);
+		this.systemVariables = this.manager.variableSet(this.systemLevels);
+		this.environmentAndNextVariables = this.manager.and(this.manager.variableSet(this.environmentLevels),
+				this.manager.variableSet(this.nextLevels));
+
+		int[] permutation = new int[this.manager.getVariableCount()];
+		for (int l = 0; l < permutation.length; l++){
+			permutation[l] = l;
+		}
+		for (int b = 0; b < stateBits; b++){
+			permutation[this.currentLevels[b]] = this.nextLevels[b];
+		}
+		this.currentToNext = this.manager.registerPermutation(permutation);
+
+		this.encode(automaton);
+		this.solved = false;
+	}
+
+	/**
+	 * Numbers the states in breadth-first order from the initial state; unreachable states get the last codes
+	 */
+	private void numberStates(Automaton automaton){
+		Set<State> automatonStates = automaton.states();
+		this.states = new State[automatonStates.size()];
+		this.ids = new HashMap<>();
+
+		ArrayDeque<State> queue = new ArrayDeque<>();
+		queue.addAll(automaton.initials());
+
+		while (!queue.isEmpty()){
+			State s = queue.poll();
+
+			if (!this.ids.containsKey(s)){
+				this.states[this.ids.size()] = s;
+				this.ids.put(s, this.ids.size());
+
+				Set<Transition<SynthTransitionLabel>> transitions = automaton.delta(s);
+				for (Transition<SynthTransitionLabel> t : transitions){
+					queue.add(t.end());
+				}
+			}
+		}
+
+		for (State s : automatonStates){
+			if (!this.ids.containsKey(s)){
+				this.states[this.ids.size()] = s;
+				this.ids.put(s, this.ids.size());
+			}
+		}
+	}
+
+	private void assignLevels(int stateBits, int systemCount, int environmentCount){
+		this.currentLevels = new int[stateBits];
+		this.nextLevels = new int[stateBits];
+		this.systemLevels = new int[systemCount];
+		this.environmentLevels = new int[environmentCount];
+
+		int level = 0;
+
+		if (this.ordering == VariableOrdering.INPUTS_FIRST){
+			level = fill(this.systemLevels, level);
+			level = fill(this.environmentLevels, level);
+		}
+
+		if (this.ordering == VariableOrdering.STATES_FIRST){
+			level = fill(this.currentLevels, level);
+			level = fill(this.nextLevels, level);
+		} else {
+			for (int b = 0; b < stateBits; b++){
+				this.currentLevels[b] = level++;
+				this.nextLevels[b] = level++;
+			}
+		}
+
+		if (this.ordering != VariableOrdering.INPUTS_FIRST){
+			level = fill(this.systemLevels, level);
+			fill(this.environmentLevels, level);
+		}
+	}
+
+	private static int fill(int[] levels, int first){
+		for (int i = 0; i < levels.length; i++){
+			levels[i] = first + i;
+		}
+
+		return first + levels.length;
+	}
+
+	private void encode(Automaton automaton){
+		BDDManager m = this.manager;
+		this.transitionRelation = BDDManager.FALSE;
+		this.terminalStates = BDDManager.FALSE;
+
+		//Levels of the domain propositions, indexed like the cube of a label: environment first, then system
+		int environmentCount = this.environmentLevels.length;
+		int[] labelLevels = new int[environmentCount + this.systemLevels.length];
+		System.arraycopy(this.environmentLevels, 0, labelLevels, 0, environmentCount);
+		System.arraycopy(this.systemLevels, 0, labelLevels, environmentCount, this.systemLevels.length);
+		HashMap<Proposition, Integer> positions = new HashMap<>();
+
+		for (int s = 0; s < this.states.length; s++){
+			int stateCube = this.stateCube(this.currentLevels, s);
+
+			if (this.states[s].isTerminal()){
+				this.terminalStates = m.or(this.terminalStates, stateCube);
+			}
+
+			//Labels leading to every successor, so that the code of each successor is conjoined only once
+			HashMap<Integer, Integer> guards = new HashMap<>();
+			Set<Transition<Object>> transitions = automaton.delta(this.states[s]);
+
+			for (Transition<Object> t : transitions){
+				Object label = t.label();
+				int labelCube;
+
+				if (label instanceof PossibleWorldWrap){
+					labelCube = this.worldCube((PossibleWorldWrap) label, labelLevels, positions);
+				} else if (label instanceof BitsetPartitionedInterpretation){
+					BitsetPartitionedInterpretation pi = (BitsetPartitionedInterpretation) label;
+					labelCube = m.and(this.maskCube(this.environmentLevels, pi.getEnvironmentMask()),
+							this.maskCube(this.systemLevels, pi.getSystemMask()));
+				} else if (label instanceof SynthEmptyTrace || label instanceof EmptyTrace){
+					continue;
+				} else {
+					throw new RuntimeException("Unknown label type");
+				}
+
+				int target = this.ids.get(t.end());
+				Integer guard = guards.get(target);
+				guards.put(target, (guard == null) ? labelCube : m.or(guard, labelCube));
+			}
+
+			//Disjunction of the (X, Y, S') cubes of the state, conjoined with its code once
+			int outgoing = BDDManager.FALSE;
+
+			for (Map.Entry<Integer, Integer> e : guards.entrySet()){
+				outgoing = m.or(outgoing, m.and(e.getValue(), this.stateCube(this.nextLevels, e.getKey())));
+			}
+
+			this.transitionRelation = m.or(this.transitionRelation, m.and(stateCube, outgoing));
+		}
+	}
+
+	//Cube of a possible world over all the propositions of the domain: those that do not appear are false
+	private int worldCube(PossibleWorldWrap world, int[] labelLevels, HashMap<Proposition, Integer> positions){
+		boolean[] values = new boolean[labelLevels.length];
+
+		for (Proposition p : world){
+			Integer position = positions.get(p);
+
+			if (position == null){
+				LTLfLocalVar v = this.domain.getSymbols().variable(p);
+
+				if (v == null){
+					throw new RuntimeException("Found propositional variable not declared in domain");
+				}
+
+				position = this.domain.getSymbols().isSystem(p)
+						? this.environmentLevels.length + this.domain.getSystemIndex().indexOf(v)
+						: this.domain.getEnvironmentIndex().indexOf(v);
+				positions.put(p, position);
+			}
+
+			values[position] = true;
+		}
+
+		return this.manager.cube(labelLevels, values);
+	}
+
+	private int stateCube(int[] levels, int id){
+		boolean[] values = new boolean[levels.length];
+		for (int b = 0; b < levels.length; b++){
+			values[b] = ((id >>> b) & 1) != 0;
+		}
+
+		return this.manager.cube(levels, values);
+	}
+
+	private int maskCube(int[] levels, BitsetInterpretation mask){
+		boolean[] values = new boolean[levels.length];
+		for (int i = 0; i < levels.length; i++){
+			values[i] = mask.get(i);
+		}
+
+		return this.manager.cube(levels, values);
+	}
+
+	/**
+	 * Computes the winning region and the strategy
+	 * @return true if the initial state is winning
+	 */
+	public boolean solve(){
+		BDDManager m = this.manager;
+
+		//(S, Y) pairs that have at least one transition
+		int moves = m.exists(this.transitionRelation, this.environmentAndNextVariables);
+
+		int winning = this.terminalStates;
+		int strategy = BDDManager.FALSE;
+		int rounds = 0;
+
+		while (true){
+			int winningNext = m.replace(winning, this.currentToNext);
+
+			//(S, Y) pairs with at least one successor outside of the winning region
+			int losing = m.andExists(this.transitionRelation, m.not(winningNext), this.environmentAndNextVariables);
+			int good = m.and(moves, m.not(losing));
+			int newStates = m.and(m.exists(good, this.systemVariables), m.not(winning));
+
+			if (newStates == BDDManager.FALSE){
+				break;
+			}
+
+			rounds++;
+			strategy = m.or(strategy, m.and(good, newStates));
+			winning = m.or(winning, newStates);
+		}
+
+		this.winningRegion = winning;
+		this.strategy = strategy;
+		this.rounds = rounds;
+		this.solved = true;
+
+		//The initial state is always numbered first
+		return this.isWinning(0);
+	}
+
+	private boolean isWinning(int id){
+		boolean[] assignment = new boolean[this.manager.getVariableCount()];
+		for (int b = 0; b < this.currentLevels.length; b++){
+			assignment[this.currentLevels[b]] = ((id >>> b) & 1) != 0;
+		}
+
+		return this.manager.evaluate(this.winningRegion, assignment);
+	}
+
+	/**
+	 * Translates the symbolic winning region back to explicit states
+	 * @return the set of winning states of the original automaton
+	 */
+	public HashSet<State> getWinningStates(){
+		this.checkSolved();
+		HashSet<State> res = new HashSet<>();
+
+		for (int s = 0; s < this.states.length; s++){
+			if (this.isWinning(s)){
+				res.add(this.states[s]);
+			}
+		}
+
+		return res;
+	}
+
+	/**
+	 * Translates the symbolic strategy back to an explicit output function
+	 * @return an OutputFunction with the same content of the one computed by the explicit solvers
+	 */
+	public OutputFunction getOutputFunction(){
+		this.checkSolved();
+		BDDManager m = this.manager;
+		OutputFunction res = new OutputFunction();
+
+		//Enumerate the system moves in the order of their levels
+		int[] sortedLevels = Arrays.copyOf(this.systemLevels, this.systemLevels.length);
+		Arrays.sort(sortedLevels);
+		int[] variableOf = new int[m.getVariableCount()];
+		for (int i = 0; i < this.systemLevels.length; i++){
+			variableOf[this.systemLevels[i]] = i;
+		}
+
+		int wordCount = this.domain.getSystemIndex().wordCount();
+		SymbolTable symbols = this.domain.getSymbols();
+
+		for (int s = 0; s < this.states.length; s++){
+			int moves = m.andExists(this.strategy, this.stateCube(this.currentLevels, s), this.currentVariables);
+
+			if (moves != BDDManager.FALSE){
+				HashSet<BitsetInterpretation> stateMoves = new HashSet<>();
+				m.forEachSatisfying(moves, sortedLevels, values -> {
+					long[] words = new long[wordCount];
+					for (int i = 0; i < values.length; i++){
+						if (values[i]){
+							int v = variableOf[sortedLevels[i]];
+							words[v >>> 6] |= 1L << v;
+						}
+					}
+					stateMoves.add(symbols.systemMask(new BitsetInterpretation(words)));
+				});
+
+				res.put(this.states[s], stateMoves);
+			}
+		}
+
+		return res;
+	}
+
+	private void checkSolved(){
+		if (!this.solved){
+			throw new RuntimeException("Method solve() must be called first");
+		}
+	}
+
+	//<editor-fold desc="Getter Methods" defaultState="collapsed">
+	public BDDManager getManager(){
+		return manager;
+	}
+
+	public VariableOrdering getOrdering(){
+		return ordering;
+	}
+
+	/**
+	 * Returns the number of rounds of the fixpoint that added new winning states
+	 * @return the number of productive rounds
+	 */
+	public int getRounds(){
+		return rounds;
+	}
+
+	public int getTransitionRelationSize(){
+		return this.manager.size(this.transitionRelation);
+	}
+
+	public int getWinningRegionSize(){
+		return this.manager.size(this.winningRegion);
+	}
+	//</editor-fold>
+}
@@ -0,0 +1,44 @@
+package synthesis.bdd;
+
+/**
+ * VariableOrdering
+ * Variable ordering heuristics for the symbolic encoding of the game.
+ * In every ordering the states are numbered in breadth-first order from the initial state, so that states that are
+ * close in the automaton get close codes.
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public enum VariableOrdering {
+
+	/**
+	 * Current state bits, then next state bits, then system and environment propositions.
+	 */
+	STATES_FIRST,
+
+	/**
+	 * Current and next state bits interleaved, then system and environment propositions.
+	 * Usually the smallest transition relation, since each next state bit sits right below its current state bit.
+	 */
+	INTERLEAVED,
+
+	/**
+	 * System and environment propositions, then current and next state bits interleaved.
+	 * Useful when the labels are much more structured than the state space.
+	 */
+	INPUTS_FIRST
+}
@@ -0,0 +1,440 @@
+package synthesis.codegen;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+
+/**
+ * ClassFileWriter
+ * Minimal writer of version 49 (Java 5) class files, that do not need stack map frames, with a growable code
+ * buffer for the methods.
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+final class ClassFileWriter {
+
+	static final int ACC_PUBLIC = 0x0001;
+	static final int ACC_FINAL = 0x0010;
+	static final int ACC_SUPER = 0x0020;
+
+	static final int MAX_CODE_LENGTH = 65535;
+
+	//<editor-fold desc="Opcodes" defaultState="collapsed">
+	static final int ICONST_0 = 0x03;
+	static final int LCONST_0 = 0x09;
+	static final int LCONST_1 = 0x0a;
+	static final int BIPUSH = 0x10;
+	static final int SIPUSH = 0x11;
+	static final int LDC = 0x12;
+	static final int LDC_W = 0x13;
+	static final int LDC2_W = 0x14;
+	static final int ILOAD = 0x15;
+	static final int ILOAD_1 = 0x1b;
+	static final int ILOAD_2 = 0x1c;
+	static final int ILOAD_3 = 0x1d;
+	static final int LLOAD_2 = 0x20;
+	static final int ALOAD_0 = 0x2a;
+	static final int ALOAD_1 = 0x2b;
+	static final int ISTORE = 0x36;
+	static final int DUP = 0x59;
+	static final int LUSHR = 0x7d;
+	static final int L2I = 0x88;
+	static final int LCMP = 0x94;
+	static final int IFEQ = 0x99;
+	static final int TABLESWITCH = 0xaa;
+	static final int IRETURN = 0xac;
+	static final int LRETURN = 0xad;
+	static final int RETURN = 0xb1;
+	static final int INVOKESPECIAL = 0xb7;
+	static final int NEW = 0xbb;
+	static final int ATHROW = 0xbf;
+	//</editor-fold>
+
+	private static final int CONSTANT_UTF8 = 1;
+	private static final int CONSTANT_INTEGER = 3;
+	private static final int CONSTANT_LONG = 5;
+	private static final int CONSTANT_CLASS = 7;
+	private static final int CONSTANT_STRING = 8;
+	private static final int CONSTANT_METHODREF = 10;
+	private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+	private final ByteArrayOutputStream poolBytes;
+	private final DataOutputStream pool;
+	private final HashMap<String, Integer> poolEntries;
+	private int poolCount;
+
+	private final ByteArrayOutputStream methodBytes;
+	private final DataOutputStream methods;
+	private int methodCount;
+
+	ClassFileWriter(){
+		this.poolBytes = new ByteArrayOutputStream();
+		this.pool = new DataOutputStream(this.poolBytes);
+		this.poolEntries = new HashMap<>();
+		this.poolCount = 1;
+		this.methodBytes = new ByteArrayOutputStream();
+		this.methods = new DataOutputStream(this.methodBytes);
+		this.methodCount = 0;
+	}
+
+	//<editor-fold desc="Constant Pool" defaultState="collapsed">
+	int utf8(String value){
+		Integer res = this.poolEntries.get("U" + value);
+
+		if (res == null){
+			try {
+				this.pool.writeByte(CONSTANT_UTF8);
+				this.pool.writeUTF(value);
+			} catch (IOException e){
+				throw new RuntimeException(e);
+			}
+
+			res = this.newEntry("U" + value, 1);
+		}
+
+		return res;
+	}
+
+	int classRef(String internalName){
+		Integer res = this.poolEntries.get("C" + internalName);
+
+		if (res == null){
+			int name = this.utf8(internalName);
+			this.writeEntry(CONSTANT_CLASS, name);
+			res = this.newEntry("C" + internalName, 1);
+		}
+
+		return res;
+	}
+
+	int string(String value){
+		Integer res = this.poolEntries.get("S" + value);
+
+		if (res == null){
+			int utf8 = this.utf8(value);
+			this.writeEntry(CONSTANT_STRING, utf8);
+			res = this.newEntry("S" + value, 1);
+		}
+
+		return res;
+	}
+
+	int integer(int value){
+		Integer res = this.poolEntries.get("I" + value);
+
+		if (res == null){
+			try {
+				this.pool.writeByte(CONSTANT_INTEGER);
+				this.pool.writeInt(value);
+			} catch (IOException e){
+				throw new RuntimeException(e);
+			}
+
+			res = this.newEntry("I" + value, 1);
+		}
+
+		return res;
+	}
+
+	int longConstant(long value){
+		Integer res = this.poolEntries.get("L" + value);
+
+		if (res == null){
+			try {
+				this.pool.writeByte(CONSTANT_LONG);
+				this.pool.writeLong(value);
+			} catch (IOException e){
+				throw new RuntimeException(e);
+			}
+
+			//Long constants take two slots of the pool
+			res = this.newEntry("L" + value, 2);
+		}
+
+		return res;
+	}
+
+	int methodRef(String owner, String name, String descriptor){
+		String key = "M" + owner + "." + name + descriptor;
+		Integer res = this.poolEntries.get(key);
+
+		if (res == null){
+			int ownerRef = this.classRef(owner);
+			int nameRef = this.utf8(name);
+			int descriptorRef = this.utf8(descriptor);
+
+			this.writeEntry(CONSTANT_NAME_AND_TYPE, nameRef, descriptorRef);
+			int nameAndType = this.newEntry("N" + name + descriptor, 1);
+
+			this.writeEntry(CONSTANT_METHODREF, ownerRef, nameAndType);
+			res = this.newEntry(key, 1);
+		}
+
+		return res;
+	}
+
+	private void writeEntry(int tag, int... indexes){
+		try {
+			this.pool.writeByte(tag);
+			for (int index : indexes){
+				this.pool.writeShort(index);
+			}
+		} catch (IOException e){
+			throw new RuntimeException(e);
+		}
+	}
+
+	private int newEntry(String key, int slots){
+		int res = this.poolCount;
+		this.poolCount += slots;
+
+		if (this.poolCount > 0xffff){
+			throw new RuntimeException("Constant pool overflow");
+		}
+
+		this.poolEntries.put(key, res);
+		return res;
+	}
+	//</editor-fold>
+
+	/**
+	 * Adds a method, without exception table nor attributes
+	 * @param access the access flags
+	 * @param name the name of the method
+	 * @param descriptor the descriptor of the method
+	 * @param maxStack the maximum depth of the operand stack
+	 * @param maxLocals the number of local variable slots, arguments included
+	 * @param code the bytecode
+	 */
+	void addMethod(int access, String name, String descriptor, int maxStack, int maxLocals, Code code){
+		if (code.length() > MAX_CODE_LENGTH){
+			throw new RuntimeException("Method " + name + " is too large: " + code.length() + " bytes");
+		}
+
+		int nameRef = this.utf8(name);
+		int descriptorRef = this.utf8(descriptor);
+		int codeRef = this.utf8("Code");
+
+		try {
+			this.methods.writeShort(access);
+			this.methods.writeShort(nameRef);
+			this.methods.writeShort(descriptorRef);
+			this.methods.writeShort(1);
+
+			this.methods.writeShort(codeRef);
+			this.methods.writeInt(12 + code.length());
+			this.methods.writeShort(maxStack);
+			this.methods.writeShort(maxLocals);
+			this.methods.writeInt(code.length());
+			this.methods.write(code.buffer, 0, code.length());
+			this.methods.writeShort(0);
+			this.methods.writeShort(0);
+		} catch (IOException e){
+			throw new RuntimeException(e);
+		}
+
+		this.methodCount++;
+	}
+
+	/**
+	 * Writes the class file
+	 * @param access the access flags of the class
+	 * @param name the internal name of the class
+	 * @param superName the internal name of the superclass
+	 * @return the class file
+	 */
+	byte[] toByteArray(int access, String name, String superName){
+		int thisRef = this.classRef(name);
+		int superRef = this.classRef(superName);
+
+		ByteArrayOutputStream res = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(res);
+
+		try {
+			out.writeInt(0xcafebabe);
+			out.writeShort(0);
+			out.writeShort(49);
+			out.writeShort(this.poolCount);
+			this.poolBytes.writeTo(out);
+
+			out.writeShort(access);
+			out.writeShort(thisRef);
+			out.writeShort(superRef);
+			out.writeShort(0);
+			out.writeShort(0);
+			out.writeShort(this.methodCount);
+			this.methodBytes.writeTo(out);
+			out.writeShort(0);
+			out.flush();
+		} catch (IOException e){
+			throw new RuntimeException(e);
+		}
+
+		return res.toByteArray();
+	}
+
+	/**
+	 * Growable bytecode buffer
+	 */
+	static final class Code {
+
+		private final ClassFileWriter classFile;
+		private byte[] buffer;
+		private int length;
+
+		Code(ClassFileWriter classFile){
+			this.classFile = classFile;
+			this.buffer = new byte[256];
+			this.length = 0;
+		}
+
+		int length(){
+			return this.length;
+		}
+
+		void op(int opcode){
+			this.u1(opcode);
+		}
+
+		void op(int opcode, int index){
+			this.u1(opcode);
+			this.u2(index);
+		}
+
+		void u1(int value){
+			if (this.length == this.buffer.length){
+				byte[] larger = new byte[this.buffer.length * 2];
+				System.arraycopy(this.buffer, 0, larger, 0, this.length);
+				this.buffer = larger;
+			}
+
+			this.buffer[this.length++] = (byte) value;
+		}
+
+		void u2(int value){
+			this.u1(value >>> 8);
+			this.u1(value);
+		}
+
+		void u4(int value){
+			this.u2(value >>> 16);
+			this.u2(value);
+		}
+
+		void patch2(int position, int value){
+			this.buffer[position] = (byte) (value >>> 8);
+			this.buffer[position + 1] = (byte) value;
+		}
+
+		void patch4(int position, int value){
+			this.patch2(position, value >>> 16);
+			this.patch2(position + 2, value);
+		}
+
+		/**
+		 * Pushes an int constant with the shortest instruction
+		 * @param value the constant
+		 */
+		void pushInt(int value){
+			if (value >= -1 && value <= 5){
+				this.op(ICONST_0 + value);
+			} else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE){
+				this.op(BIPUSH);
+				this.u1(value);
+			} else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE){
+				this.op(SIPUSH);
+				this.u2(value);
+			} else {
+				this.ldc(this.classFile.integer(value));
+			}
+		}
+
+		/**
+		 * Pushes a long constant with the shortest instruction
+		 * @param value the constant
+		 */
+		void pushLong(long value){
+			if (value == 0L){
+				this.op(LCONST_0);
+			} else if (value == 1L){
+				this.op(LCONST_1);
+			} else {
+				this.op(LDC2_W, this.classFile.longConstant(value));
+			}
+		}
+
+		void ldc(int index){
+			if (index < 256){
+				this.op(LDC);
+				this.u1(index);
+			} else {
+				this.op(LDC_W, index);
+			}
+		}
+
+		/**
+		 * Throws a new RuntimeException with the given message
+		 * @param message the message of the exception
+		 */
+		void throwException(String message){
+			this.op(NEW, this.classFile.classRef("java/lang/RuntimeException"));
+			this.op(DUP);
+			this.ldc(this.classFile.string(message));
+			this.op(INVOKESPECIAL, this.classFile.methodRef("java/lang/RuntimeException", "<init>",
+					"(Ljava/lang/String;)V"));
+			this.op(ATHROW);
+		}
+
+		/**
+		 * Writes a tableswitch over [0, cases), with all the jumps left to be set with setJump()
+		 * @param cases the number of cases
+		 * @return the position of the switch, to be passed to setJump()
+		 */
+		int tableSwitch(int cases){
+			int res = this.length;
+			this.op(TABLESWITCH);
+
+			while (this.length % 4 != 0){
+				this.u1(0);
+			}
+
+			this.u4(0);
+			this.u4(0);
+			this.u4(cases - 1);
+
+			for (int i = 0; i < cases; i++){
+				this.u4(0);
+			}
+
+			return res;
+		}
+
+		/**
+		 * Makes a case of a tableswitch jump to the given position
+		 * @param tableSwitch the position of the switch
+		 * @param value the case, or -1 for the default
+		 * @param target the position of the code of the case
+		 */
+		void setJump(int tableSwitch, int value, int target){
+			int table = (tableSwitch + 4) & ~3;
+			int position = (value < 0) ? table : table + 12 + 4 * value;
+			this.patch4(position, target - tableSwitch);
+		}
+	}
+}
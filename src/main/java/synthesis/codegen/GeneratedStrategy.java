@@ -0,0 +1,123 @@
+package synthesis.codegen;
+
+import synthesis.Strategy;
+import synthesis.symbols.PartitionedDomain;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * GeneratedStrategy
+ * Base class of the strategies generated by StrategyClassGenerator, that only implement next() and output().
+ * Generated classes are defined as hidden classes when the JVM supports them (Java 15 and later), so that they can be
+ * unloaded as soon as the strategy is no longer used, and in a class loader of their own otherwise.
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public abstract class GeneratedStrategy implements Strategy {
+
+	//MethodHandles.Lookup.defineHiddenClass, if available
+	private static final Method DEFINE_HIDDEN_CLASS;
+	private static final Object NO_OPTIONS;
+
+	static {
+		Method method = null;
+		Object options = null;
+
+		try {
+			Class<?> optionClass = Class.forName("java.lang.invoke.MethodHandles$Lookup$ClassOption");
+			options = Array.newInstance(optionClass, 0);
+			method = MethodHandles.Lookup.class.getMethod("defineHiddenClass", byte[].class, boolean.class,
+					options.getClass());
+		} catch (ReflectiveOperationException e){
+			method = null;
+		}
+
+		DEFINE_HIDDEN_CLASS = method;
+		NO_OPTIONS = options;
+	}
+
+	private final PartitionedDomain domain;
+	private final int stateCount;
+	private final int initialState;
+
+	protected GeneratedStrategy(PartitionedDomain domain, int stateCount, int initialState){
+		this.domain = domain;
+		this.stateCount = stateCount;
+		this.initialState = initialState;
+	}
+
+	/**
+	 * Checks whether generated classes are defined as hidden classes
+	 * @return true if the JVM supports hidden classes
+	 */
+	public static boolean isHiddenClassSupported(){
+		return DEFINE_HIDDEN_CLASS != null;
+	}
+
+	/**
+	 * Defines a generated class in this package
+	 * @param bytes the class file
+	 * @return the new class
+	 */
+	static Class<?> define(byte[] bytes){
+		if (DEFINE_HIDDEN_CLASS != null){
+			try {
+				MethodHandles.Lookup lookup = (MethodHandles.Lookup) DEFINE_HIDDEN_CLASS.invoke(MethodHandles.lookup(),
+						bytes, true, NO_OPTIONS);
+				return lookup.lookupClass();
+			} catch (IllegalAccessException e){
+				throw new RuntimeException(e);
+			} catch (InvocationTargetException e){
+				throw new RuntimeException(e.getCause());
+			}
+		}
+
+		return new GeneratedClassLoader().define(bytes);
+	}
+
+	private static class GeneratedClassLoader extends ClassLoader {
+
+		private GeneratedClassLoader(){
+			super(GeneratedStrategy.class.getClassLoader());
+		}
+
+		private Class<?> define(byte[] bytes){
+			return this.defineClass(null, bytes, 0, bytes.length);
+		}
+	}
+
+	//<editor-fold desc="Getter Methods" defaultState="collapsed">
+	@Override
+	public final int getInitialState(){
+		return initialState;
+	}
+
+	@Override
+	public final int getStateCount(){
+		return stateCount;
+	}
+
+	@Override
+	public final PartitionedDomain getDomain(){
+		return domain;
+	}
+	//</editor-fold>
+}
@@ -0,0 +1,211 @@
+package synthesis.codegen;
+
+import synthesis.Strategy;
+import synthesis.symbols.PartitionedDomain;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.HashMap;
+
+import static synthesis.codegen.ClassFileWriter.*;
+
+/**
+ * StrategyClassGenerator
+ * Compiles a Strategy into a class generated at runtime, whose next() and output() are dense switch statements
+ * over the state and the environment mask: the JIT can then inline the strategy in the caller, and small
+ * strategies run faster than their tables. The generated methods must fit in the 64KB limit of the JVM, see
+ * isGeneratable().
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public final class StrategyClassGenerator {
+
+	private static final String CLASS_NAME = "synthesis/codegen/GeneratedStrategy$Switch";
+	private static final String SUPER_NAME = "synthesis/codegen/GeneratedStrategy";
+	private static final String CONSTRUCTOR_DESCRIPTOR = "(Lsynthesis/symbols/PartitionedDomain;II)V";
+
+	private StrategyClassGenerator(){
+	}
+
+	/**
+	 * Checks whether the methods generated for a strategy would certainly fit in the limits of the JVM
+	 * @param strategy the strategy
+	 * @return true if the strategy can be generated
+	 */
+	public static boolean isGeneratable(Strategy strategy){
+		int environmentBits = strategy.getDomain().getEnvironmentIndex().size();
+
+		if (environmentBits >= 16 || strategy.getStateCount() == 0){
+			return false;
+		}
+
+		//Worst case: a switch over the environment moves in every state, with a different target for each move
+		long nextLength = 64 + (long) strategy.getStateCount() * (24 + (8L << environmentBits));
+		long outputLength = 64 + (long) strategy.getStateCount() * 8;
+
+		return nextLength <= MAX_CODE_LENGTH && outputLength <= MAX_CODE_LENGTH;
+	}
+
+	/**
+	 * Generates the class of a strategy, and instantiates it
+	 * @param strategy the strategy
+	 * @return a GeneratedStrategy that plays exactly as the given strategy
+	 */
+	public static GeneratedStrategy generate(Strategy strategy){
+		byte[] bytes = generateClassFile(strategy);
+		Class<?> generated = GeneratedStrategy.define(bytes);
+
+		try {
+			return (GeneratedStrategy) generated.getConstructor(PartitionedDomain.class, int.class, int.class)
+					.newInstance(strategy.getDomain(), strategy.getStateCount(), strategy.getInitialState());
+		} catch (InvocationTargetException e){
+			throw new RuntimeException(e.getCause());
+		} catch (ReflectiveOperationException e){
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Generates the class file of a strategy
+	 * @param strategy the strategy
+	 * @return the class file of a subclass of GeneratedStrategy
+	 */
+	public static byte[] generateClassFile(Strategy strategy){
+		int environmentBits = strategy.getDomain().getEnvironmentIndex().size();
+
+		if (!isGeneratable(strategy)){
+			throw new RuntimeException("Strategy is too large to be generated");
+		}
+
+		ClassFileWriter classFile = new ClassFileWriter();
+
+		ClassFileWriter.Code constructor = new ClassFileWriter.Code(classFile);
+		constructor.op(ALOAD_0);
+		constructor.op(ALOAD_1);
+		constructor.op(ILOAD_2);
+		constructor.op(ILOAD_3);
+		constructor.op(INVOKESPECIAL, classFile.methodRef(SUPER_NAME, "<init>", CONSTRUCTOR_DESCRIPTOR));
+		constructor.op(RETURN);
+		classFile.addMethod(ACC_PUBLIC, "<init>", CONSTRUCTOR_DESCRIPTOR, 4, 4, constructor);
+
+		classFile.addMethod(ACC_PUBLIC, "next", "(IJ)I", 4, 5, nextMethod(classFile, strategy, environmentBits));
+		classFile.addMethod(ACC_PUBLIC, "output", "(I)J", 3, 2, outputMethod(classFile, strategy));
+
+		return classFile.toByteArray(ACC_PUBLIC | ACC_FINAL | ACC_SUPER, CLASS_NAME, SUPER_NAME);
+	}
+
+	private static ClassFileWriter.Code nextMethod(ClassFileWriter classFile, Strategy strategy, int environmentBits){
+		ClassFileWriter.Code code = new ClassFileWriter.Code(classFile);
+		int states = strategy.getStateCount();
+		int inputs = 1 << environmentBits;
+
+		//if ((environmentMask >>> environmentBits) != 0) throw
+		code.op(LLOAD_2);
+		code.pushInt(environmentBits);
+		code.op(LUSHR);
+		code.op(LCONST_0);
+		code.op(LCMP);
+		int branch = code.length();
+		code.op(IFEQ, 0);
+		code.throwException("Input is not defined over the environment domain");
+		code.patch2(branch + 1, code.length() - branch);
+
+		//Local 4 holds the environment mask as an int
+		code.op(LLOAD_2);
+		code.op(L2I);
+		code.op(ISTORE);
+		code.u1(4);
+
+		code.op(ILOAD_1);
+		int stateSwitch = code.tableSwitch(states);
+
+		int[] targets = new int[inputs];
+		HashMap<Integer, Integer> cases = new HashMap<>();
+
+		for (int s = 0; s < states; s++){
+			code.setJump(stateSwitch, s, code.length());
+
+			boolean constant = true;
+			for (int x = 0; x < inputs; x++){
+				targets[x] = strategy.next(s, x);
+				constant &= targets[x] == targets[0];
+			}
+
+			if (constant){
+				code.pushInt(targets[0]);
+				code.op(IRETURN);
+				continue;
+			}
+
+			code.op(ILOAD);
+			code.u1(4);
+			int inputSwitch = code.tableSwitch(inputs);
+
+			//Environment moves leading to the same state share their case
+			cases.clear();
+			for (int x = 0; x < inputs; x++){
+				Integer target = cases.get(targets[x]);
+
+				if (target == null){
+					target = code.length();
+					cases.put(targets[x], target);
+					code.pushInt(targets[x]);
+					code.op(IRETURN);
+				}
+
+				code.setJump(inputSwitch, x, target);
+			}
+
+			code.setJump(inputSwitch, -1, cases.get(targets[0]));
+		}
+
+		code.setJump(stateSwitch, -1, code.length());
+		code.throwException("Invalid state");
+
+		return code;
+	}
+
+	private static ClassFileWriter.Code outputMethod(ClassFileWriter classFile, Strategy strategy){
+		ClassFileWriter.Code code = new ClassFileWriter.Code(classFile);
+		int states = strategy.getStateCount();
+
+		code.op(ILOAD_1);
+		int stateSwitch = code.tableSwitch(states);
+
+		//States with the same output share their case
+		HashMap<Long, Integer> cases = new HashMap<>();
+
+		for (int s = 0; s < states; s++){
+			long output = strategy.output(s);
+			Integer target = cases.get(output);
+
+			if (target == null){
+				target = code.length();
+				cases.put(output, target);
+				code.pushLong(output);
+				code.op(LRETURN);
+			}
+
+			code.setJump(stateSwitch, s, target);
+		}
+
+		code.setJump(stateSwitch, -1, code.length());
+		code.throwException("Invalid state");
+
+		return code;
+	}
+}
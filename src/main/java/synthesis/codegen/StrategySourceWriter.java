@@ -0,0 +1,257 @@
+package synthesis.codegen;
+
+import synthesis.Strategy;
+import synthesis.symbols.PartitionedDomain;
+import synthesis.symbols.VariableIndex;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * StrategySourceWriter
+ * Writes a Strategy as a self contained Java class, with the same switch statements generated by
+ * StrategyClassGenerator, that can be embedded in builds without LTL-Synthesis on the classpath. Unlike the generated
+ * classes, the switch statements of large strategies are split in several methods, so that javac accepts them.
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public final class StrategySourceWriter {
+
+	private StrategySourceWriter(){
+	}
+
+	/**
+	 * Writes a strategy to a Java source file
+	 * @param strategy the strategy
+	 * @param className the fully qualified name of the class
+	 * @param path the destination file
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void write(Strategy strategy, String className, Path path) throws IOException {
+		try (Writer out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)){
+			write(strategy, className, out);
+		}
+	}
+
+	/**
+	 * Writes a strategy as the source of a Java class, with static next() and output() methods that behave as those of
+	 * the strategy; the indexes of the propositions are listed in the class comment. The switch statements of large
+	 * strategies are split in one method per range of states, so that javac never finds a method that is too large.
+	 * @param strategy the strategy
+	 * @param className the fully qualified name of the class
+	 * @param out the destination
+	 * @throws IOException if the source cannot be written
+	 */
+	public static void write(Strategy strategy, String className, Appendable out) throws IOException {
+		PartitionedDomain domain = strategy.getDomain();
+		int environmentBits = domain.getEnvironmentIndex().size();
+		int statesPerMethod = statesPerMethod(environmentBits);
+
+		if (statesPerMethod == 0){
+			throw new RuntimeException("Strategy cannot be written");
+		}
+
+		int stateCount = strategy.getStateCount();
+		int methodCount = (stateCount + statesPerMethod - 1) / statesPerMethod;
+
+		//Targets beyond the range of sipush, the outputs and the methods take entries of the constant pool
+		HashSet<Long> outputs = new HashSet<>();
+		for (int s = 0; s < stateCount; s++){
+			outputs.add(strategy.output(s));
+		}
+
+		if (Math.max(0, stateCount - Short.MAX_VALUE) + 2L * outputs.size() + 8L * methodCount + 64 > 65535){
+			throw new RuntimeException("Strategy is too large to be written");
+		}
+
+		int packageEnd = className.lastIndexOf('.');
+
+		if (packageEnd >= 0){
+			out.append("package ").append(className, 0, packageEnd).append(";\n\n");
+		}
+
+		out.append("/**\n");
+		out.append(" * Strategy generated by LTL-Synthesis.\n");
+		out.append(" * Environment moves are encoded as masks over:\n");
+		appendIndex(domain.getEnvironmentIndex(), out);
+		out.append(" * System moves are encoded as masks over:\n");
+		appendIndex(domain.getSystemIndex(), out);
+		out.append(" */\n");
+		out.append("public final class ").append(className.substring(packageEnd + 1)).append(" {\n\n");
+
+		out.append("\tpublic static final long SUCCESS = -1L;\n");
+		out.append("\tpublic static final int NO_STATE = -1;\n");
+		out.append("\tpublic static final int INITIAL_STATE = ").append(String.valueOf(strategy.getInitialState()))
+				.append(";\n");
+		out.append("\tpublic static final int STATE_COUNT = ").append(String.valueOf(stateCount)).append(";\n\n");
+
+		if (methodCount > 1){
+			out.append("\tprivate static final int STATES_PER_METHOD = ").append(String.valueOf(statesPerMethod))
+					.append(";\n\n");
+		}
+
+		out.append("\tprivate ").append(className.substring(packageEnd + 1)).append("(){\n\t}\n\n");
+
+		//next()
+		out.append("\tpublic static int next(int state, long environmentMask){\n");
+		out.append("\t\tif ((environmentMask >>> ").append(String.valueOf(environmentBits)).append(") != 0L){\n");
+		out.append("\t\t\tthrow new RuntimeException(\"Input is not defined over the environment domain\");\n");
+		out.append("\t\t}\n\n");
+
+		if (methodCount > 1){
+			appendDispatch("next", "state, environmentMask", methodCount, out);
+			out.append("\t}\n");
+
+			for (int m = 0; m < methodCount; m++){
+				out.append("\n\tprivate static int next").append(String.valueOf(m))
+						.append("(int state, long environmentMask){\n");
+				appendNextSwitch(strategy, m * statesPerMethod, Math.min(stateCount, (m + 1) * statesPerMethod), out);
+				out.append("\t}\n");
+			}
+		} else {
+			appendNextSwitch(strategy, 0, stateCount, out);
+			out.append("\t}\n");
+		}
+
+		//output()
+		out.append("\n\tpublic static long output(int state){\n");
+
+		if (methodCount > 1){
+			appendDispatch("output", "state", methodCount, out);
+			out.append("\t}\n");
+
+			for (int m = 0; m < methodCount; m++){
+				out.append("\n\tprivate static long output").append(String.valueOf(m)).append("(int state){\n");
+				appendOutputSwitch(strategy, m * statesPerMethod, Math.min(stateCount, (m + 1) * statesPerMethod), out);
+				out.append("\t}\n");
+			}
+		} else {
+			appendOutputSwitch(strategy, 0, stateCount, out);
+			out.append("\t}\n");
+		}
+
+		out.append("}\n");
+	}
+
+	/**
+	 * Returns the number of states whose cases fit in one method, in the worst case: a different target for every
+	 * environment move, each compiled by javac as a lookupswitch entry (8 bytes) and a return (4 bytes)
+	 * @param environmentBits the number of environment propositions
+	 * @return the number of states per method, or 0 if a single state does not fit
+	 */
+	static int statesPerMethod(int environmentBits){
+		if (environmentBits >= 16){
+			return 0;
+		}
+
+		long stateLength = 32 + (12L << environmentBits);
+		return (int) Math.min(Integer.MAX_VALUE, (ClassFileWriter.MAX_CODE_LENGTH - 64) / stateLength);
+	}
+
+	//Calls the method of the range of the state
+	private static void appendDispatch(String method, String arguments, int methodCount, Appendable out)
+			throws IOException {
+		out.append("\t\tswitch (state / STATES_PER_METHOD){\n");
+
+		for (int m = 0; m < methodCount; m++){
+			out.append("\t\t\tcase ").append(String.valueOf(m)).append(":\n");
+			out.append("\t\t\t\treturn ").append(method).append(String.valueOf(m)).append("(").append(arguments)
+					.append(");\n");
+		}
+
+		out.append("\t\t\tdefault:\n");
+		out.append("\t\t\t\tthrow new RuntimeException(\"Invalid state\");\n");
+		out.append("\t\t}\n");
+	}
+
+	private static void appendNextSwitch(Strategy strategy, int from, int to, Appendable out) throws IOException {
+		int inputs = 1 << strategy.getDomain().getEnvironmentIndex().size();
+		int[] targets = new int[inputs];
+
+		out.append("\t\tswitch (state){\n");
+
+		for (int s = from; s < to; s++){
+			out.append("\t\t\tcase ").append(String.valueOf(s)).append(":\n");
+
+			LinkedHashMap<Integer, List<Integer>> cases = new LinkedHashMap<>();
+			for (int x = 0; x < inputs; x++){
+				targets[x] = strategy.next(s, x);
+				cases.computeIfAbsent(targets[x], k -> new ArrayList<>()).add(x);
+			}
+
+			if (cases.size() == 1){
+				out.append("\t\t\t\treturn ").append(String.valueOf(targets[0])).append(";\n");
+				continue;
+			}
+
+			out.append("\t\t\t\tswitch ((int) environmentMask){\n");
+
+			for (Map.Entry<Integer, List<Integer>> target : cases.entrySet()){
+				for (int x : target.getValue()){
+					out.append("\t\t\t\t\tcase ").append(String.valueOf(x)).append(":\n");
+				}
+
+				out.append("\t\t\t\t\t\treturn ").append(String.valueOf(target.getKey())).append(";\n");
+			}
+
+			out.append("\t\t\t\t\tdefault:\n\t\t\t\t\t\treturn NO_STATE;\n");
+			out.append("\t\t\t\t}\n");
+		}
+
+		out.append("\t\t\tdefault:\n");
+		out.append("\t\t\t\tthrow new RuntimeException(\"Invalid state\");\n");
+		out.append("\t\t}\n");
+	}
+
+	private static void appendOutputSwitch(Strategy strategy, int from, int to, Appendable out) throws IOException {
+		out.append("\t\tswitch (state){\n");
+
+		LinkedHashMap<Long, List<Integer>> outputs = new LinkedHashMap<>();
+		for (int s = from; s < to; s++){
+			outputs.computeIfAbsent(strategy.output(s), k -> new ArrayList<>()).add(s);
+		}
+
+		for (Map.Entry<Long, List<Integer>> output : outputs.entrySet()){
+			for (int s : output.getValue()){
+				out.append("\t\t\tcase ").append(String.valueOf(s)).append(":\n");
+			}
+
+			out.append("\t\t\t\treturn ").append(output.getKey() == Strategy.SUCCESS ? "SUCCESS"
+					: output.getKey() + "L").append(";\n");
+		}
+
+		out.append("\t\t\tdefault:\n");
+		out.append("\t\t\t\tthrow new RuntimeException(\"Invalid state\");\n");
+		out.append("\t\t}\n");
+	}
+
+	private static void appendIndex(VariableIndex index, Appendable out) throws IOException {
+		for (int i = 0; i < index.size(); i++){
+			out.append(" *   bit ").append(String.valueOf(i)).append(": ").append(index.getVariable(i).toString())
+					.append("\n");
+		}
+	}
+}
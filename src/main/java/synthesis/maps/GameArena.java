@@ -0,0 +1,335 @@
+package synthesis.maps;
+
+import rationals.Automaton;
+import rationals.State;
+import rationals.Transition;
+import synthesis.symbols.BitsetInterpretation;
+import synthesis.symbols.BitsetPartitionedInterpretation;
+import synthesis.symbols.SynthEmptyTrace;
+import synthesis.symbols.SynthTransitionLabel;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Set;
+
+/**
+ * GameArena
+ * Compact representation of the game automaton, with dense int state ids and compressed-sparse-row arrays.
+ * The outgoing transitions of every state are grouped by system move: state s owns the move groups in
+ * [getGroupStart(s), getGroupEnd(s)), and group g owns the edges in [getEdgeStart(g), getEdgeEnd(g)), each with its
+ * target state and environment move. The reverse arrays list, for every state, the groups of the incoming edges
+ * (once per edge), so that backward solvers never touch the original automaton.
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public class GameArena {
+
+	//Rough sizes used for the memory estimates (64 bit JVM with compressed oops)
+	private static final int ARRAY_HEADER_BYTES = 16;
+	private static final int REFERENCE_BYTES = 4;
+	private static final int MAP_ENTRY_BYTES = 48;
+	private static final int MOVE_BYTES = 48;
+
+	private State[] states;
+	private HashMap<State, Integer> ids;
+	private boolean[] terminal;
+	private int initialState;
+
+	private BitsetInterpretation[] systemMoves;
+	private BitsetInterpretation[] environmentMoves;
+
+	//Forward arrays
+	private int[] groupOffsets;
+	private int[] groupMoves;
+	private int[] groupSources;
+	private int[] edgeOffsets;
+	private int[] edgeTargets;
+	private int[] edgeEnvironment;
+
+	//Reverse arrays
+	private int[] predecessorOffsets;
+	private int[] predecessorGroups;
+
+	/**
+	 * Instantiates a new GameArena from a game automaton
+	 * @param automaton the game automaton, labelled with BitsetPartitionedInterpretations.
+	 *                  EmptyTrace transitions are ignored.
+	 */
+	public GameArena(Automaton automaton){
+		Set<State> automatonStates = automaton.states();
+		int stateCount = automatonStates.size();
+
+		this.states = new State[stateCount];
+		this.ids = new HashMap<>();
+		this.terminal = new boolean[stateCount];
+
+		State initial = (State) automaton.initials().iterator().next();
+
+		for (State s : automatonStates){
+			int id = this.ids.size();
+			this.states[id] = s;
+			this.ids.put(s, id);
+			this.terminal[id] = s.isTerminal();
+		}
+
+		this.initialState = this.ids.get(initial);
+
+		HashMap<BitsetInterpretation, Integer> systemMoveIds = new HashMap<>();
+		HashMap<BitsetInterpretation, Integer> environmentMoveIds = new HashMap<>();
+		ArrayList<BitsetInterpretation> systemMoveList = new ArrayList<>();
+		ArrayList<BitsetInterpretation> environmentMoveList = new ArrayList<>();
+
+		IntList groupMoveList = new IntList();
+		IntList edgeOffsetList = new IntList();
+		IntList targetList = new IntList();
+		IntList environmentList = new IntList();
+
+		this.groupOffsets = new int[stateCount + 1];
+
+		for (int s = 0; s < stateCount; s++){
+			this.groupOffsets[s] = groupMoveList.size();
+
+			//Group the transitions of the state by system move
+			LinkedHashMap<BitsetInterpretation, ArrayList<BitsetPartitionedInterpretation>> labels = new LinkedHashMap<>();
+			LinkedHashMap<BitsetInterpretation, IntList> targets = new LinkedHashMap<>();
+
+			Set<Transition<SynthTransitionLabel>> transitions = automaton.delta(this.states[s]);
+
+			for (Transition<SynthTransitionLabel> t : transitions){
+				SynthTransitionLabel label = t.label();
+
+				if (label instanceof BitsetPartitionedInterpretation){
+					BitsetPartitionedInterpretation pi = (BitsetPartitionedInterpretation) label;
+
+					labels.putIfAbsent(pi.getSystemMask(), new ArrayList<>());
+					labels.get(pi.getSystemMask()).add(pi);
+					targets.putIfAbsent(pi.getSystemMask(), new IntList());
+					targets.get(pi.getSystemMask()).add(this.ids.get(t.end()));
+				} else if (!(label instanceof SynthEmptyTrace)){
+					throw new RuntimeException("Unknown label type");
+				}
+			}
+
+			for (BitsetInterpretation y : labels.keySet()){
+				groupMoveList.add(idOf(y, systemMoveIds, systemMoveList));
+				edgeOffsetList.add(targetList.size());
+
+				ArrayList<BitsetPartitionedInterpretation> groupLabels = labels.get(y);
+				IntList groupTargets = targets.get(y);
+
+				for (int i = 0; i < groupTargets.size(); i++){
+					targetList.add(groupTargets.get(i));
+					environmentList.add(idOf(groupLabels.get(i).getEnvironmentMask(), environmentMoveIds, environmentMoveList));
+				}
+			}
+		}
+
+		this.groupOffsets[stateCount] = groupMoveList.size();
+		edgeOffsetList.add(targetList.size());
+
+		this.groupMoves = groupMoveList.toArray();
+		this.edgeOffsets = edgeOffsetList.toArray();
+		this.edgeTargets = targetList.toArray();
+		this.edgeEnvironment = environmentList.toArray();
+		this.systemMoves = systemMoveList.toArray(new BitsetInterpretation[systemMoveList.size()]);
+		this.environmentMoves = environmentMoveList.toArray(new BitsetInterpretation[environmentMoveList.size()]);
+
+		this.groupSources = new int[this.groupMoves.length];
+		for (int s = 0; s < stateCount; s++){
+			for (int g = this.groupOffsets[s]; g < this.groupOffsets[s + 1]; g++){
+				this.groupSources[g] = s;
+			}
+		}
+
+		this.computePredecessors();
+	}
+
+	private void computePredecessors(){
+		int stateCount = this.states.length;
+		this.predecessorOffsets = new int[stateCount + 1];
+		this.predecessorGroups = new int[this.edgeTargets.length];
+
+		//Count the incoming edges of every state, then turn the counts into offsets
+		for (int target : this.edgeTargets){
+			this.predecessorOffsets[target + 1]++;
+		}
+
+		for (int s = 0; s < stateCount; s++){
+			this.predecessorOffsets[s + 1] += this.predecessorOffsets[s];
+		}
+
+		int[] fill = new int[stateCount];
+		System.arraycopy(this.predecessorOffsets, 0, fill, 0, stateCount);
+
+		for (int g = 0; g < this.groupMoves.length; g++){
+			for (int e = this.edgeOffsets[g]; e < this.edgeOffsets[g + 1]; e++){
+				this.predecessorGroups[fill[this.edgeTargets[e]]++] = g;
+			}
+		}
+	}
+
+	private static int idOf(BitsetInterpretation move, HashMap<BitsetInterpretation, Integer> moveIds,
+			ArrayList<BitsetInterpretation> moveList){
+		Integer id = moveIds.get(move);
+
+		if (id == null){
+			id = moveList.size();
+			moveIds.put(move, id);
+			moveList.add(move);
+		}
+
+		return id;
+	}
+
+	/**
+	 * Estimates the heap used by the primitive arrays of the arena
+	 * @return the approximate number of bytes used by the forward and reverse arrays
+	 */
+	public long getPrimitiveBytes(){
+		return intArrayBytes(this.groupOffsets) + intArrayBytes(this.groupMoves) + intArrayBytes(this.groupSources)
+				+ intArrayBytes(this.edgeOffsets) + intArrayBytes(this.edgeTargets) + intArrayBytes(this.edgeEnvironment)
+				+ intArrayBytes(this.predecessorOffsets) + intArrayBytes(this.predecessorGroups)
+				+ ARRAY_HEADER_BYTES + this.terminal.length;
+	}
+
+	/**
+	 * Estimates the whole heap used by the arena, including the state table and the move tables
+	 * @return the approximate number of bytes used by the arena
+	 */
+	public long getEstimatedBytes(){
+		return this.getPrimitiveBytes()
+				+ ARRAY_HEADER_BYTES + (long) REFERENCE_BYTES * this.states.length
+				+ (long) MAP_ENTRY_BYTES * this.ids.size()
+				+ (long) (REFERENCE_BYTES + MOVE_BYTES) * (this.systemMoves.length + this.environmentMoves.length);
+	}
+
+	/**
+	 * Estimates the heap used by the arena for every edge; useful to size the JVM for large arenas
+	 * @return the approximate number of bytes per edge
+	 */
+	public double getBytesPerEdge(){
+		return (this.edgeTargets.length == 0) ? 0 : (double) this.getEstimatedBytes() / this.edgeTargets.length;
+	}
+
+	private static long intArrayBytes(int[] array){
+		return ARRAY_HEADER_BYTES + 4L * array.length;
+	}
+
+	@Override
+	public String toString(){
+		return "GameArena: " + this.getStateCount() + " states, " + this.getGroupCount() + " moves, "
+				+ this.getEdgeCount() + " edges, " + String.format("%.1f", this.getBytesPerEdge()) + " bytes per edge";
+	}
+
+	//<editor-fold desc="Getter Methods" defaultState="collapsed">
+	public int getStateCount(){
+		return this.states.length;
+	}
+
+	public int getGroupCount(){
+		return this.groupMoves.length;
+	}
+
+	public int getEdgeCount(){
+		return this.edgeTargets.length;
+	}
+
+	public int getInitialState(){
+		return initialState;
+	}
+
+	public boolean isTerminal(int state){
+		return this.terminal[state];
+	}
+
+	public State getState(int state){
+		return this.states[state];
+	}
+
+	/**
+	 * Retrieves the id of a state of the original automaton
+	 * @param state the state
+	 * @return the id of the state, or -1 if it is not part of the arena
+	 */
+	public int getId(State state){
+		Integer res = this.ids.get(state);
+		return (res == null) ? -1 : res;
+	}
+
+	public int getGroupStart(int state){
+		return this.groupOffsets[state];
+	}
+
+	public int getGroupEnd(int state){
+		return this.groupOffsets[state + 1];
+	}
+
+	public int getGroupSource(int group){
+		return this.groupSources[group];
+	}
+
+	public int getGroupMove(int group){
+		return this.groupMoves[group];
+	}
+
+	public int getEdgeStart(int group){
+		return this.edgeOffsets[group];
+	}
+
+	public int getEdgeEnd(int group){
+		return this.edgeOffsets[group + 1];
+	}
+
+	public int getEdgeTarget(int edge){
+		return this.edgeTargets[edge];
+	}
+
+	public int getEdgeEnvironment(int edge){
+		return this.edgeEnvironment[edge];
+	}
+
+	public int getPredecessorStart(int state){
+		return this.predecessorOffsets[state];
+	}
+
+	public int getPredecessorEnd(int state){
+		return this.predecessorOffsets[state + 1];
+	}
+
+	public int getPredecessorGroup(int index){
+		return this.predecessorGroups[index];
+	}
+
+	public int getSystemMoveCount(){
+		return this.systemMoves.length;
+	}
+
+	public BitsetInterpretation getSystemMove(int move){
+		return this.systemMoves[move];
+	}
+
+	public int getEnvironmentMoveCount(){
+		return this.environmentMoves.length;
+	}
+
+	public BitsetInterpretation getEnvironmentMove(int move){
+		return this.environmentMoves[move];
+	}
+	//</editor-fold>
+}
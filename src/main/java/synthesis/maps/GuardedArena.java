@@ -0,0 +1,508 @@
+package synthesis.maps;
+
+import rationals.Automaton;
+import rationals.State;
+import rationals.Transition;
+import synthesis.symbols.BitsetInterpretation;
+import synthesis.symbols.BitsetPartitionedInterpretation;
+import synthesis.symbols.PartitionedDomain;
+import synthesis.symbols.SymbolTable;
+import synthesis.symbols.SynthEmptyTrace;
+import synthesis.symbols.SynthTransitionLabel;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Set;
+
+/**
+ * GuardedArena
+ * Game arena whose transitions are labelled with guards instead of single possible worlds: every state keeps one edge
+ * per distinct target, labelled with a cube cover over the environment and system propositions, so that its size grows
+ * with the number of distinct targets rather than with the size of the alphabet.
+ * Propositions are packed in a single mask, the environment ones in the low bits and the system ones above them; a
+ * cube is a pair (value, care), and contains the masks m such that (m ^ value) &amp; care == 0.
+ * The game is solved on the guards: a state wins in a round if the system moves enabled in it, minus the moves that may
+ * lead to a state that has not won yet, are not empty. Both sets are unions of cubes over the system propositions, that
+ * are obtained projecting the guards, so the moves are never enumerated.
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public class GuardedArena {
+
+	/**
+	 * Maximum number of propositions of the domain, so that a possible world fits in a long
+	 */
+	public static final int MAX_PROPOSITIONS = 62;
+
+	private final PartitionedDomain domain;
+	private final int environmentBits;
+	private final int systemBits;
+
+	private final State[] states;
+	private final boolean[] terminal;
+	private final int originalTransitions;
+
+	//Edges of state s are in [edgeOffsets[s], edgeOffsets[s + 1]), cubes of edge e in [cubeOffsets[e], cubeOffsets[e + 1])
+	private final int[] edgeOffsets;
+	private final int[] edgeTargets;
+	private final int[] cubeOffsets;
+	private final long[] cubeValues;
+	private final long[] cubeCares;
+
+	//Solution: the round in which every state won (-1 if it did not), and the winning system moves found in that round
+	private int[] ranks;
+	private long[][] winningMoves;
+
+	/**
+	 * Instantiates a new GuardedArena. The initial state gets id 0; terminal states keep no edges, since the game
+	 * ends as soon as one of them is reached.
+	 * @param automaton the game automaton, labelled with BitsetPartitionedInterpretations.
+	 *                  EmptyTrace transitions are ignored.
+	 * @param domain the partitioned domain of the problem
+	 */
+	public GuardedArena(Automaton automaton, PartitionedDomain domain){
+		this.domain = domain;
+		this.environmentBits = domain.getEnvironmentIndex().size();
+		this.systemBits = domain.getSystemIndex().size();
+
+		if (this.environmentBits + this.systemBits > MAX_PROPOSITIONS){
+			throw new RuntimeException("Domain " + domain + " is too large for guarded transitions");
+		}
+
+		Set<State> automatonStates = automaton.states();
+		int stateCount = automatonStates.size();
+		HashMap<State, Integer> ids = new HashMap<>();
+
+		this.states = new State[stateCount];
+		this.terminal = new boolean[stateCount];
+
+		State initial = (State) automaton.initials().iterator().next();
+		ids.put(initial, 0);
+		for (State s : automatonStates){
+			ids.putIfAbsent(s, ids.size());
+		}
+
+		for (State s : automatonStates){
+			this.states[ids.get(s)] = s;
+			this.terminal[ids.get(s)] = s.isTerminal();
+		}
+
+		IntList targetList = new IntList();
+		IntList cubeOffsetList = new IntList();
+		LongList valueList = new LongList();
+		LongList careList = new LongList();
+		int transitionCount = 0;
+
+		this.edgeOffsets = new int[stateCount + 1];
+
+		for (int s = 0; s < stateCount; s++){
+			this.edgeOffsets[s] = targetList.size();
+
+			//Collect the possible worlds leading to every target
+			LinkedHashMap<Integer, LongList> worlds = new LinkedHashMap<>();
+			Set<Transition<SynthTransitionLabel>> transitions = automaton.delta(this.states[s]);
+
+			for (Transition<SynthTransitionLabel> t : transitions){
+				transitionCount++;
+
+				if (this.terminal[s]){
+					continue;
+				}
+
+				if (t.label() instanceof BitsetPartitionedInterpretation){
+					BitsetPartitionedInterpretation label = (BitsetPartitionedInterpretation) t.label();
+					long world = (label.getSystemMask().toLong() << this.environmentBits)
+							| label.getEnvironmentMask().toLong();
+
+					worlds.computeIfAbsent(ids.get(t.end()), k -> new LongList()).add(world);
+				} else if (!(t.label() instanceof SynthEmptyTrace)){
+					throw new RuntimeException("Unknown label type");
+				}
+			}
+
+			for (Integer target : worlds.keySet()){
+				targetList.add(target);
+				cubeOffsetList.add(valueList.size());
+				cover(worlds.get(target).toArray(), this.environmentBits + this.systemBits, valueList, careList);
+			}
+		}
+
+		this.edgeOffsets[stateCount] = targetList.size();
+		cubeOffsetList.add(valueList.size());
+
+		this.edgeTargets = targetList.toArray();
+		this.cubeOffsets = cubeOffsetList.toArray();
+		this.cubeValues = valueList.toArray();
+		this.cubeCares = careList.toArray();
+		this.originalTransitions = transitionCount;
+	}
+
+	/**
+	 * Covers a set of possible worlds with cubes. Every uncovered world is expanded greedily, dropping one
+	 * proposition at a time as long as the cube only contains worlds of the set; the cover is exact, not minimal.
+	 */
+	private static void cover(long[] worlds, int bits, LongList values, LongList cares){
+		Arrays.sort(worlds);
+		boolean[] covered = new boolean[worlds.length];
+		long full = (bits == 0) ? 0L : -1L >>> (64 - bits);
+
+		for (int i = 0; i < worlds.length; i++){
+			if (covered[i]){
+				continue;
+			}
+
+			long value = worlds[i];
+			long care = full;
+
+			for (int b = 0; b < bits; b++){
+				long bit = 1L << b;
+
+				if (containsAll(worlds, value ^ bit, ~care & full)){
+					value &= ~bit;
+					care &= ~bit;
+				}
+			}
+
+			values.add(value);
+			cares.add(care);
+
+			//Mark the covered worlds
+			long free = ~care & full;
+			long sub = free;
+
+			while (true){
+				int j = Arrays.binarySearch(worlds, value | sub);
+				covered[j] = true;
+
+				if (sub == 0){
+					break;
+				}
+
+				sub = (sub - 1) & free;
+			}
+		}
+	}
+
+	//Whether all the worlds value | sub, for every subset sub of free, are in the sorted array
+	private static boolean containsAll(long[] worlds, long value, long free){
+		long sub = free;
+
+		while (true){
+			if (Arrays.binarySearch(worlds, value | sub) < 0){
+				return false;
+			}
+
+			if (sub == 0){
+				return true;
+			}
+
+			sub = (sub - 1) & free;
+		}
+	}
+
+	/**
+	 * Computes the winning region, one round at a time; only the predecessors of the states that won in the last
+	 * round are checked again.
+	 * @return true if the initial state is winning
+	 */
+	public boolean solve(){
+		int stateCount = this.states.length;
+
+		//Predecessors, once per edge
+		int[] predecessorOffsets = new int[stateCount + 1];
+		for (int e = 0; e < this.edgeTargets.length; e++){
+			predecessorOffsets[this.edgeTargets[e] + 1]++;
+		}
+		for (int s = 0; s < stateCount; s++){
+			predecessorOffsets[s + 1] += predecessorOffsets[s];
+		}
+
+		int[] predecessors = new int[this.edgeTargets.length];
+		int[] fill = Arrays.copyOf(predecessorOffsets, stateCount);
+		for (int s = 0; s < stateCount; s++){
+			for (int e = this.edgeOffsets[s]; e < this.edgeOffsets[s + 1]; e++){
+				predecessors[fill[this.edgeTargets[e]]++] = s;
+			}
+		}
+
+		this.ranks = new int[stateCount];
+		this.winningMoves = new long[stateCount][];
+
+		IntList frontier = new IntList();
+
+		for (int s = 0; s < stateCount; s++){
+			if (this.terminal[s]){
+				this.ranks[s] = 0;
+				frontier.add(s);
+			} else {
+				this.ranks[s] = -1;
+			}
+		}
+
+		int round = 0;
+		int[] checked = new int[stateCount];
+
+		while (frontier.size() > 0){
+			round++;
+			IntList newFrontier = new IntList();
+
+			for (int i = 0; i < frontier.size(); i++){
+				int t = frontier.get(i);
+
+				for (int p = predecessorOffsets[t]; p < predecessorOffsets[t + 1]; p++){
+					int s = predecessors[p];
+
+					if (this.ranks[s] < 0 && checked[s] != round){
+						checked[s] = round;
+						long[] moves = this.winningMoves(s);
+
+						if (moves.length > 0){
+							this.winningMoves[s] = moves;
+							newFrontier.add(s);
+						}
+					}
+				}
+			}
+
+			//Ranks are only assigned at the end of the round, so that every check sees the previous rounds only
+			for (int i = 0; i < newFrontier.size(); i++){
+				this.ranks[newFrontier.get(i)] = round;
+			}
+
+			frontier = newFrontier;
+		}
+
+		return this.ranks[0] >= 0;
+	}
+
+	//System moves of s, as cubes over the system propositions, whose successors have all won already
+	private long[] winningMoves(int s){
+		LongList enabled = new LongList();
+		LongList bad = new LongList();
+
+		for (int e = this.edgeOffsets[s]; e < this.edgeOffsets[s + 1]; e++){
+			boolean winning = this.ranks[this.edgeTargets[e]] >= 0;
+
+			for (int c = this.cubeOffsets[e]; c < this.cubeOffsets[e + 1]; c++){
+				long value = this.cubeValues[c] >>> this.environmentBits;
+				long care = this.cubeCares[c] >>> this.environmentBits;
+
+				enabled.add(value);
+				enabled.add(care);
+
+				if (!winning){
+					bad.add(value);
+					bad.add(care);
+				}
+			}
+		}
+
+		long[] res = enabled.toArray();
+
+		for (int i = 0; i < bad.size() && res.length > 0; i += 2){
+			res = sharp(res, bad.get(i), bad.get(i + 1));
+		}
+
+		return res;
+	}
+
+	//Removes the cube (value, care) from a union of cubes, stored as (value, care) pairs
+	private static long[] sharp(long[] cubes, long value, long care){
+		LongList res = new LongList(cubes.length);
+
+		for (int i = 0; i < cubes.length; i += 2){
+			long v = cubes[i];
+			long c = cubes[i + 1];
+
+			if (((v ^ value) & c & care) != 0L){
+				//Disjoint
+				res.add(v);
+				res.add(c);
+				continue;
+			}
+
+			//Split on the propositions fixed by the removed cube only
+			long split = care & ~c;
+
+			while (split != 0L){
+				long bit = Long.lowestOneBit(split);
+				split &= ~bit;
+
+				res.add((v & ~bit) | (~value & bit));
+				res.add(c | bit);
+
+				v = (v & ~bit) | (value & bit);
+				c |= bit;
+			}
+		}
+
+		return res.toArray();
+	}
+
+	/**
+	 * Checks whether a state has a guard satisfied by the given possible world
+	 * @param state the state
+	 * @param world the possible world, with the environment propositions in the low bits
+	 * @return the target of the satisfied guard, or -1 if there is none
+	 */
+	public int step(int state, long world){
+		for (int e = this.edgeOffsets[state]; e < this.edgeOffsets[state + 1]; e++){
+			for (int c = this.cubeOffsets[e]; c < this.cubeOffsets[e + 1]; c++){
+				if (((world ^ this.cubeValues[c]) & this.cubeCares[c]) == 0L){
+					return this.edgeTargets[e];
+				}
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Returns the winning states; solve() must be called first
+	 * @return the states that won in some round
+	 */
+	public HashSet<State> getWinningStates(){
+		this.checkSolved();
+		HashSet<State> res = new HashSet<>();
+
+		for (int s = 0; s < this.states.length; s++){
+			if (this.ranks[s] >= 0){
+				res.add(this.states[s]);
+			}
+		}
+
+		return res;
+	}
+
+	/**
+	 * Enumerates the winning moves of every non terminal winning state; solve() must be called first
+	 * @return the same output function computed by the explicit solvers
+	 */
+	public OutputFunction getOutputFunction(){
+		this.checkSolved();
+		OutputFunction res = new OutputFunction();
+		SymbolTable symbols = this.domain.getSymbols();
+		long full = (this.systemBits == 0) ? 0L : -1L >>> (64 - this.systemBits);
+
+		for (int s = 0; s < this.states.length; s++){
+			long[] moves = this.winningMoves[s];
+
+			if (moves == null){
+				continue;
+			}
+
+			HashSet<BitsetInterpretation> outputs = new HashSet<>();
+
+			for (int i = 0; i < moves.length; i += 2){
+				long free = ~moves[i + 1] & full;
+				long sub = free;
+
+				while (true){
+					outputs.add(symbols.systemMask(moves[i] | sub));
+
+					if (sub == 0){
+						break;
+					}
+
+					sub = (sub - 1) & free;
+				}
+			}
+
+			res.put(this.states[s], outputs);
+		}
+
+		return res;
+	}
+
+	private void checkSolved(){
+		if (this.ranks == null){
+			throw new RuntimeException("Method solve() must be called first");
+		}
+	}
+
+	/**
+	 * Estimates the heap used by the arrays of the arena, excluding the original states
+	 * @return the approximate number of bytes
+	 */
+	public long getEstimatedBytes(){
+		return 4L * (this.edgeOffsets.length + this.edgeTargets.length + this.cubeOffsets.length)
+				+ 16L * this.cubeValues.length + (long) this.terminal.length + 4L * this.states.length;
+	}
+
+	@Override
+	public String toString(){
+		return "GuardedArena: " + this.states.length + " states, " + this.edgeTargets.length + " guarded edges, "
+				+ this.cubeValues.length + " cubes, from " + this.originalTransitions + " transitions";
+	}
+
+	//<editor-fold desc="Getter Methods" defaultState="collapsed">
+	public PartitionedDomain getDomain(){
+		return domain;
+	}
+
+	public int getEnvironmentBits(){
+		return environmentBits;
+	}
+
+	public int getStateCount(){
+		return this.states.length;
+	}
+
+	public State getState(int state){
+		return this.states[state];
+	}
+
+	public boolean isTerminal(int state){
+		return this.terminal[state];
+	}
+
+	public int getEdgeCount(){
+		return this.edgeTargets.length;
+	}
+
+	public int getCubeCount(){
+		return this.cubeValues.length;
+	}
+
+	public int getOriginalTransitions(){
+		return originalTransitions;
+	}
+
+	/**
+	 * Returns the round in which a state won; solve() must be called first
+	 * @param state the state
+	 * @return the round, 0 for terminal states, or -1 if the state is not winning
+	 */
+	public int getRank(int state){
+		this.checkSolved();
+		return this.ranks[state];
+	}
+
+	/**
+	 * Returns a system move found in the round in which a state won; solve() must be called first
+	 * @param state a non terminal winning state
+	 * @return the move, encoded over the system index of the domain
+	 */
+	public long getWinningMove(int state){
+		this.checkSolved();
+		return this.winningMoves[state][0];
+	}
+	//</editor-fold>
+}
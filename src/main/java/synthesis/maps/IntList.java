@@ -0,0 +1,71 @@
+package synthesis.maps;
+
+import java.util.Arrays;
+
+/**
+ * IntList
+ * Minimal growable list of primitive ints, used to build the arrays of the GameArena without boxing
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public class IntList {
+
+	private int[] values;
+	private int size;
+
+	public IntList(){
+		this(16);
+	}
+
+	public IntList(int capacity){
+		this.values = new int[Math.max(capacity, 1)];
+		this.size = 0;
+	}
+
+	public void add(int value){
+		if (this.size == this.values.length){
+			this.values = Arrays.copyOf(this.values, this.values.length * 2);
+		}
+
+		this.values[this.size++] = value;
+	}
+
+	public int get(int index){
+		if (index >= this.size){
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+		}
+
+		return this.values[index];
+	}
+
+	public int size(){
+		return this.size;
+	}
+
+	public void clear(){
+		this.size = 0;
+	}
+
+	/**
+	 * Returns a trimmed copy of the list
+	 * @return an array containing the values of the list
+	 */
+	public int[] toArray(){
+		return Arrays.copyOf(this.values, this.size);
+	}
+}
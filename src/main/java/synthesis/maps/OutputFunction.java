@@ -1,8 +1,7 @@
 package synthesis.maps;
 
 import rationals.State;
-import synthesis.symbols.Interpretation;
-import synthesis.symbols.PropositionSet;
+import synthesis.symbols.BitsetInterpretation;
 
 import java.util.HashMap;
 import java.util.HashSet;
@@ -31,5 +30,17 @@ import java.util.HashSet;
  * You should have received a copy of the GNU General Public License
  * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
  */
-public class OutputFunction extends HashMap<State, HashSet<Interpretation>> {
+public class OutputFunction extends HashMap<State, HashSet<BitsetInterpretation>> {
+
+	public OutputFunction(){
+		super();
+	}
+
+	/**
+	 * Instantiates a new OutputFunction sized for the given number of states
+	 * @param expectedStates the number of states expected to have winning moves
+	 */
+	public OutputFunction(int expectedStates){
+		super(Math.max(16, (int) (expectedStates / 0.75f) + 1));
+	}
 }
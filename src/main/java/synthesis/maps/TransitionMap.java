@@ -1,8 +1,7 @@
 package synthesis.maps;
 
 import rationals.State;
-import synthesis.symbols.Interpretation;
-import synthesis.symbols.PropositionSet;
+import synthesis.symbols.BitsetInterpretation;
 
 import java.util.HashMap;
 import java.util.HashSet;
@@ -30,5 +29,5 @@ import java.util.HashSet;
  * You should have received a copy of the GNU General Public License
  * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
  */
-public class TransitionMap extends HashMap<State, HashMap<Interpretation, HashSet<State>>> {
+public class TransitionMap extends HashMap<State, HashMap<BitsetInterpretation, HashSet<State>>> {
 }
@@ -0,0 +1,124 @@
+package synthesis.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JfrSynthesisListener
+ * SynthesisListener that emits JDK Flight Recorder events: an ltlsynthesis.Phase event for every phase and an
+ * ltlsynthesis.FixpointRound event for every round, both in the LTL-Synthesis category.
+ * Requires a JVM with the jdk.jfr API (JDK 11, or 8u262 and later), see isAvailable();
+ * events are only recorded while a recording is running, e.g. with -XX:StartFlightRecording.
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public class JfrSynthesisListener implements SynthesisListener {
+
+	@Name("ltlsynthesis.Phase")
+	@Label("Synthesis Phase")
+	@Category("LTL-Synthesis")
+	static class PhaseEvent extends Event {
+		@Label("Phase")
+		String phase;
+
+		@Label("Allocated")
+		@Description("Bytes allocated by the thread running the phase, -1 if not measured")
+		@DataAmount
+		long allocatedBytes;
+
+		@Label("States")
+		int states;
+
+		@Label("Edges")
+		long edges;
+	}
+
+	@Name("ltlsynthesis.FixpointRound")
+	@Label("Fixpoint Round")
+	@Category("LTL-Synthesis")
+	static class FixpointRoundEvent extends Event {
+		@Label("Round")
+		int round;
+
+		@Label("New Winning States")
+		int newWinningStates;
+
+		@Label("Winning States")
+		int winningStates;
+	}
+
+	//Phases run on the thread that builds the SynthesisAutomaton, one at a time
+	private final ThreadLocal<PhaseEvent> currentEvent = new ThreadLocal<>();
+
+	/**
+	 * Checks whether the running JVM provides the jdk.jfr API; if it does not, this class cannot be instantiated
+	 * @return true if JFR events can be emitted
+	 */
+	public static boolean isAvailable(){
+		try {
+			Class.forName("jdk.jfr.Event", false, JfrSynthesisListener.class.getClassLoader());
+			return true;
+		} catch (ClassNotFoundException | LinkageError e){
+			return false;
+		}
+	}
+
+	@Override
+	public void phaseStarted(SynthesisPhase phase){
+		PhaseEvent event = new PhaseEvent();
+
+		if (event.isEnabled()){
+			event.phase = phase.name();
+			event.begin();
+			this.currentEvent.set(event);
+		}
+	}
+
+	@Override
+	public void phaseCompleted(PhaseMetrics metrics){
+		PhaseEvent event = this.currentEvent.get();
+
+		if (event != null){
+			this.currentEvent.remove();
+			event.end();
+
+			if (event.shouldCommit()){
+				event.allocatedBytes = metrics.getAllocatedBytes();
+				event.states = metrics.getStates();
+				event.edges = metrics.getEdges();
+				event.commit();
+			}
+		}
+	}
+
+	@Override
+	public void fixpointRound(int round, int newWinningStates, int winningStates){
+		FixpointRoundEvent event = new FixpointRoundEvent();
+
+		if (event.shouldCommit()){
+			event.round = round;
+			event.newWinningStates = newWinningStates;
+			event.winningStates = winningStates;
+			event.commit();
+		}
+	}
+}
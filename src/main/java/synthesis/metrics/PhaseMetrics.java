@@ -0,0 +1,79 @@
+package synthesis.metrics;
+
+/**
+ * PhaseMetrics
+ * Measurements of a single phase of the synthesis
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public final class PhaseMetrics {
+
+	private final SynthesisPhase phase;
+	private final long nanos;
+	private final long allocatedBytes;
+	private final int states;
+	private final long edges;
+
+	/**
+	 * Instantiates a new PhaseMetrics
+	 * @param phase the phase
+	 * @param nanos the wall time of the phase
+	 * @param allocatedBytes the bytes allocated by the thread running the phase, -1 if not supported by the JVM
+	 * @param states the number of states after the phase, -1 if not applicable
+	 * @param edges the number of edges after the phase, -1 if not applicable
+	 */
+	public PhaseMetrics(SynthesisPhase phase, long nanos, long allocatedBytes, int states, long edges){
+		this.phase = phase;
+		this.nanos = nanos;
+		this.allocatedBytes = allocatedBytes;
+		this.states = states;
+		this.edges = edges;
+	}
+
+	@Override
+	public String toString(){
+		return String.format("%-24s %10.3f ms %12s %10s %12s", this.phase, this.nanos / 1e6,
+				format(this.allocatedBytes, " B"), format(this.states, " states"), format(this.edges, " edges"));
+	}
+
+	private static String format(long value, String unit){
+		return (value < 0) ? "-" : value + unit;
+	}
+
+	//<editor-fold desc="Getter Methods" defaultState="collapsed">
+	public SynthesisPhase getPhase(){
+		return phase;
+	}
+
+	public long getNanos(){
+		return nanos;
+	}
+
+	public long getAllocatedBytes(){
+		return allocatedBytes;
+	}
+
+	public int getStates(){
+		return states;
+	}
+
+	public long getEdges(){
+		return edges;
+	}
+	//</editor-fold>
+}
@@ -0,0 +1,159 @@
+package synthesis.metrics;
+
+import rationals.Automaton;
+import rationals.State;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * PhaseTracker
+ * Measures the phases of a single synthesis and reports them to a SynthesisListener.
+ * Allocations are measured on the calling thread only, through com.sun.management.ThreadMXBean when the JVM
+ * supports it. Without a listener, all the methods return immediately.
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public final class PhaseTracker {
+
+	/**
+	 * Tracker that does not measure anything
+	 */
+	public static final PhaseTracker NONE = new PhaseTracker(null);
+
+	private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+
+	private final SynthesisListener listener;
+	private SynthesisPhase phase;
+	private long startNanos;
+	private long startBytes;
+
+	/**
+	 * Instantiates a new PhaseTracker
+	 * @param listener the listener, or null to disable the measurements
+	 */
+	public PhaseTracker(SynthesisListener listener){
+		this.listener = listener;
+	}
+
+	private static com.sun.management.ThreadMXBean threadBean(){
+		try {
+			java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+			if (bean instanceof com.sun.management.ThreadMXBean
+					&& ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()){
+				return (com.sun.management.ThreadMXBean) bean;
+			}
+		} catch (LinkageError | UnsupportedOperationException e){
+			//Allocations are not measured on this JVM
+		}
+
+		return null;
+	}
+
+	private static long allocatedBytes(){
+		if (THREADS == null || !THREADS.isThreadAllocatedMemoryEnabled()){
+			return -1L;
+		}
+
+		return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * Starts measuring a phase
+	 * @param phase the phase
+	 */
+	public void start(SynthesisPhase phase){
+		if (this.listener == null){
+			return;
+		}
+
+		this.phase = phase;
+		this.listener.phaseStarted(phase);
+		this.startBytes = allocatedBytes();
+		this.startNanos = System.nanoTime();
+	}
+
+	/**
+	 * Ends the current phase, reporting the size of the automaton it produced
+	 * @param automaton the automaton, or null if the phase produced no automaton
+	 */
+	public void end(Automaton automaton){
+		if (this.listener == null){
+			return;
+		}
+
+		long nanos = System.nanoTime() - this.startNanos;
+		long bytes = this.allocated();
+
+		if (automaton == null){
+			this.report(nanos, bytes, -1, -1L);
+		} else {
+			long edges = 0L;
+			for (State s : (Iterable<State>) automaton.states()){
+				edges += automaton.delta(s).size();
+			}
+
+			this.report(nanos, bytes, automaton.states().size(), edges);
+		}
+	}
+
+	/**
+	 * Ends the current phase
+	 * @param states the number of states after the phase, -1 if not applicable
+	 * @param edges the number of edges after the phase, -1 if not applicable
+	 */
+	public void end(int states, long edges){
+		if (this.listener == null){
+			return;
+		}
+
+		long nanos = System.nanoTime() - this.startNanos;
+		this.report(nanos, this.allocated(), states, edges);
+	}
+
+	private long allocated(){
+		long bytes = allocatedBytes();
+		return (bytes < 0 || this.startBytes < 0) ? -1L : bytes - this.startBytes;
+	}
+
+	private void report(long nanos, long bytes, int states, long edges){
+		if (this.phase == null){
+			throw new RuntimeException("No phase has been started");
+		}
+
+		SynthesisPhase phase = this.phase;
+		this.phase = null;
+		this.listener.phaseCompleted(new PhaseMetrics(phase, nanos, bytes, states, edges));
+	}
+
+	/**
+	 * Reports a round of the fixpoint, see SynthesisListener.fixpointRound
+	 * @param round the round
+	 * @param newWinningStates the number of states that became winning in this round
+	 * @param winningStates the size of the winning region after this round
+	 */
+	public void round(int round, int newWinningStates, int winningStates){
+		if (this.listener != null){
+			this.listener.fixpointRound(round, newWinningStates, winningStates);
+		}
+	}
+
+	public boolean isEnabled(){
+		return this.listener != null;
+	}
+}
@@ -0,0 +1,83 @@
+package synthesis.metrics;
+
+/**
+ * SynthesisListener
+ * Receives the progress of the synthesis, see SynthesisOptions.setListener.
+ * Phases are performed one at a time by the thread building the SynthesisAutomaton, but a listener shared by
+ * several SynthesisAutomata may be called concurrently.
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public interface SynthesisListener {
+
+	/**
+	 * Called before a phase starts
+	 * @param phase the phase
+	 */
+	default void phaseStarted(SynthesisPhase phase){
+	}
+
+	/**
+	 * Called when a phase completes
+	 * @param metrics the measurements of the phase
+	 */
+	default void phaseCompleted(PhaseMetrics metrics){
+	}
+
+	/**
+	 * Called by the explicit solvers (FIXPOINT, WORKLIST, ARENA and PARALLEL) for every round that extends the winning region.
+	 * Round 0 is made of the terminal states.
+	 * @param round the round
+	 * @param newWinningStates the number of states that became winning in this round
+	 * @param winningStates the size of the winning region after this round
+	 */
+	default void fixpointRound(int round, int newWinningStates, int winningStates){
+	}
+
+	/**
+	 * Combines several listeners, that are notified in the given order
+	 * @param listeners the listeners
+	 * @return a listener forwarding every notification to all the given listeners
+	 */
+	static SynthesisListener of(SynthesisListener... listeners){
+		SynthesisListener[] copy = listeners.clone();
+
+		return new SynthesisListener() {
+			@Override
+			public void phaseStarted(SynthesisPhase phase){
+				for (SynthesisListener l : copy){
+					l.phaseStarted(phase);
+				}
+			}
+
+			@Override
+			public void phaseCompleted(PhaseMetrics metrics){
+				for (SynthesisListener l : copy){
+					l.phaseCompleted(metrics);
+				}
+			}
+
+			@Override
+			public void fixpointRound(int round, int newWinningStates, int winningStates){
+				for (SynthesisListener l : copy){
+					l.fixpointRound(round, newWinningStates, winningStates);
+				}
+			}
+		};
+	}
+}
@@ -0,0 +1,126 @@
+package synthesis.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SynthesisMetrics
+ * SynthesisListener that records all the measurements, e.g. to print where the time of a slow specification goes.
+ * Records the phases of any number of syntheses, in order of completion; call clear() between them to keep them apart.
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public class SynthesisMetrics implements SynthesisListener {
+
+	private final ArrayList<PhaseMetrics> phases;
+	private final ArrayList<Integer> roundGrowth;
+
+	public SynthesisMetrics(){
+		this.phases = new ArrayList<>();
+		this.roundGrowth = new ArrayList<>();
+	}
+
+	@Override
+	public synchronized void phaseCompleted(PhaseMetrics metrics){
+		this.phases.add(metrics);
+	}
+
+	@Override
+	public synchronized void fixpointRound(int round, int newWinningStates, int winningStates){
+		//A new solution starts from round 0
+		if (round == 0){
+			this.roundGrowth.clear();
+		}
+
+		this.roundGrowth.add(newWinningStates);
+	}
+
+	public synchronized void clear(){
+		this.phases.clear();
+		this.roundGrowth.clear();
+	}
+
+	/**
+	 * Retrieves the last measurement of a phase
+	 * @param phase the phase
+	 * @return the PhaseMetrics of the last run of the phase, or null if the phase has not been performed
+	 */
+	public synchronized PhaseMetrics getPhase(SynthesisPhase phase){
+		for (int i = this.phases.size() - 1; i >= 0; i--){
+			if (this.phases.get(i).getPhase() == phase){
+				return this.phases.get(i);
+			}
+		}
+
+		return null;
+	}
+
+	public synchronized List<PhaseMetrics> getPhases(){
+		return new ArrayList<>(this.phases);
+	}
+
+	public synchronized long getTotalNanos(){
+		long res = 0L;
+
+		for (PhaseMetrics m : this.phases){
+			res += m.getNanos();
+		}
+
+		return res;
+	}
+
+	/**
+	 * Returns the number of rounds of the last fixpoint, including round 0 (the terminal states)
+	 * @return the number of rounds that extended the winning region
+	 */
+	public synchronized int getRoundCount(){
+		return this.roundGrowth.size();
+	}
+
+	/**
+	 * Returns the growth of the winning region during the last fixpoint
+	 * @return for every round, the number of states that became winning
+	 */
+	public synchronized int[] getWinningRegionGrowth(){
+		int[] res = new int[this.roundGrowth.size()];
+
+		for (int i = 0; i < res.length; i++){
+			res[i] = this.roundGrowth.get(i);
+		}
+
+		return res;
+	}
+
+	@Override
+	public synchronized String toString(){
+		StringBuilder sb = new StringBuilder();
+
+		for (PhaseMetrics m : this.phases){
+			sb.append(m).append("\n");
+		}
+
+		sb.append(String.format("%-24s %10.3f ms", "TOTAL", this.getTotalNanos() / 1e6));
+
+		if (!this.roundGrowth.isEmpty()){
+			sb.append("\nFixpoint rounds: ").append(this.roundGrowth.size()).append(", winning region growth: ")
+					.append(this.roundGrowth);
+		}
+
+		return sb.toString();
+	}
+}
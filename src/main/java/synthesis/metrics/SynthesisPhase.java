@@ -0,0 +1,91 @@
+package synthesis.metrics;
+
+/**
+ * SynthesisPhase
+ * The phases of the synthesis pipeline, in the order in which they are performed
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public enum SynthesisPhase {
+
+	/**
+	 * Parsing of the specification; only reported when SynthesisAutomaton is given the formula as a String
+	 */
+	PARSE,
+
+	/**
+	 * Rewriting of the formula into a smaller one, only with SynthesisOptions.setSimplify; the state count is the size
+	 * of the simplified formula
+	 */
+	SIMPLIFICATION,
+
+	/**
+	 * Translation of the LTLf formula to LDLf
+	 */
+	LDLF_TRANSLATION,
+
+	/**
+	 * Construction of the automaton of the LDLf formula
+	 */
+	AUTOMATON_CONSTRUCTION,
+
+	/**
+	 * Determinization and reduction of the automaton of the formula
+	 */
+	REDUCTION,
+
+	/**
+	 * Whole compositional construction, replacing the three previous phases; conjuncts are built on other threads
+	 */
+	COMPOSITION,
+
+	/**
+	 * Elimination of the empty trace transitions
+	 */
+	EMPTY_TRACE_ELIMINATION,
+
+	/**
+	 * Removal of the unreachable states
+	 */
+	REACHABILITY,
+
+	/**
+	 * Translation of the labels to partitioned interpretations, that gives the game automaton
+	 */
+	GAME_TRANSLATION,
+
+	/**
+	 * Reduction of the game automaton, only with SynthesisOptions.setMinimizeGame
+	 */
+	GAME_MINIMIZATION,
+
+	/**
+	 * Construction of the structure used by the solver: the transition map, or the arena, the BDDs, etc.
+	 */
+	TRANSITION_MAP,
+
+	/**
+	 * Computation of the winning region; the state count is the number of winning states, when known
+	 */
+	FIXPOINT,
+
+	/**
+	 * Extraction of the strategy automaton, see SynthesisAutomaton.getStrategyGenerator()
+	 */
+	STRATEGY_EXTRACTION
+}
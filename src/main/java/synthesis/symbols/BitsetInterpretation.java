@@ -0,0 +1,158 @@
+package synthesis.symbols;
+
+import java.util.Arrays;
+
+/**
+ * BitsetInterpretation
+ * Immutable propositional interpretation encoded as a bit mask. Bit i is set if the i-th variable of the
+ * VariableIndex the interpretation was encoded with is true. Domains of up to 64 variables fit in a single long.
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public final class BitsetInterpretation implements SynthTraceInput, StrategyOutput {
+
+	private static final long[] NO_WORDS = new long[0];
+
+	//Trailing zero words are always trimmed, so that equal interpretations have equal arrays
+	private final long[] words;
+	private final int hash;
+
+	/**
+	 * Instantiates a new BitsetInterpretation over a domain of at most 64 variables
+	 * @param mask the mask of the true variables
+	 */
+	public BitsetInterpretation(long mask){
+		this.words = (mask == 0L) ? NO_WORDS : new long[]{mask};
+		this.hash = Arrays.hashCode(this.words);
+	}
+
+	/**
+	 * Instantiates a new BitsetInterpretation over a domain of any size
+	 * @param words the mask of the true variables, 64 variables per word; the array is copied
+	 */
+	public BitsetInterpretation(long[] words){
+		int length = words.length;
+		while (length > 0 && words[length - 1] == 0L){
+			length--;
+		}
+
+		this.words = (length == 0) ? NO_WORDS : Arrays.copyOf(words, length);
+		this.hash = Arrays.hashCode(this.words);
+	}
+
+	/**
+	 * Checks whether the variable with the given index is true
+	 * @param index the index of the variable
+	 * @return true if the variable is true in this interpretation
+	 */
+	public boolean get(int index){
+		int word = index >>> 6;
+		return word < this.words.length && (this.words[word] & (1L << index)) != 0L;
+	}
+
+	/**
+	 * Returns the mask as a single long
+	 * @return the mask of the true variables
+	 * @throws RuntimeException if a variable with index greater than 63 is true
+	 */
+	public long toLong(){
+		if (this.words.length > 1){
+			throw new RuntimeException("Interpretation does not fit in a single long");
+		}
+
+		return (this.words.length == 0) ? 0L : this.words[0];
+	}
+
+	/**
+	 * Returns a copy of the mask
+	 * @return the mask of the true variables, 64 variables per word
+	 */
+	public long[] toLongArray(){
+		return Arrays.copyOf(this.words, this.words.length);
+	}
+
+	/**
+	 * Checks whether this interpretation fits in a single long
+	 * @return true if no variable with index greater than 63 is true
+	 */
+	public boolean isNarrow(){
+		return this.words.length <= 1;
+	}
+
+	/**
+	 * Returns the index of the highest true variable
+	 * @return the index of the highest true variable, or -1 if no variable is true
+	 */
+	public int highestIndex(){
+		if (this.words.length == 0){
+			return -1;
+		}
+
+		int last = this.words.length - 1;
+		return (last << 6) + 63 - Long.numberOfLeadingZeros(this.words[last]);
+	}
+
+	/**
+	 * Returns the number of true variables
+	 * @return the number of true variables in this interpretation
+	 */
+	public int cardinality(){
+		int res = 0;
+
+		for (long w : this.words){
+			res += Long.bitCount(w);
+		}
+
+		return res;
+	}
+
+	@Override
+	public boolean equals(Object o){
+		if (this == o){
+			return true;
+		}
+
+		if (o instanceof BitsetInterpretation){
+			BitsetInterpretation other = (BitsetInterpretation) o;
+			return this.hash == other.hash && Arrays.equals(this.words, other.words);
+		}
+
+		return false;
+	}
+
+	@Override
+	public int hashCode(){
+		return this.hash;
+	}
+
+	@Override
+	public String toString(){
+		StringBuilder sb = new StringBuilder("[");
+
+		for (int i = 0; i <= this.highestIndex(); i++){
+			if (this.get(i)){
+				if (sb.length() > 1){
+					sb.append(", ");
+				}
+				sb.append(i);
+			}
+		}
+
+		return sb.append("]").toString();
+	}
+}
@@ -0,0 +1,117 @@
+package synthesis.symbols;
+
+/**
+ * BitsetPartitionedInterpretation
+ * Bitset encoded counterpart of PartitionedInterpretation, used as transition label of the game automaton.
+ * The environment and system interpretations are encoded with the indices of the given PartitionedDomain.
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public final class BitsetPartitionedInterpretation implements SynthTransitionLabel {
+
+	private final PartitionedDomain domain;
+	private final BitsetInterpretation environmentMask;
+	private final BitsetInterpretation systemMask;
+	private final int hash;
+
+	/**
+	 * Instantiates a new BitsetPartitionedInterpretation
+	 * @param domain the domain whose indices have been used to encode the interpretations
+	 * @param environmentMask the encoded interpretation of the propositions controlled by the environment
+	 * @param systemMask the encoded interpretation of the propositions controlled by the system
+	 */
+	public BitsetPartitionedInterpretation(PartitionedDomain domain, BitsetInterpretation environmentMask,
+																				 BitsetInterpretation systemMask){
+		this.domain = domain;
+		this.environmentMask = environmentMask;
+		this.systemMask = systemMask;
+		this.hash = 31 * environmentMask.hashCode() + systemMask.hashCode();
+	}
+
+	@Override
+	public boolean equals(Object o){
+		if (this == o){
+			return true;
+		}
+
+		if (o instanceof BitsetPartitionedInterpretation){
+			BitsetPartitionedInterpretation other = (BitsetPartitionedInterpretation) o;
+
+			return this.hash == other.hash
+					&& this.environmentMask.equals(other.environmentMask)
+					&& this.systemMask.equals(other.systemMask);
+		}
+
+		return false;
+	}
+
+	@Override
+	public int hashCode(){
+		return this.hash;
+	}
+
+	@Override
+	public String toString(){
+		return "Environment: " + this.getEnvironmentInterpretation() +
+				"; System: " + this.getSystemInterpretation();
+	}
+
+	/**
+	 * Translates this label back to the set based representation
+	 * @return the equivalent PartitionedInterpretation
+	 */
+	public PartitionedInterpretation toPartitionedInterpretation(){
+		return new PartitionedInterpretation(this.getEnvironmentInterpretation(), this.getSystemInterpretation());
+	}
+
+	/**
+	 * Retrieves the encoded interpretation of the propositions controlled by the environment
+	 * @return a BitsetInterpretation over the environment index of the domain
+	 */
+	public BitsetInterpretation getEnvironmentMask(){
+		return environmentMask;
+	}
+
+	/**
+	 * Retrieves the encoded interpretation of the propositions controlled by the system
+	 * @return a BitsetInterpretation over the system index of the domain
+	 */
+	public BitsetInterpretation getSystemMask(){
+		return systemMask;
+	}
+
+	/**
+	 * Decodes the interpretation of the propositions controlled by the environment
+	 * @return the canonical, frozen Interpretation over the propositions controlled by the environment
+	 */
+	public Interpretation getEnvironmentInterpretation(){
+		return this.domain.getSymbols().environmentInterpretation(this.environmentMask);
+	}
+
+	/**
+	 * Decodes the interpretation of the propositions controlled by the system
+	 * @return the canonical, frozen Interpretation over the propositions controlled by the system
+	 */
+	public Interpretation getSystemInterpretation(){
+		return this.domain.getSymbols().systemInterpretation(this.systemMask);
+	}
+
+	public PartitionedDomain getDomain(){
+		return domain;
+	}
+}
@@ -31,6 +31,12 @@ public class PartitionedDomain {
 	private PropositionSet environmentDomain;
 	private PropositionSet systemDomain;
 
+	private VariableIndex environmentIndex;
+	private VariableIndex systemIndex;
+
+	private PropositionSet completeDomain;
+	private volatile SymbolTable symbols;
+
 	/**
 	 * Instantiates a new PartitionedDomain
 	 * @param environmentDomain the propositions controlled by the environment
@@ -47,6 +53,14 @@ public class PartitionedDomain {
 
 		this.environmentDomain = environmentDomain;
 		this.systemDomain = systemDomain;
+
+		this.environmentIndex = new VariableIndex(environmentDomain);
+		this.systemIndex = new VariableIndex(systemDomain);
+
+		this.completeDomain = new PropositionSet();
+		this.completeDomain.addAll(environmentDomain);
+		this.completeDomain.addAll(systemDomain);
+		this.completeDomain.freeze();
 	}
 
 	@Override
@@ -64,6 +78,11 @@ public class PartitionedDomain {
 		return false;
 	}
 
+	@Override
+	public int hashCode(){
+		return 31 * this.environmentDomain.hashCode() + this.systemDomain.hashCode();
+	}
+
 	@Override
 	public String toString(){
 		return "Environment: " + this.environmentDomain.toString() +
@@ -72,15 +91,104 @@ public class PartitionedDomain {
 
 	/**
 	 * Retrieves the union of the system and environment partitions
-	 * @return a PropositionSet containing all the proposition in the domain
+	 * @return a frozen PropositionSet containing all the proposition in the domain, computed once
 	 */
 	public PropositionSet getCompleteDomain(){
-		PropositionSet res = new PropositionSet();
-		res.addAll(this.environmentDomain);
-		res.addAll(this.systemDomain);
+		return completeDomain;
+	}
+
+	/**
+	 * Checks whether a proposition is part of the domain
+	 * @param variable the proposition
+	 * @return true if the proposition is controlled either by the environment or by the system
+	 */
+	public boolean contains(LTLfLocalVar variable){
+		return this.environmentIndex.contains(variable) || this.systemIndex.contains(variable);
+	}
+
+	/**
+	 * Retrieves the canonical symbols of this domain, built on first use
+	 * @return the SymbolTable of the domain
+	 */
+	public SymbolTable getSymbols(){
+		SymbolTable res = this.symbols;
+
+		if (res == null){
+			synchronized (this){
+				res = this.symbols;
+
+				if (res == null){
+					res = new SymbolTable(this);
+					this.symbols = res;
+				}
+			}
+		}
+
 		return res;
 	}
 
+	/**
+	 * Encodes an interpretation over the propositions controlled by the environment
+	 * @param interpretation the propositions that are true
+	 * @return the corresponding BitsetInterpretation over the environment index
+	 */
+	public BitsetInterpretation encodeEnvironment(PropositionSet interpretation){
+		for (LTLfLocalVar v : interpretation){
+			if (this.systemIndex.contains(v)){
+				throw new RuntimeException("Proposition " + v + " is part of the system domain!");
+			} else if (!this.environmentIndex.contains(v)){
+				throw new RuntimeException("Proposition " + v + " is not part of the environment domain");
+			}
+		}
+
+		return this.environmentIndex.encode(interpretation);
+	}
+
+	/**
+	 * Encodes an interpretation over the propositions controlled by the system
+	 * @param interpretation the propositions that are true
+	 * @return the corresponding BitsetInterpretation over the system index
+	 */
+	public BitsetInterpretation encodeSystem(PropositionSet interpretation){
+		for (LTLfLocalVar v : interpretation){
+			if (this.environmentIndex.contains(v)){
+				throw new RuntimeException("Proposition " + v + " is part of the environment domain!");
+			} else if (!this.systemIndex.contains(v)){
+				throw new RuntimeException("Proposition " + v + " is not part of the system domain");
+			}
+		}
+
+		return this.systemIndex.encode(interpretation);
+	}
+
+	/**
+	 * Encodes a partitioned interpretation with the indices of this domain
+	 * @param interpretation the interpretation to encode
+	 * @return the equivalent canonical BitsetPartitionedInterpretation
+	 */
+	public BitsetPartitionedInterpretation encode(PartitionedInterpretation interpretation){
+		return this.getSymbols().label(this.encodeEnvironment(interpretation.getEnvironmentInterpretation()),
+				this.encodeSystem(interpretation.getSystemInterpretation()));
+	}
+
+	/**
+	 * Retrieves the index of the propositions controlled by the environment.
+	 * <b>NOTE:</b> the index is built when the domain is instantiated, so the partitions must not be modified afterwards.
+	 * @return the VariableIndex of the environment partition
+	 */
+	public VariableIndex getEnvironmentIndex(){
+		return environmentIndex;
+	}
+
+	/**
+	 * Retrieves the index of the propositions controlled by the system.
+	 * <b>NOTE:</b> the index is built when the domain is instantiated, so the partitions must not be modified afterwards.
+	 * @return the VariableIndex of the system partition
+	 */
+	public VariableIndex getSystemIndex(){
+		return systemIndex;
+	}
+
 	/**
 	 * Retrieves the propositions of the domain controlled by the environment
 	 * @return a PropositionSet containing the propositions controlled by the environment
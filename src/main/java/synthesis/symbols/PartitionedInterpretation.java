@@ -30,8 +30,8 @@ import formula.ltlf.LTLfLocalVar;
  */
 public class PartitionedInterpretation implements SynthTransitionLabel {
 
-	private Interpretation environmentInterpretation;
-	private Interpretation systemInterpretation;
+	private final Interpretation environmentInterpretation;
+	private final Interpretation systemInterpretation;
 
 	/**
 	 * Instantiates a new PartitionedDomain
@@ -65,6 +65,11 @@ public class PartitionedInterpretation implements SynthTransitionLabel {
 		return false;
 	}
 
+	@Override
+	public int hashCode(){
+		return 31 * this.environmentInterpretation.hashCode() + this.systemInterpretation.hashCode();
+	}
+
 	@Override
 	public String toString(){
 		return "Environment: " + this.environmentInterpretation.toString() +
@@ -2,7 +2,10 @@ package synthesis.symbols;
 
 import formula.ltlf.LTLfLocalVar;
 
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.function.Predicate;
 
 /**
  * PropositionalWorld
@@ -29,6 +32,126 @@ import java.util.HashSet;
  * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
  */
 public class PropositionSet extends HashSet<LTLfLocalVar> {
+
+	//Frozen sets are shared canonical instances, see SymbolTable; their hash is computed once
+	private boolean frozen;
+	private int hash;
+
+	/**
+	 * Makes this set immutable; any later modification throws an UnsupportedOperationException
+	 * @return this set
+	 */
+	PropositionSet freeze(){
+		this.hash = super.hashCode();
+		this.frozen = true;
+		return this;
+	}
+
+	/**
+	 * Checks whether this set is immutable, e.g. because it is a canonical instance shared through a SymbolTable
+	 * @return true if the set cannot be modified; use clone() to obtain a modifiable copy
+	 */
+	public boolean isFrozen(){
+		return frozen;
+	}
+
+	private void checkModifiable(){
+		if (this.frozen){
+			throw new UnsupportedOperationException("Set is frozen");
+		}
+	}
+
+	@Override
+	public boolean add(LTLfLocalVar v){
+		this.checkModifiable();
+		return super.add(v);
+	}
+
+	@Override
+	public boolean remove(Object o){
+		this.checkModifiable();
+		return super.remove(o);
+	}
+
+	@Override
+	public void clear(){
+		this.checkModifiable();
+		super.clear();
+	}
+
+	@Override
+	public boolean addAll(Collection<? extends LTLfLocalVar> c){
+		this.checkModifiable();
+		return super.addAll(c);
+	}
+
+	@Override
+	public boolean removeAll(Collection<?> c){
+		this.checkModifiable();
+		return super.removeAll(c);
+	}
+
+	@Override
+	public boolean retainAll(Collection<?> c){
+		this.checkModifiable();
+		return super.retainAll(c);
+	}
+
+	@Override
+	public boolean removeIf(Predicate<? super LTLfLocalVar> filter){
+		this.checkModifiable();
+		return super.removeIf(filter);
+	}
+
+	@Override
+	public Iterator<LTLfLocalVar> iterator(){
+		Iterator<LTLfLocalVar> it = super.iterator();
+
+		if (!this.frozen){
+			return it;
+		}
+
+		return new Iterator<LTLfLocalVar>() {
+			@Override
+			public boolean hasNext(){
+				return it.hasNext();
+			}
+
+			@Override
+			public LTLfLocalVar next(){
+				return it.next();
+			}
+		};
+	}
+
+	@Override
+	public int hashCode(){
+		return this.frozen ? this.hash : super.hashCode();
+	}
+
+	@Override
+	public boolean equals(Object o){
+		if (this == o){
+			return true;
+		} else if (this.frozen && o instanceof PropositionSet && ((PropositionSet) o).frozen
+				&& this.hash != ((PropositionSet) o).hash){
+			return false;
+		}
+
+		return super.equals(o);
+	}
+
+	/**
+	 * Returns a shallow copy of this set, that can always be modified
+	 * @return a modifiable copy
+	 */
+	@Override
+	public Object clone(){
+		PropositionSet res = (PropositionSet) super.clone();
+		res.frozen = false;
+		return res;
+	}
+
 	@Override
 	public String toString(){
 		return super.toString();
@@ -0,0 +1,386 @@
+package synthesis.symbols;
+
+import formula.ltlf.LTLfLocalVar;
+import net.sf.tweety.logics.pl.syntax.Proposition;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * SymbolTable
+ * Interning layer of a PartitionedDomain: every proposition, encoded interpretation, transition label and decoded
+ * interpretation over the domain has a single canonical instance, so that equal symbols share one object and are
+ * compared by identity. Canonical BitsetInterpretations and labels are immutable, and decoded Interpretations are
+ * frozen. Domains up to DENSE_BITS propositions per table are interned with plain arrays, larger ones with hash maps;
+ * these only grow with the symbols of the automata built over the domain, since the moves played on a strategy are
+ * looked up with findLabel() and are never added to them.
+ * Obtained with PartitionedDomain.getSymbols(); safe for concurrent use.
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public final class SymbolTable {
+
+	/**
+	 * Largest number of propositions whose interpretations are interned in an array, indexed by mask
+	 */
+	public static final int DENSE_BITS = 12;
+
+	//Marks the propositions that are not part of the domain
+	private static final int UNKNOWN = Integer.MIN_VALUE;
+
+	private final PartitionedDomain domain;
+	private final Partition environment;
+	private final Partition system;
+
+	//Environment propositions map to their index, system ones to the complement of their index
+	private final ConcurrentHashMap<Proposition, Integer> propositionIds;
+
+	private final AtomicReferenceArray<BitsetPartitionedInterpretation> denseLabels;
+	private final ConcurrentHashMap<BitsetPartitionedInterpretation, BitsetPartitionedInterpretation> labels;
+
+	/**
+	 * Canonical instances of one partition of the domain
+	 */
+	private static final class Partition {
+		private final VariableIndex index;
+		private final AtomicReferenceArray<BitsetInterpretation> denseMasks;
+		private final AtomicReferenceArray<Interpretation> denseInterpretations;
+		private final ConcurrentHashMap<BitsetInterpretation, BitsetInterpretation> masks;
+		private final ConcurrentHashMap<BitsetInterpretation, Interpretation> interpretations;
+
+		private Partition(VariableIndex index){
+			this.index = index;
+
+			if (index.size() <= DENSE_BITS){
+				this.denseMasks = new AtomicReferenceArray<>(1 << index.size());
+				this.denseInterpretations = new AtomicReferenceArray<>(1 << index.size());
+				this.masks = null;
+				this.interpretations = null;
+			} else {
+				this.denseMasks = null;
+				this.denseInterpretations = null;
+				this.masks = new ConcurrentHashMap<>();
+				this.interpretations = new ConcurrentHashMap<>();
+			}
+		}
+
+		private BitsetInterpretation intern(long mask){
+			if (this.denseMasks == null){
+				return this.intern(new BitsetInterpretation(mask));
+			} else if ((mask >>> this.index.size()) != 0L){
+				throw new RuntimeException("Interpretation " + mask + " is not defined over a domain of "
+						+ this.index.size() + " propositions");
+			}
+
+			BitsetInterpretation res = this.denseMasks.get((int) mask);
+
+			if (res == null){
+				this.denseMasks.compareAndSet((int) mask, null, new BitsetInterpretation(mask));
+				res = this.denseMasks.get((int) mask);
+			}
+
+			return res;
+		}
+
+		private BitsetInterpretation intern(BitsetInterpretation bits){
+			if (this.denseMasks != null){
+				return this.intern(bits.toLong());
+			} else if (bits.highestIndex() >= this.index.size()){
+				throw new RuntimeException("Interpretation " + bits + " is not defined over a domain of "
+						+ this.index.size() + " propositions");
+			}
+
+			BitsetInterpretation res = this.masks.putIfAbsent(bits, bits);
+			return (res == null) ? bits : res;
+		}
+
+		//Canonical instance if interned already, else the given one; never grows the hash maps
+		private BitsetInterpretation find(long mask){
+			return (this.denseMasks == null) ? this.find(new BitsetInterpretation(mask)) : this.intern(mask);
+		}
+
+		private BitsetInterpretation find(BitsetInterpretation bits){
+			if (this.denseMasks != null){
+				return this.intern(bits.toLong());
+			} else if (bits.highestIndex() >= this.index.size()){
+				throw new RuntimeException("Interpretation " + bits + " is not defined over a domain of "
+						+ this.index.size() + " propositions");
+			}
+
+			BitsetInterpretation res = this.masks.get(bits);
+			return (res == null) ? bits : res;
+		}
+
+		private Interpretation decode(BitsetInterpretation bits){
+			if (this.denseInterpretations == null){
+				//Only the interned moves are cached, the others are decoded every time
+				if (this.masks.get(bits) == null){
+					return (Interpretation) this.index.decode(bits).freeze();
+				}
+
+				return this.interpretations.computeIfAbsent(bits, b -> (Interpretation) this.index.decode(b).freeze());
+			}
+
+			int mask = (int) bits.toLong();
+			Interpretation res = this.denseInterpretations.get(mask);
+
+			if (res == null){
+				this.denseInterpretations.compareAndSet(mask, null, (Interpretation) this.index.decode(bits).freeze());
+				res = this.denseInterpretations.get(mask);
+			}
+
+			return res;
+		}
+	}
+
+	SymbolTable(PartitionedDomain domain){
+		this.domain = domain;
+		this.environment = new Partition(domain.getEnvironmentIndex());
+		this.system = new Partition(domain.getSystemIndex());
+		this.propositionIds = new ConcurrentHashMap<>();
+
+		if (domain.getEnvironmentIndex().size() + domain.getSystemIndex().size() <= DENSE_BITS){
+			this.denseLabels = new AtomicReferenceArray<>(
+					1 << (domain.getEnvironmentIndex().size() + domain.getSystemIndex().size()));
+			this.labels = null;
+		} else {
+			this.denseLabels = null;
+			this.labels = new ConcurrentHashMap<>();
+		}
+	}
+
+	private int idOf(Proposition p){
+		Integer res = this.propositionIds.get(p);
+
+		if (res == null){
+			LTLfLocalVar v = new LTLfLocalVar(p);
+			int i;
+
+			if ((i = this.environment.index.indexOf(v)) >= 0){
+				res = i;
+			} else if ((i = this.system.index.indexOf(v)) >= 0){
+				res = ~i;
+			} else {
+				res = UNKNOWN;
+			}
+
+			this.propositionIds.putIfAbsent(p, res);
+		}
+
+		return res;
+	}
+
+	/**
+	 * Retrieves the canonical variable of a proposition
+	 * @param p the proposition
+	 * @return the LTLfLocalVar of the domain for the proposition, or null if it is not part of the domain
+	 */
+	public LTLfLocalVar variable(Proposition p){
+		int id = this.idOf(p);
+
+		if (id == UNKNOWN){
+			return null;
+		}
+
+		return (id >= 0) ? this.environment.index.getVariable(id) : this.system.index.getVariable(~id);
+	}
+
+	/**
+	 * Checks whether a proposition is controlled by the system
+	 * @param p the proposition
+	 * @return true if the proposition is part of the system domain
+	 */
+	public boolean isSystem(Proposition p){
+		int id = this.idOf(p);
+		return id != UNKNOWN && id < 0;
+	}
+
+	/**
+	 * Retrieves the label of a possible world, e.g. the label of a transition of the automaton of a formula
+	 * @param world the propositions that are true; propositions of the domain that do not appear are false
+	 * @return the canonical BitsetPartitionedInterpretation of the possible world
+	 */
+	public BitsetPartitionedInterpretation label(Iterable<Proposition> world){
+		if (this.denseLabels != null){
+			long environmentMask = 0L;
+			long systemMask = 0L;
+
+			for (Proposition p : world){
+				int id = this.checkedIdOf(p);
+
+				if (id >= 0){
+					environmentMask |= 1L << id;
+				} else {
+					systemMask |= 1L << ~id;
+				}
+			}
+
+			return this.denseLabel(environmentMask, systemMask);
+		}
+
+		long[] environmentWords = new long[this.environment.index.wordCount()];
+		long[] systemWords = new long[this.system.index.wordCount()];
+
+		for (Proposition p : world){
+			int id = this.checkedIdOf(p);
+
+			if (id >= 0){
+				environmentWords[id >>> 6] |= 1L << id;
+			} else {
+				systemWords[~id >>> 6] |= 1L << ~id;
+			}
+		}
+
+		return this.label(new BitsetInterpretation(environmentWords), new BitsetInterpretation(systemWords));
+	}
+
+	private int checkedIdOf(Proposition p){
+		int id = this.idOf(p);
+
+		if (id == UNKNOWN){
+			throw new RuntimeException("Found propositional variable not declared in domain");
+		}
+
+		return id;
+	}
+
+	/**
+	 * Retrieves the canonical label with the given environment and system moves
+	 * @param environmentMask the environment move, over the environment index of the domain
+	 * @param systemMask the system move, over the system index of the domain
+	 * @return the canonical BitsetPartitionedInterpretation
+	 */
+	public BitsetPartitionedInterpretation label(BitsetInterpretation environmentMask, BitsetInterpretation systemMask){
+		if (this.denseLabels != null){
+			if (environmentMask.highestIndex() >= this.environment.index.size()
+					|| systemMask.highestIndex() >= this.system.index.size()){
+				throw new RuntimeException("Label " + environmentMask + ", " + systemMask + " is not defined over the domain");
+			}
+
+			return this.denseLabel(environmentMask.toLong(), systemMask.toLong());
+		}
+
+		BitsetPartitionedInterpretation label = new BitsetPartitionedInterpretation(this.domain,
+				this.environment.intern(environmentMask), this.system.intern(systemMask));
+		BitsetPartitionedInterpretation res = this.labels.putIfAbsent(label, label);
+
+		return (res == null) ? label : res;
+	}
+
+	/**
+	 * Looks up the label with the given environment and system moves without interning it. With domains larger than
+	 * DENSE_BITS, a label that is not interned yet, e.g. one with an environment move that appears in no transition,
+	 * is returned as a new instance, so that stepping a strategy on arbitrary inputs does not grow the table.
+	 * @param environmentMask the environment move, over the environment index of the domain
+	 * @param systemMask the system move, over the system index of the domain
+	 * @return the canonical BitsetPartitionedInterpretation if interned, or an equal one
+	 */
+	public BitsetPartitionedInterpretation findLabel(BitsetInterpretation environmentMask,
+													 BitsetInterpretation systemMask){
+		if (this.denseLabels != null){
+			return this.label(environmentMask, systemMask);
+		}
+
+		BitsetPartitionedInterpretation label = new BitsetPartitionedInterpretation(this.domain,
+				this.environment.find(environmentMask), this.system.find(systemMask));
+		BitsetPartitionedInterpretation res = this.labels.get(label);
+
+		return (res == null) ? label : res;
+	}
+
+	private BitsetPartitionedInterpretation denseLabel(long environmentMask, long systemMask){
+		int i = (int) ((environmentMask << this.system.index.size()) | systemMask);
+		BitsetPartitionedInterpretation res = this.denseLabels.get(i);
+
+		if (res == null){
+			this.denseLabels.compareAndSet(i, null, new BitsetPartitionedInterpretation(this.domain,
+					this.environment.intern(environmentMask), this.system.intern(systemMask)));
+			res = this.denseLabels.get(i);
+		}
+
+		return res;
+	}
+
+	/**
+	 * Retrieves the canonical instance of an environment move
+	 * @param mask the move, over the environment index of the domain
+	 * @return the canonical BitsetInterpretation
+	 */
+	public BitsetInterpretation environmentMask(long mask){
+		return this.environment.intern(mask);
+	}
+
+	public BitsetInterpretation environmentMask(BitsetInterpretation bits){
+		return this.environment.intern(bits);
+	}
+
+	/**
+	 * Retrieves the canonical instance of a system move
+	 * @param mask the move, over the system index of the domain
+	 * @return the canonical BitsetInterpretation
+	 */
+	public BitsetInterpretation systemMask(long mask){
+		return this.system.intern(mask);
+	}
+
+	public BitsetInterpretation systemMask(BitsetInterpretation bits){
+		return this.system.intern(bits);
+	}
+
+	/**
+	 * Decodes an environment move to its canonical, frozen Interpretation; with domains larger than DENSE_BITS,
+	 * moves that are not interned are decoded to a new frozen Interpretation every time
+	 * @param bits the move, over the environment index of the domain
+	 * @return the shared Interpretation; use clone() to modify it
+	 */
+	public Interpretation environmentInterpretation(BitsetInterpretation bits){
+		return this.environment.decode(this.environment.find(bits));
+	}
+
+	/**
+	 * Decodes a system move to its canonical, frozen Interpretation, as environmentInterpretation()
+	 * @param bits the move, over the system index of the domain
+	 * @return the shared Interpretation; use clone() to modify it
+	 */
+	public Interpretation systemInterpretation(BitsetInterpretation bits){
+		return this.system.decode(this.system.find(bits));
+	}
+
+	public Interpretation systemInterpretation(long mask){
+		return this.system.decode(this.system.find(mask));
+	}
+
+	/**
+	 * Returns the number of interned transition labels
+	 * @return the number of distinct labels built so far
+	 */
+	public int getLabelCount(){
+		if (this.labels != null){
+			return this.labels.size();
+		}
+
+		int res = 0;
+		for (int i = 0; i < this.denseLabels.length(); i++){
+			if (this.denseLabels.get(i) != null){
+				res++;
+			}
+		}
+
+		return res;
+	}
+}
@@ -0,0 +1,181 @@
+package synthesis.symbols;
+
+import formula.ltlf.LTLfLocalVar;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+
+/**
+ * VariableIndex
+ * Assigns a dense bit index to each proposition of a PropositionSet, and translates interpretations
+ * between the set based representation and the BitsetInterpretation one.
+ * Variables are indexed in the order of their names, so that equal sets of propositions always get the same index.
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public class VariableIndex {
+
+	private LTLfLocalVar[] variables;
+	private HashMap<LTLfLocalVar, Integer> indices;
+
+	/**
+	 * Instantiates a new VariableIndex
+	 * @param propositions the propositions to be indexed
+	 */
+	public VariableIndex(PropositionSet propositions){
+		this.variables = propositions.toArray(new LTLfLocalVar[propositions.size()]);
+		Arrays.sort(this.variables, Comparator.comparing(LTLfLocalVar::toString));
+
+		this.indices = new HashMap<>();
+		for (int i = 0; i < this.variables.length; i++){
+			this.indices.put(this.variables[i], i);
+		}
+	}
+
+	/**
+	 * Encodes a set of propositions
+	 * @param propositions the propositions that are true; they must all be part of this index
+	 * @return the BitsetInterpretation in which exactly the given propositions are true
+	 */
+	public BitsetInterpretation encode(PropositionSet propositions){
+		if (this.isWide()){
+			long[] words = new long[this.wordCount()];
+
+			for (LTLfLocalVar v : propositions){
+				int i = this.checkedIndexOf(v);
+				words[i >>> 6] |= 1L << i;
+			}
+
+			return new BitsetInterpretation(words);
+		} else {
+			return new BitsetInterpretation(this.encodeMask(propositions));
+		}
+	}
+
+	/**
+	 * Encodes a set of propositions over an index of at most 64 variables
+	 * @param propositions the propositions that are true; they must all be part of this index
+	 * @return the mask in which exactly the given propositions are true
+	 */
+	public long encodeMask(PropositionSet propositions){
+		if (this.isWide()){
+			throw new RuntimeException("Domain of " + this.size() + " variables does not fit in a single long");
+		}
+
+		long res = 0L;
+
+		for (LTLfLocalVar v : propositions){
+			res |= 1L << this.checkedIndexOf(v);
+		}
+
+		return res;
+	}
+
+	/**
+	 * Decodes an interpretation encoded with this index
+	 * @param bits the encoded interpretation
+	 * @return an Interpretation containing the true propositions
+	 */
+	public Interpretation decode(BitsetInterpretation bits){
+		if (bits.highestIndex() >= this.size()){
+			throw new RuntimeException("Interpretation " + bits + " is not defined over this domain");
+		}
+
+		Interpretation res = new Interpretation();
+
+		for (int i = 0; i < this.variables.length; i++){
+			if (bits.get(i)){
+				res.add(this.variables[i]);
+			}
+		}
+
+		return res;
+	}
+
+	/**
+	 * Decodes a mask encoded with this index
+	 * @param mask the encoded interpretation
+	 * @return an Interpretation containing the true propositions
+	 */
+	public Interpretation decode(long mask){
+		return this.decode(new BitsetInterpretation(mask));
+	}
+
+	/**
+	 * Retrieves the index of a proposition
+	 * @param variable the proposition
+	 * @return the index of the proposition, or -1 if it is not part of this index
+	 */
+	public int indexOf(LTLfLocalVar variable){
+		Integer res = this.indices.get(variable);
+		return (res == null) ? -1 : res;
+	}
+
+	/**
+	 * Retrieves the proposition with the given index
+	 * @param index the index
+	 * @return the proposition with the given index
+	 */
+	public LTLfLocalVar getVariable(int index){
+		return this.variables[index];
+	}
+
+	public boolean contains(LTLfLocalVar variable){
+		return this.indices.containsKey(variable);
+	}
+
+	/**
+	 * Returns the number of indexed propositions
+	 * @return the number of indexed propositions
+	 */
+	public int size(){
+		return this.variables.length;
+	}
+
+	/**
+	 * Returns the number of longs needed to encode an interpretation
+	 * @return the number of words of an encoded interpretation
+	 */
+	public int wordCount(){
+		return (this.variables.length + 63) >>> 6;
+	}
+
+	/**
+	 * Checks whether the interpretations over this index need more than a single long
+	 * @return true if more than 64 propositions are indexed
+	 */
+	public boolean isWide(){
+		return this.variables.length > 64;
+	}
+
+	private int checkedIndexOf(LTLfLocalVar variable){
+		Integer res = this.indices.get(variable);
+
+		if (res == null){
+			throw new RuntimeException("Proposition " + variable + " is not part of the domain");
+		}
+
+		return res;
+	}
+
+	@Override
+	public String toString(){
+		return Arrays.toString(this.variables);
+	}
+}
@@ -0,0 +1,726 @@
+package util;
+
+import rationals.Automaton;
+import rationals.State;
+import rationals.Transition;
+import synthesis.Strategy;
+import synthesis.SynthesisAutomaton;
+import synthesis.maps.GameArena;
+import synthesis.maps.OutputFunction;
+import synthesis.symbols.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * AutomatonExporter
+ * Streaming exporter of automata, game arenas, winning regions and strategies, in any ExportFormat.
+ * States and transitions are written one at a time through a buffer into a WritableByteChannel, optionally gzipped,
+ * so the size of the exported graph is bounded by the disk only; label texts are encoded once per label.
+ * Setters return the exporter itself, so that they can be chained.
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public class AutomatonExporter {
+
+	public static final int MAGIC = 0x454c544c;
+	public static final int VERSION = 1;
+
+	private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+	private final ExportFormat format;
+	private boolean gzip;
+	private int bufferSize;
+
+	/**
+	 * Instantiates a new AutomatonExporter, without compression
+	 * @param format the format of the exported files
+	 */
+	public AutomatonExporter(ExportFormat format){
+		this.format = format;
+		this.gzip = false;
+		this.bufferSize = DEFAULT_BUFFER_SIZE;
+	}
+
+	//<editor-fold desc="Getter and Setter Methods" defaultState="collapsed">
+	public ExportFormat getFormat(){
+		return format;
+	}
+
+	public boolean isGzip(){
+		return gzip;
+	}
+
+	/**
+	 * Sets whether the output is compressed with gzip
+	 * @param gzip true to compress the output
+	 * @return this exporter
+	 */
+	public AutomatonExporter setGzip(boolean gzip){
+		this.gzip = gzip;
+		return this;
+	}
+
+	public int getBufferSize(){
+		return bufferSize;
+	}
+
+	/**
+	 * Sets the size of the buffer between the exporter and the channel
+	 * @param bufferSize the size in bytes; at least 64
+	 * @return this exporter
+	 */
+	public AutomatonExporter setBufferSize(int bufferSize){
+		this.bufferSize = Math.max(64, bufferSize);
+		return this;
+	}
+	//</editor-fold>
+
+	//<editor-fold desc="Automata" defaultState="collapsed">
+	/**
+	 * Writes an automaton to a file
+	 * @param automaton the automaton
+	 * @param domain the domain of its labels, used for the names of the propositions; may be null
+	 * @param path the destination file
+	 * @throws IOException if the file cannot be written
+	 */
+	public void writeAutomaton(Automaton automaton, PartitionedDomain domain, Path path) throws IOException {
+		try (FileChannel channel = open(path)){
+			this.writeAutomaton(automaton, domain, channel);
+		}
+	}
+
+	/**
+	 * Writes an automaton to a channel, that is left open
+	 * @param automaton the automaton
+	 * @param domain the domain of its labels, used for the names of the propositions; may be null
+	 * @param channel the destination
+	 * @throws IOException if the channel cannot be written
+	 */
+	public void writeAutomaton(Automaton automaton, PartitionedDomain domain, WritableByteChannel channel)
+			throws IOException {
+		Set<State> states = automaton.states();
+		this.writeStateGraph("automaton", automaton, states, null, domain, channel);
+	}
+
+	/**
+	 * Writes the winning region of a solved game to a file, see writeWinningRegion(SynthesisAutomaton, WritableByteChannel)
+	 * @param synthesis the solved game
+	 * @param path the destination file
+	 * @throws IOException if the file cannot be written
+	 */
+	public void writeWinningRegion(SynthesisAutomaton synthesis, Path path) throws IOException {
+		try (FileChannel channel = open(path)){
+			this.writeWinningRegion(synthesis, channel);
+		}
+	}
+
+	/**
+	 * Writes the winning region of a solved game to a channel, that is left open: the winning states, and the
+	 * transitions of their winning moves, i.e. the automaton played by StrategyGenerator
+	 * @param synthesis the solved game
+	 * @param channel the destination
+	 * @throws IOException if the channel cannot be written
+	 */
+	public void writeWinningRegion(SynthesisAutomaton synthesis, WritableByteChannel channel) throws IOException {
+		this.writeStateGraph("winning-region", synthesis.getAutomaton(), synthesis.getWinningStates(),
+				synthesis.getOutputFunction(), synthesis.getDomain(), channel);
+	}
+
+	private void writeStateGraph(String kind, Automaton automaton, Set<State> states, OutputFunction outputFunction,
+								 PartitionedDomain domain, WritableByteChannel channel) throws IOException {
+		HashMap<State, Integer> ids = new HashMap<>();
+		for (State s : states){
+			ids.put(s, ids.size());
+		}
+
+		GraphWriter writer = this.newWriter(channel);
+		writer.begin(kind, states.size(), domain);
+
+		for (State s : states){
+			writer.state(ids.get(s), s.isInitial(), s.isTerminal(), null);
+		}
+
+		for (State s : states){
+			HashSet<BitsetInterpretation> moves = null;
+
+			if (outputFunction != null){
+				//Only the winning moves of the non terminal states are part of the winning region
+				moves = outputFunction.get(s);
+				if (s.isTerminal() || moves == null){
+					continue;
+				}
+			}
+
+			Set<Transition<SynthTransitionLabel>> transitions = automaton.delta(s);
+
+			for (Transition<SynthTransitionLabel> t : transitions){
+				Integer to = ids.get(t.end());
+
+				if (to == null){
+					continue;
+				}
+
+				if (t.label() instanceof BitsetPartitionedInterpretation){
+					BitsetPartitionedInterpretation label = (BitsetPartitionedInterpretation) t.label();
+
+					if (moves == null || moves.contains(label.getSystemMask())){
+						writer.edge(ids.get(s), to, label.getEnvironmentMask(), label.getSystemMask(),
+								(domain != null) ? domain : label.getDomain());
+					}
+				} else if (moves == null){
+					writer.edge(ids.get(s), to, t.label());
+				}
+			}
+		}
+
+		writer.end();
+	}
+	//</editor-fold>
+
+	//<editor-fold desc="Arenas and Strategies" defaultState="collapsed">
+	/**
+	 * Writes a game arena to a file
+	 * @param arena the arena
+	 * @param domain the domain of the game
+	 * @param path the destination file
+	 * @throws IOException if the file cannot be written
+	 */
+	public void writeArena(GameArena arena, PartitionedDomain domain, Path path) throws IOException {
+		try (FileChannel channel = open(path)){
+			this.writeArena(arena, domain, channel);
+		}
+	}
+
+	/**
+	 * Writes a game arena to a channel, that is left open; states are numbered as in the arena
+	 * @param arena the arena
+	 * @param domain the domain of the game
+	 * @param channel the destination
+	 * @throws IOException if the channel cannot be written
+	 */
+	public void writeArena(GameArena arena, PartitionedDomain domain, WritableByteChannel channel) throws IOException {
+		GraphWriter writer = this.newWriter(channel);
+		writer.begin("arena", arena.getStateCount(), domain);
+
+		for (int s = 0; s < arena.getStateCount(); s++){
+			writer.state(s, s == arena.getInitialState(), arena.isTerminal(s), null);
+		}
+
+		for (int s = 0; s < arena.getStateCount(); s++){
+			for (int g = arena.getGroupStart(s); g < arena.getGroupEnd(s); g++){
+				BitsetInterpretation y = arena.getSystemMove(arena.getGroupMove(g));
+
+				for (int e = arena.getEdgeStart(g); e < arena.getEdgeEnd(g); e++){
+					writer.edge(s, arena.getEdgeTarget(e), arena.getEnvironmentMove(arena.getEdgeEnvironment(e)), y,
+							domain);
+				}
+			}
+		}
+
+		writer.end();
+	}
+
+	/**
+	 * Writes a strategy to a file
+	 * @param strategy the strategy
+	 * @param path the destination file
+	 * @throws IOException if the file cannot be written
+	 */
+	public void writeStrategy(Strategy strategy, Path path) throws IOException {
+		try (FileChannel channel = open(path)){
+			this.writeStrategy(strategy, channel);
+		}
+	}
+
+	/**
+	 * Writes a strategy to a channel, that is left open: every state carries its output, and every transition is
+	 * labelled with the environment move and the output of its source
+	 * @param strategy the strategy
+	 * @param channel the destination
+	 * @throws IOException if the channel cannot be written
+	 */
+	public void writeStrategy(Strategy strategy, WritableByteChannel channel) throws IOException {
+		PartitionedDomain domain = strategy.getDomain();
+		SymbolTable symbols = domain.getSymbols();
+		int inputs = 1 << domain.getEnvironmentIndex().size();
+
+		GraphWriter writer = this.newWriter(channel);
+		writer.begin("strategy", strategy.getStateCount(), domain);
+
+		for (int s = 0; s < strategy.getStateCount(); s++){
+			writer.state(s, s == strategy.getInitialState(), strategy.isTerminal(s),
+					strategy.isTerminal(s) ? null : symbols.systemMask(strategy.output(s)));
+		}
+
+		for (int s = 0; s < strategy.getStateCount(); s++){
+			if (strategy.isTerminal(s)){
+				continue;
+			}
+
+			BitsetInterpretation y = symbols.systemMask(strategy.output(s));
+
+			for (int x = 0; x < inputs; x++){
+				int next = strategy.next(s, x);
+
+				if (next != Strategy.NO_STATE){
+					writer.edge(s, next, symbols.environmentMask(x), y, domain);
+				}
+			}
+		}
+
+		writer.end();
+	}
+	//</editor-fold>
+
+	private static FileChannel open(Path path) throws IOException {
+		return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+	}
+
+	private GraphWriter newWriter(WritableByteChannel channel) throws IOException {
+		ExportBuffer out = new ExportBuffer(channel, this.bufferSize, this.gzip);
+
+		switch (this.format){
+			case DOT:
+				return new DotWriter(out);
+			case JSONL:
+				return new JsonWriter(out);
+			case BINARY:
+				return new BinaryWriter(out);
+			default:
+				throw new RuntimeException("Unknown format " + this.format);
+		}
+	}
+
+	/**
+	 * Buffer in front of the channel, optionally through a gzip stream
+	 */
+	private static final class ExportBuffer {
+
+		private final WritableByteChannel channel;
+		private final GZIPOutputStream gzipStream;
+		private final ByteBuffer buffer;
+		private final byte[] digits;
+
+		private ExportBuffer(WritableByteChannel channel, int size, boolean gzip) throws IOException {
+			if (gzip){
+				//The stream is only finished, never closed, so that the channel of the caller is left open
+				this.gzipStream = new GZIPOutputStream(Channels.newOutputStream(channel), size);
+				this.channel = Channels.newChannel(this.gzipStream);
+			} else {
+				this.gzipStream = null;
+				this.channel = channel;
+			}
+
+			this.buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+			this.digits = new byte[20];
+		}
+
+		private void ensure(int bytes) throws IOException {
+			if (this.buffer.remaining() < bytes){
+				this.flush();
+			}
+		}
+
+		private void flush() throws IOException {
+			this.buffer.flip();
+			while (this.buffer.hasRemaining()){
+				this.channel.write(this.buffer);
+			}
+			this.buffer.clear();
+		}
+
+		private void finish() throws IOException {
+			this.flush();
+			if (this.gzipStream != null){
+				this.gzipStream.finish();
+				this.gzipStream.flush();
+			}
+		}
+
+		private void put(byte[] bytes) throws IOException {
+			if (bytes.length > this.buffer.capacity()){
+				this.flush();
+				ByteBuffer wrapped = ByteBuffer.wrap(bytes);
+				while (wrapped.hasRemaining()){
+					this.channel.write(wrapped);
+				}
+			} else {
+				this.ensure(bytes.length);
+				this.buffer.put(bytes);
+			}
+		}
+
+		private void text(String text) throws IOException {
+			this.put(text.getBytes(StandardCharsets.UTF_8));
+		}
+
+		private void decimal(long value) throws IOException {
+			this.ensure(20);
+
+			if (value < 0){
+				this.buffer.put((byte) '-');
+			} else {
+				value = -value;
+			}
+
+			//Digits are computed on the negative value, so that Long.MIN_VALUE does not overflow
+			int length = 0;
+			do {
+				this.digits[length++] = (byte) ('0' - (value % 10));
+				value /= 10;
+			} while (value != 0);
+
+			while (length > 0){
+				this.buffer.put(this.digits[--length]);
+			}
+		}
+
+		private void int8(int value) throws IOException {
+			this.ensure(1);
+			this.buffer.put((byte) value);
+		}
+
+		private void int32(int value) throws IOException {
+			this.ensure(4);
+			this.buffer.putInt(value);
+		}
+
+		private void int64(long value) throws IOException {
+			this.ensure(8);
+			this.buffer.putLong(value);
+		}
+	}
+
+	/**
+	 * Writes the states and the transitions of a graph, in this order
+	 */
+	private abstract static class GraphWriter {
+
+		protected final ExportBuffer out;
+
+		protected GraphWriter(ExportBuffer out){
+			this.out = out;
+		}
+
+		abstract void begin(String kind, int states, PartitionedDomain domain) throws IOException;
+
+		abstract void state(int state, boolean initial, boolean terminal, BitsetInterpretation output) throws IOException;
+
+		abstract void edge(int from, int to, BitsetInterpretation x, BitsetInterpretation y, PartitionedDomain domain)
+				throws IOException;
+
+		abstract void edge(int from, int to, Object label) throws IOException;
+
+		void end() throws IOException {
+			this.out.finish();
+		}
+	}
+
+	private static final class DotWriter extends GraphWriter {
+
+		private static final byte[] ARROW = " -> ".getBytes(StandardCharsets.US_ASCII);
+		private static final byte[] LABEL = " [label=\"".getBytes(StandardCharsets.US_ASCII);
+		private static final byte[] SEPARATOR = " / ".getBytes(StandardCharsets.US_ASCII);
+		private static final byte[] EDGE_END = "\"];\n".getBytes(StandardCharsets.US_ASCII);
+
+		//Labels are canonical, so that their texts are encoded once
+		private final HashMap<BitsetInterpretation, byte[]> environmentTexts = new HashMap<>();
+		private final HashMap<BitsetInterpretation, byte[]> systemTexts = new HashMap<>();
+		private final HashMap<Object, byte[]> labelTexts = new HashMap<>();
+
+		private PartitionedDomain domain;
+
+		private DotWriter(ExportBuffer out){
+			super(out);
+		}
+
+		@Override
+		void begin(String kind, int states, PartitionedDomain domain) throws IOException {
+			this.domain = domain;
+			this.out.text("digraph \"" + kind + "\" {\n\trankdir=LR;\n\tnode [shape=circle];\n");
+			this.out.text("\t__start [shape=point];\n");
+		}
+
+		@Override
+		void state(int state, boolean initial, boolean terminal, BitsetInterpretation output) throws IOException {
+			this.out.int8('\t');
+			this.out.decimal(state);
+
+			if (terminal || output != null){
+				this.out.text(" [");
+				if (terminal){
+					this.out.text("shape=doublecircle");
+				}
+				if (output != null){
+					this.out.text(terminal ? ", " : "");
+					this.out.text("xlabel=\"");
+					this.out.put(this.systemTexts.computeIfAbsent(output, k -> names(k, this.domain.getSystemIndex())));
+					this.out.int8('"');
+				}
+				this.out.int8(']');
+			}
+
+			this.out.text(";\n");
+
+			if (initial){
+				this.out.text("\t__start -> ");
+				this.out.decimal(state);
+				this.out.text(";\n");
+			}
+		}
+
+		@Override
+		void edge(int from, int to, BitsetInterpretation x, BitsetInterpretation y, PartitionedDomain domain)
+				throws IOException {
+			this.edgeStart(from, to);
+			this.out.put(this.environmentTexts.computeIfAbsent(x, k -> names(k, domain.getEnvironmentIndex())));
+			this.out.put(SEPARATOR);
+			this.out.put(this.systemTexts.computeIfAbsent(y, k -> names(k, domain.getSystemIndex())));
+			this.out.put(EDGE_END);
+		}
+
+		@Override
+		void edge(int from, int to, Object label) throws IOException {
+			this.edgeStart(from, to);
+			this.out.put(this.labelTexts.computeIfAbsent(label,
+					k -> escape(String.valueOf(k)).getBytes(StandardCharsets.UTF_8)));
+			this.out.put(EDGE_END);
+		}
+
+		private void edgeStart(int from, int to) throws IOException {
+			this.out.int8('\t');
+			this.out.decimal(from);
+			this.out.put(ARROW);
+			this.out.decimal(to);
+			this.out.put(LABEL);
+		}
+
+		@Override
+		void end() throws IOException {
+			this.out.text("}\n");
+			super.end();
+		}
+
+		private static byte[] names(BitsetInterpretation mask, VariableIndex index){
+			StringBuilder sb = new StringBuilder("{");
+
+			for (int i = 0; i < index.size(); i++){
+				if (mask.get(i)){
+					sb.append(sb.length() > 1 ? ", " : "").append(index.getVariable(i));
+				}
+			}
+
+			return escape(sb.append("}").toString()).getBytes(StandardCharsets.UTF_8);
+		}
+
+		private static String escape(String text){
+			return text.replace("\\", "\\\\").replace("\"", "\\\"");
+		}
+	}
+
+	private static final class JsonWriter extends GraphWriter {
+
+		private static final byte[] FROM = "{\"from\":".getBytes(StandardCharsets.US_ASCII);
+		private static final byte[] TO = ",\"to\":".getBytes(StandardCharsets.US_ASCII);
+		private static final byte[] X = ",\"x\":".getBytes(StandardCharsets.US_ASCII);
+		private static final byte[] Y = ",\"y\":".getBytes(StandardCharsets.US_ASCII);
+		private static final byte[] LABEL = ",\"label\":".getBytes(StandardCharsets.US_ASCII);
+		private static final byte[] STATE = "{\"state\":".getBytes(StandardCharsets.US_ASCII);
+		private static final byte[] INITIAL = ",\"initial\":".getBytes(StandardCharsets.US_ASCII);
+		private static final byte[] TERMINAL = ",\"terminal\":".getBytes(StandardCharsets.US_ASCII);
+		private static final byte[] OUTPUT = ",\"output\":".getBytes(StandardCharsets.US_ASCII);
+		private static final byte[] TRUE = "true".getBytes(StandardCharsets.US_ASCII);
+		private static final byte[] FALSE = "false".getBytes(StandardCharsets.US_ASCII);
+		private static final byte[] LINE_END = "}\n".getBytes(StandardCharsets.US_ASCII);
+
+		private final HashMap<Object, byte[]> labelTexts = new HashMap<>();
+
+		private JsonWriter(ExportBuffer out){
+			super(out);
+		}
+
+		@Override
+		void begin(String kind, int states, PartitionedDomain domain) throws IOException {
+			StringBuilder sb = new StringBuilder("{\"kind\":").append(quote(kind)).append(",\"states\":").append(states);
+
+			if (domain != null){
+				sb.append(",\"environment\":");
+				names(domain.getEnvironmentIndex(), sb);
+				sb.append(",\"system\":");
+				names(domain.getSystemIndex(), sb);
+			}
+
+			this.out.text(sb.append("}\n").toString());
+		}
+
+		@Override
+		void state(int state, boolean initial, boolean terminal, BitsetInterpretation output) throws IOException {
+			this.out.put(STATE);
+			this.out.decimal(state);
+			this.out.put(INITIAL);
+			this.out.put(initial ? TRUE : FALSE);
+			this.out.put(TERMINAL);
+			this.out.put(terminal ? TRUE : FALSE);
+
+			if (output != null){
+				this.out.put(OUTPUT);
+				this.mask(output);
+			}
+
+			this.out.put(LINE_END);
+		}
+
+		@Override
+		void edge(int from, int to, BitsetInterpretation x, BitsetInterpretation y, PartitionedDomain domain)
+				throws IOException {
+			this.edgeStart(from, to);
+			this.out.put(X);
+			this.mask(x);
+			this.out.put(Y);
+			this.mask(y);
+			this.out.put(LINE_END);
+		}
+
+		@Override
+		void edge(int from, int to, Object label) throws IOException {
+			this.edgeStart(from, to);
+			this.out.put(LABEL);
+			this.out.put(this.labelTexts.computeIfAbsent(label,
+					k -> quote(String.valueOf(k)).getBytes(StandardCharsets.UTF_8)));
+			this.out.put(LINE_END);
+		}
+
+		private void edgeStart(int from, int to) throws IOException {
+			this.out.put(FROM);
+			this.out.decimal(from);
+			this.out.put(TO);
+			this.out.decimal(to);
+		}
+
+		private void mask(BitsetInterpretation mask) throws IOException {
+			if (mask.isNarrow()){
+				this.out.decimal(mask.toLong());
+			} else {
+				long[] words = mask.toLongArray();
+				this.out.int8('[');
+				for (int i = 0; i < words.length; i++){
+					if (i > 0){
+						this.out.int8(',');
+					}
+					this.out.decimal(words[i]);
+				}
+				this.out.int8(']');
+			}
+		}
+
+		private static void names(VariableIndex index, StringBuilder sb){
+			sb.append('[');
+			for (int i = 0; i < index.size(); i++){
+				sb.append(i > 0 ? "," : "").append(quote(index.getVariable(i).toString()));
+			}
+			sb.append(']');
+		}
+
+		private static String quote(String text){
+			StringBuilder sb = new StringBuilder("\"");
+
+			for (int i = 0; i < text.length(); i++){
+				char c = text.charAt(i);
+
+				if (c == '"' || c == '\\'){
+					sb.append('\\').append(c);
+				} else if (c < 0x20){
+					sb.append(String.format("\\u%04x", (int) c));
+				} else {
+					sb.append(c);
+				}
+			}
+
+			return sb.append('"').toString();
+		}
+	}
+
+	private static final class BinaryWriter extends GraphWriter {
+
+		private BinaryWriter(ExportBuffer out){
+			super(out);
+		}
+
+		@Override
+		void begin(String kind, int states, PartitionedDomain domain) throws IOException {
+			if (domain == null){
+				throw new RuntimeException("The binary format requires the domain of the labels");
+			}
+
+			this.out.int32(MAGIC);
+			this.out.int32(VERSION);
+			this.out.int32(states);
+			this.out.int32(domain.getEnvironmentIndex().size());
+			this.out.int32(domain.getSystemIndex().size());
+
+			for (VariableIndex index : new VariableIndex[]{domain.getEnvironmentIndex(), domain.getSystemIndex()}){
+				for (int i = 0; i < index.size(); i++){
+					byte[] name = index.getVariable(i).toString().getBytes(StandardCharsets.UTF_8);
+					this.out.int32(name.length);
+					this.out.put(name);
+				}
+			}
+		}
+
+		@Override
+		void state(int state, boolean initial, boolean terminal, BitsetInterpretation output) throws IOException {
+			this.out.int8((initial ? 1 : 0) | (terminal ? 2 : 0) | (output != null ? 4 : 0));
+			this.out.int64(output != null ? narrow(output) : 0L);
+		}
+
+		@Override
+		void edge(int from, int to, BitsetInterpretation x, BitsetInterpretation y, PartitionedDomain domain)
+				throws IOException {
+			this.out.int32(from);
+			this.out.int32(to);
+			this.out.int64(narrow(x));
+			this.out.int64(narrow(y));
+		}
+
+		@Override
+		void edge(int from, int to, Object label) throws IOException {
+			throw new RuntimeException("Label " + label + " cannot be written in the binary format");
+		}
+
+		private static long narrow(BitsetInterpretation mask){
+			if (!mask.isNarrow()){
+				throw new RuntimeException("Mask " + mask + " does not fit in the binary format");
+			}
+
+			return mask.toLong();
+		}
+	}
+}
@@ -5,22 +5,26 @@ import automaton.PossibleWorldWrap;
 import automaton.TransitionLabel;
 import formula.ldlf.LDLfFormula;
 import formula.ltlf.LTLfFormula;
-import formula.ltlf.LTLfLocalVar;
-import net.sf.tweety.logics.pl.syntax.Proposition;
 import rationals.Automaton;
 import rationals.NoSuchStateException;
 import rationals.State;
 import rationals.Transition;
 import rationals.transformations.Reducer;
+import synthesis.maps.IntList;
+import synthesis.metrics.PhaseTracker;
+import synthesis.metrics.SynthesisPhase;
 import synthesis.symbols.*;
 
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
-import java.io.PrintStream;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 
 /**
  * AutomatonUtils
@@ -48,8 +52,29 @@ import java.util.Set;
 public class AutomatonUtils {
 
 	public static Automaton buildLTLfAutomaton(LTLfFormula formula){
+		return buildLTLfAutomaton(formula, PhaseTracker.NONE);
+	}
+
+	/**
+	 * Builds the automaton of a formula, measuring the LDLf translation, the construction and the reduction
+	 * @param formula the formula
+	 * @param tracker the tracker that measures the phases
+	 * @return the reduced automaton of the formula
+	 */
+	public static Automaton buildLTLfAutomaton(LTLfFormula formula, PhaseTracker tracker){
+		tracker.start(SynthesisPhase.LDLF_TRANSLATION);
 		LDLfFormula ldLfFormula = formula.toLDLf();
-		return new Reducer<>().transform(utils.AutomatonUtils.ldlf2Automaton(ldLfFormula, ldLfFormula.getSignature()));
+		tracker.end(null);
+
+		tracker.start(SynthesisPhase.AUTOMATON_CONSTRUCTION);
+		Automaton automaton = utils.AutomatonUtils.ldlf2Automaton(ldLfFormula, ldLfFormula.getSignature());
+		tracker.end(automaton);
+
+		tracker.start(SynthesisPhase.REDUCTION);
+		Automaton res = new Reducer<>().transform(automaton);
+		tracker.end(res);
+
+		return res;
 	}
 
 	public static Automaton removeUnreachableStates(Automaton original){
@@ -100,20 +125,62 @@ public class AutomatonUtils {
 	}
 
 	public static Automaton transalteToGameAutomaton(Automaton original, PartitionedDomain domain){
-		Automaton res = new Automaton();
+		return transalteToGameAutomaton(original, domain, PhaseTracker.NONE);
+	}
 
+	/**
+	 * Translates the automaton of a formula to the game automaton, measuring the empty trace elimination,
+	 * the reachability pruning and the translation of the labels
+	 * @param original the automaton of the formula
+	 * @param domain the partitioned domain of the problem
+	 * @param tracker the tracker that measures the phases
+	 * @return the game automaton, labelled with BitsetPartitionedInterpretations
+	 */
+	public static Automaton transalteToGameAutomaton(Automaton original, PartitionedDomain domain,
+			PhaseTracker tracker){
+		return translateLabels(prepareFormulaAutomaton(original, tracker), domain, null, tracker);
+	}
+
+	/**
+	 * Removes the empty trace transitions and the unreachable states of the automaton of a formula, whose labels
+	 * are left untouched, measuring both phases; see translateLabels and gameLabel
+	 * @param original the automaton of the formula
+	 * @param tracker the tracker that measures the phases
+	 * @return the reachable automaton, without empty trace transitions
+	 */
+	public static Automaton prepareFormulaAutomaton(Automaton original, PhaseTracker tracker){
 		//Remove emptyTrace transitions
+		tracker.start(SynthesisPhase.EMPTY_TRACE_ELIMINATION);
 		original = utils.AutomatonUtils.eliminateEmptyTrace(original);
+		tracker.end(original);
 
+		tracker.start(SynthesisPhase.REACHABILITY);
 		original = removeUnreachableStates(original);
+		tracker.end(original);
+
+		return original;
+	}
 
-		PropositionSet environment = domain.getEnvironmentDomain();
-		PropositionSet system = domain.getSystemDomain();
+	/**
+	 * Translates the labels of an automaton prepared by prepareFormulaAutomaton, measuring the translation
+	 * @param original the prepared automaton of the formula
+	 * @param domain the partitioned domain of the problem
+	 * @param oldToNewStates if not null, filled with the game state of every state of the original automaton
+	 * @param tracker the tracker that measures the phase
+	 * @return the game automaton, labelled with BitsetPartitionedInterpretations
+	 */
+	public static Automaton translateLabels(Automaton original, PartitionedDomain domain,
+			Map<State, State> oldToNewStates, PhaseTracker tracker){
+		tracker.start(SynthesisPhase.GAME_TRANSLATION);
+
+		Automaton res = new Automaton();
 
 		//Get original states iterator
 		Iterator<State> originalStates = original.states().iterator();
 		//Map to translate states
-		HashMap<State, State> oldToNewStates = new HashMap<>();
+		if (oldToNewStates == null){
+			oldToNewStates = new HashMap<>();
+		}
 
 		//Add states to the new automaton and fill the map
 		while (originalStates.hasNext()){
@@ -139,19 +206,9 @@ public class AutomatonUtils {
 
 				//Get end state
 				State oldEnd = oldTransition.end();
-				//Get old label
-				TransitionLabel oldLabel = oldTransition.label();
 
 				//New label
-				SynthTransitionLabel newLabel;
-
-				if (oldLabel instanceof EmptyTrace){
-					newLabel = new SynthEmptyTrace();
-				} else if (oldLabel instanceof PossibleWorldWrap){
-					newLabel = partitionPossibleWorld((PossibleWorldWrap) oldLabel, domain);
-				} else {
-					throw new RuntimeException("Unknown label type");
-				}
+				SynthTransitionLabel newLabel = gameLabel(oldTransition.label(), domain);
 
 				//Create new transition
 				//Get start and end states
@@ -169,41 +226,389 @@ public class AutomatonUtils {
 			}
 		}
 
+		tracker.end(res);
 		return res;
 	}
 
-	public static void writeAutomatonGv(Automaton automaton, String fileName){
-		FileOutputStream fos = null;
+	/**
+	 * Translates a single label of the automaton of a formula, so that solvers can translate the transitions of a
+	 * state only when they visit it; labels of game automata are returned as they are
+	 * @param label a PossibleWorldWrap or an EmptyTrace, or a label of a game automaton
+	 * @param domain the partitioned domain of the problem
+	 * @return the label of the game automaton
+	 */
+	public static SynthTransitionLabel gameLabel(Object label, PartitionedDomain domain){
+		if (label instanceof SynthTransitionLabel){
+			return (SynthTransitionLabel) label;
+		} else if (label instanceof EmptyTrace){
+			return new SynthEmptyTrace();
+		} else if (label instanceof PossibleWorldWrap){
+			return partitionPossibleWorld((PossibleWorldWrap) label, domain);
+		} else {
+			throw new RuntimeException("Unknown label type");
+		}
+	}
+
+	/**
+	 * Reduces a game automaton, without changing its winning region or the moves found in it.
+	 * <ul>
+	 * <li>All the terminal states are merged, and their outgoing transitions are dropped, since the game ends
+	 * as soon as one of them is reached;</li>
+	 * <li>states that cannot reach a terminal state, even if the environment helps, can never win: system moves
+	 * that may lead to one of them are removed, and the states themselves are dropped;</li>
+	 * <li>the remaining states are merged by partition refinement, two states being equivalent if every label
+	 * leads them to equivalent states, and the parallel transitions of merged states collapse.</li>
+	 * </ul>
+	 * Empty trace transitions, that the solvers ignore, are dropped as well.
+	 * @param game the game automaton, labelled with BitsetPartitionedInterpretations
+	 * @return the reduced automaton, with the reduction statistics
+	 */
+	public static GameReduction minimizeGameAutomaton(Automaton game){
+		long start = System.nanoTime();
+
+		Set<State> stateSet = game.states();
+		int n = stateSet.size();
+		State[] states = stateSet.toArray(new State[n]);
+		HashMap<State, Integer> ids = new HashMap<>();
+		for (int s = 0; s < n; s++){
+			ids.put(states[s], s);
+		}
+
+		int initial = ids.get((State) game.initials().iterator().next());
+
+		//Intern the labels, and group the transitions of every state by system move
+		HashMap<BitsetPartitionedInterpretation, Integer> labelIds = new HashMap<>();
+		ArrayList<ArrayList<GameMove>> moves = new ArrayList<>(n);
+		ArrayList<ArrayList<GameMove>> predecessors = new ArrayList<>(n);
+		int originalTransitions = 0;
+
+		for (int s = 0; s < n; s++){
+			moves.add(new ArrayList<>());
+			predecessors.add(new ArrayList<>());
+		}
+
+		for (int s = 0; s < n; s++){
+			Set<Transition<SynthTransitionLabel>> transitions = game.delta(states[s]);
+			HashMap<BitsetInterpretation, GameMove> byMove = new HashMap<>();
+
+			for (Transition<SynthTransitionLabel> t : transitions){
+				originalTransitions++;
+
+				if (t.label() instanceof BitsetPartitionedInterpretation){
+					BitsetPartitionedInterpretation label = (BitsetPartitionedInterpretation) t.label();
+					GameMove m = byMove.get(label.getSystemMask());
 
+					if (m == null){
+						m = new GameMove(s);
+						byMove.put(label.getSystemMask(), m);
+						moves.get(s).add(m);
+					}
+
+					labelIds.putIfAbsent(label, labelIds.size());
+					m.labels.add(label);
+					m.targets.add(ids.get(t.end()));
+				} else if (!(t.label() instanceof SynthEmptyTrace)){
+					throw new RuntimeException("Unknown label type");
+				}
+			}
+		}
+
+		for (int s = 0; s < n; s++){
+			if (!states[s].isTerminal()){
+				for (GameMove m : moves.get(s)){
+					for (int i = 0; i < m.targets.size(); i++){
+						predecessors.get(m.targets.get(i)).add(m);
+					}
+				}
+			}
+		}
+
+		//Remove the dead states, and the moves that may lead to them, until nothing changes
+		boolean[] live;
+		int prunedMoves = 0;
+		boolean changed;
+
+		do {
+			live = new boolean[n];
+			IntList toBeVisited = new IntList();
+
+			for (int s = 0; s < n; s++){
+				if (states[s].isTerminal()){
+					live[s] = true;
+					toBeVisited.add(s);
+				}
+			}
+
+			for (int i = 0; i < toBeVisited.size(); i++){
+				for (GameMove m : predecessors.get(toBeVisited.get(i))){
+					if (m.alive && !live[m.source]){
+						live[m.source] = true;
+						toBeVisited.add(m.source);
+					}
+				}
+			}
+
+			changed = false;
+
+			for (int s = 0; s < n; s++){
+				if (live[s] && !states[s].isTerminal()){
+					for (GameMove m : moves.get(s)){
+						for (int i = 0; m.alive && i < m.targets.size(); i++){
+							if (!live[m.targets.get(i)]){
+								m.alive = false;
+								prunedMoves++;
+								changed = true;
+							}
+						}
+					}
+				}
+			}
+		} while (changed);
+
+		int deadStates = 0;
+		for (int s = 0; s < n; s++){
+			if (!live[s]){
+				deadStates++;
+			}
+		}
+
+		Automaton res = new Automaton();
+
+		if (!live[initial]){
+			res.addState(true, false);
+			return new GameReduction(res, n, originalTransitions, 1, 0, deadStates, prunedMoves, 0,
+					System.nanoTime() - start);
+		}
+
+		//Partition refinement, starting from terminal and non terminal states
+		int[] classes = new int[n];
+		boolean hasTerminals = false;
+		boolean hasOthers = false;
+
+		for (int s = 0; s < n; s++){
+			if (live[s]){
+				hasTerminals |= states[s].isTerminal();
+				hasOthers |= !states[s].isTerminal();
+			}
+		}
+
+		for (int s = 0; s < n; s++){
+			classes[s] = (states[s].isTerminal() || !hasTerminals) ? 0 : 1;
+		}
+
+		int classCount = (hasTerminals && hasOthers) ? 2 : 1;
+		int rounds = 0;
+
+		while (true){
+			rounds++;
+			HashMap<GameSignature, Integer> signatures = new HashMap<>();
+			int[] newClasses = new int[n];
+
+			for (int s = 0; s < n; s++){
+				if (!live[s]){
+					continue;
+				}
+
+				long[] signature;
+
+				if (states[s].isTerminal()){
+					signature = new long[0];
+				} else {
+					int size = 0;
+					for (GameMove m : moves.get(s)){
+						if (m.alive){
+							size += m.targets.size();
+						}
+					}
+
+					signature = new long[size];
+					int i = 0;
+
+					for (GameMove m : moves.get(s)){
+						if (m.alive){
+							for (int e = 0; e < m.targets.size(); e++){
+								signature[i++] = ((long) labelIds.get(m.labels.get(e)) << 32) | classes[m.targets.get(e)];
+							}
+						}
+					}
+
+					Arrays.sort(signature);
+				}
+
+				GameSignature key = new GameSignature(classes[s], signature);
+				Integer c = signatures.get(key);
+
+				if (c == null){
+					c = signatures.size();
+					signatures.put(key, c);
+				}
+
+				newClasses[s] = c;
+			}
+
+			classes = newClasses;
+
+			if (signatures.size() == classCount){
+				break;
+			}
+
+			classCount = signatures.size();
+		}
+
+		//Build the quotient, from one representative per class
+		State[] newStates = new State[classCount];
+		int[] representatives = new int[classCount];
+		Arrays.fill(representatives, -1);
+
+		for (int s = 0; s < n; s++){
+			if (live[s] && representatives[classes[s]] < 0){
+				representatives[classes[s]] = s;
+			}
+		}
+
+		for (int c = 0; c < classCount; c++){
+			boolean isInitial = classes[initial] == c;
+			newStates[c] = res.addState(isInitial, states[representatives[c]].isTerminal());
+		}
+
+		int transitions = 0;
+
+		for (int c = 0; c < classCount; c++){
+			int s = representatives[c];
+
+			if (states[s].isTerminal()){
+				continue;
+			}
+
+			for (GameMove m : moves.get(s)){
+				if (m.alive){
+					for (int e = 0; e < m.targets.size(); e++){
+						Transition<SynthTransitionLabel> t = new Transition<>(newStates[c], m.labels.get(e),
+								newStates[classes[m.targets.get(e)]]);
+
+						try {
+							res.addTransition(t);
+						} catch (NoSuchStateException e1){
+							throw new RuntimeException(e1);
+						}
+
+						transitions++;
+					}
+				}
+			}
+		}
+
+		return new GameReduction(res, n, originalTransitions, classCount, transitions, deadStates, prunedMoves,
+				rounds, System.nanoTime() - start);
+	}
+
+	/**
+	 * Matches the states of two deterministic automata, walking them together from their initial states: every
+	 * transition of the first automaton must have a counterpart in the second one, with the translated label.
+	 * @param from the first automaton
+	 * @param to the second automaton, e.g. a reduction or a translation of the first one
+	 * @param labelTranslation translates the labels of the first automaton to the labels of the second one
+	 * @return the state of the second automaton matched by every reachable state of the first one
+	 */
+	public static HashMap<State, State> matchStates(Automaton from, Automaton to,
+													Function<Object, Object> labelTranslation){
+		HashMap<State, State> res = new HashMap<>();
+		ArrayList<State> toBeVisited = new ArrayList<>();
+
+		State fromInitial = (State) from.initials().iterator().next();
+		res.put(fromInitial, (State) to.initials().iterator().next());
+		toBeVisited.add(fromInitial);
+
+		for (int i = 0; i < toBeVisited.size(); i++){
+			State s = toBeVisited.get(i);
+
+			HashMap<Object, State> targets = new HashMap<>();
+			Set<Transition> toTransitions = to.delta(res.get(s));
+			for (Transition t : toTransitions){
+				targets.put(t.label(), t.end());
+			}
+
+			Set<Transition> fromTransitions = from.delta(s);
+			for (Transition t : fromTransitions){
+				State end = targets.get(labelTranslation.apply(t.label()));
+
+				if (end == null){
+					throw new RuntimeException("Automata do not match on label " + t.label());
+				}
+
+				if (res.putIfAbsent(t.end(), end) == null){
+					toBeVisited.add(t.end());
+				}
+			}
+		}
+
+		return res;
+	}
+
+	/**
+	 * Writes an automaton to a DOT file, streaming it through an AutomatonExporter
+	 * @param automaton the automaton
+	 * @param fileName the destination file
+	 */
+	public static void writeAutomatonGv(Automaton automaton, String fileName){
 		try {
-			fos = new FileOutputStream(fileName);
-		} catch (FileNotFoundException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
+			new AutomatonExporter(ExportFormat.DOT).writeAutomaton(automaton, null, Paths.get(fileName));
+		} catch (IOException e){
+			throw new RuntimeException("Cannot write " + fileName, e);
 		}
+	}
 
-		PrintStream ps = new PrintStream(fos);
-		ps.println(utils.AutomatonUtils.toDot(automaton));
-		ps.flush();
-		ps.close();
+	/**
+	 * Splits a possible world between the propositions of the environment and of the system
+	 * @param pw the possible world; its propositions must all be part of the domain
+	 * @param domain the partitioned domain of the problem
+	 * @return the partitioned possible world, encoded over the indices of the domain
+	 */
+	public static BitsetPartitionedInterpretation partitionPossibleWorld(PossibleWorldWrap pw, PartitionedDomain domain){
+		return domain.getSymbols().label(pw);
 	}
 
-	private static PartitionedInterpretation partitionPossibleWorld(PossibleWorldWrap pw, PartitionedDomain domain){
-		Interpretation environment = new Interpretation();
-		Interpretation system = new Interpretation();
+	//The transitions of a state that share the same system move
+	private static class GameMove {
 
-		for (Proposition p : pw){
-			LTLfLocalVar lv = new LTLfLocalVar(p);
+		private final int source;
+		private final ArrayList<BitsetPartitionedInterpretation> labels;
+		private final IntList targets;
+		private boolean alive;
 
-			if (domain.getEnvironmentDomain().contains(lv)){
-				environment.add(lv);
-			} else if (domain.getSystemDomain().contains(lv)) {
-				system.add(lv);
-			} else {
-				throw new RuntimeException("Found propositional variable not declared in domain");
+		private GameMove(int source){
+			this.source = source;
+			this.labels = new ArrayList<>();
+			this.targets = new IntList();
+			this.alive = true;
+		}
+	}
+
+	private static class GameSignature {
+
+		private final int block;
+		private final long[] edges;
+		private final int hash;
+
+		private GameSignature(int block, long[] edges){
+			this.block = block;
+			this.edges = edges;
+			this.hash = 31 * block + Arrays.hashCode(edges);
+		}
+
+		@Override
+		public boolean equals(Object o){
+			if (!(o instanceof GameSignature)){
+				return false;
 			}
+
+			GameSignature other = (GameSignature) o;
+			return this.block == other.block && Arrays.equals(this.edges, other.edges);
 		}
 
-		return new PartitionedInterpretation(environment, system);
+		@Override
+		public int hashCode(){
+			return hash;
+		}
 	}
 }
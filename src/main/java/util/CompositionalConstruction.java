@@ -0,0 +1,419 @@
+package util;
+
+import automaton.PossibleWorldWrap;
+import automaton.TransitionLabel;
+import formula.ldlf.LDLfFormula;
+import formula.ltlf.LTLfBinaryFormula;
+import formula.ltlf.LTLfFormula;
+import formula.ltlf.LTLfLocalAndFormula;
+import formula.ltlf.LTLfTempAndFormula;
+import net.sf.tweety.logics.pl.syntax.Proposition;
+import net.sf.tweety.logics.pl.syntax.PropositionalSignature;
+import rationals.Automaton;
+import rationals.NoSuchStateException;
+import rationals.State;
+import rationals.Transition;
+import rationals.transformations.Reducer;
+
+import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * CompositionalConstruction
+ * Builds the automaton of a formula by splitting its top level conjunction.
+ * The automaton of every conjunct is built and minimized on its own signature, in parallel on a fork-join pool; the
+ * conjuncts are then composed by a synchronous product, two at a time starting from the smallest ones, minimizing
+ * every intermediate product. The result recognizes the same language as AutomatonUtils.buildLTLfAutomaton, and can be
+ * translated to a game automaton in the same way.
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public class CompositionalConstruction {
+
+	private final ForkJoinPool pool;
+
+	private final ArrayList<Conjunct> conjuncts;
+	private final ArrayList<Product> products;
+	private long totalNanos;
+
+	/**
+	 * Instantiates a new CompositionalConstruction, building the conjuncts on the common pool
+	 */
+	public CompositionalConstruction(){
+		this(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Instantiates a new CompositionalConstruction
+	 * @param pool the pool on which the automata of the conjuncts are built
+	 */
+	public CompositionalConstruction(ForkJoinPool pool){
+		this.pool = pool;
+		this.conjuncts = new ArrayList<>();
+		this.products = new ArrayList<>();
+	}
+
+	/**
+	 * Splits the top level conjunction of a formula, both temporal and local
+	 * @param formula the formula
+	 * @return the conjuncts, from left to right; the formula itself if it is not a conjunction
+	 */
+	public static List<LTLfFormula> splitConjunction(LTLfFormula formula){
+		ArrayList<LTLfFormula> res = new ArrayList<>();
+		ArrayDeque<LTLfFormula> stack = new ArrayDeque<>();
+		stack.push(formula);
+
+		while (!stack.isEmpty()){
+			LTLfFormula f = stack.pop();
+
+			if (f instanceof LTLfTempAndFormula || f instanceof LTLfLocalAndFormula){
+				stack.push(((LTLfBinaryFormula) f).getRightFormula());
+				stack.push(((LTLfBinaryFormula) f).getLeftFormula());
+			} else {
+				res.add(f);
+			}
+		}
+
+		return res;
+	}
+
+	/**
+	 * Builds the automaton of the given formula
+	 * @param formula the formula
+	 * @return a minimal automaton, labelled with PossibleWorldWraps over the signature of the formula
+	 */
+	public Automaton build(LTLfFormula formula){
+		long start = System.nanoTime();
+
+		this.conjuncts.clear();
+		this.products.clear();
+
+		List<LTLfFormula> split = splitConjunction(formula);
+		ArrayList<Callable<Conjunct>> tasks = new ArrayList<>();
+
+		//Conjunction is idempotent: conjuncts shared by a FormulaInterner are only built once
+		Set<LTLfFormula> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+
+		for (LTLfFormula f : split){
+			if (distinct.add(f)){
+				tasks.add(() -> buildConjunct(f));
+			}
+		}
+
+		for (Future<Conjunct> future : this.pool.invokeAll(tasks)){
+			try {
+				this.conjuncts.add(future.get());
+			} catch (InterruptedException e){
+				Thread.currentThread().interrupt();
+				throw new RuntimeException(e);
+			} catch (ExecutionException e){
+				throw new RuntimeException(e.getCause());
+			}
+		}
+
+		//Compose the two smallest automata first, to keep the intermediate products small
+		PriorityQueue<Component> queue = new PriorityQueue<>(
+				(a, b) -> Integer.compare(a.automaton.states().size(), b.automaton.states().size()));
+
+		for (Conjunct c : this.conjuncts){
+			queue.add(new Component(c.automaton, c.signature));
+		}
+
+		while (queue.size() > 1){
+			Component left = queue.poll();
+			Component right = queue.poll();
+
+			long productStart = System.nanoTime();
+			HashSet<Proposition> signature = new HashSet<>(left.signature);
+			signature.addAll(right.signature);
+
+			Component product = new Component(new Reducer<>().transform(
+					product(left.automaton, left.signature, right.automaton, right.signature, null)), signature);
+
+			this.products.add(new Product(left.automaton.states().size(), right.automaton.states().size(),
+					product.automaton.states().size(), System.nanoTime() - productStart));
+			queue.add(product);
+		}
+
+		this.totalNanos = System.nanoTime() - start;
+		return queue.poll().automaton;
+	}
+
+	/**
+	 * Builds the minimal automaton of a single conjunct, on its own signature
+	 * @param formula the conjunct
+	 * @return the Conjunct, with its automaton and the time spent building it
+	 */
+	public static Conjunct buildConjunct(LTLfFormula formula){
+		long start = System.nanoTime();
+
+		LDLfFormula ldlfFormula = formula.toLDLf();
+		PropositionalSignature signature = ldlfFormula.getSignature();
+		Automaton automaton = utils.AutomatonUtils.ldlf2Automaton(ldlfFormula, signature);
+
+		//Empty trace transitions have no counterpart in the product
+		automaton = utils.AutomatonUtils.eliminateEmptyTrace(automaton);
+		automaton = new Reducer<>().transform(automaton);
+
+		return new Conjunct(formula, signature, automaton, System.nanoTime() - start);
+	}
+
+	/**
+	 * Computes the synchronous product of two automata labelled with PossibleWorldWraps, each over its own signature:
+	 * a transition of the product joins two transitions whose possible worlds agree on the shared propositions.
+	 * Only the states reachable from the initial ones are built.
+	 * @param left the first automaton
+	 * @param leftSignature the propositions the first automaton reads
+	 * @param right the second automaton
+	 * @param rightSignature the propositions the second automaton reads
+	 * @param leftStates if not null, filled with the state of the first automaton of every state of the product
+	 * @return the product, over the union of the signatures; it is not reduced
+	 */
+	public static Automaton product(Automaton left, Set<Proposition> leftSignature, Automaton right,
+									Set<Proposition> rightSignature, Map<State, State> leftStates){
+		HashSet<Proposition> shared = new HashSet<>(leftSignature);
+		shared.retainAll(rightSignature);
+
+		Automaton res = new Automaton();
+		HashMap<List<State>, State> states = new HashMap<>();
+		ArrayDeque<List<State>> toBeVisited = new ArrayDeque<>();
+
+		for (Object l : left.initials()){
+			for (Object r : right.initials()){
+				List<State> pair = pair((State) l, (State) r);
+				State initial = res.addState(true, pair.get(0).isTerminal() && pair.get(1).isTerminal());
+				states.put(pair, initial);
+				toBeVisited.add(pair);
+
+				if (leftStates != null){
+					leftStates.put(initial, pair.get(0));
+				}
+			}
+		}
+
+		while (!toBeVisited.isEmpty()){
+			List<State> pair = toBeVisited.poll();
+			State start = states.get(pair);
+
+			//Group the transitions of the right state by their value on the shared propositions
+			HashMap<Set<Proposition>, List<Transition<TransitionLabel>>> rightTransitions = new HashMap<>();
+			Set<Transition<TransitionLabel>> rightDelta = right.delta(pair.get(1));
+
+			for (Transition<TransitionLabel> t : rightDelta){
+				rightTransitions.computeIfAbsent(project(t.label(), shared), k -> new ArrayList<>()).add(t);
+			}
+
+			Set<Transition<TransitionLabel>> leftDelta = left.delta(pair.get(0));
+
+			for (Transition<TransitionLabel> lt : leftDelta){
+				List<Transition<TransitionLabel>> matching = rightTransitions.get(project(lt.label(), shared));
+
+				if (matching == null){
+					continue;
+				}
+
+				for (Transition<TransitionLabel> rt : matching){
+					List<State> endPair = pair(lt.end(), rt.end());
+					State end = states.get(endPair);
+
+					if (end == null){
+						end = res.addState(false, lt.end().isTerminal() && rt.end().isTerminal());
+						states.put(endPair, end);
+						toBeVisited.add(endPair);
+
+						if (leftStates != null){
+							leftStates.put(end, lt.end());
+						}
+					}
+
+					PossibleWorldWrap label = new PossibleWorldWrap();
+					label.addAll((PossibleWorldWrap) lt.label());
+					label.addAll((PossibleWorldWrap) rt.label());
+
+					try {
+						res.addTransition(new Transition<>(start, label, end));
+					} catch (NoSuchStateException e){
+						throw new RuntimeException(e);
+					}
+				}
+			}
+		}
+
+		return res;
+	}
+
+	private static List<State> pair(State left, State right){
+		ArrayList<State> res = new ArrayList<>(2);
+		res.add(left);
+		res.add(right);
+		return res;
+	}
+
+	private static Set<Proposition> project(TransitionLabel label, Set<Proposition> propositions){
+		if (!(label instanceof PossibleWorldWrap)){
+			throw new RuntimeException("Unexpected label " + label + " in the automaton of a conjunct");
+		}
+
+		HashSet<Proposition> res = new HashSet<>();
+
+		for (Proposition p : (PossibleWorldWrap) label){
+			if (propositions.contains(p)){
+				res.add(p);
+			}
+		}
+
+		return res;
+	}
+
+	@Override
+	public String toString(){
+		StringBuilder res = new StringBuilder("Compositional construction: " + this.conjuncts.size()
+				+ " conjuncts, " + (this.totalNanos / 1000000) + " ms\n");
+
+		for (Conjunct c : this.conjuncts){
+			res.append("\t").append(c).append("\n");
+		}
+
+		for (Product p : this.products){
+			res.append("\t").append(p).append("\n");
+		}
+
+		return res.toString();
+	}
+
+	//<editor-fold desc="Getter Methods" defaultState="collapsed">
+	public List<Conjunct> getConjuncts(){
+		return Collections.unmodifiableList(conjuncts);
+	}
+
+	public List<Product> getProducts(){
+		return Collections.unmodifiableList(products);
+	}
+
+	public long getTotalNanos(){
+		return totalNanos;
+	}
+	//</editor-fold>
+
+	private static class Component {
+
+		private final Automaton automaton;
+		private final Set<Proposition> signature;
+
+		private Component(Automaton automaton, Set<Proposition> signature){
+			this.automaton = automaton;
+			this.signature = signature;
+		}
+	}
+
+	/**
+	 * Minimal automaton of a single conjunct, with the time spent building it
+	 */
+	public static class Conjunct {
+
+		private final LTLfFormula formula;
+		private final PropositionalSignature signature;
+		private final Automaton automaton;
+		private final long nanos;
+
+		private Conjunct(LTLfFormula formula, PropositionalSignature signature, Automaton automaton, long nanos){
+			this.formula = formula;
+			this.signature = signature;
+			this.automaton = automaton;
+			this.nanos = nanos;
+		}
+
+		@Override
+		public String toString(){
+			return this.formula + ": " + this.automaton.states().size() + " states, "
+					+ (this.nanos / 1000000) + " ms";
+		}
+
+		//<editor-fold desc="Getter Methods" defaultState="collapsed">
+		public LTLfFormula getFormula(){
+			return formula;
+		}
+
+		public PropositionalSignature getSignature(){
+			return signature;
+		}
+
+		public Automaton getAutomaton(){
+			return automaton;
+		}
+
+		public long getNanos(){
+			return nanos;
+		}
+		//</editor-fold>
+	}
+
+	/**
+	 * A step of the composition, with the sizes of the operands and of the minimized product
+	 */
+	public static class Product {
+
+		private final int leftStates;
+		private final int rightStates;
+		private final int states;
+		private final long nanos;
+
+		private Product(int leftStates, int rightStates, int states, long nanos){
+			this.leftStates = leftStates;
+			this.rightStates = rightStates;
+			this.states = states;
+			this.nanos = nanos;
+		}
+
+		@Override
+		public String toString(){
+			return "Product " + this.leftStates + " x " + this.rightStates + " -> " + this.states + " states, "
+					+ (this.nanos / 1000000) + " ms";
+		}
+
+		//<editor-fold desc="Getter Methods" defaultState="collapsed">
+		public int getLeftStates(){
+			return leftStates;
+		}
+
+		public int getRightStates(){
+			return rightStates;
+		}
+
+		public int getStates(){
+			return states;
+		}
+
+		public long getNanos(){
+			return nanos;
+		}
+		//</editor-fold>
+	}
+}
@@ -0,0 +1,57 @@
+package util;
+
+/**
+ * ExportFormat
+ * Formats written by AutomatonExporter
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public enum ExportFormat {
+
+	/**
+	 * Graphviz digraph; terminal states are double circles, labels list the true environment and system propositions
+	 */
+	DOT(".dot"),
+
+	/**
+	 * JSON lines: a header object with the kind of graph, the number of states and the propositions of the domain,
+	 * then an object for every state ({"state", "initial", "terminal", and "output" for strategies}) and one for
+	 * every transition ({"from", "to", "x", "y"}), where x and y are the environment and system masks, or arrays of
+	 * 64 bit words for domains that do not fit in a long; other labels are written as a "label" string
+	 */
+	JSONL(".jsonl"),
+
+	/**
+	 * Little endian edge list: the header (int32 magic "LTLE", int32 version, int32 states, int32 environment and
+	 * int32 system propositions, then the names as int32 length + UTF-8 bytes), a record for every state (int8 flags:
+	 * 1 initial, 2 terminal, 4 output; int64 output) and a record for every transition up to the end of the file
+	 * (int32 from, int32 to, int64 environment mask, int64 system mask). Only masked labels over domains that fit in
+	 * a long can be written.
+	 */
+	BINARY(".bin");
+
+	private final String extension;
+
+	ExportFormat(String extension){
+		this.extension = extension;
+	}
+
+	public String getExtension(){
+		return extension;
+	}
+}
@@ -0,0 +1,215 @@
+package util;
+
+import formula.ltlf.LTLfBinaryFormula;
+import formula.ltlf.LTLfFormula;
+import formula.ltlf.LTLfUnaryFormula;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayDeque;
+import java.util.IdentityHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * FormulaInterner
+ * Hash-conses LTLf formulas: structurally equal subformulas interned by the same FormulaInterner are the same
+ * object, so that they can be compared by identity and memoized in IdentityHashMaps. Nodes are looked up by their
+ * class and by the identity of their (already interned) children, so interning is linear in the size of the formula.
+ * Interners are thread safe; formulas whose class has no (LTLfFormula) or (LTLfFormula, LTLfFormula) constructor are
+ * interned as a whole, without sharing their children.
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public class FormulaInterner {
+
+	//Constructors used to rebuild a node over interned children, or null if the class has none
+	private static final ClassValue<Constructor<?>> CONSTRUCTORS = new ClassValue<Constructor<?>>() {
+		@Override
+		protected Constructor<?> computeValue(Class<?> type){
+			Class<?>[] parameters = LTLfBinaryFormula.class.isAssignableFrom(type)
+					? new Class<?>[]{LTLfFormula.class, LTLfFormula.class}
+					: new Class<?>[]{LTLfFormula.class};
+
+			try {
+				return type.getConstructor(parameters);
+			} catch (NoSuchMethodException e){
+				return null;
+			}
+		}
+	};
+
+	private final ConcurrentHashMap<Node, LTLfFormula> nodes;
+
+	/**
+	 * Instantiates a new, empty FormulaInterner
+	 */
+	public FormulaInterner(){
+		this.nodes = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Returns the shared instance of a formula, rebuilding the nodes whose children have been replaced by shared ones
+	 * @param formula the formula
+	 * @return the shared formula, structurally equal to the given one
+	 */
+	public LTLfFormula intern(LTLfFormula formula){
+		//Post order visit, with an explicit stack so that deep formulas do not overflow
+		IdentityHashMap<LTLfFormula, LTLfFormula> done = new IdentityHashMap<>();
+		ArrayDeque<LTLfFormula> stack = new ArrayDeque<>();
+		stack.push(formula);
+
+		while (!stack.isEmpty()){
+			LTLfFormula f = stack.peek();
+
+			if (done.containsKey(f)){
+				stack.pop();
+				continue;
+			}
+
+			if (f instanceof LTLfBinaryFormula){
+				LTLfFormula left = ((LTLfBinaryFormula) f).getLeftFormula();
+				LTLfFormula right = ((LTLfBinaryFormula) f).getRightFormula();
+
+				if (!done.containsKey(left) || !done.containsKey(right)){
+					stack.push(right);
+					stack.push(left);
+					continue;
+				}
+
+				done.put(f, this.node(f, done.get(left), done.get(right)));
+			} else if (f instanceof LTLfUnaryFormula){
+				LTLfFormula nested = ((LTLfUnaryFormula) f).getNestedFormula();
+
+				if (!done.containsKey(nested)){
+					stack.push(nested);
+					continue;
+				}
+
+				done.put(f, this.node(f, done.get(nested), null));
+			} else {
+				done.put(f, this.leaf(f));
+			}
+
+			stack.pop();
+		}
+
+		return done.get(formula);
+	}
+
+	//Shared instance of a node whose children have already been interned, without visiting them
+	LTLfFormula internNode(LTLfFormula f){
+		if (f instanceof LTLfBinaryFormula){
+			return this.node(f, ((LTLfBinaryFormula) f).getLeftFormula(), ((LTLfBinaryFormula) f).getRightFormula());
+		} else if (f instanceof LTLfUnaryFormula){
+			return this.node(f, ((LTLfUnaryFormula) f).getNestedFormula(), null);
+		} else {
+			return this.leaf(f);
+		}
+	}
+
+	private LTLfFormula node(LTLfFormula f, LTLfFormula first, LTLfFormula second){
+		Node key = new Node(f.getClass(), first, second, null);
+		LTLfFormula res = this.nodes.get(key);
+
+		if (res == null){
+			res = rebuild(f, first, second);
+			LTLfFormula previous = this.nodes.putIfAbsent(key, res);
+			res = (previous != null) ? previous : res;
+		}
+
+		return res;
+	}
+
+	private LTLfFormula leaf(LTLfFormula f){
+		LTLfFormula previous = this.nodes.putIfAbsent(new Node(f.getClass(), null, null, f.toString()), f);
+		return (previous != null) ? previous : f;
+	}
+
+	//Copy of a node over the given children, or the node itself if they are its own or its class cannot be rebuilt
+	static LTLfFormula rebuild(LTLfFormula f, LTLfFormula first, LTLfFormula second){
+		boolean same = (second == null)
+				? first == ((LTLfUnaryFormula) f).getNestedFormula()
+				: first == ((LTLfBinaryFormula) f).getLeftFormula() && second == ((LTLfBinaryFormula) f).getRightFormula();
+		Constructor<?> constructor = CONSTRUCTORS.get(f.getClass());
+
+		if (same || constructor == null){
+			return f;
+		}
+
+		try {
+			return (LTLfFormula) ((second == null) ? constructor.newInstance(first)
+					: constructor.newInstance(first, second));
+		} catch (InvocationTargetException e){
+			throw new RuntimeException(e.getCause());
+		} catch (ReflectiveOperationException e){
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Returns the number of distinct nodes interned so far
+	 * @return the number of shared nodes
+	 */
+	public int size(){
+		return this.nodes.size();
+	}
+
+	/**
+	 * Forgets all the interned nodes
+	 */
+	public void clear(){
+		this.nodes.clear();
+	}
+
+	/**
+	 * Key of a node: its class and the identity of its children, or the text of a leaf
+	 */
+	private static final class Node {
+
+		private final Class<?> type;
+		private final LTLfFormula first;
+		private final LTLfFormula second;
+		private final String text;
+		private final int hash;
+
+		private Node(Class<?> type, LTLfFormula first, LTLfFormula second, String text){
+			this.type = type;
+			this.first = first;
+			this.second = second;
+			this.text = text;
+			this.hash = 31 * (31 * (31 * type.hashCode() + System.identityHashCode(first))
+					+ System.identityHashCode(second)) + ((text != null) ? text.hashCode() : 0);
+		}
+
+		@Override
+		public boolean equals(Object o){
+			if (!(o instanceof Node)){
+				return false;
+			}
+
+			Node other = (Node) o;
+			return this.type == other.type && this.first == other.first && this.second == other.second
+					&& (this.text == null ? other.text == null : this.text.equals(other.text));
+		}
+
+		@Override
+		public int hashCode(){
+			return this.hash;
+		}
+	}
+}
@@ -0,0 +1,176 @@
+package util;
+
+import antlr4_generated.LTLfFormulaParserLexer;
+import antlr4_generated.LTLfFormulaParserParser;
+import formula.ltlf.LTLfFormula;
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ConsoleErrorListener;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.antlr.v4.runtime.tree.ParseTree;
+import visitors.LTLfVisitors.LTLfVisitor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * FormulaParser
+ * Reusable LTLf parser: the lexer, the token stream, the parser and the visitor are created once and reset for
+ * every formula, so that parsing many formulas does not pay for their construction, and the DFA cache of the parser
+ * stays warm. Formulas are first parsed with the faster SLL prediction, and only parsed again with full LL prediction
+ * when SLL fails, which also reports the syntax errors as ParsingUtils.parseLTLfFormula does.
+ * A FormulaParser must only be used by one thread at a time; parseAll() parses in parallel with a parser per thread.
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public class FormulaParser {
+
+	//Formulas parsed by a task of parseAll()
+	private static final int CHUNK_SIZE = 256;
+
+	private static final ThreadLocal<FormulaParser> PARSERS = ThreadLocal.withInitial(FormulaParser::new);
+
+	private final LTLfFormulaParserLexer lexer;
+	private final CommonTokenStream tokens;
+	private final LTLfFormulaParserParser parser;
+	private final LTLfVisitor visitor;
+
+	private long parsedCount;
+	private long fallbackCount;
+
+	/**
+	 * Instantiates a new FormulaParser
+	 */
+	public FormulaParser(){
+		this.lexer = new LTLfFormulaParserLexer(new ANTLRInputStream(""));
+		this.tokens = new CommonTokenStream(this.lexer);
+		this.parser = new LTLfFormulaParserParser(this.tokens);
+		this.visitor = new LTLfVisitor();
+		this.parsedCount = 0;
+		this.fallbackCount = 0;
+	}
+
+	/**
+	 * Returns the parser of the calling thread
+	 * @return a FormulaParser that is only used by the calling thread
+	 */
+	public static FormulaParser get(){
+		return PARSERS.get();
+	}
+
+	/**
+	 * Parses a formula
+	 * @param input the formula
+	 * @return the parsed formula
+	 */
+	public LTLfFormula parse(String input){
+		this.lexer.setInputStream(new ANTLRInputStream(input));
+		this.tokens.setTokenSource(this.lexer);
+		this.parser.setTokenStream(this.tokens);
+
+		ParseTree tree;
+
+		//SLL is exact on almost every input; when it is not, or the input is malformed, it bails out
+		this.parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+		this.parser.setErrorHandler(new BailErrorStrategy());
+		this.parser.removeErrorListeners();
+
+		try {
+			tree = this.parser.expression();
+		} catch (ParseCancellationException e){
+			this.fallbackCount++;
+			this.tokens.seek(0);
+			this.parser.reset();
+			this.parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+			this.parser.setErrorHandler(new DefaultErrorStrategy());
+			this.parser.addErrorListener(ConsoleErrorListener.INSTANCE);
+			tree = this.parser.expression();
+		}
+
+		this.parsedCount++;
+		return this.visitor.visit(tree);
+	}
+
+	/**
+	 * Parses a batch of formulas in parallel, with a parser per thread of the pool
+	 * @param inputs the formulas
+	 * @param pool the pool that parses the formulas
+	 * @param interner if not null, the interner of the parsed formulas, so that identical subformulas, also of
+	 *                 different inputs, are shared
+	 * @return the parsed formulas, in the order of the inputs
+	 */
+	public static List<LTLfFormula> parseAll(List<String> inputs, ForkJoinPool pool, FormulaInterner interner){
+		LTLfFormula[] res = new LTLfFormula[inputs.size()];
+		ArrayList<Callable<Void>> tasks = new ArrayList<>();
+
+		for (int start = 0; start < inputs.size(); start += CHUNK_SIZE){
+			int from = start;
+			int to = Math.min(inputs.size(), start + CHUNK_SIZE);
+
+			tasks.add(() -> {
+				FormulaParser parser = get();
+
+				for (int i = from; i < to; i++){
+					LTLfFormula f = parser.parse(inputs.get(i));
+					res[i] = (interner != null) ? interner.intern(f) : f;
+				}
+
+				return null;
+			});
+		}
+
+		for (Future<Void> future : pool.invokeAll(tasks)){
+			try {
+				future.get();
+			} catch (InterruptedException e){
+				Thread.currentThread().interrupt();
+				throw new RuntimeException(e);
+			} catch (ExecutionException e){
+				throw new RuntimeException(e.getCause());
+			}
+		}
+
+		return Arrays.asList(res);
+	}
+
+	//<editor-fold desc="Getter Methods" defaultState="collapsed">
+	/**
+	 * Returns the number of formulas parsed by this parser
+	 * @return the number of parsed formulas
+	 */
+	public long getParsedCount(){
+		return parsedCount;
+	}
+
+	/**
+	 * Returns the number of formulas that have been parsed again with full LL prediction
+	 * @return the number of SLL failures
+	 */
+	public long getFallbackCount(){
+		return fallbackCount;
+	}
+	//</editor-fold>
+}
@@ -0,0 +1,88 @@
+package util;
+
+import formula.ltlf.LTLfFormula;
+
+/**
+ * FormulaSimplification
+ * Result of FormulaSimplifier.simplify: the simplified formula, with its size before and after the rewriting.
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public class FormulaSimplification {
+
+	private final LTLfFormula originalFormula;
+	private final LTLfFormula formula;
+	private final long originalSize;
+	private final long size;
+	private final int rewrites;
+	private final long nanos;
+
+	FormulaSimplification(LTLfFormula originalFormula, LTLfFormula formula, long originalSize, long size,
+						  int rewrites, long nanos){
+		this.originalFormula = originalFormula;
+		this.formula = formula;
+		this.originalSize = originalSize;
+		this.size = size;
+		this.rewrites = rewrites;
+		this.nanos = nanos;
+	}
+
+	@Override
+	public String toString(){
+		return "Formula simplification: " + this.originalSize + " -> " + this.size + " nodes; "
+				+ this.rewrites + " rewrites, " + (this.nanos / 1000) + " us";
+	}
+
+	//<editor-fold desc="Getter Methods" defaultState="collapsed">
+	public LTLfFormula getOriginalFormula(){
+		return originalFormula;
+	}
+
+	public LTLfFormula getFormula(){
+		return formula;
+	}
+
+	/**
+	 * Returns the size of the given formula, i.e. the number of nodes of its syntax tree
+	 * @return the size before the simplification
+	 */
+	public long getOriginalSize(){
+		return originalSize;
+	}
+
+	/**
+	 * Returns the size of the simplified formula, i.e. the number of nodes of its syntax tree
+	 * @return the size after the simplification
+	 */
+	public long getSize(){
+		return size;
+	}
+
+	/**
+	 * Returns the number of rewriting rules that have been applied
+	 * @return the number of rewrites
+	 */
+	public int getRewrites(){
+		return rewrites;
+	}
+
+	public long getNanos(){
+		return nanos;
+	}
+	//</editor-fold>
+}
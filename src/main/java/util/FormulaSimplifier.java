@@ -0,0 +1,297 @@
+package util;
+
+import formula.ltlf.*;
+
+import java.util.ArrayDeque;
+import java.util.IdentityHashMap;
+
+/**
+ * FormulaSimplifier
+ * Rewrites an LTLf formula into an equivalent, smaller one before it is translated, so that the automaton is built
+ * from fewer subformulas. The formula is interned first, so that equal subformulas are recognised by identity, and is
+ * then simplified bottom up; every rule is sound on finite traces, including the empty one:
+ * <ul>
+ * <li>idempotence and absorption of conjunctions and disjunctions, e.g. a &amp; (a | b) = a</li>
+ * <li>propagation of the local constants, e.g. false &amp; a = false, true | a = true when a is local</li>
+ * <li>double negations, G G a = G a, F F a = F a, F false = X false = false</li>
+ * <li>G a &amp; G b = G (a &amp; b), F a | F b = F (a | b), X a &amp; X b = X (a &amp; b), and the like for X and WX</li>
+ * </ul>
+ * Simplifiers remember the formulas they have simplified, so that related formulas can share the work; they are not
+ * thread safe.
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public class FormulaSimplifier {
+
+	private final FormulaInterner interner;
+	private final IdentityHashMap<LTLfFormula, LTLfFormula> simplified;
+	private int rewrites;
+
+	/**
+	 * Instantiates a new FormulaSimplifier
+	 */
+	public FormulaSimplifier(){
+		this.interner = new FormulaInterner();
+		this.simplified = new IdentityHashMap<>();
+		this.rewrites = 0;
+	}
+
+	/**
+	 * Simplifies a formula
+	 * @param formula the formula
+	 * @return the simplified formula, equivalent to the given one, with the sizes before and after the rewriting
+	 */
+	public FormulaSimplification simplify(LTLfFormula formula){
+		long start = System.nanoTime();
+		int rewrites = this.rewrites;
+		LTLfFormula res = this.simplifyShared(this.interner.intern(formula));
+		long nanos = System.nanoTime() - start;
+
+		return new FormulaSimplification(formula, res, size(formula), size(res), this.rewrites - rewrites, nanos);
+	}
+
+	private LTLfFormula simplifyShared(LTLfFormula formula){
+		//Post order visit, with an explicit stack so that deep formulas do not overflow
+		ArrayDeque<LTLfFormula> stack = new ArrayDeque<>();
+		stack.push(formula);
+
+		while (!stack.isEmpty()){
+			LTLfFormula f = stack.peek();
+
+			if (this.simplified.containsKey(f)){
+				stack.pop();
+				continue;
+			}
+
+			LTLfFormula res;
+
+			if (f instanceof LTLfBinaryFormula){
+				LTLfFormula left = ((LTLfBinaryFormula) f).getLeftFormula();
+				LTLfFormula right = ((LTLfBinaryFormula) f).getRightFormula();
+
+				if (!this.simplified.containsKey(left) || !this.simplified.containsKey(right)){
+					stack.push(right);
+					stack.push(left);
+					continue;
+				}
+
+				res = this.make(FormulaInterner.rebuild(f, this.simplified.get(left), this.simplified.get(right)));
+			} else if (f instanceof LTLfUnaryFormula){
+				LTLfFormula nested = ((LTLfUnaryFormula) f).getNestedFormula();
+
+				if (!this.simplified.containsKey(nested)){
+					stack.push(nested);
+					continue;
+				}
+
+				res = this.make(FormulaInterner.rebuild(f, this.simplified.get(nested), null));
+			} else {
+				res = f;
+			}
+
+			this.simplified.put(f, res);
+			this.simplified.put(res, res);
+			stack.pop();
+		}
+
+		return this.simplified.get(formula);
+	}
+
+	//Shares and rewrites a node whose children are already simplified
+	private LTLfFormula make(LTLfFormula f){
+		LTLfFormula res = this.interner.internNode(f);
+
+		for (LTLfFormula next = this.rewrite(res); next != null; next = this.rewrite(res)){
+			this.rewrites++;
+			res = next;
+		}
+
+		return res;
+	}
+
+	//Applies the first rule that matches the root of a formula, returning null if none does
+	private LTLfFormula rewrite(LTLfFormula f){
+		if (isConjunction(f) || isDisjunction(f)){
+			return this.rewriteBinary((LTLfBinaryFormula) f, isConjunction(f));
+		} else if (f instanceof LTLfUnaryFormula){
+			return this.rewriteUnary((LTLfUnaryFormula) f);
+		}
+
+		return null;
+	}
+
+	private LTLfFormula rewriteBinary(LTLfBinaryFormula f, boolean conjunction){
+		LTLfFormula left = f.getLeftFormula();
+		LTLfFormula right = f.getRightFormula();
+
+		if (left == right){
+			return left;
+		}
+
+		//Local false is false everywhere, while local true is false on the empty trace only, like any local formula
+		if (left instanceof LTLfLocalFalseFormula){
+			return conjunction ? left : right;
+		}
+
+		if (right instanceof LTLfLocalFalseFormula){
+			return conjunction ? right : left;
+		}
+
+		if (left instanceof LTLfLocalTrueFormula && (isLocalConnective(f) || isLocal(right))){
+			return conjunction ? right : left;
+		}
+
+		if (right instanceof LTLfLocalTrueFormula && (isLocalConnective(f) || isLocal(left))){
+			return conjunction ? left : right;
+		}
+
+		//Absorption
+		if (hasOperand(right, !conjunction, left)){
+			return left;
+		}
+
+		if (hasOperand(left, !conjunction, right)){
+			return right;
+		}
+
+		if (!(f instanceof LTLfTempAndFormula || f instanceof LTLfTempOrFormula)){
+			return null;
+		}
+
+		//Distribution of the temporal operators over the connective
+		if (conjunction && left instanceof LTLfGloballyFormula && right instanceof LTLfGloballyFormula){
+			return this.make(new LTLfGloballyFormula(this.connect(left, right, true)));
+		}
+
+		if (!conjunction && left instanceof LTLfEventuallyFormula && right instanceof LTLfEventuallyFormula){
+			return this.make(new LTLfEventuallyFormula(this.connect(left, right, false)));
+		}
+
+		if (left instanceof LTLfNextFormula && right instanceof LTLfNextFormula){
+			return this.make(new LTLfNextFormula(this.connect(left, right, conjunction)));
+		}
+
+		if (left instanceof LTLfWeakNextFormula && right instanceof LTLfWeakNextFormula){
+			return this.make(new LTLfWeakNextFormula(this.connect(left, right, conjunction)));
+		}
+
+		return null;
+	}
+
+	//Temporal conjunction or disjunction of the operands of two unary formulas
+	private LTLfFormula connect(LTLfFormula left, LTLfFormula right, boolean conjunction){
+		LTLfFormula first = ((LTLfUnaryFormula) left).getNestedFormula();
+		LTLfFormula second = ((LTLfUnaryFormula) right).getNestedFormula();
+
+		return this.make(conjunction ? new LTLfTempAndFormula(first, second) : new LTLfTempOrFormula(first, second));
+	}
+
+	private LTLfFormula rewriteUnary(LTLfUnaryFormula f){
+		LTLfFormula nested = f.getNestedFormula();
+
+		if ((f instanceof LTLfTempNotFormula && nested instanceof LTLfTempNotFormula)
+				|| (f instanceof LTLfLocalNotFormula && nested instanceof LTLfLocalNotFormula)){
+			return ((LTLfUnaryFormula) nested).getNestedFormula();
+		}
+
+		if ((f instanceof LTLfGloballyFormula && nested instanceof LTLfGloballyFormula)
+				|| (f instanceof LTLfEventuallyFormula && nested instanceof LTLfEventuallyFormula)){
+			return nested;
+		}
+
+		if ((f instanceof LTLfEventuallyFormula || f instanceof LTLfNextFormula)
+				&& nested instanceof LTLfLocalFalseFormula){
+			return nested;
+		}
+
+		return null;
+	}
+
+	private static boolean isConjunction(LTLfFormula f){
+		return f instanceof LTLfTempAndFormula || f instanceof LTLfLocalAndFormula;
+	}
+
+	private static boolean isDisjunction(LTLfFormula f){
+		return f instanceof LTLfTempOrFormula || f instanceof LTLfLocalOrFormula;
+	}
+
+	private static boolean isLocalConnective(LTLfFormula f){
+		return f instanceof LTLfLocalAndFormula || f instanceof LTLfLocalOrFormula || f instanceof LTLfLocalNotFormula;
+	}
+
+	//Local formulas are false on the empty trace; local connectives are only built over local operands
+	private static boolean isLocal(LTLfFormula f){
+		return f instanceof LTLfLocalVar || f instanceof LTLfLocalTrueFormula || f instanceof LTLfLocalFalseFormula
+				|| isLocalConnective(f);
+	}
+
+	private static boolean hasOperand(LTLfFormula f, boolean conjunction, LTLfFormula operand){
+		return (conjunction ? isConjunction(f) : isDisjunction(f))
+				&& (((LTLfBinaryFormula) f).getLeftFormula() == operand
+				|| ((LTLfBinaryFormula) f).getRightFormula() == operand);
+	}
+
+	/**
+	 * Returns the size of a formula, i.e. the number of nodes of its syntax tree, counting shared subformulas once
+	 * for every occurrence
+	 * @param formula the formula
+	 * @return the size of the formula
+	 */
+	public static long size(LTLfFormula formula){
+		IdentityHashMap<LTLfFormula, Long> sizes = new IdentityHashMap<>();
+		ArrayDeque<LTLfFormula> stack = new ArrayDeque<>();
+		stack.push(formula);
+
+		while (!stack.isEmpty()){
+			LTLfFormula f = stack.peek();
+
+			if (sizes.containsKey(f)){
+				stack.pop();
+				continue;
+			}
+
+			if (f instanceof LTLfBinaryFormula){
+				LTLfFormula left = ((LTLfBinaryFormula) f).getLeftFormula();
+				LTLfFormula right = ((LTLfBinaryFormula) f).getRightFormula();
+
+				if (!sizes.containsKey(left) || !sizes.containsKey(right)){
+					stack.push(right);
+					stack.push(left);
+					continue;
+				}
+
+				sizes.put(f, 1L + sizes.get(left) + sizes.get(right));
+			} else if (f instanceof LTLfUnaryFormula){
+				LTLfFormula nested = ((LTLfUnaryFormula) f).getNestedFormula();
+
+				if (!sizes.containsKey(nested)){
+					stack.push(nested);
+					continue;
+				}
+
+				sizes.put(f, 1L + sizes.get(nested));
+			} else {
+				sizes.put(f, 1L);
+			}
+
+			stack.pop();
+		}
+
+		return sizes.get(formula);
+	}
+}
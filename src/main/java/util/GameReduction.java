@@ -0,0 +1,105 @@
+package util;
+
+import rationals.Automaton;
+
+/**
+ * GameReduction
+ * Result of AutomatonUtils.minimizeGameAutomaton: the reduced game automaton, with the reduction statistics.
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public class GameReduction {
+
+	private final Automaton automaton;
+
+	private final int originalStates;
+	private final int originalTransitions;
+	private final int states;
+	private final int transitions;
+	private final int deadStates;
+	private final int prunedMoves;
+	private final int rounds;
+	private final long nanos;
+
+	GameReduction(Automaton automaton, int originalStates, int originalTransitions, int states, int transitions,
+				  int deadStates, int prunedMoves, int rounds, long nanos){
+		this.automaton = automaton;
+		this.originalStates = originalStates;
+		this.originalTransitions = originalTransitions;
+		this.states = states;
+		this.transitions = transitions;
+		this.deadStates = deadStates;
+		this.prunedMoves = prunedMoves;
+		this.rounds = rounds;
+		this.nanos = nanos;
+	}
+
+	@Override
+	public String toString(){
+		return "Game reduction: " + this.originalStates + " -> " + this.states + " states, "
+				+ this.originalTransitions + " -> " + this.transitions + " transitions; "
+				+ this.deadStates + " dead states, " + this.prunedMoves + " pruned moves, "
+				+ this.rounds + " refinement rounds, " + (this.nanos / 1000000) + " ms";
+	}
+
+	//<editor-fold desc="Getter Methods" defaultState="collapsed">
+	public Automaton getAutomaton(){
+		return automaton;
+	}
+
+	public int getOriginalStates(){
+		return originalStates;
+	}
+
+	public int getOriginalTransitions(){
+		return originalTransitions;
+	}
+
+	public int getStates(){
+		return states;
+	}
+
+	public int getTransitions(){
+		return transitions;
+	}
+
+	/**
+	 * Returns the number of states that cannot reach a terminal state, and have been removed
+	 * @return the number of dead states
+	 */
+	public int getDeadStates(){
+		return deadStates;
+	}
+
+	/**
+	 * Returns the number of (state, system move) pairs that have been removed, because they lead to a dead state
+	 * @return the number of pruned moves
+	 */
+	public int getPrunedMoves(){
+		return prunedMoves;
+	}
+
+	public int getRounds(){
+		return rounds;
+	}
+
+	public long getNanos(){
+		return nanos;
+	}
+	//</editor-fold>
+}
@@ -1,12 +1,9 @@
 package util;
 
-import antlr4_generated.LTLfFormulaParserLexer;
-import antlr4_generated.LTLfFormulaParserParser;
 import formula.ltlf.LTLfFormula;
-import org.antlr.v4.runtime.ANTLRInputStream;
-import org.antlr.v4.runtime.CommonTokenStream;
-import org.antlr.v4.runtime.tree.ParseTree;
-import visitors.LTLfVisitors.LTLfVisitor;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * ParsingUtils
@@ -33,17 +30,23 @@ import visitors.LTLfVisitors.LTLfVisitor;
  */
 public class ParsingUtils {
 
+	/**
+	 * Parses a formula with the FormulaParser of the calling thread
+	 * @param input the formula
+	 * @return the parsed formula
+	 */
 	public static LTLfFormula parseLTLfFormula(String input){
-		LTLfFormula output;
-
-		LTLfFormulaParserLexer lexer = new LTLfFormulaParserLexer(new ANTLRInputStream(input));
-		LTLfFormulaParserParser parser = new LTLfFormulaParserParser(new CommonTokenStream(lexer));
-
-		ParseTree tree = parser.expression();
-
-		output = new LTLfVisitor().visit(tree);
+		return FormulaParser.get().parse(input);
+	}
 
-		return output;
+	/**
+	 * Parses a batch of formulas in parallel on the common pool, see FormulaParser.parseAll
+	 * @param inputs the formulas
+	 * @param interner if not null, the interner of the parsed formulas
+	 * @return the parsed formulas, in the order of the inputs
+	 */
+	public static List<LTLfFormula> parseLTLfFormulas(List<String> inputs, FormulaInterner interner){
+		return FormulaParser.parseAll(inputs, ForkJoinPool.commonPool(), interner);
 	}
 
 }
@@ -0,0 +1,131 @@
+package synthesis;
+
+import formula.ltlf.LTLfLocalVar;
+import org.junit.Test;
+import rationals.Automaton;
+import rationals.NoSuchStateException;
+import rationals.State;
+import rationals.Transition;
+import synthesis.symbols.PartitionedDomain;
+import synthesis.symbols.PropositionSet;
+import synthesis.symbols.SymbolTable;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * ParallelSolverTest
+ * Checks that SolverMode.PARALLEL finds the same solution of SolverMode.ARENA on random games, with pools of any size
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public class ParallelSolverTest {
+
+	private static final int GAMES = 20;
+
+	@Test
+	public void sameSolutionAsArena(){
+		PartitionedDomain domain = domain(2, 2);
+		Random random = new Random(42);
+
+		for (int i = 0; i < GAMES; i++){
+			Automaton game = randomGame(domain, 50 + random.nextInt(2000), random);
+			SynthesisAutomaton reference = new SynthesisAutomaton(domain, game,
+					new SynthesisOptions().setSolverMode(SolverMode.ARENA));
+
+			for (int threads = 1; threads <= 4; threads *= 2){
+				ForkJoinPool pool = new ForkJoinPool(threads);
+				SynthesisAutomaton sa = new SynthesisAutomaton(domain, game,
+						new SynthesisOptions().setSolverMode(SolverMode.PARALLEL).setPool(pool));
+
+				assertEquals(reference.isRealizable(), sa.isRealizable());
+				assertEquals(reference.getWinningStates(), sa.getWinningStates());
+				assertEquals(reference.getOutputFunction(), sa.getOutputFunction());
+
+				pool.shutdown();
+			}
+		}
+	}
+
+	@Test
+	public void sameRealizabilityAsArena(){
+		PartitionedDomain domain = domain(1, 2);
+		Random random = new Random(7);
+
+		for (int i = 0; i < GAMES; i++){
+			Automaton game = randomGame(domain, 50 + random.nextInt(2000), random);
+			SynthesisAutomaton reference = new SynthesisAutomaton(domain, game,
+					new SynthesisOptions().setSolverMode(SolverMode.ARENA).setRealizabilityOnly(true));
+			SynthesisAutomaton sa = new SynthesisAutomaton(domain, game,
+					new SynthesisOptions().setSolverMode(SolverMode.PARALLEL).setRealizabilityOnly(true));
+
+			assertEquals(reference.isRealizable(), sa.isRealizable());
+		}
+	}
+
+	//Good system moves go forward, bad ones jump anywhere, so that some games are won and others are not
+	private static Automaton randomGame(PartitionedDomain domain, int stateCount, Random random){
+		Automaton res = new Automaton();
+		State[] states = new State[stateCount];
+
+		for (int i = 0; i < stateCount; i++){
+			states[i] = res.addState(i == 0, i >= stateCount - Math.max(1, stateCount / 50));
+		}
+
+		int environmentMoves = 1 << domain.getEnvironmentIndex().size();
+		int systemMoves = 1 << domain.getSystemIndex().size();
+		SymbolTable symbols = domain.getSymbols();
+		int window = Math.max(1, stateCount / 16);
+
+		for (int i = 0; i < stateCount; i++){
+			for (int y = 0; y < systemMoves; y++){
+				boolean bad = random.nextInt(3) == 0;
+
+				for (int x = 0; x < environmentMoves; x++){
+					int target = bad ? random.nextInt(stateCount) : Math.min(stateCount - 1, i + 1 + random.nextInt(window));
+
+					try {
+						res.addTransition(new Transition<>(states[i],
+								symbols.label(symbols.environmentMask(x), symbols.systemMask(y)), states[target]));
+					} catch (NoSuchStateException e){
+						throw new RuntimeException(e);
+					}
+				}
+			}
+		}
+
+		return res;
+	}
+
+	private static PartitionedDomain domain(int environment, int system){
+		PropositionSet environmentDomain = new PropositionSet();
+		PropositionSet systemDomain = new PropositionSet();
+
+		for (int i = 0; i < environment; i++){
+			environmentDomain.add(new LTLfLocalVar("e" + i));
+		}
+
+		for (int j = 0; j < system; j++){
+			systemDomain.add(new LTLfLocalVar("s" + j));
+		}
+
+		return new PartitionedDomain(environmentDomain, systemDomain);
+	}
+}
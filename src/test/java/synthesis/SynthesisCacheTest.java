@@ -0,0 +1,143 @@
+package synthesis;
+
+import formula.ltlf.LTLfEventuallyFormula;
+import formula.ltlf.LTLfFormula;
+import formula.ltlf.LTLfGloballyFormula;
+import formula.ltlf.LTLfLocalAndFormula;
+import formula.ltlf.LTLfLocalNotFormula;
+import formula.ltlf.LTLfLocalVar;
+import formula.ltlf.LTLfNextFormula;
+import formula.ltlf.LTLfTempAndFormula;
+import formula.ltlf.LTLfTempOrFormula;
+import org.junit.Test;
+import synthesis.symbols.PartitionedDomain;
+import synthesis.symbols.PropositionSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * SynthesisCacheTest
+ * Checks that SynthesisCache shares entries only between specifications that are equal up to a renaming of the propositions
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public class SynthesisCacheTest {
+
+	@Test
+	public void renamedSpecificationHits(){
+		SynthesisCache cache = new SynthesisCache(16, Long.MAX_VALUE);
+		cache.getStrategyGenerator(domain(new String[]{"e0"}, new String[]{"s0", "s1"}), specification("e0", "s0", "s1"));
+
+		//q and p swap their order in the system index with respect to s0 and s1
+		PartitionedDomain domain = domain(new String[]{"x"}, new String[]{"q", "p"});
+		LTLfFormula formula = specification("x", "q", "p");
+		StrategyGenerator cached = cache.getStrategyGenerator(domain, formula);
+
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.size());
+		assertNotNull(cached);
+
+		StrategyGenerator fresh = new SynthesisAutomaton(domain, formula).getStrategyGenerator();
+		long environmentMoves = 1L << domain.getEnvironmentIndex().size();
+
+		for (long x = 0; x < environmentMoves; x++){
+			for (long y = 0; y < environmentMoves; y++){
+				cached.resetExecution();
+				fresh.resetExecution();
+
+				long move = cached.getFirstMoveMask();
+				assertEquals(fresh.getFirstMoveMask(), move);
+
+				move = cached.step(x);
+				assertEquals(fresh.step(x), move);
+
+				if (move != Strategy.SUCCESS){
+					assertEquals(fresh.step(y), cached.step(y));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void differentRolesMiss(){
+		SynthesisCache cache = new SynthesisCache(16, Long.MAX_VALUE);
+		cache.isRealizable(domain(new String[]{"e0"}, new String[]{"s0", "s1"}), specification("e0", "s0", "s1"));
+
+		PartitionedDomain domain = domain(new String[]{"s0"}, new String[]{"e0", "s1"});
+		LTLfFormula formula = specification("e0", "s0", "s1");
+
+		assertEquals(new SynthesisAutomaton(domain, formula).isRealizable(), cache.isRealizable(domain, formula));
+		assertEquals(0, cache.getHits());
+		assertEquals(2, cache.getMisses());
+		assertEquals(2, cache.size());
+	}
+
+	@Test
+	public void operatorNamesDoNotCollide(){
+		SynthesisCache cache = new SynthesisCache(16, Long.MAX_VALUE);
+
+		//Named like the operators they are nested in: printed alike, but one holds on the empty trace
+		PartitionedDomain eventuallyDomain = domain(new String[]{"F"}, new String[]{"b"});
+		LTLfFormula eventually = new LTLfEventuallyFormula(new LTLfLocalVar("F"));
+		PartitionedDomain globallyDomain = domain(new String[]{"G"}, new String[]{"b"});
+		LTLfFormula globally = new LTLfGloballyFormula(new LTLfLocalVar("G"));
+
+		assertFalse(cache.isRealizable(eventuallyDomain, eventually));
+		assertTrue(cache.isRealizable(globallyDomain, globally));
+		assertEquals(new SynthesisAutomaton(eventuallyDomain, eventually).isRealizable(),
+				cache.isRealizable(eventuallyDomain, eventually));
+		assertEquals(new SynthesisAutomaton(globallyDomain, globally).isRealizable(),
+				cache.isRealizable(globallyDomain, globally));
+		assertEquals(2, cache.getMisses());
+		assertEquals(2, cache.size());
+	}
+
+	//The system sets s0 and not s1, then answers the first move of the environment on s1
+	private static LTLfFormula specification(String e, String s0, String s1){
+		LTLfLocalVar environment = new LTLfLocalVar(e);
+		LTLfLocalVar first = new LTLfLocalVar(s0);
+		LTLfLocalVar second = new LTLfLocalVar(s1);
+
+		LTLfFormula onlyFirst = new LTLfLocalAndFormula(first, new LTLfLocalNotFormula(second));
+		LTLfFormula onlySecond = new LTLfLocalAndFormula(second, new LTLfLocalNotFormula(first));
+		LTLfFormula none = new LTLfLocalAndFormula(new LTLfLocalNotFormula(second), new LTLfLocalNotFormula(first));
+
+		return new LTLfTempOrFormula(
+				new LTLfTempAndFormula(new LTLfLocalAndFormula(environment, onlyFirst), new LTLfNextFormula(onlySecond)),
+				new LTLfTempAndFormula(new LTLfLocalAndFormula(new LTLfLocalNotFormula(environment), onlyFirst),
+						new LTLfNextFormula(none)));
+	}
+
+	private static PartitionedDomain domain(String[] environment, String[] system){
+		PropositionSet environmentDomain = new PropositionSet();
+		PropositionSet systemDomain = new PropositionSet();
+
+		for (String name : environment){
+			environmentDomain.add(new LTLfLocalVar(name));
+		}
+
+		for (String name : system){
+			systemDomain.add(new LTLfLocalVar(name));
+		}
+
+		return new PartitionedDomain(environmentDomain, systemDomain);
+	}
+}
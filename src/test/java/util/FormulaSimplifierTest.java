@@ -0,0 +1,301 @@
+package util;
+
+import formula.ltlf.*;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * FormulaSimplifierTest
+ * Checks every rule of the FormulaSimplifier, and that simplified formulas hold on exactly the same finite traces,
+ * the empty one included, as the original ones
+ *
+ * LTL-Synthesis. Perform LTL Synthesis on finite traces. Copyright (C) 2016 Simone Calciolari
+ *
+ * This file is part of LTL-Synthesis.
+ *
+ * LTL-Synthesis is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * LTL-Synthesis is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LTL-Synthesis. If not, see <http://www.gnu.org/licenses/>.
+ */
+public class FormulaSimplifierTest {
+
+	//Traces are checked exhaustively up to this length, over the propositions of NAMES
+	private static final int MAX_LENGTH = 4;
+
+	private static final String[] NAMES = {"a", "b", "c"};
+
+	private final LTLfLocalVar a = new LTLfLocalVar("a");
+	private final LTLfLocalVar b = new LTLfLocalVar("b");
+
+	@Test
+	public void idempotence(){
+		this.assertSimplifies(new LTLfLocalAndFormula(this.a, this.a), this.a);
+		this.assertSimplifies(new LTLfLocalOrFormula(this.a, this.a), this.a);
+		this.assertSimplifies(new LTLfTempAndFormula(new LTLfNextFormula(this.a), new LTLfNextFormula(this.a)),
+				new LTLfNextFormula(this.a));
+		this.assertSimplifies(new LTLfTempOrFormula(new LTLfGloballyFormula(this.a), new LTLfGloballyFormula(this.a)),
+				new LTLfGloballyFormula(this.a));
+	}
+
+	@Test
+	public void localFalse(){
+		LTLfFormula ga = new LTLfGloballyFormula(this.a);
+
+		this.assertSimplifies(new LTLfLocalAndFormula(new LTLfLocalFalseFormula(), this.a), new LTLfLocalFalseFormula());
+		this.assertSimplifies(new LTLfLocalOrFormula(this.a, new LTLfLocalFalseFormula()), this.a);
+		this.assertSimplifies(new LTLfTempAndFormula(ga, new LTLfLocalFalseFormula()), new LTLfLocalFalseFormula());
+		this.assertSimplifies(new LTLfTempOrFormula(new LTLfLocalFalseFormula(), ga), ga);
+	}
+
+	@Test
+	public void localTrue(){
+		this.assertSimplifies(new LTLfLocalAndFormula(new LTLfLocalTrueFormula(), this.a), this.a);
+		this.assertSimplifies(new LTLfLocalOrFormula(this.a, new LTLfLocalTrueFormula()), new LTLfLocalTrueFormula());
+		this.assertSimplifies(new LTLfTempAndFormula(this.a, new LTLfLocalTrueFormula()), this.a);
+		this.assertSimplifies(new LTLfTempOrFormula(new LTLfLocalTrueFormula(), this.b), new LTLfLocalTrueFormula());
+	}
+
+	@Test
+	public void localTrueOnEmptyTrace(){
+		//Local true is false on the empty trace, where G a and WX a hold: these must not be rewritten
+		this.assertUnchanged(new LTLfTempAndFormula(new LTLfLocalTrueFormula(), new LTLfGloballyFormula(this.a)));
+		this.assertUnchanged(new LTLfTempOrFormula(new LTLfWeakNextFormula(this.a), new LTLfLocalTrueFormula()));
+	}
+
+	@Test
+	public void absorption(){
+		this.assertSimplifies(new LTLfLocalAndFormula(this.a, new LTLfLocalOrFormula(this.a, this.b)), this.a);
+		this.assertSimplifies(new LTLfLocalOrFormula(new LTLfLocalAndFormula(this.b, this.a), this.a), this.a);
+
+		LTLfFormula ga = new LTLfGloballyFormula(this.a);
+		LTLfFormula xb = new LTLfNextFormula(this.b);
+		this.assertSimplifies(new LTLfTempAndFormula(ga, new LTLfTempOrFormula(xb, ga)), ga);
+		this.assertSimplifies(new LTLfTempOrFormula(new LTLfTempAndFormula(ga, xb), ga), ga);
+	}
+
+	@Test
+	public void distribution(){
+		this.assertSimplifies(new LTLfTempAndFormula(new LTLfGloballyFormula(this.a), new LTLfGloballyFormula(this.b)),
+				new LTLfGloballyFormula(new LTLfTempAndFormula(this.a, this.b)));
+		this.assertSimplifies(new LTLfTempOrFormula(new LTLfEventuallyFormula(this.a), new LTLfEventuallyFormula(this.b)),
+				new LTLfEventuallyFormula(new LTLfTempOrFormula(this.a, this.b)));
+		this.assertSimplifies(new LTLfTempAndFormula(new LTLfNextFormula(this.a), new LTLfNextFormula(this.b)),
+				new LTLfNextFormula(new LTLfTempAndFormula(this.a, this.b)));
+		this.assertSimplifies(new LTLfTempOrFormula(new LTLfNextFormula(this.a), new LTLfNextFormula(this.b)),
+				new LTLfNextFormula(new LTLfTempOrFormula(this.a, this.b)));
+		this.assertSimplifies(new LTLfTempAndFormula(new LTLfWeakNextFormula(this.a), new LTLfWeakNextFormula(this.b)),
+				new LTLfWeakNextFormula(new LTLfTempAndFormula(this.a, this.b)));
+		this.assertSimplifies(new LTLfTempOrFormula(new LTLfWeakNextFormula(this.a), new LTLfWeakNextFormula(this.b)),
+				new LTLfWeakNextFormula(new LTLfTempOrFormula(this.a, this.b)));
+
+		//G does not distribute over disjunctions, nor F over conjunctions
+		this.assertUnchanged(new LTLfTempOrFormula(new LTLfGloballyFormula(this.a), new LTLfGloballyFormula(this.b)));
+		this.assertUnchanged(new LTLfTempAndFormula(new LTLfEventuallyFormula(this.a), new LTLfEventuallyFormula(this.b)));
+	}
+
+	@Test
+	public void doubleNegation(){
+		this.assertSimplifies(new LTLfLocalNotFormula(new LTLfLocalNotFormula(this.a)), this.a);
+		this.assertSimplifies(new LTLfTempNotFormula(new LTLfTempNotFormula(new LTLfNextFormula(this.a))),
+				new LTLfNextFormula(this.a));
+	}
+
+	@Test
+	public void nestedTemporalOperators(){
+		this.assertSimplifies(new LTLfGloballyFormula(new LTLfGloballyFormula(this.a)), new LTLfGloballyFormula(this.a));
+		this.assertSimplifies(new LTLfEventuallyFormula(new LTLfEventuallyFormula(this.a)),
+				new LTLfEventuallyFormula(this.a));
+	}
+
+	@Test
+	public void falseOperands(){
+		this.assertSimplifies(new LTLfEventuallyFormula(new LTLfLocalFalseFormula()), new LTLfLocalFalseFormula());
+		this.assertSimplifies(new LTLfNextFormula(new LTLfLocalFalseFormula()), new LTLfLocalFalseFormula());
+
+		//Both hold on the empty trace, and on the last instant for WX
+		this.assertUnchanged(new LTLfGloballyFormula(new LTLfLocalFalseFormula()));
+		this.assertUnchanged(new LTLfWeakNextFormula(new LTLfLocalFalseFormula()));
+	}
+
+	@Test
+	public void randomFormulas(){
+		Random random = new Random(42);
+		FormulaSimplifier shared = new FormulaSimplifier();
+
+		for (int i = 0; i < 500; i++){
+			LTLfFormula formula = randomFormula(random, 5);
+			FormulaSimplification simplification = (i % 2 == 0 ? new FormulaSimplifier() : shared).simplify(formula);
+
+			assertEquals(FormulaSimplifier.size(simplification.getFormula()), simplification.getSize());
+			assertTrue(simplification.getSize() <= simplification.getOriginalSize());
+			assertEquivalent(formula, simplification.getFormula());
+		}
+	}
+
+	@Test
+	public void deepFormula(){
+		LTLfFormula formula = this.a;
+		for (int i = 0; i < 100000; i++){
+			formula = new LTLfTempAndFormula(new LTLfNextFormula(formula), new LTLfNextFormula(this.b));
+		}
+
+		FormulaSimplification simplification = new FormulaSimplifier().simplify(formula);
+		assertTrue(simplification.getSize() < simplification.getOriginalSize());
+	}
+
+	private void assertSimplifies(LTLfFormula formula, LTLfFormula expected){
+		FormulaSimplification simplification = new FormulaSimplifier().simplify(formula);
+
+		assertEquals(expected.toString(), simplification.getFormula().toString());
+		assertTrue(simplification.getRewrites() > 0);
+		assertEquivalent(formula, simplification.getFormula());
+	}
+
+	private void assertUnchanged(LTLfFormula formula){
+		FormulaSimplification simplification = new FormulaSimplifier().simplify(formula);
+
+		assertEquals(formula.toString(), simplification.getFormula().toString());
+		assertEquals(0, simplification.getRewrites());
+	}
+
+	//Checks both formulas on every trace up to MAX_LENGTH, starting from the empty one
+	private static void assertEquivalent(LTLfFormula expected, LTLfFormula actual){
+		for (int length = 0; length <= MAX_LENGTH; length++){
+			for (int trace = 0; trace < 1 << (NAMES.length * length); trace++){
+				boolean[][] t = new boolean[length][NAMES.length];
+
+				for (int i = 0; i < length; i++){
+					for (int p = 0; p < NAMES.length; p++){
+						t[i][p] = ((trace >>> (i * NAMES.length + p)) & 1) == 1;
+					}
+				}
+
+				assertEquals("Trace " + trace + " of length " + length + " of " + expected + " and " + actual,
+						holds(expected, t, 0), holds(actual, t, 0));
+			}
+		}
+	}
+
+	//Finite trace semantics; local formulas, true included, are false on the empty suffix
+	private static boolean holds(LTLfFormula f, boolean[][] trace, int i){
+		int n = trace.length;
+
+		if (f instanceof LTLfLocalVar){
+			return i < n && trace[i][index(f.toString())];
+		} else if (f instanceof LTLfLocalTrueFormula){
+			return i < n;
+		} else if (f instanceof LTLfLocalFalseFormula){
+			return false;
+		} else if (f instanceof LTLfLocalAndFormula || f instanceof LTLfTempAndFormula){
+			LTLfBinaryFormula binary = (LTLfBinaryFormula) f;
+			return holds(binary.getLeftFormula(), trace, i) && holds(binary.getRightFormula(), trace, i);
+		} else if (f instanceof LTLfLocalOrFormula || f instanceof LTLfTempOrFormula){
+			LTLfBinaryFormula binary = (LTLfBinaryFormula) f;
+			return holds(binary.getLeftFormula(), trace, i) || holds(binary.getRightFormula(), trace, i);
+		}
+
+		LTLfFormula nested = ((LTLfUnaryFormula) f).getNestedFormula();
+
+		if (f instanceof LTLfLocalNotFormula){
+			return i < n && !holds(nested, trace, i);
+		} else if (f instanceof LTLfTempNotFormula){
+			return !holds(nested, trace, i);
+		} else if (f instanceof LTLfNextFormula){
+			return i + 1 < n && holds(nested, trace, i + 1);
+		} else if (f instanceof LTLfWeakNextFormula){
+			return i + 1 >= n || holds(nested, trace, i + 1);
+		} else if (f instanceof LTLfEventuallyFormula){
+			for (int j = i; j < n; j++){
+				if (holds(nested, trace, j)){
+					return true;
+				}
+			}
+
+			return false;
+		} else if (f instanceof LTLfGloballyFormula){
+			for (int j = i; j < n; j++){
+				if (!holds(nested, trace, j)){
+					return false;
+				}
+			}
+
+			return true;
+		}
+
+		throw new RuntimeException("Unknown formula " + f);
+	}
+
+	private static int index(String name){
+		for (int p = 0; p < NAMES.length; p++){
+			if (NAMES[p].equals(name)){
+				return p;
+			}
+		}
+
+		throw new RuntimeException("Unknown proposition " + name);
+	}
+
+	private static LTLfFormula randomLocal(Random random, int depth){
+		switch (depth <= 0 ? random.nextInt(4) : random.nextInt(7)){
+			case 0:
+			case 1:
+				return new LTLfLocalVar(NAMES[random.nextInt(NAMES.length)]);
+			case 2:
+				return new LTLfLocalTrueFormula();
+			case 3:
+				return new LTLfLocalFalseFormula();
+			case 4:
+				return new LTLfLocalAndFormula(randomLocal(random, depth - 1), randomLocal(random, depth - 1));
+			case 5:
+				return new LTLfLocalOrFormula(randomLocal(random, depth - 1), randomLocal(random, depth - 1));
+			default:
+				return new LTLfLocalNotFormula(randomLocal(random, depth - 1));
+		}
+	}
+
+	//Random formulas, with repeated subformulas so that idempotence, absorption and distribution apply
+	private static LTLfFormula randomFormula(Random random, int depth){
+		if (depth <= 0 || random.nextInt(5) == 0){
+			return randomLocal(random, 1);
+		}
+
+		LTLfFormula f = randomFormula(random, depth - 1);
+
+		switch (random.nextInt(9)){
+			case 0:
+				return new LTLfTempAndFormula(f, randomFormula(random, depth - 1));
+			case 1:
+				return new LTLfTempOrFormula(f, randomFormula(random, depth - 1));
+			case 2:
+				return new LTLfTempNotFormula(f);
+			case 3:
+				return new LTLfNextFormula(f);
+			case 4:
+				return new LTLfWeakNextFormula(f);
+			case 5:
+				return new LTLfEventuallyFormula(f);
+			case 6:
+				return new LTLfGloballyFormula(f);
+			case 7:
+				return new LTLfTempAndFormula(f, new LTLfTempOrFormula(f, randomFormula(random, depth - 2)));
+			default:
+				return new LTLfTempOrFormula(new LTLfGloballyFormula(f), new LTLfGloballyFormula(
+						randomFormula(random, depth - 1)));
+		}
+	}
+}